@@ -34,13 +34,15 @@
 package net.imglib2.blocks;
 
 import java.util.List;
+import net.imglib2.Dirty;
 import net.imglib2.img.array.ArrayImg;
 import net.imglib2.img.basictypeaccess.array.ArrayDataAccess;
 
 import static net.imglib2.blocks.Ranges.Direction.CONSTANT;
 
 /**
- * Does the actual copying work from an {@code ArrayImg} into a primitive array.
+ * Does the actual copying work from an {@code ArrayImg} into a primitive array
+ * (and back).
  *
  * @param <T> a primitive array type, e.g., {@code byte[]}.
  */
@@ -50,6 +52,7 @@ class ArrayImgRangeCopier< S, T > implements RangeCopier< T >
 	private final int[] srcDims;
 	private final Ranges findRanges;
 	private final MemCopy< S, T > memCopy;
+	private final MemCopy< T, S > memCopyPut;
 	private final S oob;
 
 	private final List< Ranges.Range >[] rangesPerDimension;
@@ -61,11 +64,13 @@ class ArrayImgRangeCopier< S, T > implements RangeCopier< T >
 	private final int[] lengths;
 
 	private final S src;
+	private final Dirty dirty;
 
 	public ArrayImgRangeCopier(
 			final ArrayImg< ?, ? > arrayImg,
 			final Ranges findRanges,
 			final MemCopy< S, T > memCopy,
+			final MemCopy< T, S > memCopyPut,
 			final S oob )
 	{
 		n = arrayImg.numDimensions();
@@ -76,6 +81,7 @@ class ArrayImgRangeCopier< S, T > implements RangeCopier< T >
 
 		this.findRanges = findRanges;
 		this.memCopy = memCopy;
+		this.memCopyPut = memCopyPut;
 		this.oob = oob;
 
 		rangesPerDimension = new List[ n ];
@@ -86,7 +92,9 @@ class ArrayImgRangeCopier< S, T > implements RangeCopier< T >
 		csteps = new int[ n ];
 		lengths = new int[ n ];
 
-		src = ( S ) ( ( ArrayDataAccess< ? > ) arrayImg.update( null ) ).getCurrentStorageArray();
+		final ArrayDataAccess< ? > access = ( ArrayDataAccess< ? > ) arrayImg.update( null );
+		src = ( S ) access.getCurrentStorageArray();
+		dirty = access instanceof Dirty ? ( Dirty ) access : null;
 	}
 
 	// creates an independent copy of {@code other}
@@ -96,8 +104,10 @@ class ArrayImgRangeCopier< S, T > implements RangeCopier< T >
 		srcDims = copier.srcDims.clone();
 		findRanges = copier.findRanges;
 		memCopy = copier.memCopy;
+		memCopyPut = copier.memCopyPut;
 		oob = copier.oob;
 		src = copier.src;
+		dirty = copier.dirty;
 
 		rangesPerDimension = new List[ n ];
 		ranges = new Ranges.Range[ n ];
@@ -166,6 +176,60 @@ class ArrayImgRangeCopier< S, T > implements RangeCopier< T >
 		}
 	}
 
+	/**
+	 * Copy the (appropriately sized) {@code src} array into the block starting
+	 * at {@code destPos} with the given {@code size}.
+	 * <p>
+	 * This finds the dest range lists for all dimensions and then calls
+	 * {@link #put(Object, int)} to iterate all in-bounds range combinations.
+	 *
+	 * @param destPos
+	 * 		min coordinates of block to copy into dest Img.
+	 * @param src
+	 * 		source array. Type is {@code byte[]}, {@code float[]},
+	 * 		etc, corresponding to the dest Img's native type.
+	 * @param size
+	 * 		dimensions of block to copy into dest Img.
+	 */
+	@Override
+	public void put( final long[] destPos, final T src, final int[] size )
+	{
+		// find ranges
+		for ( int d = 0; d < n; ++d )
+			rangesPerDimension[ d ] = RangesImpl.FIND_RANGES_CONSTANT.findRanges( destPos[ d ], size[ d ], srcDims[ d ], srcDims[ d ] );
+
+		// copy data
+		setupDestSize( size );
+		put( src, n - 1 );
+	}
+
+	/**
+	 * Iterate the {@code rangesPerDimension} list for the given dimension
+	 * {@code d} and recursively call itself for iterating dimension {@code
+	 * d-1}. Out-of-bounds ({@code CONSTANT}) ranges are skipped.
+	 *
+	 * @param src
+	 * 		source array. Type is {@code byte[]}, {@code float[]},
+	 * 		etc, corresponding to the dest Img's native type.
+	 * @param d
+	 * 		current dimension. This method calls itself recursively with
+	 * 		        {@code d-1} until {@code d==0} is reached.
+	 */
+	private void put( final T src, final int d )
+	{
+		for ( Ranges.Range range : rangesPerDimension[ d ] )
+		{
+			if ( range.dir == CONSTANT )
+				continue;
+			ranges[ d ] = range;
+			updateRange( d );
+			if ( d > 0 )
+				put( src, d - 1 );
+			else
+				putRanges( src );
+		}
+	}
+
 	private void setupDestSize( final int[] size )
 	{
 		dsteps[ 0 ] = 1;
@@ -236,6 +300,46 @@ class ArrayImgRangeCopier< S, T > implements RangeCopier< T >
 		}
 	}
 
+	/**
+	 * Once we get here, {@link #setupDestSize} and {@link #updateRange} for
+	 * all dimensions have been called, so the {@code dsteps}, {@code
+	 * doffsets}, and {@code lengths} fields have been appropriately set up for
+	 * the current (in-bounds, {@code FORWARD}) Range combination.
+	 */
+	private void putRanges( final T src )
+	{
+		csteps[ 0 ] = 1;
+		for ( int d = 0; d < n - 1; ++d )
+			csteps[ d + 1 ] = csteps[ d ] * srcDims[ d ];
+
+		int dOffset = 0;
+		for ( int d = 0; d < n; ++d )
+			dOffset += csteps[ d ] * ranges[ d ].cellx;
+
+		final int sOffset = doffsets[ 0 ];
+
+		final S dest = this.src;
+		if ( n > 1 )
+			putRangesRecursively( src, sOffset, dest, dOffset, n - 1 );
+		else
+			memCopyPut.copyForward( src, sOffset, dest, dOffset, lengths[ 0 ] );
+
+		if ( dirty != null )
+			dirty.setDirty();
+	}
+
+	private void putRangesRecursively( final T src, final int srcPos, final S dest, final int destPos, final int d )
+	{
+		final int length = lengths[ d ];
+		final int cstep = csteps[ d ];
+		final int dstep = dsteps[ d ];
+		if ( d > 1 )
+			for ( int i = 0; i < length; ++i )
+				putRangesRecursively( src, srcPos + i * dstep, dest, destPos + i * cstep, d - 1 );
+		else
+			memCopyPut.copyLines( 1, lengths[ 0 ], length, src, srcPos, dstep, dest, destPos, cstep );
+	}
+
 	/**
      * Once we get here, {@link #setupDestSize} and {@link #updateRange} for
      * all dimensions have been called, so the {@code dsteps}, {@code
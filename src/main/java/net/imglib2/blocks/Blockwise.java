@@ -0,0 +1,451 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.blocks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import net.imglib2.RandomAccessible;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.converter.Converters;
+import net.imglib2.converter.RealDoubleConverter;
+import net.imglib2.img.cell.AbstractCellImg;
+import net.imglib2.img.cell.CellGrid;
+import net.imglib2.parallel.Parallelization;
+import net.imglib2.parallel.TaskExecutor;
+import net.imglib2.transform.integer.MixedTransform;
+import net.imglib2.type.NativeType;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.real.DoubleType;
+import net.imglib2.util.CloseableThreadLocal;
+import net.imglib2.util.Grid;
+import net.imglib2.util.Intervals;
+import net.imglib2.util.Util;
+
+/**
+ * Apply a {@link UnaryBlockOperator} block-by-block to compute a target
+ * {@code RandomAccessibleInterval} from a source {@code RandomAccessible}.
+ * <p>
+ * The target interval is split into blocks. For each block, the required
+ * source block (see {@link UnaryBlockOperator#getSourceBlock}) is copied out
+ * of the source using {@link PrimitiveBlocks#copy}, the operator computes the
+ * target block, and the result is written into the target using {@link
+ * PrimitiveBlocks#put}.
+ * <p>
+ * If the target is a {@code CellImg} (or a translated / cropped / sliced View
+ * of one) the blocks are aligned to the cells of the target. Otherwise, or if a
+ * block size is given explicitly, a regular grid starting at the min corner of
+ * the target interval is used.
+ * <p>
+ * Blocks are processed in parallel, using the {@link TaskExecutor} obtained from
+ * {@link Parallelization#getTaskExecutor()}. Each thread uses its own copies of
+ * the {@code PrimitiveBlocks} accessors and the operator, and reuses its
+ * primitive array buffers for all blocks it processes.
+ * <pre>{@code
+ * 		RandomAccessible< UnsignedShortType > source = Views.extendBorder( img );
+ * 		CellImg< FloatType, ? > target = new CellImgFactory<>( new FloatType(), 64 ).create( img );
+ * 		Blockwise.apply( source, target, operator );
+ * }</pre>
+ * The source must be defined (e.g., extended) everywhere the operator needs
+ * input. The target must be writable by {@link PrimitiveBlocks#put}, that is,
+ * it must not involve a {@code Converter}.
+ */
+public final class Blockwise
+{
+	private Blockwise()
+	{
+		// prevent from instantiation
+	}
+
+	/**
+	 * Process blocks of approximately this many elements, if the target does
+	 * not have a cell structure.
+	 */
+	private static final int DEFAULT_BLOCK_ELEMENTS = 1 << 18;
+
+	/**
+	 * Compute {@code target} from {@code source} by applying {@code operator}
+	 * block-by-block. If {@code target} is a {@code CellImg} (or a simple View
+	 * of one), blocks are aligned to its cells.
+	 *
+	 * @param source
+	 * 		source {@code RandomAccessible}. Must be defined everywhere the
+	 * 		operator requires input for computing {@code target}.
+	 * @param target
+	 * 		target {@code RandomAccessibleInterval}
+	 * @param operator
+	 * 		computes target blocks from source blocks
+	 * @param <S>
+	 * 		source pixel type
+	 * @param <T>
+	 * 		target pixel type
+	 */
+	public static < S extends NativeType< S >, T extends NativeType< T > > void apply(
+			final RandomAccessible< S > source,
+			final RandomAccessibleInterval< T > target,
+			final UnaryBlockOperator< S, T > operator )
+	{
+		apply( source, target, operator, grid( target ) );
+	}
+
+	/**
+	 * Compute {@code target} from {@code source} by applying {@code operator}
+	 * block-by-block, using blocks of the given {@code blockSize} (starting at
+	 * the min corner of {@code target}).
+	 *
+	 * @param source
+	 * 		source {@code RandomAccessible}. Must be defined everywhere the
+	 * 		operator requires input for computing {@code target}.
+	 * @param target
+	 * 		target {@code RandomAccessibleInterval}
+	 * @param operator
+	 * 		computes target blocks from source blocks
+	 * @param blockSize
+	 * 		size of target blocks
+	 * @param <S>
+	 * 		source pixel type
+	 * @param <T>
+	 * 		target pixel type
+	 */
+	public static < S extends NativeType< S >, T extends NativeType< T > > void apply(
+			final RandomAccessible< S > source,
+			final RandomAccessibleInterval< T > target,
+			final UnaryBlockOperator< S, T > operator,
+			final int... blockSize )
+	{
+		apply( source, target, operator, new Grid( target.dimensionsAsLongArray(), Util.int2long( blockSize ) ) );
+	}
+
+	private static < S extends NativeType< S >, T extends NativeType< T > > void apply(
+			final RandomAccessible< S > source,
+			final RandomAccessibleInterval< T > target,
+			final UnaryBlockOperator< S, T > operator,
+			final Grid grid )
+	{
+		if ( operator.numSourceDimensions() != source.numDimensions() )
+			throw new IllegalArgumentException( "operator expects " + operator.numSourceDimensions() + "-dimensional source" );
+		if ( operator.numTargetDimensions() != target.numDimensions() )
+			throw new IllegalArgumentException( "operator expects " + operator.numTargetDimensions() + "-dimensional target" );
+
+		final PrimitiveBlocks< S > sourceBlocks = PrimitiveBlocks.of( source );
+		final PrimitiveBlocks< T > targetBlocks = PrimitiveBlocks.of( target );
+		final long[] min = target.minAsLongArray();
+
+		final TaskExecutor taskExecutor = Parallelization.getTaskExecutor();
+		final long numBlocks = Intervals.numElements( grid.getGridDimensions() );
+		final int numTasks = ( int ) Math.min( numBlocks, taskExecutor.suggestNumberOfTasks() );
+
+		// split flattened block indices into contiguous ranges, one per task
+		final List< long[] > ranges = new ArrayList<>( numTasks );
+		for ( int i = 0; i < numTasks; ++i )
+			ranges.add( new long[] { numBlocks * i / numTasks, numBlocks * ( i + 1 ) / numTasks } );
+
+		try ( final CloseableThreadLocal< BlockTask< S, T > > blockTask = CloseableThreadLocal.withInitial(
+				() -> new BlockTask<>( sourceBlocks, targetBlocks, operator, grid, min ) ) )
+		{
+			taskExecutor.forEach( ranges, range -> {
+				final BlockTask< S, T > task = blockTask.get();
+				for ( long i = range[ 0 ]; i < range[ 1 ]; ++i )
+					task.process( i );
+			} );
+		}
+	}
+
+	/**
+	 * Per-thread state for processing blocks: independent copies of the
+	 * source/target accessors and the operator, and reusable buffers.
+	 */
+	private static class BlockTask< S extends NativeType< S >, T extends NativeType< T > >
+	{
+		private final PrimitiveBlocks< S > sourceBlocks;
+
+		private final PrimitiveBlocks< T > targetBlocks;
+
+		private final UnaryBlockOperator< S, T > operator;
+
+		private final Grid grid;
+
+		private final long[] min;
+
+		private final TempArray< ? > sourceBuffer;
+
+		private final TempArray< ? > targetBuffer;
+
+		private final long[] blockMin;
+
+		private final long[] blockDims;
+
+		private final long[] targetPos;
+
+		private final int[] targetSize;
+
+		private final long[] sourcePos;
+
+		private final int[] sourceSize;
+
+		BlockTask(
+				final PrimitiveBlocks< S > sourceBlocks,
+				final PrimitiveBlocks< T > targetBlocks,
+				final UnaryBlockOperator< S, T > operator,
+				final Grid grid,
+				final long[] min )
+		{
+			this.sourceBlocks = sourceBlocks.independentCopy();
+			this.targetBlocks = targetBlocks.independentCopy();
+			this.operator = operator.independentCopy();
+			this.grid = grid;
+			this.min = min;
+			sourceBuffer = TempArray.forPrimitiveType( sourceBlocks.getType().getNativeTypeFactory().getPrimitiveType() );
+			targetBuffer = TempArray.forPrimitiveType( targetBlocks.getType().getNativeTypeFactory().getPrimitiveType() );
+			final int n = min.length;
+			blockMin = new long[ n ];
+			blockDims = new long[ n ];
+			targetPos = new long[ n ];
+			targetSize = new int[ n ];
+			sourcePos = new long[ operator.numSourceDimensions() ];
+			sourceSize = new int[ operator.numSourceDimensions() ];
+		}
+
+		/**
+		 * Compute the block with the given flattened grid {@code index}.
+		 */
+		void process( final long index )
+		{
+			grid.getCellDimensions( index, blockMin, blockDims );
+			for ( int d = 0; d < min.length; ++d )
+			{
+				targetPos[ d ] = min[ d ] + blockMin[ d ];
+				targetSize[ d ] = ( int ) blockDims[ d ];
+			}
+			operator.getSourceBlock( targetPos, targetSize, sourcePos, sourceSize );
+
+			final Object src = sourceBuffer.get( safeInt( Intervals.numElements( sourceSize ) ) );
+			final Object dest = targetBuffer.get( safeInt( Intervals.numElements( targetSize ) ) );
+			sourceBlocks.copy( sourcePos, src, sourceSize );
+			operator.compute( src, sourceSize, dest, targetSize );
+			targetBlocks.put( targetPos, dest, targetSize );
+		}
+
+		private static int safeInt( final long value )
+		{
+			if ( value > Integer.MAX_VALUE )
+				throw new IllegalArgumentException( "block too large: " + value + " elements" );
+			return ( int ) value;
+		}
+	}
+
+	/**
+	 * Accumulates the values of a block into a partial result of type
+	 * {@code S}.
+	 */
+	@FunctionalInterface
+	public interface BlockAccumulator< S >
+	{
+		/**
+		 * Add {@code values[offset]} to {@code values[offset + length - 1]}
+		 * to {@code partial}.
+		 */
+		void accept( S partial, double[] values, int offset, int length );
+	}
+
+	/**
+	 * Reduce the values of {@code img} block-by-block.
+	 * <p>
+	 * Blocks are copied into {@code double[]} arrays using {@link
+	 * PrimitiveBlocks}, which has fast paths for {@code ArrayImg}, {@code
+	 * PlanarImg}, {@code CellImg}, and simple Views of them. If {@code img} is
+	 * a {@code CellImg}, blocks are aligned to its cells (see {@link #grid}).
+	 * Blocks are processed in parallel, using the {@link TaskExecutor}
+	 * obtained from {@link Parallelization#getTaskExecutor()}. Each task
+	 * accumulates a contiguous range of blocks into its own partial result,
+	 * created by {@code create}. Finally, the partial results are merged, in
+	 * order, into the first one, which is returned.
+	 *
+	 * @param img
+	 * 		the image to reduce
+	 * @param create
+	 * 		creates an empty partial result
+	 * @param accumulator
+	 * 		adds the values of a block to a partial result
+	 * @param merge
+	 * 		adds the second partial result to the first one
+	 */
+	public static < T extends RealType< T >, S > S reduce(
+			final RandomAccessibleInterval< T > img,
+			final Supplier< S > create,
+			final BlockAccumulator< S > accumulator,
+			final BiConsumer< S, S > merge )
+	{
+		return reduceIndexed( img, i -> create.get(), accumulator, merge );
+	}
+
+	/**
+	 * Reduce the values of {@code img} block-by-block, like {@link
+	 * #reduce(RandomAccessibleInterval, Supplier, BlockAccumulator,
+	 * BiConsumer)}. The partial result for the {@code i}-th range of blocks
+	 * is created by {@code create.apply(i)}. This can be used to make partial
+	 * results depend on the range (for example, to seed randomized
+	 * summaries), independent of which thread processes it.
+	 *
+	 * @param img
+	 * 		the image to reduce
+	 * @param create
+	 * 		creates an empty partial result for the range with the given index
+	 * @param accumulator
+	 * 		adds the values of a block to a partial result
+	 * @param merge
+	 * 		adds the second partial result to the first one
+	 */
+	public static < T extends RealType< T >, S > S reduceIndexed(
+			final RandomAccessibleInterval< T > img,
+			final IntFunction< S > create,
+			final BlockAccumulator< S > accumulator,
+			final BiConsumer< S, S > merge )
+	{
+		final RandomAccessibleInterval< DoubleType > doubles = Converters.convert( img, new RealDoubleConverter<>(), new DoubleType() );
+		final PrimitiveBlocks< DoubleType > blocks = PrimitiveBlocks.of( doubles, PrimitiveBlocks.OnFallback.ACCEPT );
+		final Grid grid = grid( doubles );
+		final long[] min = img.minAsLongArray();
+
+		final TaskExecutor taskExecutor = Parallelization.getTaskExecutor();
+		final long numBlocks = Intervals.numElements( grid.getGridDimensions() );
+		final int numTasks = ( int ) Math.max( 1, Math.min( numBlocks, taskExecutor.suggestNumberOfTasks() ) );
+
+		// split flattened block indices into contiguous ranges, one per task
+		// (the third element is the index of the range)
+		final List< long[] > ranges = new ArrayList<>( numTasks );
+		for ( int i = 0; i < numTasks; ++i )
+			ranges.add( new long[] { numBlocks * i / numTasks, numBlocks * ( i + 1 ) / numTasks, i } );
+
+		final List< S > partials = taskExecutor.forEachApply( ranges, range -> {
+			final PrimitiveBlocks< DoubleType > taskBlocks = blocks.independentCopy();
+			final S partial = create.apply( ( int ) range[ 2 ] );
+			final int n = min.length;
+			final long[] blockMin = new long[ n ];
+			final long[] blockDims = new long[ n ];
+			final long[] pos = new long[ n ];
+			final int[] size = new int[ n ];
+			double[] buffer = new double[ 0 ];
+			for ( long i = range[ 0 ]; i < range[ 1 ]; ++i )
+			{
+				grid.getCellDimensions( i, blockMin, blockDims );
+				for ( int d = 0; d < n; ++d )
+				{
+					pos[ d ] = min[ d ] + blockMin[ d ];
+					size[ d ] = ( int ) blockDims[ d ];
+				}
+				final int length = ( int ) Intervals.numElements( size );
+				if ( buffer.length < length )
+					buffer = new double[ length ];
+				taskBlocks.copy( pos, buffer, size );
+				accumulator.accept( partial, buffer, 0, length );
+			}
+			return partial;
+		} );
+
+		final S result = partials.get( 0 );
+		for ( int i = 1; i < partials.size(); ++i )
+			merge.accept( result, partials.get( i ) );
+		return result;
+	}
+
+	/**
+	 * Get the grid of blocks that {@link #apply(RandomAccessible,
+	 * RandomAccessibleInterval, UnaryBlockOperator)} uses for {@code target}:
+	 * If {@code target} is a {@code CellImg} (or a simple View of one), blocks
+	 * are aligned to its cells. Otherwise, blocks of a default size start at
+	 * the min corner of {@code target}.
+	 * <p>
+	 * Block positions of the returned grid are relative to the min corner of
+	 * {@code target}.
+	 */
+	public static < T extends NativeType< T > > Grid grid( final RandomAccessibleInterval< T > target )
+	{
+		final Grid grid = cellAlignedGrid( target );
+		return grid != null
+				? grid
+				: new Grid( target.dimensionsAsLongArray(), Util.int2long( defaultBlockSize( target ) ) );
+	}
+
+	/**
+	 * Choose block size with about {@link #DEFAULT_BLOCK_ELEMENTS} elements,
+	 * equal in all dimensions (but not larger than the target).
+	 */
+	static int[] defaultBlockSize( final RandomAccessibleInterval< ? > target )
+	{
+		final int n = target.numDimensions();
+		final int edge = Math.max( 1, ( int ) Math.pow( DEFAULT_BLOCK_ELEMENTS, 1.0 / n ) );
+		final int[] blockSize = new int[ n ];
+		for ( int d = 0; d < n; ++d )
+			blockSize[ d ] = ( int ) Math.min( edge, target.dimension( d ) );
+		return blockSize;
+	}
+
+	/**
+	 * If {@code target} is a {@code AbstractCellImg}, or a View of one that
+	 * does not permute or invert axes, return a {@code Grid} on the {@code
+	 * target} interval that is aligned to the cells of the image. Otherwise,
+	 * return {@code null}.
+	 */
+	static < T extends NativeType< T > > Grid cellAlignedGrid( final RandomAccessibleInterval< T > target )
+	{
+		final ViewPropertiesOrError< T, ? > props = ViewAnalyzer.getViewProperties( target );
+		if ( !props.isFullySupported() )
+			return null;
+
+		final ViewProperties< T, ? > viewProperties = props.getViewProperties();
+		if ( !( viewProperties.getRoot() instanceof AbstractCellImg ) || viewProperties.hasPermuteInvertTransform() )
+			return null;
+
+		final CellGrid cellGrid = ( ( AbstractCellImg< ?, ?, ?, ? > ) viewProperties.getRoot() ).getCellGrid();
+		final MixedTransform transform = viewProperties.getTransform();
+		final int n = target.numDimensions();
+		final long[] cellDims = new long[ n ];
+		final long[] offset = new long[ n ];
+		for ( int d = 0; d < transform.numTargetDimensions(); ++d )
+		{
+			if ( !transform.getComponentZero( d ) )
+			{
+				final int c = transform.getComponentMapping( d );
+				cellDims[ c ] = cellGrid.cellDimension( d );
+				// grid lines are at target coordinates where the root coordinate is a multiple of the cell size
+				offset[ c ] = -transform.getTranslation( d ) - target.min( c );
+			}
+		}
+		return new Grid( target.dimensionsAsLongArray(), cellDims, offset );
+	}
+}
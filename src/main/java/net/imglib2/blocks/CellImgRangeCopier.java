@@ -34,17 +34,20 @@
 package net.imglib2.blocks;
 
 import java.util.List;
+import net.imglib2.Dirty;
 import net.imglib2.RandomAccess;
 import net.imglib2.img.basictypeaccess.array.ArrayDataAccess;
 import net.imglib2.img.cell.AbstractCellImg;
 import net.imglib2.img.cell.Cell;
 import net.imglib2.img.cell.CellGrid;
+import net.imglib2.img.cell.PrefetchableCellImg;
+import net.imglib2.util.IntervalIndexer;
 
 import static net.imglib2.blocks.Ranges.Direction.CONSTANT;
 
 /**
  * Does the actual copying work from an {@code AbstractCellImg} into a primitive
- * array.
+ * array (and back).
  *
  * @param <T> a primitive array type, e.g., {@code byte[]}.
  */
@@ -56,7 +59,9 @@ class CellImgRangeCopier< S, T > implements RangeCopier< T >
 	private final long[] srcDims;
 	private final Ranges findRanges;
 	private final MemCopy< S, T > memCopy;
+	private final MemCopy< T, S > memCopyPut;
 	private final S oob;
+	private final PrefetchableCellImg prefetcher;
 
 	private final List< Ranges.Range >[] rangesPerDimension;
 	private final Ranges.Range[] ranges;
@@ -66,11 +71,14 @@ class CellImgRangeCopier< S, T > implements RangeCopier< T >
 	private final int[] cdims;
 	private final int[] csteps;
 	private final int[] lengths;
+	private final long[] gridDims;
+	private final long[] gridPos;
 
 	public CellImgRangeCopier(
 			final AbstractCellImg< ?, ?, ?, ? > cellImg,
 			final Ranges findRanges,
 			final MemCopy< S, T > memCopy,
+			final MemCopy< T, S > memCopyPut,
 			final S oob )
 	{
 		n = cellImg.numDimensions();
@@ -80,7 +88,9 @@ class CellImgRangeCopier< S, T > implements RangeCopier< T >
 
 		this.findRanges = findRanges;
 		this.memCopy = memCopy;
+		this.memCopyPut = memCopyPut;
 		this.oob = oob;
+		prefetcher = cellImg instanceof PrefetchableCellImg ? ( PrefetchableCellImg ) cellImg : null;
 
 		rangesPerDimension = new List[ n ];
 		ranges = new Ranges.Range[ n ];
@@ -90,6 +100,8 @@ class CellImgRangeCopier< S, T > implements RangeCopier< T >
 		cdims = new int[ n ];
 		csteps = new int[ n ];
 		lengths = new int[ n ];
+		gridDims = cellGrid.getGridDimensions();
+		gridPos = new long[ n ];
 	}
 
 	// creates an independent copy of {@code other}
@@ -101,7 +113,9 @@ class CellImgRangeCopier< S, T > implements RangeCopier< T >
 		srcDims = copier.srcDims.clone();
 		findRanges = copier.findRanges;
 		memCopy = copier.memCopy;
+		memCopyPut = copier.memCopyPut;
 		oob = copier.oob;
+		prefetcher = copier.prefetcher;
 
 		rangesPerDimension = new List[ n ];
 		ranges = new Ranges.Range[ n ];
@@ -110,6 +124,8 @@ class CellImgRangeCopier< S, T > implements RangeCopier< T >
 		cdims = new int[ n ];
 		csteps = new int[ n ];
 		lengths = new int[ n ];
+		gridDims = cellGrid.getGridDimensions();
+		gridPos = new long[ n ];
 	}
 
 	@Override
@@ -140,11 +156,33 @@ class CellImgRangeCopier< S, T > implements RangeCopier< T >
 		for ( int d = 0; d < n; ++d )
 			rangesPerDimension[ d ] = findRanges.findRanges( srcPos[ d ], size[ d ], srcDims[ d ], cellGrid.cellDimension( d ) );
 
+		// start loading all cells asynchronously
+		if ( prefetcher != null && prefetcher.isPrefetching() )
+			prefetch( n - 1 );
+
 		// copy data
 		setupDestSize( size );
 		copy( dest, n - 1 );
 	}
 
+	/**
+	 * Request prefetching of the cells of all range combinations in dimensions
+	 * {@code 0..d}, in flat iteration order of the cell grid.
+	 */
+	private void prefetch( final int d )
+	{
+		for ( Ranges.Range range : rangesPerDimension[ d ] )
+		{
+			if ( range.dir == CONSTANT )
+				continue;
+			gridPos[ d ] = range.gridx;
+			if ( d > 0 )
+				prefetch( d - 1 );
+			else
+				prefetcher.prefetch( IntervalIndexer.positionToIndex( gridPos, gridDims ) );
+		}
+	}
+
 	/**
 	 * Iterates the {@code rangesPerDimension} list for the given dimension {@code d}
 	 * and recursively calls itself for iterating dimension {@code d-1}.
@@ -171,6 +209,60 @@ class CellImgRangeCopier< S, T > implements RangeCopier< T >
 		}
 	}
 
+	/**
+	 * Copy the (appropriately sized) {@code src} array into the block starting
+	 * at {@code destPos} with the given {@code size}.
+	 * <p>
+	 * This finds the dest range lists for all dimensions and then calls
+	 * {@link #put(Object, int)} to iterate all in-bounds range combinations.
+	 *
+	 * @param destPos
+	 * 		min coordinates of block to copy into dest Img.
+	 * @param src
+	 * 		source array. Type is {@code byte[]}, {@code float[]},
+	 * 		etc, corresponding to the dest Img's native type.
+	 * @param size
+	 * 		dimensions of block to copy into dest Img.
+	 */
+	@Override
+	public void put( final long[] destPos, final T src, final int[] size )
+	{
+		// find ranges
+		for ( int d = 0; d < n; ++d )
+			rangesPerDimension[ d ] = RangesImpl.FIND_RANGES_CONSTANT.findRanges( destPos[ d ], size[ d ], srcDims[ d ], cellGrid.cellDimension( d ) );
+
+		// copy data
+		setupDestSize( size );
+		put( src, n - 1 );
+	}
+
+	/**
+	 * Iterate the {@code rangesPerDimension} list for the given dimension
+	 * {@code d} and recursively call itself for iterating dimension {@code
+	 * d-1}. Out-of-bounds ({@code CONSTANT}) ranges are skipped.
+	 *
+	 * @param src
+	 * 		source array. Type is {@code byte[]}, {@code float[]},
+	 * 		etc, corresponding to the dest Img's native type.
+	 * @param d
+	 * 		current dimension. This method calls itself recursively with
+	 * 		        {@code d-1} until {@code d==0} is reached.
+	 */
+	private void put( final T src, final int d )
+	{
+		for ( Ranges.Range range : rangesPerDimension[ d ] )
+		{
+			if ( range.dir == CONSTANT )
+				continue;
+			ranges[ d ] = range;
+			updateRange( d );
+			if ( d > 0 )
+				put( src, d - 1 );
+			else
+				putRanges( src );
+		}
+	}
+
 	private void setupDestSize( final int[] size )
 	{
 		dsteps[ 0 ] = 1;
@@ -218,7 +310,7 @@ class CellImgRangeCopier< S, T > implements RangeCopier< T >
 
 		final int dOffset = doffsets[ 0 ];
 
-		final S src = ( S ) ( ( ArrayDataAccess< ? > ) cellAccess.get().getData() ).getCurrentStorageArray();
+		final S src = ( S ) ( ( ArrayDataAccess< ? > ) cellAccess.get().getData() ).getCurrentStorageArrayForReading();
 		if ( n > 1 )
 			copyRangesRecursively( src, sOffset, dest, dOffset, n - 1 );
 		else
@@ -245,6 +337,49 @@ class CellImgRangeCopier< S, T > implements RangeCopier< T >
 		}
 	}
 
+	/**
+	 * Once we get here, {@link #setupDestSize} and {@link #updateRange} for
+	 * all dimensions have been called, so the {@code dsteps}, {@code
+	 * doffsets}, {@code cdims}, and {@code lengths} fields have been
+	 * appropriately set up for the current (in-bounds, {@code FORWARD}) Range
+	 * combination. Also {@code cellAccess} is positioned on the corresponding
+	 * cell.
+	 */
+	private void putRanges( final T src )
+	{
+		csteps[ 0 ] = 1;
+		for ( int d = 0; d < n - 1; ++d )
+			csteps[ d + 1 ] = csteps[ d ] * cdims[ d ];
+
+		int dOffset = 0;
+		for ( int d = 0; d < n; ++d )
+			dOffset += csteps[ d ] * ranges[ d ].cellx;
+
+		final int sOffset = doffsets[ 0 ];
+
+		final ArrayDataAccess< ? > access = ( ArrayDataAccess< ? > ) cellAccess.get().getData();
+		final S dest = ( S ) access.getCurrentStorageArray();
+		if ( n > 1 )
+			putRangesRecursively( src, sOffset, dest, dOffset, n - 1 );
+		else
+			memCopyPut.copyForward( src, sOffset, dest, dOffset, lengths[ 0 ] );
+
+		if ( access instanceof Dirty )
+			( ( Dirty ) access ).setDirty();
+	}
+
+	private void putRangesRecursively( final T src, final int srcPos, final S dest, final int destPos, final int d )
+	{
+		final int length = lengths[ d ];
+		final int cstep = csteps[ d ];
+		final int dstep = dsteps[ d ];
+		if ( d > 1 )
+			for ( int i = 0; i < length; ++i )
+				putRangesRecursively( src, srcPos + i * dstep, dest, destPos + i * cstep, d - 1 );
+		else
+			memCopyPut.copyLines( 1, lengths[ 0 ], length, src, srcPos, dstep, dest, destPos, cstep );
+	}
+
 	/**
      * Once we get here, {@link #setupDestSize} and {@link #updateRange} for
      * all dimensions have been called, so the {@code dsteps}, {@code
@@ -35,9 +35,12 @@ package net.imglib2.blocks;
 
 import java.util.function.Supplier;
 import net.imglib2.converter.Converter;
+import net.imglib2.converter.RealDoubleConverter;
+import net.imglib2.converter.RealFloatConverter;
 import net.imglib2.type.NativeType;
 import net.imglib2.type.numeric.integer.UnsignedByteType;
 import net.imglib2.type.numeric.integer.UnsignedShortType;
+import net.imglib2.type.numeric.real.DoubleType;
 import net.imglib2.type.numeric.real.FloatType;
 
 /*
@@ -51,6 +54,8 @@ TODO: Performance of Convert is very unstable.
       See ConvertBenchmark.
 
 TODO: Implement more special case converters.
+      RealFloatConverter and RealDoubleConverter are mapped to the generated ConvertLoops.
+      (Other Converters have to be called per pixel, because their semantics is unknown.)
 */
 interface Convert
 {
@@ -63,6 +68,17 @@ interface Convert
 			final B destType,
 			final Supplier< Converter< A, B > > converterSupplier )
 	{
+		// Converters with known semantics are replaced by generated loops
+		final ConvertLoops.Kind srcKind = ConvertLoops.kind( srcType );
+		if ( srcKind != null )
+		{
+			final Class< ? > converterClass = converterSupplier.get().getClass();
+			if ( converterClass == RealFloatConverter.class && destType instanceof FloatType )
+				return new ConvertImpl.ConvertLoop( ConvertLoops.loop( srcKind, ConvertLoops.Kind.FLOAT, false ) );
+			if ( converterClass == RealDoubleConverter.class && destType instanceof DoubleType )
+				return new ConvertImpl.ConvertLoop( ConvertLoops.loop( srcKind, ConvertLoops.Kind.DOUBLE, false ) );
+		}
+
 		if ( srcType instanceof UnsignedByteType )
 		{
 			if ( destType instanceof FloatType )
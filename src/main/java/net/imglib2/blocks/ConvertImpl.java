@@ -49,6 +49,32 @@ import net.imglib2.type.numeric.real.FloatType;
 
 class ConvertImpl
 {
+	/**
+	 * {@code Convert} using a (generated) {@link ConvertLoops.Loop}, for
+	 * converters whose semantics are known, e.g., {@code RealFloatConverter}.
+	 */
+	static class ConvertLoop implements Convert
+	{
+		private final ConvertLoops.Loop loop;
+
+		ConvertLoop( final ConvertLoops.Loop loop )
+		{
+			this.loop = loop;
+		}
+
+		@Override
+		public void convert( final Object src, final Object dest, final int length )
+		{
+			loop.apply( src, dest, length );
+		}
+
+		@Override
+		public Convert newInstance()
+		{
+			return this;
+		}
+	}
+
 	static class Convert_UnsignedShortType_FloatType implements Convert
 	{
 		private final Supplier< Converter< UnsignedShortType, FloatType > > converterSupplier;
@@ -0,0 +1,3001 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.blocks;
+
+import net.imglib2.type.NativeType;
+import net.imglib2.type.numeric.integer.ByteType;
+import net.imglib2.type.numeric.integer.IntType;
+import net.imglib2.type.numeric.integer.LongType;
+import net.imglib2.type.numeric.integer.ShortType;
+import net.imglib2.type.numeric.integer.UnsignedByteType;
+import net.imglib2.type.numeric.integer.UnsignedIntType;
+import net.imglib2.type.numeric.integer.UnsignedShortType;
+import net.imglib2.type.numeric.real.DoubleType;
+import net.imglib2.type.numeric.real.FloatType;
+import net.imglib2.util.Util;
+
+/*
+ * This is autogenerated source code -- DO NOT EDIT. Instead, edit the
+ * corresponding template in templates/ and rerun bin/generate.groovy.
+ */
+
+/**
+ * Loops that convert between the primitive storage arrays of {@code RealType}s,
+ * for all combinations of the supported source and target {@link Kind}s.
+ * <p>
+ * Conversion to integer types rounds (like {@code setReal(double)}). There are
+ * three variants of each loop:
+ * <ul>
+ * <li>{@code convert} casts values into the target type. Values that are out
+ * of range of an integer target type wrap around (like {@code setInteger()}).
+ * </li>
+ * <li>{@code convertClamp} clamps values to the range of an integer target
+ * type.</li>
+ * <li>{@code convertLinear} computes {@code v * scale + offset} (in
+ * {@code double}) and clamps the result to the range of an integer target
+ * type.</li>
+ * </ul>
+ * The loops are simple counted loops over primitive arrays, which the JIT
+ * compiler can unroll and (for many type combinations) auto-vectorize.
+ */
+final class ConvertLoops
+{
+	private ConvertLoops()
+	{
+		// utility class
+	}
+
+	/**
+	 * The {@code RealType}s supported by {@code ConvertLoops}.
+	 */
+	enum Kind
+	{
+		BYTE,
+		UNSIGNED_BYTE,
+		SHORT,
+		UNSIGNED_SHORT,
+		INT,
+		UNSIGNED_INT,
+		LONG,
+		FLOAT,
+		DOUBLE,
+	}
+
+	/**
+	 * Loop converting {@code length} elements from {@code src} to {@code dest}
+	 * array.
+	 */
+	@FunctionalInterface
+	interface Loop
+	{
+		void apply( Object src, Object dest, int length );
+	}
+
+	/**
+	 * Loop converting {@code length} elements from {@code src} to {@code dest}
+	 * array, with linear scaling.
+	 */
+	@FunctionalInterface
+	interface LinearLoop
+	{
+		void apply( Object src, Object dest, int length, double scale, double offset );
+	}
+
+	/**
+	 * Returns the {@code Kind} of the given {@code type}, or {@code null} if it
+	 * is not supported.
+	 */
+	static Kind kind( final NativeType< ? > type )
+	{
+		if ( type instanceof ByteType )
+			return Kind.BYTE;
+		if ( type instanceof UnsignedByteType )
+			return Kind.UNSIGNED_BYTE;
+		if ( type instanceof ShortType )
+			return Kind.SHORT;
+		if ( type instanceof UnsignedShortType )
+			return Kind.UNSIGNED_SHORT;
+		if ( type instanceof IntType )
+			return Kind.INT;
+		if ( type instanceof UnsignedIntType )
+			return Kind.UNSIGNED_INT;
+		if ( type instanceof LongType )
+			return Kind.LONG;
+		if ( type instanceof FloatType )
+			return Kind.FLOAT;
+		if ( type instanceof DoubleType )
+			return Kind.DOUBLE;
+		return null;
+	}
+
+	static Loop loop( final Kind src, final Kind dest, final boolean clamp )
+	{
+		switch ( src )
+		{
+		case BYTE:
+			switch ( dest )
+			{
+			case BYTE:
+				return clamp ? ConvertLoops::convertClamp_Byte_Byte : ConvertLoops::convert_Byte_Byte;
+			case UNSIGNED_BYTE:
+				return clamp ? ConvertLoops::convertClamp_Byte_UnsignedByte : ConvertLoops::convert_Byte_UnsignedByte;
+			case SHORT:
+				return clamp ? ConvertLoops::convertClamp_Byte_Short : ConvertLoops::convert_Byte_Short;
+			case UNSIGNED_SHORT:
+				return clamp ? ConvertLoops::convertClamp_Byte_UnsignedShort : ConvertLoops::convert_Byte_UnsignedShort;
+			case INT:
+				return clamp ? ConvertLoops::convertClamp_Byte_Int : ConvertLoops::convert_Byte_Int;
+			case UNSIGNED_INT:
+				return clamp ? ConvertLoops::convertClamp_Byte_UnsignedInt : ConvertLoops::convert_Byte_UnsignedInt;
+			case LONG:
+				return clamp ? ConvertLoops::convertClamp_Byte_Long : ConvertLoops::convert_Byte_Long;
+			case FLOAT:
+				return clamp ? ConvertLoops::convertClamp_Byte_Float : ConvertLoops::convert_Byte_Float;
+			case DOUBLE:
+				return clamp ? ConvertLoops::convertClamp_Byte_Double : ConvertLoops::convert_Byte_Double;
+			}
+			break;
+		case UNSIGNED_BYTE:
+			switch ( dest )
+			{
+			case BYTE:
+				return clamp ? ConvertLoops::convertClamp_UnsignedByte_Byte : ConvertLoops::convert_UnsignedByte_Byte;
+			case UNSIGNED_BYTE:
+				return clamp ? ConvertLoops::convertClamp_UnsignedByte_UnsignedByte : ConvertLoops::convert_UnsignedByte_UnsignedByte;
+			case SHORT:
+				return clamp ? ConvertLoops::convertClamp_UnsignedByte_Short : ConvertLoops::convert_UnsignedByte_Short;
+			case UNSIGNED_SHORT:
+				return clamp ? ConvertLoops::convertClamp_UnsignedByte_UnsignedShort : ConvertLoops::convert_UnsignedByte_UnsignedShort;
+			case INT:
+				return clamp ? ConvertLoops::convertClamp_UnsignedByte_Int : ConvertLoops::convert_UnsignedByte_Int;
+			case UNSIGNED_INT:
+				return clamp ? ConvertLoops::convertClamp_UnsignedByte_UnsignedInt : ConvertLoops::convert_UnsignedByte_UnsignedInt;
+			case LONG:
+				return clamp ? ConvertLoops::convertClamp_UnsignedByte_Long : ConvertLoops::convert_UnsignedByte_Long;
+			case FLOAT:
+				return clamp ? ConvertLoops::convertClamp_UnsignedByte_Float : ConvertLoops::convert_UnsignedByte_Float;
+			case DOUBLE:
+				return clamp ? ConvertLoops::convertClamp_UnsignedByte_Double : ConvertLoops::convert_UnsignedByte_Double;
+			}
+			break;
+		case SHORT:
+			switch ( dest )
+			{
+			case BYTE:
+				return clamp ? ConvertLoops::convertClamp_Short_Byte : ConvertLoops::convert_Short_Byte;
+			case UNSIGNED_BYTE:
+				return clamp ? ConvertLoops::convertClamp_Short_UnsignedByte : ConvertLoops::convert_Short_UnsignedByte;
+			case SHORT:
+				return clamp ? ConvertLoops::convertClamp_Short_Short : ConvertLoops::convert_Short_Short;
+			case UNSIGNED_SHORT:
+				return clamp ? ConvertLoops::convertClamp_Short_UnsignedShort : ConvertLoops::convert_Short_UnsignedShort;
+			case INT:
+				return clamp ? ConvertLoops::convertClamp_Short_Int : ConvertLoops::convert_Short_Int;
+			case UNSIGNED_INT:
+				return clamp ? ConvertLoops::convertClamp_Short_UnsignedInt : ConvertLoops::convert_Short_UnsignedInt;
+			case LONG:
+				return clamp ? ConvertLoops::convertClamp_Short_Long : ConvertLoops::convert_Short_Long;
+			case FLOAT:
+				return clamp ? ConvertLoops::convertClamp_Short_Float : ConvertLoops::convert_Short_Float;
+			case DOUBLE:
+				return clamp ? ConvertLoops::convertClamp_Short_Double : ConvertLoops::convert_Short_Double;
+			}
+			break;
+		case UNSIGNED_SHORT:
+			switch ( dest )
+			{
+			case BYTE:
+				return clamp ? ConvertLoops::convertClamp_UnsignedShort_Byte : ConvertLoops::convert_UnsignedShort_Byte;
+			case UNSIGNED_BYTE:
+				return clamp ? ConvertLoops::convertClamp_UnsignedShort_UnsignedByte : ConvertLoops::convert_UnsignedShort_UnsignedByte;
+			case SHORT:
+				return clamp ? ConvertLoops::convertClamp_UnsignedShort_Short : ConvertLoops::convert_UnsignedShort_Short;
+			case UNSIGNED_SHORT:
+				return clamp ? ConvertLoops::convertClamp_UnsignedShort_UnsignedShort : ConvertLoops::convert_UnsignedShort_UnsignedShort;
+			case INT:
+				return clamp ? ConvertLoops::convertClamp_UnsignedShort_Int : ConvertLoops::convert_UnsignedShort_Int;
+			case UNSIGNED_INT:
+				return clamp ? ConvertLoops::convertClamp_UnsignedShort_UnsignedInt : ConvertLoops::convert_UnsignedShort_UnsignedInt;
+			case LONG:
+				return clamp ? ConvertLoops::convertClamp_UnsignedShort_Long : ConvertLoops::convert_UnsignedShort_Long;
+			case FLOAT:
+				return clamp ? ConvertLoops::convertClamp_UnsignedShort_Float : ConvertLoops::convert_UnsignedShort_Float;
+			case DOUBLE:
+				return clamp ? ConvertLoops::convertClamp_UnsignedShort_Double : ConvertLoops::convert_UnsignedShort_Double;
+			}
+			break;
+		case INT:
+			switch ( dest )
+			{
+			case BYTE:
+				return clamp ? ConvertLoops::convertClamp_Int_Byte : ConvertLoops::convert_Int_Byte;
+			case UNSIGNED_BYTE:
+				return clamp ? ConvertLoops::convertClamp_Int_UnsignedByte : ConvertLoops::convert_Int_UnsignedByte;
+			case SHORT:
+				return clamp ? ConvertLoops::convertClamp_Int_Short : ConvertLoops::convert_Int_Short;
+			case UNSIGNED_SHORT:
+				return clamp ? ConvertLoops::convertClamp_Int_UnsignedShort : ConvertLoops::convert_Int_UnsignedShort;
+			case INT:
+				return clamp ? ConvertLoops::convertClamp_Int_Int : ConvertLoops::convert_Int_Int;
+			case UNSIGNED_INT:
+				return clamp ? ConvertLoops::convertClamp_Int_UnsignedInt : ConvertLoops::convert_Int_UnsignedInt;
+			case LONG:
+				return clamp ? ConvertLoops::convertClamp_Int_Long : ConvertLoops::convert_Int_Long;
+			case FLOAT:
+				return clamp ? ConvertLoops::convertClamp_Int_Float : ConvertLoops::convert_Int_Float;
+			case DOUBLE:
+				return clamp ? ConvertLoops::convertClamp_Int_Double : ConvertLoops::convert_Int_Double;
+			}
+			break;
+		case UNSIGNED_INT:
+			switch ( dest )
+			{
+			case BYTE:
+				return clamp ? ConvertLoops::convertClamp_UnsignedInt_Byte : ConvertLoops::convert_UnsignedInt_Byte;
+			case UNSIGNED_BYTE:
+				return clamp ? ConvertLoops::convertClamp_UnsignedInt_UnsignedByte : ConvertLoops::convert_UnsignedInt_UnsignedByte;
+			case SHORT:
+				return clamp ? ConvertLoops::convertClamp_UnsignedInt_Short : ConvertLoops::convert_UnsignedInt_Short;
+			case UNSIGNED_SHORT:
+				return clamp ? ConvertLoops::convertClamp_UnsignedInt_UnsignedShort : ConvertLoops::convert_UnsignedInt_UnsignedShort;
+			case INT:
+				return clamp ? ConvertLoops::convertClamp_UnsignedInt_Int : ConvertLoops::convert_UnsignedInt_Int;
+			case UNSIGNED_INT:
+				return clamp ? ConvertLoops::convertClamp_UnsignedInt_UnsignedInt : ConvertLoops::convert_UnsignedInt_UnsignedInt;
+			case LONG:
+				return clamp ? ConvertLoops::convertClamp_UnsignedInt_Long : ConvertLoops::convert_UnsignedInt_Long;
+			case FLOAT:
+				return clamp ? ConvertLoops::convertClamp_UnsignedInt_Float : ConvertLoops::convert_UnsignedInt_Float;
+			case DOUBLE:
+				return clamp ? ConvertLoops::convertClamp_UnsignedInt_Double : ConvertLoops::convert_UnsignedInt_Double;
+			}
+			break;
+		case LONG:
+			switch ( dest )
+			{
+			case BYTE:
+				return clamp ? ConvertLoops::convertClamp_Long_Byte : ConvertLoops::convert_Long_Byte;
+			case UNSIGNED_BYTE:
+				return clamp ? ConvertLoops::convertClamp_Long_UnsignedByte : ConvertLoops::convert_Long_UnsignedByte;
+			case SHORT:
+				return clamp ? ConvertLoops::convertClamp_Long_Short : ConvertLoops::convert_Long_Short;
+			case UNSIGNED_SHORT:
+				return clamp ? ConvertLoops::convertClamp_Long_UnsignedShort : ConvertLoops::convert_Long_UnsignedShort;
+			case INT:
+				return clamp ? ConvertLoops::convertClamp_Long_Int : ConvertLoops::convert_Long_Int;
+			case UNSIGNED_INT:
+				return clamp ? ConvertLoops::convertClamp_Long_UnsignedInt : ConvertLoops::convert_Long_UnsignedInt;
+			case LONG:
+				return clamp ? ConvertLoops::convertClamp_Long_Long : ConvertLoops::convert_Long_Long;
+			case FLOAT:
+				return clamp ? ConvertLoops::convertClamp_Long_Float : ConvertLoops::convert_Long_Float;
+			case DOUBLE:
+				return clamp ? ConvertLoops::convertClamp_Long_Double : ConvertLoops::convert_Long_Double;
+			}
+			break;
+		case FLOAT:
+			switch ( dest )
+			{
+			case BYTE:
+				return clamp ? ConvertLoops::convertClamp_Float_Byte : ConvertLoops::convert_Float_Byte;
+			case UNSIGNED_BYTE:
+				return clamp ? ConvertLoops::convertClamp_Float_UnsignedByte : ConvertLoops::convert_Float_UnsignedByte;
+			case SHORT:
+				return clamp ? ConvertLoops::convertClamp_Float_Short : ConvertLoops::convert_Float_Short;
+			case UNSIGNED_SHORT:
+				return clamp ? ConvertLoops::convertClamp_Float_UnsignedShort : ConvertLoops::convert_Float_UnsignedShort;
+			case INT:
+				return clamp ? ConvertLoops::convertClamp_Float_Int : ConvertLoops::convert_Float_Int;
+			case UNSIGNED_INT:
+				return clamp ? ConvertLoops::convertClamp_Float_UnsignedInt : ConvertLoops::convert_Float_UnsignedInt;
+			case LONG:
+				return clamp ? ConvertLoops::convertClamp_Float_Long : ConvertLoops::convert_Float_Long;
+			case FLOAT:
+				return clamp ? ConvertLoops::convertClamp_Float_Float : ConvertLoops::convert_Float_Float;
+			case DOUBLE:
+				return clamp ? ConvertLoops::convertClamp_Float_Double : ConvertLoops::convert_Float_Double;
+			}
+			break;
+		case DOUBLE:
+			switch ( dest )
+			{
+			case BYTE:
+				return clamp ? ConvertLoops::convertClamp_Double_Byte : ConvertLoops::convert_Double_Byte;
+			case UNSIGNED_BYTE:
+				return clamp ? ConvertLoops::convertClamp_Double_UnsignedByte : ConvertLoops::convert_Double_UnsignedByte;
+			case SHORT:
+				return clamp ? ConvertLoops::convertClamp_Double_Short : ConvertLoops::convert_Double_Short;
+			case UNSIGNED_SHORT:
+				return clamp ? ConvertLoops::convertClamp_Double_UnsignedShort : ConvertLoops::convert_Double_UnsignedShort;
+			case INT:
+				return clamp ? ConvertLoops::convertClamp_Double_Int : ConvertLoops::convert_Double_Int;
+			case UNSIGNED_INT:
+				return clamp ? ConvertLoops::convertClamp_Double_UnsignedInt : ConvertLoops::convert_Double_UnsignedInt;
+			case LONG:
+				return clamp ? ConvertLoops::convertClamp_Double_Long : ConvertLoops::convert_Double_Long;
+			case FLOAT:
+				return clamp ? ConvertLoops::convertClamp_Double_Float : ConvertLoops::convert_Double_Float;
+			case DOUBLE:
+				return clamp ? ConvertLoops::convertClamp_Double_Double : ConvertLoops::convert_Double_Double;
+			}
+			break;
+		}
+		throw new IllegalArgumentException();
+	}
+
+	static LinearLoop linearLoop( final Kind src, final Kind dest )
+	{
+		switch ( src )
+		{
+		case BYTE:
+			switch ( dest )
+			{
+			case BYTE:
+				return ConvertLoops::convertLinear_Byte_Byte;
+			case UNSIGNED_BYTE:
+				return ConvertLoops::convertLinear_Byte_UnsignedByte;
+			case SHORT:
+				return ConvertLoops::convertLinear_Byte_Short;
+			case UNSIGNED_SHORT:
+				return ConvertLoops::convertLinear_Byte_UnsignedShort;
+			case INT:
+				return ConvertLoops::convertLinear_Byte_Int;
+			case UNSIGNED_INT:
+				return ConvertLoops::convertLinear_Byte_UnsignedInt;
+			case LONG:
+				return ConvertLoops::convertLinear_Byte_Long;
+			case FLOAT:
+				return ConvertLoops::convertLinear_Byte_Float;
+			case DOUBLE:
+				return ConvertLoops::convertLinear_Byte_Double;
+			}
+			break;
+		case UNSIGNED_BYTE:
+			switch ( dest )
+			{
+			case BYTE:
+				return ConvertLoops::convertLinear_UnsignedByte_Byte;
+			case UNSIGNED_BYTE:
+				return ConvertLoops::convertLinear_UnsignedByte_UnsignedByte;
+			case SHORT:
+				return ConvertLoops::convertLinear_UnsignedByte_Short;
+			case UNSIGNED_SHORT:
+				return ConvertLoops::convertLinear_UnsignedByte_UnsignedShort;
+			case INT:
+				return ConvertLoops::convertLinear_UnsignedByte_Int;
+			case UNSIGNED_INT:
+				return ConvertLoops::convertLinear_UnsignedByte_UnsignedInt;
+			case LONG:
+				return ConvertLoops::convertLinear_UnsignedByte_Long;
+			case FLOAT:
+				return ConvertLoops::convertLinear_UnsignedByte_Float;
+			case DOUBLE:
+				return ConvertLoops::convertLinear_UnsignedByte_Double;
+			}
+			break;
+		case SHORT:
+			switch ( dest )
+			{
+			case BYTE:
+				return ConvertLoops::convertLinear_Short_Byte;
+			case UNSIGNED_BYTE:
+				return ConvertLoops::convertLinear_Short_UnsignedByte;
+			case SHORT:
+				return ConvertLoops::convertLinear_Short_Short;
+			case UNSIGNED_SHORT:
+				return ConvertLoops::convertLinear_Short_UnsignedShort;
+			case INT:
+				return ConvertLoops::convertLinear_Short_Int;
+			case UNSIGNED_INT:
+				return ConvertLoops::convertLinear_Short_UnsignedInt;
+			case LONG:
+				return ConvertLoops::convertLinear_Short_Long;
+			case FLOAT:
+				return ConvertLoops::convertLinear_Short_Float;
+			case DOUBLE:
+				return ConvertLoops::convertLinear_Short_Double;
+			}
+			break;
+		case UNSIGNED_SHORT:
+			switch ( dest )
+			{
+			case BYTE:
+				return ConvertLoops::convertLinear_UnsignedShort_Byte;
+			case UNSIGNED_BYTE:
+				return ConvertLoops::convertLinear_UnsignedShort_UnsignedByte;
+			case SHORT:
+				return ConvertLoops::convertLinear_UnsignedShort_Short;
+			case UNSIGNED_SHORT:
+				return ConvertLoops::convertLinear_UnsignedShort_UnsignedShort;
+			case INT:
+				return ConvertLoops::convertLinear_UnsignedShort_Int;
+			case UNSIGNED_INT:
+				return ConvertLoops::convertLinear_UnsignedShort_UnsignedInt;
+			case LONG:
+				return ConvertLoops::convertLinear_UnsignedShort_Long;
+			case FLOAT:
+				return ConvertLoops::convertLinear_UnsignedShort_Float;
+			case DOUBLE:
+				return ConvertLoops::convertLinear_UnsignedShort_Double;
+			}
+			break;
+		case INT:
+			switch ( dest )
+			{
+			case BYTE:
+				return ConvertLoops::convertLinear_Int_Byte;
+			case UNSIGNED_BYTE:
+				return ConvertLoops::convertLinear_Int_UnsignedByte;
+			case SHORT:
+				return ConvertLoops::convertLinear_Int_Short;
+			case UNSIGNED_SHORT:
+				return ConvertLoops::convertLinear_Int_UnsignedShort;
+			case INT:
+				return ConvertLoops::convertLinear_Int_Int;
+			case UNSIGNED_INT:
+				return ConvertLoops::convertLinear_Int_UnsignedInt;
+			case LONG:
+				return ConvertLoops::convertLinear_Int_Long;
+			case FLOAT:
+				return ConvertLoops::convertLinear_Int_Float;
+			case DOUBLE:
+				return ConvertLoops::convertLinear_Int_Double;
+			}
+			break;
+		case UNSIGNED_INT:
+			switch ( dest )
+			{
+			case BYTE:
+				return ConvertLoops::convertLinear_UnsignedInt_Byte;
+			case UNSIGNED_BYTE:
+				return ConvertLoops::convertLinear_UnsignedInt_UnsignedByte;
+			case SHORT:
+				return ConvertLoops::convertLinear_UnsignedInt_Short;
+			case UNSIGNED_SHORT:
+				return ConvertLoops::convertLinear_UnsignedInt_UnsignedShort;
+			case INT:
+				return ConvertLoops::convertLinear_UnsignedInt_Int;
+			case UNSIGNED_INT:
+				return ConvertLoops::convertLinear_UnsignedInt_UnsignedInt;
+			case LONG:
+				return ConvertLoops::convertLinear_UnsignedInt_Long;
+			case FLOAT:
+				return ConvertLoops::convertLinear_UnsignedInt_Float;
+			case DOUBLE:
+				return ConvertLoops::convertLinear_UnsignedInt_Double;
+			}
+			break;
+		case LONG:
+			switch ( dest )
+			{
+			case BYTE:
+				return ConvertLoops::convertLinear_Long_Byte;
+			case UNSIGNED_BYTE:
+				return ConvertLoops::convertLinear_Long_UnsignedByte;
+			case SHORT:
+				return ConvertLoops::convertLinear_Long_Short;
+			case UNSIGNED_SHORT:
+				return ConvertLoops::convertLinear_Long_UnsignedShort;
+			case INT:
+				return ConvertLoops::convertLinear_Long_Int;
+			case UNSIGNED_INT:
+				return ConvertLoops::convertLinear_Long_UnsignedInt;
+			case LONG:
+				return ConvertLoops::convertLinear_Long_Long;
+			case FLOAT:
+				return ConvertLoops::convertLinear_Long_Float;
+			case DOUBLE:
+				return ConvertLoops::convertLinear_Long_Double;
+			}
+			break;
+		case FLOAT:
+			switch ( dest )
+			{
+			case BYTE:
+				return ConvertLoops::convertLinear_Float_Byte;
+			case UNSIGNED_BYTE:
+				return ConvertLoops::convertLinear_Float_UnsignedByte;
+			case SHORT:
+				return ConvertLoops::convertLinear_Float_Short;
+			case UNSIGNED_SHORT:
+				return ConvertLoops::convertLinear_Float_UnsignedShort;
+			case INT:
+				return ConvertLoops::convertLinear_Float_Int;
+			case UNSIGNED_INT:
+				return ConvertLoops::convertLinear_Float_UnsignedInt;
+			case LONG:
+				return ConvertLoops::convertLinear_Float_Long;
+			case FLOAT:
+				return ConvertLoops::convertLinear_Float_Float;
+			case DOUBLE:
+				return ConvertLoops::convertLinear_Float_Double;
+			}
+			break;
+		case DOUBLE:
+			switch ( dest )
+			{
+			case BYTE:
+				return ConvertLoops::convertLinear_Double_Byte;
+			case UNSIGNED_BYTE:
+				return ConvertLoops::convertLinear_Double_UnsignedByte;
+			case SHORT:
+				return ConvertLoops::convertLinear_Double_Short;
+			case UNSIGNED_SHORT:
+				return ConvertLoops::convertLinear_Double_UnsignedShort;
+			case INT:
+				return ConvertLoops::convertLinear_Double_Int;
+			case UNSIGNED_INT:
+				return ConvertLoops::convertLinear_Double_UnsignedInt;
+			case LONG:
+				return ConvertLoops::convertLinear_Double_Long;
+			case FLOAT:
+				return ConvertLoops::convertLinear_Double_Float;
+			case DOUBLE:
+				return ConvertLoops::convertLinear_Double_Double;
+			}
+			break;
+		}
+		throw new IllegalArgumentException();
+	}
+
+	static void convert_Byte_Byte( final Object src, final Object dest, final int length )
+	{
+		final byte[] s = ( byte[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( byte ) ( s[ i ] );
+	}
+
+	static void convertClamp_Byte_Byte( final Object src, final Object dest, final int length )
+	{
+		final byte[] s = ( byte[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ];
+			d[ i ] = ( byte ) ( v < Byte.MIN_VALUE ? Byte.MIN_VALUE : ( v > Byte.MAX_VALUE ? Byte.MAX_VALUE : v ) );
+		}
+	}
+
+	static void convertLinear_Byte_Byte( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final byte[] s = ( byte[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( byte ) ( v < Byte.MIN_VALUE ? Byte.MIN_VALUE : ( v > Byte.MAX_VALUE ? Byte.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Byte_UnsignedByte( final Object src, final Object dest, final int length )
+	{
+		final byte[] s = ( byte[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( byte ) ( s[ i ] );
+	}
+
+	static void convertClamp_Byte_UnsignedByte( final Object src, final Object dest, final int length )
+	{
+		final byte[] s = ( byte[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ];
+			d[ i ] = ( byte ) ( v < 0 ? 0 : ( v > 0xff ? 0xff : v ) );
+		}
+	}
+
+	static void convertLinear_Byte_UnsignedByte( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final byte[] s = ( byte[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( byte ) ( v < 0 ? 0 : ( v > 0xff ? 0xff : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Byte_Short( final Object src, final Object dest, final int length )
+	{
+		final byte[] s = ( byte[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( short ) ( s[ i ] );
+	}
+
+	static void convertClamp_Byte_Short( final Object src, final Object dest, final int length )
+	{
+		final byte[] s = ( byte[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ];
+			d[ i ] = ( short ) ( v < Short.MIN_VALUE ? Short.MIN_VALUE : ( v > Short.MAX_VALUE ? Short.MAX_VALUE : v ) );
+		}
+	}
+
+	static void convertLinear_Byte_Short( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final byte[] s = ( byte[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( short ) ( v < Short.MIN_VALUE ? Short.MIN_VALUE : ( v > Short.MAX_VALUE ? Short.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Byte_UnsignedShort( final Object src, final Object dest, final int length )
+	{
+		final byte[] s = ( byte[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( short ) ( s[ i ] );
+	}
+
+	static void convertClamp_Byte_UnsignedShort( final Object src, final Object dest, final int length )
+	{
+		final byte[] s = ( byte[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ];
+			d[ i ] = ( short ) ( v < 0 ? 0 : ( v > 0xffff ? 0xffff : v ) );
+		}
+	}
+
+	static void convertLinear_Byte_UnsignedShort( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final byte[] s = ( byte[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( short ) ( v < 0 ? 0 : ( v > 0xffff ? 0xffff : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Byte_Int( final Object src, final Object dest, final int length )
+	{
+		final byte[] s = ( byte[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( int ) ( s[ i ] );
+	}
+
+	static void convertClamp_Byte_Int( final Object src, final Object dest, final int length )
+	{
+		final byte[] s = ( byte[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ];
+			d[ i ] = ( int ) ( v < Integer.MIN_VALUE ? Integer.MIN_VALUE : ( v > Integer.MAX_VALUE ? Integer.MAX_VALUE : v ) );
+		}
+	}
+
+	static void convertLinear_Byte_Int( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final byte[] s = ( byte[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( int ) ( v < Integer.MIN_VALUE ? Integer.MIN_VALUE : ( v > Integer.MAX_VALUE ? Integer.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Byte_UnsignedInt( final Object src, final Object dest, final int length )
+	{
+		final byte[] s = ( byte[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( int ) ( s[ i ] );
+	}
+
+	static void convertClamp_Byte_UnsignedInt( final Object src, final Object dest, final int length )
+	{
+		final byte[] s = ( byte[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ];
+			d[ i ] = ( int ) ( v < 0 ? 0 : ( v > 0xffffffffL ? 0xffffffffL : v ) );
+		}
+	}
+
+	static void convertLinear_Byte_UnsignedInt( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final byte[] s = ( byte[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( int ) ( v < 0 ? 0 : ( v > 0xffffffffL ? 0xffffffffL : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Byte_Long( final Object src, final Object dest, final int length )
+	{
+		final byte[] s = ( byte[] ) src;
+		final long[] d = ( long[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( long ) ( s[ i ] );
+	}
+
+	static void convertClamp_Byte_Long( final Object src, final Object dest, final int length )
+	{
+		final byte[] s = ( byte[] ) src;
+		final long[] d = ( long[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ];
+			d[ i ] = ( long ) ( v < Long.MIN_VALUE ? Long.MIN_VALUE : ( v > Long.MAX_VALUE ? Long.MAX_VALUE : v ) );
+		}
+	}
+
+	static void convertLinear_Byte_Long( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final byte[] s = ( byte[] ) src;
+		final long[] d = ( long[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( long ) ( v < Long.MIN_VALUE ? Long.MIN_VALUE : ( v > Long.MAX_VALUE ? Long.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Byte_Float( final Object src, final Object dest, final int length )
+	{
+		final byte[] s = ( byte[] ) src;
+		final float[] d = ( float[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( float ) ( s[ i ] );
+	}
+
+	static void convertClamp_Byte_Float( final Object src, final Object dest, final int length )
+	{
+		final byte[] s = ( byte[] ) src;
+		final float[] d = ( float[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ];
+			d[ i ] = ( float ) v;
+		}
+	}
+
+	static void convertLinear_Byte_Float( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final byte[] s = ( byte[] ) src;
+		final float[] d = ( float[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( float ) v;
+		}
+	}
+
+	static void convert_Byte_Double( final Object src, final Object dest, final int length )
+	{
+		final byte[] s = ( byte[] ) src;
+		final double[] d = ( double[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( double ) ( s[ i ] );
+	}
+
+	static void convertClamp_Byte_Double( final Object src, final Object dest, final int length )
+	{
+		final byte[] s = ( byte[] ) src;
+		final double[] d = ( double[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ];
+			d[ i ] = ( double ) v;
+		}
+	}
+
+	static void convertLinear_Byte_Double( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final byte[] s = ( byte[] ) src;
+		final double[] d = ( double[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( double ) v;
+		}
+	}
+
+	static void convert_UnsignedByte_Byte( final Object src, final Object dest, final int length )
+	{
+		final byte[] s = ( byte[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( byte ) ( s[ i ] & 0xff );
+	}
+
+	static void convertClamp_UnsignedByte_Byte( final Object src, final Object dest, final int length )
+	{
+		final byte[] s = ( byte[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ] & 0xff;
+			d[ i ] = ( byte ) ( v < Byte.MIN_VALUE ? Byte.MIN_VALUE : ( v > Byte.MAX_VALUE ? Byte.MAX_VALUE : v ) );
+		}
+	}
+
+	static void convertLinear_UnsignedByte_Byte( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final byte[] s = ( byte[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] & 0xff ) * scale + offset;
+			d[ i ] = ( byte ) ( v < Byte.MIN_VALUE ? Byte.MIN_VALUE : ( v > Byte.MAX_VALUE ? Byte.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_UnsignedByte_UnsignedByte( final Object src, final Object dest, final int length )
+	{
+		final byte[] s = ( byte[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( byte ) ( s[ i ] & 0xff );
+	}
+
+	static void convertClamp_UnsignedByte_UnsignedByte( final Object src, final Object dest, final int length )
+	{
+		final byte[] s = ( byte[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ] & 0xff;
+			d[ i ] = ( byte ) ( v < 0 ? 0 : ( v > 0xff ? 0xff : v ) );
+		}
+	}
+
+	static void convertLinear_UnsignedByte_UnsignedByte( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final byte[] s = ( byte[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] & 0xff ) * scale + offset;
+			d[ i ] = ( byte ) ( v < 0 ? 0 : ( v > 0xff ? 0xff : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_UnsignedByte_Short( final Object src, final Object dest, final int length )
+	{
+		final byte[] s = ( byte[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( short ) ( s[ i ] & 0xff );
+	}
+
+	static void convertClamp_UnsignedByte_Short( final Object src, final Object dest, final int length )
+	{
+		final byte[] s = ( byte[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ] & 0xff;
+			d[ i ] = ( short ) ( v < Short.MIN_VALUE ? Short.MIN_VALUE : ( v > Short.MAX_VALUE ? Short.MAX_VALUE : v ) );
+		}
+	}
+
+	static void convertLinear_UnsignedByte_Short( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final byte[] s = ( byte[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] & 0xff ) * scale + offset;
+			d[ i ] = ( short ) ( v < Short.MIN_VALUE ? Short.MIN_VALUE : ( v > Short.MAX_VALUE ? Short.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_UnsignedByte_UnsignedShort( final Object src, final Object dest, final int length )
+	{
+		final byte[] s = ( byte[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( short ) ( s[ i ] & 0xff );
+	}
+
+	static void convertClamp_UnsignedByte_UnsignedShort( final Object src, final Object dest, final int length )
+	{
+		final byte[] s = ( byte[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ] & 0xff;
+			d[ i ] = ( short ) ( v < 0 ? 0 : ( v > 0xffff ? 0xffff : v ) );
+		}
+	}
+
+	static void convertLinear_UnsignedByte_UnsignedShort( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final byte[] s = ( byte[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] & 0xff ) * scale + offset;
+			d[ i ] = ( short ) ( v < 0 ? 0 : ( v > 0xffff ? 0xffff : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_UnsignedByte_Int( final Object src, final Object dest, final int length )
+	{
+		final byte[] s = ( byte[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( int ) ( s[ i ] & 0xff );
+	}
+
+	static void convertClamp_UnsignedByte_Int( final Object src, final Object dest, final int length )
+	{
+		final byte[] s = ( byte[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ] & 0xff;
+			d[ i ] = ( int ) ( v < Integer.MIN_VALUE ? Integer.MIN_VALUE : ( v > Integer.MAX_VALUE ? Integer.MAX_VALUE : v ) );
+		}
+	}
+
+	static void convertLinear_UnsignedByte_Int( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final byte[] s = ( byte[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] & 0xff ) * scale + offset;
+			d[ i ] = ( int ) ( v < Integer.MIN_VALUE ? Integer.MIN_VALUE : ( v > Integer.MAX_VALUE ? Integer.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_UnsignedByte_UnsignedInt( final Object src, final Object dest, final int length )
+	{
+		final byte[] s = ( byte[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( int ) ( s[ i ] & 0xff );
+	}
+
+	static void convertClamp_UnsignedByte_UnsignedInt( final Object src, final Object dest, final int length )
+	{
+		final byte[] s = ( byte[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ] & 0xff;
+			d[ i ] = ( int ) ( v < 0 ? 0 : ( v > 0xffffffffL ? 0xffffffffL : v ) );
+		}
+	}
+
+	static void convertLinear_UnsignedByte_UnsignedInt( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final byte[] s = ( byte[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] & 0xff ) * scale + offset;
+			d[ i ] = ( int ) ( v < 0 ? 0 : ( v > 0xffffffffL ? 0xffffffffL : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_UnsignedByte_Long( final Object src, final Object dest, final int length )
+	{
+		final byte[] s = ( byte[] ) src;
+		final long[] d = ( long[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( long ) ( s[ i ] & 0xff );
+	}
+
+	static void convertClamp_UnsignedByte_Long( final Object src, final Object dest, final int length )
+	{
+		final byte[] s = ( byte[] ) src;
+		final long[] d = ( long[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ] & 0xff;
+			d[ i ] = ( long ) ( v < Long.MIN_VALUE ? Long.MIN_VALUE : ( v > Long.MAX_VALUE ? Long.MAX_VALUE : v ) );
+		}
+	}
+
+	static void convertLinear_UnsignedByte_Long( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final byte[] s = ( byte[] ) src;
+		final long[] d = ( long[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] & 0xff ) * scale + offset;
+			d[ i ] = ( long ) ( v < Long.MIN_VALUE ? Long.MIN_VALUE : ( v > Long.MAX_VALUE ? Long.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_UnsignedByte_Float( final Object src, final Object dest, final int length )
+	{
+		final byte[] s = ( byte[] ) src;
+		final float[] d = ( float[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( float ) ( s[ i ] & 0xff );
+	}
+
+	static void convertClamp_UnsignedByte_Float( final Object src, final Object dest, final int length )
+	{
+		final byte[] s = ( byte[] ) src;
+		final float[] d = ( float[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ] & 0xff;
+			d[ i ] = ( float ) v;
+		}
+	}
+
+	static void convertLinear_UnsignedByte_Float( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final byte[] s = ( byte[] ) src;
+		final float[] d = ( float[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] & 0xff ) * scale + offset;
+			d[ i ] = ( float ) v;
+		}
+	}
+
+	static void convert_UnsignedByte_Double( final Object src, final Object dest, final int length )
+	{
+		final byte[] s = ( byte[] ) src;
+		final double[] d = ( double[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( double ) ( s[ i ] & 0xff );
+	}
+
+	static void convertClamp_UnsignedByte_Double( final Object src, final Object dest, final int length )
+	{
+		final byte[] s = ( byte[] ) src;
+		final double[] d = ( double[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ] & 0xff;
+			d[ i ] = ( double ) v;
+		}
+	}
+
+	static void convertLinear_UnsignedByte_Double( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final byte[] s = ( byte[] ) src;
+		final double[] d = ( double[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] & 0xff ) * scale + offset;
+			d[ i ] = ( double ) v;
+		}
+	}
+
+	static void convert_Short_Byte( final Object src, final Object dest, final int length )
+	{
+		final short[] s = ( short[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( byte ) ( s[ i ] );
+	}
+
+	static void convertClamp_Short_Byte( final Object src, final Object dest, final int length )
+	{
+		final short[] s = ( short[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ];
+			d[ i ] = ( byte ) ( v < Byte.MIN_VALUE ? Byte.MIN_VALUE : ( v > Byte.MAX_VALUE ? Byte.MAX_VALUE : v ) );
+		}
+	}
+
+	static void convertLinear_Short_Byte( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final short[] s = ( short[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( byte ) ( v < Byte.MIN_VALUE ? Byte.MIN_VALUE : ( v > Byte.MAX_VALUE ? Byte.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Short_UnsignedByte( final Object src, final Object dest, final int length )
+	{
+		final short[] s = ( short[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( byte ) ( s[ i ] );
+	}
+
+	static void convertClamp_Short_UnsignedByte( final Object src, final Object dest, final int length )
+	{
+		final short[] s = ( short[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ];
+			d[ i ] = ( byte ) ( v < 0 ? 0 : ( v > 0xff ? 0xff : v ) );
+		}
+	}
+
+	static void convertLinear_Short_UnsignedByte( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final short[] s = ( short[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( byte ) ( v < 0 ? 0 : ( v > 0xff ? 0xff : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Short_Short( final Object src, final Object dest, final int length )
+	{
+		final short[] s = ( short[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( short ) ( s[ i ] );
+	}
+
+	static void convertClamp_Short_Short( final Object src, final Object dest, final int length )
+	{
+		final short[] s = ( short[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ];
+			d[ i ] = ( short ) ( v < Short.MIN_VALUE ? Short.MIN_VALUE : ( v > Short.MAX_VALUE ? Short.MAX_VALUE : v ) );
+		}
+	}
+
+	static void convertLinear_Short_Short( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final short[] s = ( short[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( short ) ( v < Short.MIN_VALUE ? Short.MIN_VALUE : ( v > Short.MAX_VALUE ? Short.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Short_UnsignedShort( final Object src, final Object dest, final int length )
+	{
+		final short[] s = ( short[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( short ) ( s[ i ] );
+	}
+
+	static void convertClamp_Short_UnsignedShort( final Object src, final Object dest, final int length )
+	{
+		final short[] s = ( short[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ];
+			d[ i ] = ( short ) ( v < 0 ? 0 : ( v > 0xffff ? 0xffff : v ) );
+		}
+	}
+
+	static void convertLinear_Short_UnsignedShort( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final short[] s = ( short[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( short ) ( v < 0 ? 0 : ( v > 0xffff ? 0xffff : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Short_Int( final Object src, final Object dest, final int length )
+	{
+		final short[] s = ( short[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( int ) ( s[ i ] );
+	}
+
+	static void convertClamp_Short_Int( final Object src, final Object dest, final int length )
+	{
+		final short[] s = ( short[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ];
+			d[ i ] = ( int ) ( v < Integer.MIN_VALUE ? Integer.MIN_VALUE : ( v > Integer.MAX_VALUE ? Integer.MAX_VALUE : v ) );
+		}
+	}
+
+	static void convertLinear_Short_Int( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final short[] s = ( short[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( int ) ( v < Integer.MIN_VALUE ? Integer.MIN_VALUE : ( v > Integer.MAX_VALUE ? Integer.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Short_UnsignedInt( final Object src, final Object dest, final int length )
+	{
+		final short[] s = ( short[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( int ) ( s[ i ] );
+	}
+
+	static void convertClamp_Short_UnsignedInt( final Object src, final Object dest, final int length )
+	{
+		final short[] s = ( short[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ];
+			d[ i ] = ( int ) ( v < 0 ? 0 : ( v > 0xffffffffL ? 0xffffffffL : v ) );
+		}
+	}
+
+	static void convertLinear_Short_UnsignedInt( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final short[] s = ( short[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( int ) ( v < 0 ? 0 : ( v > 0xffffffffL ? 0xffffffffL : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Short_Long( final Object src, final Object dest, final int length )
+	{
+		final short[] s = ( short[] ) src;
+		final long[] d = ( long[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( long ) ( s[ i ] );
+	}
+
+	static void convertClamp_Short_Long( final Object src, final Object dest, final int length )
+	{
+		final short[] s = ( short[] ) src;
+		final long[] d = ( long[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ];
+			d[ i ] = ( long ) ( v < Long.MIN_VALUE ? Long.MIN_VALUE : ( v > Long.MAX_VALUE ? Long.MAX_VALUE : v ) );
+		}
+	}
+
+	static void convertLinear_Short_Long( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final short[] s = ( short[] ) src;
+		final long[] d = ( long[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( long ) ( v < Long.MIN_VALUE ? Long.MIN_VALUE : ( v > Long.MAX_VALUE ? Long.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Short_Float( final Object src, final Object dest, final int length )
+	{
+		final short[] s = ( short[] ) src;
+		final float[] d = ( float[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( float ) ( s[ i ] );
+	}
+
+	static void convertClamp_Short_Float( final Object src, final Object dest, final int length )
+	{
+		final short[] s = ( short[] ) src;
+		final float[] d = ( float[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ];
+			d[ i ] = ( float ) v;
+		}
+	}
+
+	static void convertLinear_Short_Float( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final short[] s = ( short[] ) src;
+		final float[] d = ( float[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( float ) v;
+		}
+	}
+
+	static void convert_Short_Double( final Object src, final Object dest, final int length )
+	{
+		final short[] s = ( short[] ) src;
+		final double[] d = ( double[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( double ) ( s[ i ] );
+	}
+
+	static void convertClamp_Short_Double( final Object src, final Object dest, final int length )
+	{
+		final short[] s = ( short[] ) src;
+		final double[] d = ( double[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ];
+			d[ i ] = ( double ) v;
+		}
+	}
+
+	static void convertLinear_Short_Double( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final short[] s = ( short[] ) src;
+		final double[] d = ( double[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( double ) v;
+		}
+	}
+
+	static void convert_UnsignedShort_Byte( final Object src, final Object dest, final int length )
+	{
+		final short[] s = ( short[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( byte ) ( s[ i ] & 0xffff );
+	}
+
+	static void convertClamp_UnsignedShort_Byte( final Object src, final Object dest, final int length )
+	{
+		final short[] s = ( short[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ] & 0xffff;
+			d[ i ] = ( byte ) ( v < Byte.MIN_VALUE ? Byte.MIN_VALUE : ( v > Byte.MAX_VALUE ? Byte.MAX_VALUE : v ) );
+		}
+	}
+
+	static void convertLinear_UnsignedShort_Byte( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final short[] s = ( short[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] & 0xffff ) * scale + offset;
+			d[ i ] = ( byte ) ( v < Byte.MIN_VALUE ? Byte.MIN_VALUE : ( v > Byte.MAX_VALUE ? Byte.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_UnsignedShort_UnsignedByte( final Object src, final Object dest, final int length )
+	{
+		final short[] s = ( short[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( byte ) ( s[ i ] & 0xffff );
+	}
+
+	static void convertClamp_UnsignedShort_UnsignedByte( final Object src, final Object dest, final int length )
+	{
+		final short[] s = ( short[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ] & 0xffff;
+			d[ i ] = ( byte ) ( v < 0 ? 0 : ( v > 0xff ? 0xff : v ) );
+		}
+	}
+
+	static void convertLinear_UnsignedShort_UnsignedByte( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final short[] s = ( short[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] & 0xffff ) * scale + offset;
+			d[ i ] = ( byte ) ( v < 0 ? 0 : ( v > 0xff ? 0xff : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_UnsignedShort_Short( final Object src, final Object dest, final int length )
+	{
+		final short[] s = ( short[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( short ) ( s[ i ] & 0xffff );
+	}
+
+	static void convertClamp_UnsignedShort_Short( final Object src, final Object dest, final int length )
+	{
+		final short[] s = ( short[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ] & 0xffff;
+			d[ i ] = ( short ) ( v < Short.MIN_VALUE ? Short.MIN_VALUE : ( v > Short.MAX_VALUE ? Short.MAX_VALUE : v ) );
+		}
+	}
+
+	static void convertLinear_UnsignedShort_Short( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final short[] s = ( short[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] & 0xffff ) * scale + offset;
+			d[ i ] = ( short ) ( v < Short.MIN_VALUE ? Short.MIN_VALUE : ( v > Short.MAX_VALUE ? Short.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_UnsignedShort_UnsignedShort( final Object src, final Object dest, final int length )
+	{
+		final short[] s = ( short[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( short ) ( s[ i ] & 0xffff );
+	}
+
+	static void convertClamp_UnsignedShort_UnsignedShort( final Object src, final Object dest, final int length )
+	{
+		final short[] s = ( short[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ] & 0xffff;
+			d[ i ] = ( short ) ( v < 0 ? 0 : ( v > 0xffff ? 0xffff : v ) );
+		}
+	}
+
+	static void convertLinear_UnsignedShort_UnsignedShort( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final short[] s = ( short[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] & 0xffff ) * scale + offset;
+			d[ i ] = ( short ) ( v < 0 ? 0 : ( v > 0xffff ? 0xffff : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_UnsignedShort_Int( final Object src, final Object dest, final int length )
+	{
+		final short[] s = ( short[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( int ) ( s[ i ] & 0xffff );
+	}
+
+	static void convertClamp_UnsignedShort_Int( final Object src, final Object dest, final int length )
+	{
+		final short[] s = ( short[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ] & 0xffff;
+			d[ i ] = ( int ) ( v < Integer.MIN_VALUE ? Integer.MIN_VALUE : ( v > Integer.MAX_VALUE ? Integer.MAX_VALUE : v ) );
+		}
+	}
+
+	static void convertLinear_UnsignedShort_Int( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final short[] s = ( short[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] & 0xffff ) * scale + offset;
+			d[ i ] = ( int ) ( v < Integer.MIN_VALUE ? Integer.MIN_VALUE : ( v > Integer.MAX_VALUE ? Integer.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_UnsignedShort_UnsignedInt( final Object src, final Object dest, final int length )
+	{
+		final short[] s = ( short[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( int ) ( s[ i ] & 0xffff );
+	}
+
+	static void convertClamp_UnsignedShort_UnsignedInt( final Object src, final Object dest, final int length )
+	{
+		final short[] s = ( short[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ] & 0xffff;
+			d[ i ] = ( int ) ( v < 0 ? 0 : ( v > 0xffffffffL ? 0xffffffffL : v ) );
+		}
+	}
+
+	static void convertLinear_UnsignedShort_UnsignedInt( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final short[] s = ( short[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] & 0xffff ) * scale + offset;
+			d[ i ] = ( int ) ( v < 0 ? 0 : ( v > 0xffffffffL ? 0xffffffffL : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_UnsignedShort_Long( final Object src, final Object dest, final int length )
+	{
+		final short[] s = ( short[] ) src;
+		final long[] d = ( long[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( long ) ( s[ i ] & 0xffff );
+	}
+
+	static void convertClamp_UnsignedShort_Long( final Object src, final Object dest, final int length )
+	{
+		final short[] s = ( short[] ) src;
+		final long[] d = ( long[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ] & 0xffff;
+			d[ i ] = ( long ) ( v < Long.MIN_VALUE ? Long.MIN_VALUE : ( v > Long.MAX_VALUE ? Long.MAX_VALUE : v ) );
+		}
+	}
+
+	static void convertLinear_UnsignedShort_Long( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final short[] s = ( short[] ) src;
+		final long[] d = ( long[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] & 0xffff ) * scale + offset;
+			d[ i ] = ( long ) ( v < Long.MIN_VALUE ? Long.MIN_VALUE : ( v > Long.MAX_VALUE ? Long.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_UnsignedShort_Float( final Object src, final Object dest, final int length )
+	{
+		final short[] s = ( short[] ) src;
+		final float[] d = ( float[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( float ) ( s[ i ] & 0xffff );
+	}
+
+	static void convertClamp_UnsignedShort_Float( final Object src, final Object dest, final int length )
+	{
+		final short[] s = ( short[] ) src;
+		final float[] d = ( float[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ] & 0xffff;
+			d[ i ] = ( float ) v;
+		}
+	}
+
+	static void convertLinear_UnsignedShort_Float( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final short[] s = ( short[] ) src;
+		final float[] d = ( float[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] & 0xffff ) * scale + offset;
+			d[ i ] = ( float ) v;
+		}
+	}
+
+	static void convert_UnsignedShort_Double( final Object src, final Object dest, final int length )
+	{
+		final short[] s = ( short[] ) src;
+		final double[] d = ( double[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( double ) ( s[ i ] & 0xffff );
+	}
+
+	static void convertClamp_UnsignedShort_Double( final Object src, final Object dest, final int length )
+	{
+		final short[] s = ( short[] ) src;
+		final double[] d = ( double[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ] & 0xffff;
+			d[ i ] = ( double ) v;
+		}
+	}
+
+	static void convertLinear_UnsignedShort_Double( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final short[] s = ( short[] ) src;
+		final double[] d = ( double[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] & 0xffff ) * scale + offset;
+			d[ i ] = ( double ) v;
+		}
+	}
+
+	static void convert_Int_Byte( final Object src, final Object dest, final int length )
+	{
+		final int[] s = ( int[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( byte ) ( s[ i ] );
+	}
+
+	static void convertClamp_Int_Byte( final Object src, final Object dest, final int length )
+	{
+		final int[] s = ( int[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ];
+			d[ i ] = ( byte ) ( v < Byte.MIN_VALUE ? Byte.MIN_VALUE : ( v > Byte.MAX_VALUE ? Byte.MAX_VALUE : v ) );
+		}
+	}
+
+	static void convertLinear_Int_Byte( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final int[] s = ( int[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( byte ) ( v < Byte.MIN_VALUE ? Byte.MIN_VALUE : ( v > Byte.MAX_VALUE ? Byte.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Int_UnsignedByte( final Object src, final Object dest, final int length )
+	{
+		final int[] s = ( int[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( byte ) ( s[ i ] );
+	}
+
+	static void convertClamp_Int_UnsignedByte( final Object src, final Object dest, final int length )
+	{
+		final int[] s = ( int[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ];
+			d[ i ] = ( byte ) ( v < 0 ? 0 : ( v > 0xff ? 0xff : v ) );
+		}
+	}
+
+	static void convertLinear_Int_UnsignedByte( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final int[] s = ( int[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( byte ) ( v < 0 ? 0 : ( v > 0xff ? 0xff : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Int_Short( final Object src, final Object dest, final int length )
+	{
+		final int[] s = ( int[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( short ) ( s[ i ] );
+	}
+
+	static void convertClamp_Int_Short( final Object src, final Object dest, final int length )
+	{
+		final int[] s = ( int[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ];
+			d[ i ] = ( short ) ( v < Short.MIN_VALUE ? Short.MIN_VALUE : ( v > Short.MAX_VALUE ? Short.MAX_VALUE : v ) );
+		}
+	}
+
+	static void convertLinear_Int_Short( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final int[] s = ( int[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( short ) ( v < Short.MIN_VALUE ? Short.MIN_VALUE : ( v > Short.MAX_VALUE ? Short.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Int_UnsignedShort( final Object src, final Object dest, final int length )
+	{
+		final int[] s = ( int[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( short ) ( s[ i ] );
+	}
+
+	static void convertClamp_Int_UnsignedShort( final Object src, final Object dest, final int length )
+	{
+		final int[] s = ( int[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ];
+			d[ i ] = ( short ) ( v < 0 ? 0 : ( v > 0xffff ? 0xffff : v ) );
+		}
+	}
+
+	static void convertLinear_Int_UnsignedShort( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final int[] s = ( int[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( short ) ( v < 0 ? 0 : ( v > 0xffff ? 0xffff : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Int_Int( final Object src, final Object dest, final int length )
+	{
+		final int[] s = ( int[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( int ) ( s[ i ] );
+	}
+
+	static void convertClamp_Int_Int( final Object src, final Object dest, final int length )
+	{
+		final int[] s = ( int[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ];
+			d[ i ] = ( int ) ( v < Integer.MIN_VALUE ? Integer.MIN_VALUE : ( v > Integer.MAX_VALUE ? Integer.MAX_VALUE : v ) );
+		}
+	}
+
+	static void convertLinear_Int_Int( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final int[] s = ( int[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( int ) ( v < Integer.MIN_VALUE ? Integer.MIN_VALUE : ( v > Integer.MAX_VALUE ? Integer.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Int_UnsignedInt( final Object src, final Object dest, final int length )
+	{
+		final int[] s = ( int[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( int ) ( s[ i ] );
+	}
+
+	static void convertClamp_Int_UnsignedInt( final Object src, final Object dest, final int length )
+	{
+		final int[] s = ( int[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ];
+			d[ i ] = ( int ) ( v < 0 ? 0 : ( v > 0xffffffffL ? 0xffffffffL : v ) );
+		}
+	}
+
+	static void convertLinear_Int_UnsignedInt( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final int[] s = ( int[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( int ) ( v < 0 ? 0 : ( v > 0xffffffffL ? 0xffffffffL : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Int_Long( final Object src, final Object dest, final int length )
+	{
+		final int[] s = ( int[] ) src;
+		final long[] d = ( long[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( long ) ( s[ i ] );
+	}
+
+	static void convertClamp_Int_Long( final Object src, final Object dest, final int length )
+	{
+		final int[] s = ( int[] ) src;
+		final long[] d = ( long[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ];
+			d[ i ] = ( long ) ( v < Long.MIN_VALUE ? Long.MIN_VALUE : ( v > Long.MAX_VALUE ? Long.MAX_VALUE : v ) );
+		}
+	}
+
+	static void convertLinear_Int_Long( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final int[] s = ( int[] ) src;
+		final long[] d = ( long[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( long ) ( v < Long.MIN_VALUE ? Long.MIN_VALUE : ( v > Long.MAX_VALUE ? Long.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Int_Float( final Object src, final Object dest, final int length )
+	{
+		final int[] s = ( int[] ) src;
+		final float[] d = ( float[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( float ) ( s[ i ] );
+	}
+
+	static void convertClamp_Int_Float( final Object src, final Object dest, final int length )
+	{
+		final int[] s = ( int[] ) src;
+		final float[] d = ( float[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ];
+			d[ i ] = ( float ) v;
+		}
+	}
+
+	static void convertLinear_Int_Float( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final int[] s = ( int[] ) src;
+		final float[] d = ( float[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( float ) v;
+		}
+	}
+
+	static void convert_Int_Double( final Object src, final Object dest, final int length )
+	{
+		final int[] s = ( int[] ) src;
+		final double[] d = ( double[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( double ) ( s[ i ] );
+	}
+
+	static void convertClamp_Int_Double( final Object src, final Object dest, final int length )
+	{
+		final int[] s = ( int[] ) src;
+		final double[] d = ( double[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final int v = s[ i ];
+			d[ i ] = ( double ) v;
+		}
+	}
+
+	static void convertLinear_Int_Double( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final int[] s = ( int[] ) src;
+		final double[] d = ( double[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( double ) v;
+		}
+	}
+
+	static void convert_UnsignedInt_Byte( final Object src, final Object dest, final int length )
+	{
+		final int[] s = ( int[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( byte ) ( s[ i ] & 0xffffffffL );
+	}
+
+	static void convertClamp_UnsignedInt_Byte( final Object src, final Object dest, final int length )
+	{
+		final int[] s = ( int[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final long v = s[ i ] & 0xffffffffL;
+			d[ i ] = ( byte ) ( v < Byte.MIN_VALUE ? Byte.MIN_VALUE : ( v > Byte.MAX_VALUE ? Byte.MAX_VALUE : v ) );
+		}
+	}
+
+	static void convertLinear_UnsignedInt_Byte( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final int[] s = ( int[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] & 0xffffffffL ) * scale + offset;
+			d[ i ] = ( byte ) ( v < Byte.MIN_VALUE ? Byte.MIN_VALUE : ( v > Byte.MAX_VALUE ? Byte.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_UnsignedInt_UnsignedByte( final Object src, final Object dest, final int length )
+	{
+		final int[] s = ( int[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( byte ) ( s[ i ] & 0xffffffffL );
+	}
+
+	static void convertClamp_UnsignedInt_UnsignedByte( final Object src, final Object dest, final int length )
+	{
+		final int[] s = ( int[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final long v = s[ i ] & 0xffffffffL;
+			d[ i ] = ( byte ) ( v < 0 ? 0 : ( v > 0xff ? 0xff : v ) );
+		}
+	}
+
+	static void convertLinear_UnsignedInt_UnsignedByte( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final int[] s = ( int[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] & 0xffffffffL ) * scale + offset;
+			d[ i ] = ( byte ) ( v < 0 ? 0 : ( v > 0xff ? 0xff : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_UnsignedInt_Short( final Object src, final Object dest, final int length )
+	{
+		final int[] s = ( int[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( short ) ( s[ i ] & 0xffffffffL );
+	}
+
+	static void convertClamp_UnsignedInt_Short( final Object src, final Object dest, final int length )
+	{
+		final int[] s = ( int[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final long v = s[ i ] & 0xffffffffL;
+			d[ i ] = ( short ) ( v < Short.MIN_VALUE ? Short.MIN_VALUE : ( v > Short.MAX_VALUE ? Short.MAX_VALUE : v ) );
+		}
+	}
+
+	static void convertLinear_UnsignedInt_Short( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final int[] s = ( int[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] & 0xffffffffL ) * scale + offset;
+			d[ i ] = ( short ) ( v < Short.MIN_VALUE ? Short.MIN_VALUE : ( v > Short.MAX_VALUE ? Short.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_UnsignedInt_UnsignedShort( final Object src, final Object dest, final int length )
+	{
+		final int[] s = ( int[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( short ) ( s[ i ] & 0xffffffffL );
+	}
+
+	static void convertClamp_UnsignedInt_UnsignedShort( final Object src, final Object dest, final int length )
+	{
+		final int[] s = ( int[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final long v = s[ i ] & 0xffffffffL;
+			d[ i ] = ( short ) ( v < 0 ? 0 : ( v > 0xffff ? 0xffff : v ) );
+		}
+	}
+
+	static void convertLinear_UnsignedInt_UnsignedShort( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final int[] s = ( int[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] & 0xffffffffL ) * scale + offset;
+			d[ i ] = ( short ) ( v < 0 ? 0 : ( v > 0xffff ? 0xffff : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_UnsignedInt_Int( final Object src, final Object dest, final int length )
+	{
+		final int[] s = ( int[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( int ) ( s[ i ] & 0xffffffffL );
+	}
+
+	static void convertClamp_UnsignedInt_Int( final Object src, final Object dest, final int length )
+	{
+		final int[] s = ( int[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final long v = s[ i ] & 0xffffffffL;
+			d[ i ] = ( int ) ( v < Integer.MIN_VALUE ? Integer.MIN_VALUE : ( v > Integer.MAX_VALUE ? Integer.MAX_VALUE : v ) );
+		}
+	}
+
+	static void convertLinear_UnsignedInt_Int( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final int[] s = ( int[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] & 0xffffffffL ) * scale + offset;
+			d[ i ] = ( int ) ( v < Integer.MIN_VALUE ? Integer.MIN_VALUE : ( v > Integer.MAX_VALUE ? Integer.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_UnsignedInt_UnsignedInt( final Object src, final Object dest, final int length )
+	{
+		final int[] s = ( int[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( int ) ( s[ i ] & 0xffffffffL );
+	}
+
+	static void convertClamp_UnsignedInt_UnsignedInt( final Object src, final Object dest, final int length )
+	{
+		final int[] s = ( int[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final long v = s[ i ] & 0xffffffffL;
+			d[ i ] = ( int ) ( v < 0 ? 0 : ( v > 0xffffffffL ? 0xffffffffL : v ) );
+		}
+	}
+
+	static void convertLinear_UnsignedInt_UnsignedInt( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final int[] s = ( int[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] & 0xffffffffL ) * scale + offset;
+			d[ i ] = ( int ) ( v < 0 ? 0 : ( v > 0xffffffffL ? 0xffffffffL : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_UnsignedInt_Long( final Object src, final Object dest, final int length )
+	{
+		final int[] s = ( int[] ) src;
+		final long[] d = ( long[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( long ) ( s[ i ] & 0xffffffffL );
+	}
+
+	static void convertClamp_UnsignedInt_Long( final Object src, final Object dest, final int length )
+	{
+		final int[] s = ( int[] ) src;
+		final long[] d = ( long[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final long v = s[ i ] & 0xffffffffL;
+			d[ i ] = ( long ) ( v < Long.MIN_VALUE ? Long.MIN_VALUE : ( v > Long.MAX_VALUE ? Long.MAX_VALUE : v ) );
+		}
+	}
+
+	static void convertLinear_UnsignedInt_Long( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final int[] s = ( int[] ) src;
+		final long[] d = ( long[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] & 0xffffffffL ) * scale + offset;
+			d[ i ] = ( long ) ( v < Long.MIN_VALUE ? Long.MIN_VALUE : ( v > Long.MAX_VALUE ? Long.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_UnsignedInt_Float( final Object src, final Object dest, final int length )
+	{
+		final int[] s = ( int[] ) src;
+		final float[] d = ( float[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( float ) ( s[ i ] & 0xffffffffL );
+	}
+
+	static void convertClamp_UnsignedInt_Float( final Object src, final Object dest, final int length )
+	{
+		final int[] s = ( int[] ) src;
+		final float[] d = ( float[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final long v = s[ i ] & 0xffffffffL;
+			d[ i ] = ( float ) v;
+		}
+	}
+
+	static void convertLinear_UnsignedInt_Float( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final int[] s = ( int[] ) src;
+		final float[] d = ( float[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] & 0xffffffffL ) * scale + offset;
+			d[ i ] = ( float ) v;
+		}
+	}
+
+	static void convert_UnsignedInt_Double( final Object src, final Object dest, final int length )
+	{
+		final int[] s = ( int[] ) src;
+		final double[] d = ( double[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( double ) ( s[ i ] & 0xffffffffL );
+	}
+
+	static void convertClamp_UnsignedInt_Double( final Object src, final Object dest, final int length )
+	{
+		final int[] s = ( int[] ) src;
+		final double[] d = ( double[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final long v = s[ i ] & 0xffffffffL;
+			d[ i ] = ( double ) v;
+		}
+	}
+
+	static void convertLinear_UnsignedInt_Double( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final int[] s = ( int[] ) src;
+		final double[] d = ( double[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] & 0xffffffffL ) * scale + offset;
+			d[ i ] = ( double ) v;
+		}
+	}
+
+	static void convert_Long_Byte( final Object src, final Object dest, final int length )
+	{
+		final long[] s = ( long[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( byte ) ( s[ i ] );
+	}
+
+	static void convertClamp_Long_Byte( final Object src, final Object dest, final int length )
+	{
+		final long[] s = ( long[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final long v = s[ i ];
+			d[ i ] = ( byte ) ( v < Byte.MIN_VALUE ? Byte.MIN_VALUE : ( v > Byte.MAX_VALUE ? Byte.MAX_VALUE : v ) );
+		}
+	}
+
+	static void convertLinear_Long_Byte( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final long[] s = ( long[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( byte ) ( v < Byte.MIN_VALUE ? Byte.MIN_VALUE : ( v > Byte.MAX_VALUE ? Byte.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Long_UnsignedByte( final Object src, final Object dest, final int length )
+	{
+		final long[] s = ( long[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( byte ) ( s[ i ] );
+	}
+
+	static void convertClamp_Long_UnsignedByte( final Object src, final Object dest, final int length )
+	{
+		final long[] s = ( long[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final long v = s[ i ];
+			d[ i ] = ( byte ) ( v < 0 ? 0 : ( v > 0xff ? 0xff : v ) );
+		}
+	}
+
+	static void convertLinear_Long_UnsignedByte( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final long[] s = ( long[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( byte ) ( v < 0 ? 0 : ( v > 0xff ? 0xff : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Long_Short( final Object src, final Object dest, final int length )
+	{
+		final long[] s = ( long[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( short ) ( s[ i ] );
+	}
+
+	static void convertClamp_Long_Short( final Object src, final Object dest, final int length )
+	{
+		final long[] s = ( long[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final long v = s[ i ];
+			d[ i ] = ( short ) ( v < Short.MIN_VALUE ? Short.MIN_VALUE : ( v > Short.MAX_VALUE ? Short.MAX_VALUE : v ) );
+		}
+	}
+
+	static void convertLinear_Long_Short( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final long[] s = ( long[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( short ) ( v < Short.MIN_VALUE ? Short.MIN_VALUE : ( v > Short.MAX_VALUE ? Short.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Long_UnsignedShort( final Object src, final Object dest, final int length )
+	{
+		final long[] s = ( long[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( short ) ( s[ i ] );
+	}
+
+	static void convertClamp_Long_UnsignedShort( final Object src, final Object dest, final int length )
+	{
+		final long[] s = ( long[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final long v = s[ i ];
+			d[ i ] = ( short ) ( v < 0 ? 0 : ( v > 0xffff ? 0xffff : v ) );
+		}
+	}
+
+	static void convertLinear_Long_UnsignedShort( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final long[] s = ( long[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( short ) ( v < 0 ? 0 : ( v > 0xffff ? 0xffff : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Long_Int( final Object src, final Object dest, final int length )
+	{
+		final long[] s = ( long[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( int ) ( s[ i ] );
+	}
+
+	static void convertClamp_Long_Int( final Object src, final Object dest, final int length )
+	{
+		final long[] s = ( long[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final long v = s[ i ];
+			d[ i ] = ( int ) ( v < Integer.MIN_VALUE ? Integer.MIN_VALUE : ( v > Integer.MAX_VALUE ? Integer.MAX_VALUE : v ) );
+		}
+	}
+
+	static void convertLinear_Long_Int( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final long[] s = ( long[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( int ) ( v < Integer.MIN_VALUE ? Integer.MIN_VALUE : ( v > Integer.MAX_VALUE ? Integer.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Long_UnsignedInt( final Object src, final Object dest, final int length )
+	{
+		final long[] s = ( long[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( int ) ( s[ i ] );
+	}
+
+	static void convertClamp_Long_UnsignedInt( final Object src, final Object dest, final int length )
+	{
+		final long[] s = ( long[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final long v = s[ i ];
+			d[ i ] = ( int ) ( v < 0 ? 0 : ( v > 0xffffffffL ? 0xffffffffL : v ) );
+		}
+	}
+
+	static void convertLinear_Long_UnsignedInt( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final long[] s = ( long[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( int ) ( v < 0 ? 0 : ( v > 0xffffffffL ? 0xffffffffL : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Long_Long( final Object src, final Object dest, final int length )
+	{
+		final long[] s = ( long[] ) src;
+		final long[] d = ( long[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( long ) ( s[ i ] );
+	}
+
+	static void convertClamp_Long_Long( final Object src, final Object dest, final int length )
+	{
+		final long[] s = ( long[] ) src;
+		final long[] d = ( long[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final long v = s[ i ];
+			d[ i ] = ( long ) ( v < Long.MIN_VALUE ? Long.MIN_VALUE : ( v > Long.MAX_VALUE ? Long.MAX_VALUE : v ) );
+		}
+	}
+
+	static void convertLinear_Long_Long( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final long[] s = ( long[] ) src;
+		final long[] d = ( long[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( long ) ( v < Long.MIN_VALUE ? Long.MIN_VALUE : ( v > Long.MAX_VALUE ? Long.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Long_Float( final Object src, final Object dest, final int length )
+	{
+		final long[] s = ( long[] ) src;
+		final float[] d = ( float[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( float ) ( s[ i ] );
+	}
+
+	static void convertClamp_Long_Float( final Object src, final Object dest, final int length )
+	{
+		final long[] s = ( long[] ) src;
+		final float[] d = ( float[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final long v = s[ i ];
+			d[ i ] = ( float ) v;
+		}
+	}
+
+	static void convertLinear_Long_Float( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final long[] s = ( long[] ) src;
+		final float[] d = ( float[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( float ) v;
+		}
+	}
+
+	static void convert_Long_Double( final Object src, final Object dest, final int length )
+	{
+		final long[] s = ( long[] ) src;
+		final double[] d = ( double[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( double ) ( s[ i ] );
+	}
+
+	static void convertClamp_Long_Double( final Object src, final Object dest, final int length )
+	{
+		final long[] s = ( long[] ) src;
+		final double[] d = ( double[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final long v = s[ i ];
+			d[ i ] = ( double ) v;
+		}
+	}
+
+	static void convertLinear_Long_Double( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final long[] s = ( long[] ) src;
+		final double[] d = ( double[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( double ) v;
+		}
+	}
+
+	static void convert_Float_Byte( final Object src, final Object dest, final int length )
+	{
+		final float[] s = ( float[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( byte ) Util.roundToLong( ( double ) s[ i ] );
+	}
+
+	static void convertClamp_Float_Byte( final Object src, final Object dest, final int length )
+	{
+		final float[] s = ( float[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = s[ i ];
+			d[ i ] = ( byte ) ( v < Byte.MIN_VALUE ? Byte.MIN_VALUE : ( v > Byte.MAX_VALUE ? Byte.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convertLinear_Float_Byte( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final float[] s = ( float[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( byte ) ( v < Byte.MIN_VALUE ? Byte.MIN_VALUE : ( v > Byte.MAX_VALUE ? Byte.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Float_UnsignedByte( final Object src, final Object dest, final int length )
+	{
+		final float[] s = ( float[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( byte ) Util.roundToLong( ( double ) s[ i ] );
+	}
+
+	static void convertClamp_Float_UnsignedByte( final Object src, final Object dest, final int length )
+	{
+		final float[] s = ( float[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = s[ i ];
+			d[ i ] = ( byte ) ( v < 0 ? 0 : ( v > 0xff ? 0xff : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convertLinear_Float_UnsignedByte( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final float[] s = ( float[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( byte ) ( v < 0 ? 0 : ( v > 0xff ? 0xff : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Float_Short( final Object src, final Object dest, final int length )
+	{
+		final float[] s = ( float[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( short ) Util.roundToLong( ( double ) s[ i ] );
+	}
+
+	static void convertClamp_Float_Short( final Object src, final Object dest, final int length )
+	{
+		final float[] s = ( float[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = s[ i ];
+			d[ i ] = ( short ) ( v < Short.MIN_VALUE ? Short.MIN_VALUE : ( v > Short.MAX_VALUE ? Short.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convertLinear_Float_Short( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final float[] s = ( float[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( short ) ( v < Short.MIN_VALUE ? Short.MIN_VALUE : ( v > Short.MAX_VALUE ? Short.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Float_UnsignedShort( final Object src, final Object dest, final int length )
+	{
+		final float[] s = ( float[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( short ) Util.roundToLong( ( double ) s[ i ] );
+	}
+
+	static void convertClamp_Float_UnsignedShort( final Object src, final Object dest, final int length )
+	{
+		final float[] s = ( float[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = s[ i ];
+			d[ i ] = ( short ) ( v < 0 ? 0 : ( v > 0xffff ? 0xffff : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convertLinear_Float_UnsignedShort( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final float[] s = ( float[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( short ) ( v < 0 ? 0 : ( v > 0xffff ? 0xffff : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Float_Int( final Object src, final Object dest, final int length )
+	{
+		final float[] s = ( float[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( int ) Util.roundToLong( ( double ) s[ i ] );
+	}
+
+	static void convertClamp_Float_Int( final Object src, final Object dest, final int length )
+	{
+		final float[] s = ( float[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = s[ i ];
+			d[ i ] = ( int ) ( v < Integer.MIN_VALUE ? Integer.MIN_VALUE : ( v > Integer.MAX_VALUE ? Integer.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convertLinear_Float_Int( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final float[] s = ( float[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( int ) ( v < Integer.MIN_VALUE ? Integer.MIN_VALUE : ( v > Integer.MAX_VALUE ? Integer.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Float_UnsignedInt( final Object src, final Object dest, final int length )
+	{
+		final float[] s = ( float[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( int ) Util.roundToLong( ( double ) s[ i ] );
+	}
+
+	static void convertClamp_Float_UnsignedInt( final Object src, final Object dest, final int length )
+	{
+		final float[] s = ( float[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = s[ i ];
+			d[ i ] = ( int ) ( v < 0 ? 0 : ( v > 0xffffffffL ? 0xffffffffL : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convertLinear_Float_UnsignedInt( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final float[] s = ( float[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( int ) ( v < 0 ? 0 : ( v > 0xffffffffL ? 0xffffffffL : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Float_Long( final Object src, final Object dest, final int length )
+	{
+		final float[] s = ( float[] ) src;
+		final long[] d = ( long[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( long ) Util.roundToLong( ( double ) s[ i ] );
+	}
+
+	static void convertClamp_Float_Long( final Object src, final Object dest, final int length )
+	{
+		final float[] s = ( float[] ) src;
+		final long[] d = ( long[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = s[ i ];
+			d[ i ] = ( long ) ( v < Long.MIN_VALUE ? Long.MIN_VALUE : ( v > Long.MAX_VALUE ? Long.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convertLinear_Float_Long( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final float[] s = ( float[] ) src;
+		final long[] d = ( long[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( long ) ( v < Long.MIN_VALUE ? Long.MIN_VALUE : ( v > Long.MAX_VALUE ? Long.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Float_Float( final Object src, final Object dest, final int length )
+	{
+		final float[] s = ( float[] ) src;
+		final float[] d = ( float[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( float ) ( s[ i ] );
+	}
+
+	static void convertClamp_Float_Float( final Object src, final Object dest, final int length )
+	{
+		final float[] s = ( float[] ) src;
+		final float[] d = ( float[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = s[ i ];
+			d[ i ] = ( float ) v;
+		}
+	}
+
+	static void convertLinear_Float_Float( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final float[] s = ( float[] ) src;
+		final float[] d = ( float[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( float ) v;
+		}
+	}
+
+	static void convert_Float_Double( final Object src, final Object dest, final int length )
+	{
+		final float[] s = ( float[] ) src;
+		final double[] d = ( double[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( double ) ( s[ i ] );
+	}
+
+	static void convertClamp_Float_Double( final Object src, final Object dest, final int length )
+	{
+		final float[] s = ( float[] ) src;
+		final double[] d = ( double[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = s[ i ];
+			d[ i ] = ( double ) v;
+		}
+	}
+
+	static void convertLinear_Float_Double( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final float[] s = ( float[] ) src;
+		final double[] d = ( double[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( double ) v;
+		}
+	}
+
+	static void convert_Double_Byte( final Object src, final Object dest, final int length )
+	{
+		final double[] s = ( double[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( byte ) Util.roundToLong( ( double ) s[ i ] );
+	}
+
+	static void convertClamp_Double_Byte( final Object src, final Object dest, final int length )
+	{
+		final double[] s = ( double[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = s[ i ];
+			d[ i ] = ( byte ) ( v < Byte.MIN_VALUE ? Byte.MIN_VALUE : ( v > Byte.MAX_VALUE ? Byte.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convertLinear_Double_Byte( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final double[] s = ( double[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( byte ) ( v < Byte.MIN_VALUE ? Byte.MIN_VALUE : ( v > Byte.MAX_VALUE ? Byte.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Double_UnsignedByte( final Object src, final Object dest, final int length )
+	{
+		final double[] s = ( double[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( byte ) Util.roundToLong( ( double ) s[ i ] );
+	}
+
+	static void convertClamp_Double_UnsignedByte( final Object src, final Object dest, final int length )
+	{
+		final double[] s = ( double[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = s[ i ];
+			d[ i ] = ( byte ) ( v < 0 ? 0 : ( v > 0xff ? 0xff : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convertLinear_Double_UnsignedByte( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final double[] s = ( double[] ) src;
+		final byte[] d = ( byte[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( byte ) ( v < 0 ? 0 : ( v > 0xff ? 0xff : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Double_Short( final Object src, final Object dest, final int length )
+	{
+		final double[] s = ( double[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( short ) Util.roundToLong( ( double ) s[ i ] );
+	}
+
+	static void convertClamp_Double_Short( final Object src, final Object dest, final int length )
+	{
+		final double[] s = ( double[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = s[ i ];
+			d[ i ] = ( short ) ( v < Short.MIN_VALUE ? Short.MIN_VALUE : ( v > Short.MAX_VALUE ? Short.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convertLinear_Double_Short( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final double[] s = ( double[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( short ) ( v < Short.MIN_VALUE ? Short.MIN_VALUE : ( v > Short.MAX_VALUE ? Short.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Double_UnsignedShort( final Object src, final Object dest, final int length )
+	{
+		final double[] s = ( double[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( short ) Util.roundToLong( ( double ) s[ i ] );
+	}
+
+	static void convertClamp_Double_UnsignedShort( final Object src, final Object dest, final int length )
+	{
+		final double[] s = ( double[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = s[ i ];
+			d[ i ] = ( short ) ( v < 0 ? 0 : ( v > 0xffff ? 0xffff : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convertLinear_Double_UnsignedShort( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final double[] s = ( double[] ) src;
+		final short[] d = ( short[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( short ) ( v < 0 ? 0 : ( v > 0xffff ? 0xffff : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Double_Int( final Object src, final Object dest, final int length )
+	{
+		final double[] s = ( double[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( int ) Util.roundToLong( ( double ) s[ i ] );
+	}
+
+	static void convertClamp_Double_Int( final Object src, final Object dest, final int length )
+	{
+		final double[] s = ( double[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = s[ i ];
+			d[ i ] = ( int ) ( v < Integer.MIN_VALUE ? Integer.MIN_VALUE : ( v > Integer.MAX_VALUE ? Integer.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convertLinear_Double_Int( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final double[] s = ( double[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( int ) ( v < Integer.MIN_VALUE ? Integer.MIN_VALUE : ( v > Integer.MAX_VALUE ? Integer.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Double_UnsignedInt( final Object src, final Object dest, final int length )
+	{
+		final double[] s = ( double[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( int ) Util.roundToLong( ( double ) s[ i ] );
+	}
+
+	static void convertClamp_Double_UnsignedInt( final Object src, final Object dest, final int length )
+	{
+		final double[] s = ( double[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = s[ i ];
+			d[ i ] = ( int ) ( v < 0 ? 0 : ( v > 0xffffffffL ? 0xffffffffL : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convertLinear_Double_UnsignedInt( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final double[] s = ( double[] ) src;
+		final int[] d = ( int[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( int ) ( v < 0 ? 0 : ( v > 0xffffffffL ? 0xffffffffL : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Double_Long( final Object src, final Object dest, final int length )
+	{
+		final double[] s = ( double[] ) src;
+		final long[] d = ( long[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( long ) Util.roundToLong( ( double ) s[ i ] );
+	}
+
+	static void convertClamp_Double_Long( final Object src, final Object dest, final int length )
+	{
+		final double[] s = ( double[] ) src;
+		final long[] d = ( long[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = s[ i ];
+			d[ i ] = ( long ) ( v < Long.MIN_VALUE ? Long.MIN_VALUE : ( v > Long.MAX_VALUE ? Long.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convertLinear_Double_Long( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final double[] s = ( double[] ) src;
+		final long[] d = ( long[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( long ) ( v < Long.MIN_VALUE ? Long.MIN_VALUE : ( v > Long.MAX_VALUE ? Long.MAX_VALUE : Util.roundToLong( v ) ) );
+		}
+	}
+
+	static void convert_Double_Float( final Object src, final Object dest, final int length )
+	{
+		final double[] s = ( double[] ) src;
+		final float[] d = ( float[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( float ) ( s[ i ] );
+	}
+
+	static void convertClamp_Double_Float( final Object src, final Object dest, final int length )
+	{
+		final double[] s = ( double[] ) src;
+		final float[] d = ( float[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = s[ i ];
+			d[ i ] = ( float ) v;
+		}
+	}
+
+	static void convertLinear_Double_Float( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final double[] s = ( double[] ) src;
+		final float[] d = ( float[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( float ) v;
+		}
+	}
+
+	static void convert_Double_Double( final Object src, final Object dest, final int length )
+	{
+		final double[] s = ( double[] ) src;
+		final double[] d = ( double[] ) dest;
+		for ( int i = 0; i < length; ++i )
+			d[ i ] = ( double ) ( s[ i ] );
+	}
+
+	static void convertClamp_Double_Double( final Object src, final Object dest, final int length )
+	{
+		final double[] s = ( double[] ) src;
+		final double[] d = ( double[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = s[ i ];
+			d[ i ] = ( double ) v;
+		}
+	}
+
+	static void convertLinear_Double_Double( final Object src, final Object dest, final int length, final double scale, final double offset )
+	{
+		final double[] s = ( double[] ) src;
+		final double[] d = ( double[] ) dest;
+		for ( int i = 0; i < length; ++i )
+		{
+			final double v = ( s[ i ] ) * scale + offset;
+			d[ i ] = ( double ) v;
+		}
+	}
+}
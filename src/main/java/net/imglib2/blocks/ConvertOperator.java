@@ -0,0 +1,206 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.blocks;
+
+import net.imglib2.type.NativeType;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.util.Intervals;
+import net.imglib2.util.Util;
+
+/**
+ * A {@link UnaryBlockOperator} that converts between {@code RealType}s,
+ * optionally clamping to the range of the target type, or applying a linear
+ * transformation {@code v * scale + offset}.
+ * <p>
+ * Supported source and target types are {@code ByteType}, {@code
+ * UnsignedByteType}, {@code ShortType}, {@code UnsignedShortType}, {@code
+ * IntType}, {@code UnsignedIntType}, {@code LongType}, {@code FloatType}, and
+ * {@code DoubleType}. Conversion to integer types rounds to the nearest
+ * integer, like {@link RealType#setReal(double)}.
+ * <p>
+ * The conversion is done by specialized loops over primitive arrays (generated
+ * for each combination of source and target type), which is much faster than
+ * converting through {@code Converter}s.
+ *
+ * @param <S>
+ * 		source pixel type
+ * @param <T>
+ * 		target pixel type
+ */
+public final class ConvertOperator< S extends NativeType< S >, T extends NativeType< T > > implements UnaryBlockOperator< S, T >
+{
+	/**
+	 * How values that are out of range of an integer target type are handled.
+	 */
+	public enum ClampType
+	{
+		/**
+		 * Values wrap around, like {@code setInteger()}.
+		 */
+		NONE,
+
+		/**
+		 * Values are clamped to the range of the target type.
+		 */
+		CLAMP
+	}
+
+	private final S sourceType;
+
+	private final T targetType;
+
+	private final int numDimensions;
+
+	private final ConvertLoops.Loop loop;
+
+	private final ConvertLoops.LinearLoop linearLoop;
+
+	private final double scale;
+
+	private final double offset;
+
+	private ConvertOperator(
+			final S sourceType,
+			final T targetType,
+			final int numDimensions,
+			final ConvertLoops.Loop loop,
+			final ConvertLoops.LinearLoop linearLoop,
+			final double scale,
+			final double offset )
+	{
+		this.sourceType = sourceType;
+		this.targetType = targetType;
+		this.numDimensions = numDimensions;
+		this.loop = loop;
+		this.linearLoop = linearLoop;
+		this.scale = scale;
+		this.offset = offset;
+	}
+
+	/**
+	 * Create a {@code UnaryBlockOperator} that converts {@code numDimensions}
+	 * -dimensional blocks from {@code sourceType} to {@code targetType}.
+	 *
+	 * @throws IllegalArgumentException
+	 * 		if {@code sourceType} or {@code targetType} is not supported
+	 */
+	public static < S extends RealType< S > & NativeType< S >, T extends RealType< T > & NativeType< T > > ConvertOperator< S, T > convert(
+			final S sourceType,
+			final T targetType,
+			final int numDimensions,
+			final ClampType clamp )
+	{
+		final ConvertLoops.Loop loop = ConvertLoops.loop( kind( sourceType ), kind( targetType ), clamp == ClampType.CLAMP );
+		return new ConvertOperator<>( sourceType.createVariable(), targetType.createVariable(), numDimensions, loop, null, 1, 0 );
+	}
+
+	/**
+	 * Create a {@code UnaryBlockOperator} that converts {@code numDimensions}
+	 * -dimensional blocks from {@code sourceType} to {@code targetType},
+	 * computing {@code v * scale + offset} for each source value {@code v}.
+	 * Results are clamped to the range of the target type.
+	 *
+	 * @throws IllegalArgumentException
+	 * 		if {@code sourceType} or {@code targetType} is not supported
+	 */
+	public static < S extends RealType< S > & NativeType< S >, T extends RealType< T > & NativeType< T > > ConvertOperator< S, T > linear(
+			final S sourceType,
+			final T targetType,
+			final int numDimensions,
+			final double scale,
+			final double offset )
+	{
+		final ConvertLoops.LinearLoop linearLoop = ConvertLoops.linearLoop( kind( sourceType ), kind( targetType ) );
+		return new ConvertOperator<>( sourceType.createVariable(), targetType.createVariable(), numDimensions, null, linearLoop, scale, offset );
+	}
+
+	private static ConvertLoops.Kind kind( final NativeType< ? > type )
+	{
+		final ConvertLoops.Kind kind = ConvertLoops.kind( type );
+		if ( kind == null )
+			throw new IllegalArgumentException( "Type " + type.getClass().getSimpleName() + " is not supported by ConvertOperator." );
+		return kind;
+	}
+
+	@Override
+	public S getSourceType()
+	{
+		return sourceType;
+	}
+
+	@Override
+	public T getTargetType()
+	{
+		return targetType;
+	}
+
+	@Override
+	public int numSourceDimensions()
+	{
+		return numDimensions;
+	}
+
+	@Override
+	public int numTargetDimensions()
+	{
+		return numDimensions;
+	}
+
+	@Override
+	public void getSourceBlock( final long[] targetPos, final int[] targetSize, final long[] sourcePos, final int[] sourceSize )
+	{
+		System.arraycopy( targetPos, 0, sourcePos, 0, numDimensions );
+		System.arraycopy( targetSize, 0, sourceSize, 0, numDimensions );
+	}
+
+	@Override
+	public void compute( final Object src, final int[] srcSize, final Object dest, final int[] destSize )
+	{
+		final int length = Util.safeInt( Intervals.numElements( destSize ) );
+		if ( loop != null )
+			loop.apply( src, dest, length );
+		else
+			linearLoop.apply( src, dest, length, scale, offset );
+	}
+
+	/**
+	 * {@code ConvertOperator} has no internal state, so this returns
+	 * {@code this}.
+	 */
+	@Override
+	public ConvertOperator< S, T > independentCopy()
+	{
+		return this;
+	}
+}
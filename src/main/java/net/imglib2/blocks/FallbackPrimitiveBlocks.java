@@ -92,6 +92,15 @@ class FallbackPrimitiveBlocks< T extends NativeType< T >, A extends ArrayDataAcc
 		LoopBuilder.setImages( Views.interval( source, interval ), img ).forEachPixel( ( a, b ) -> b.set( a ) );
 	}
 
+	@Override
+	public void put( final long[] destPos, final Object src, final int[] size )
+	{
+		final ArrayImg< T, A > img = new ArrayImg<>( primitiveTypeProperties.wrap( src ), Util.int2long( size ), type.getEntitiesPerPixel() );
+		img.setLinkedType( nativeTypeFactory.createLinkedType( img ) );
+		final FinalInterval interval = FinalInterval.createMinSize( destPos, Util.int2long( size ) );
+		LoopBuilder.setImages( img, Views.interval( source, interval ) ).forEachPixel( ( a, b ) -> b.set( a ) );
+	}
+
 	@Override
 	public PrimitiveBlocks< T > independentCopy()
 	{
@@ -53,6 +53,13 @@ import net.imglib2.util.Util;
  * Then use the {@link PrimitiveBlocks#copy} method, to copy blocks out of the
  * source into flat primitive arrays.
  * <p>
+ * Conversely, the {@link PrimitiveBlocks#put} method copies blocks from flat
+ * primitive arrays back into the source. {@code put} is supported for Views
+ * that do not involve {@code Converter}s. Parts of the block that fall outside
+ * the underlying {@code NativeImg} are ignored (no matter how the source is
+ * extended). The fall-back implementation (see below) writes into the source
+ * pixel-by-pixel.
+ * <p>
  * {@link PrimitiveBlocks#of(RandomAccessible) PrimitiveBlocks.of} understands a
  * lot of View constructions (that ultimately end in {@code CellImg}, {@code
  * ArrayImg}, etc) and will try to build an optimized copier. For example, the
@@ -138,6 +145,53 @@ public interface PrimitiveBlocks< T extends NativeType< T > > extends Typed< T >
 		copy( Util.int2long( srcPos ), dest, size );
 	}
 
+	/**
+	 * Copy a block from primitive arrays (of the appropriate type) into the
+	 * ({@code T}-typed) source.
+	 * <p>
+	 * Parts of the block that fall outside the {@code NativeImg} underlying
+	 * the source are ignored.
+	 *
+	 * @param destPos
+	 * 		min coordinate of the block to copy into
+	 * @param src
+	 * 		primitive array to copy from. Must correspond to {@code T}, for
+	 *      example, if {@code T} is {@code UnsignedByteType} then {@code src} must
+	 *      be {@code byte[]}.
+	 * @param size
+	 * 		the size of the block to copy
+	 *
+	 * @throws UnsupportedOperationException
+	 * 		if the source View cannot be written to (for example, because it
+	 * 		involves a {@code Converter}).
+	 */
+	void put( long[] destPos, Object src, int[] size );
+
+	/**
+	 * Copy a block from primitive arrays (of the appropriate type) into the
+	 * ({@code T}-typed) source.
+	 * <p>
+	 * Parts of the block that fall outside the {@code NativeImg} underlying
+	 * the source are ignored.
+	 *
+	 * @param destPos
+	 * 		min coordinate of the block to copy into
+	 * @param src
+	 * 		primitive array to copy from. Must correspond to {@code T}, for
+	 *      example, if {@code T} is {@code UnsignedByteType} then {@code src} must
+	 *      be {@code byte[]}.
+	 * @param size
+	 * 		the size of the block to copy
+	 *
+	 * @throws UnsupportedOperationException
+	 * 		if the source View cannot be written to (for example, because it
+	 * 		involves a {@code Converter}).
+	 */
+	default void put( int[] destPos, Object src, int[] size )
+	{
+		put( Util.int2long( destPos ), src, size );
+	}
+
 	/**
 	 * Get a thread-safe version of this {@code PrimitiveBlocks}.
 	 * (Implemented as a wrapper that makes {@link ThreadLocal} copies).
@@ -41,7 +41,8 @@ import net.imglib2.img.planar.PlanarImg;
 
 /**
  * {@code RangeCopier} does the actual copying work from a {@code NativeImg}
- * into a primitive array.
+ * into a primitive array (and back from a primitive array into the {@code
+ * NativeImg}).
  * <p>
  * The static {@link RangeCopier#create} method will pick the correct
  * implementation for a given {@link NativeImg}.
@@ -64,6 +65,24 @@ interface RangeCopier< T >
 	 */
 	void copy( final long[] srcPos, final T dest, final int[] size );
 
+	/**
+	 * Copy the (appropriately sized) {@code src} array into the block starting
+	 * at {@code destPos} with the given {@code size}.
+	 * <p>
+	 * Parts of the block that are outside the dest Img are ignored. If the
+	 * storage of the dest Img is {@link net.imglib2.Dirty Dirty}, it is flagged
+	 * dirty after it has been written to.
+	 *
+	 * @param destPos
+	 * 		min coordinates of block to copy into dest Img.
+	 * @param src
+	 * 		source array. Type is {@code byte[]}, {@code float[]},
+	 * 		etc, corresponding to the dest Img's native type.
+	 * @param size
+	 * 		dimensions of block to copy into dest Img.
+	 */
+	void put( final long[] destPos, final T src, final int[] size );
+
 	/**
 	 * Return a new independent instance of this {@code RangeCopier}. This is
 	 * used for multi-threading. The new instance works on the same source
@@ -73,18 +92,33 @@ interface RangeCopier< T >
 	 */
 	RangeCopier< T > newInstance();
 
+	/**
+	 * Create a {@code RangeCopier} for the given {@code img}.
+	 *
+	 * @param img
+	 * 		the {@code NativeImg} to copy from (and to)
+	 * @param findRanges
+	 * 		used to find ranges for {@link #copy}, according to the out-of-bounds extension
+	 * @param memCopy
+	 * 		copies from {@code img} storage to primitive array (used by {@link #copy})
+	 * @param memCopyPut
+	 * 		copies from primitive array to {@code img} storage (used by {@link #put})
+	 * @param oob
+	 * 		out-of-bounds value (for constant extension)
+	 */
 	static < S, T > RangeCopier< T > create(
 			final NativeImg< ?, ? > img,
 			final Ranges findRanges,
 			final MemCopy< S, T > memCopy,
+			final MemCopy< T, S > memCopyPut,
 			final S oob )
 	{
 		if ( img instanceof AbstractCellImg )
-			return new CellImgRangeCopier<>( ( AbstractCellImg< ?, ?, ? extends Cell< ? >, ? > ) img, findRanges, memCopy, oob );
+			return new CellImgRangeCopier<>( ( AbstractCellImg< ?, ?, ? extends Cell< ? >, ? > ) img, findRanges, memCopy, memCopyPut, oob );
 		else if ( img instanceof PlanarImg )
-			return new PlanarImgRangeCopier<>( ( PlanarImg< ?, ? > ) img, findRanges, memCopy, oob );
+			return new PlanarImgRangeCopier<>( ( PlanarImg< ?, ? > ) img, findRanges, memCopy, memCopyPut, oob );
 		else if ( img instanceof ArrayImg )
-			return new ArrayImgRangeCopier<>( ( ArrayImg< ?, ? > ) img, findRanges, memCopy, oob );
+			return new ArrayImgRangeCopier<>( ( ArrayImg< ?, ? > ) img, findRanges, memCopy, memCopyPut, oob );
 		else
 			throw new IllegalArgumentException();
 	}
@@ -0,0 +1,106 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.blocks;
+
+import net.imglib2.type.NativeType;
+
+/**
+ * Computes a {@code T}-typed target block from a {@code S}-typed source block,
+ * where both blocks are given as flat primitive arrays (of the appropriate
+ * types).
+ * <p>
+ * The source block that is required to compute a given target block is
+ * specified by {@link #getSourceBlock}. For example, a 3x3 convolution would
+ * require a source block that is larger by 1 pixel on each side than the
+ * target block.
+ * <p>
+ * Implementations are not thread-safe in general. Use {@link
+ * #independentCopy()} to obtain instances for use in other threads.
+ *
+ * @param <S>
+ * 		source pixel type
+ * @param <T>
+ * 		target pixel type
+ */
+public interface UnaryBlockOperator< S extends NativeType< S >, T extends NativeType< T > >
+{
+	S getSourceType();
+
+	T getTargetType();
+
+	int numSourceDimensions();
+
+	int numTargetDimensions();
+
+	/**
+	 * Compute the source block that is required to compute the target block
+	 * at {@code targetPos} with size {@code targetSize}. The result is stored
+	 * in {@code sourcePos} and {@code sourceSize}.
+	 *
+	 * @param targetPos
+	 * 		min coordinate of the target block
+	 * @param targetSize
+	 * 		size of the target block
+	 * @param sourcePos
+	 * 		min coordinate of the required source block is stored here
+	 * @param sourceSize
+	 * 		size of the required source block is stored here
+	 */
+	void getSourceBlock( long[] targetPos, int[] targetSize, long[] sourcePos, int[] sourceSize );
+
+	/**
+	 * Compute the target block from the source block.
+	 *
+	 * @param src
+	 * 		primitive array containing the source block. Must correspond to
+	 * 		{@code S}, for example, if {@code S} is {@code UnsignedByteType} then
+	 * 		{@code src} must be {@code byte[]}.
+	 * @param srcSize
+	 * 		size of the source block (as computed by {@link #getSourceBlock})
+	 * @param dest
+	 * 		primitive array to store the target block. Must correspond to
+	 * 		{@code T}, for example, if {@code T} is {@code FloatType} then
+	 * 		{@code dest} must be {@code float[]}.
+	 * @param destSize
+	 * 		size of the target block
+	 */
+	void compute( Object src, int[] srcSize, Object dest, int[] destSize );
+
+	/**
+	 * Get an instance of this {@code UnaryBlockOperator} with independent
+	 * internal state (for example temporary buffers) that can be used in a
+	 * different thread.
+	 */
+	UnaryBlockOperator< S, T > independentCopy();
+}
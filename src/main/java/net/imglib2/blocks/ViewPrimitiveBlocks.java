@@ -34,6 +34,7 @@
 package net.imglib2.blocks;
 
 import static net.imglib2.blocks.PrimitiveBlocksUtils.extractOobValue;
+import static net.imglib2.blocks.PrimitiveBlocksUtils.invPermutationInversion;
 
 import java.util.function.Supplier;
 
@@ -60,25 +61,44 @@ class ViewPrimitiveBlocks< T extends NativeType< T >, R extends NativeType< R >
 
 	private final PermuteInvert permuteInvert;
 
+	// inverse of permuteInvert, used for put()
+	private final PermuteInvert permuteInvertPut;
+
 	private final Convert convert;
 
+	// block min and size transformed to root coordinates
+	private final long[] rootPos;
+
+	private final int[] rootSize;
+
+	// block size permuted to root axis order, used for put()
+	private final int[] permuteSize;
+
 	private Supplier< PrimitiveBlocks< T > > threadSafeSupplier;
 
 	public ViewPrimitiveBlocks( final ViewProperties< T, R > props )
 	{
 		this.props = props;
 		final PrimitiveType primitiveType = props.getRootType().getNativeTypeFactory().getPrimitiveType();
-		final MemCopy memCopy = MemCopy.forPrimitiveType( primitiveType, props.getRoot().getAccessType() instanceof BufferAccess, false );
+		final boolean isBufferAccess = props.getRoot().getAccessType() instanceof BufferAccess;
+		final MemCopy memCopy = MemCopy.forPrimitiveType( primitiveType, isBufferAccess, false );
+		final MemCopy memCopyPut = MemCopy.forPrimitiveType( primitiveType, false, isBufferAccess );
+		final MemCopy memCopyArray = MemCopy.forPrimitiveType( primitiveType );
 		final Extension extension = props.getExtension() != null ? props.getExtension() : Extension.border();
 		final Object oob = extractOobValue( props.getRootType(), extension );
 		final Ranges findRanges = Ranges.forExtension( extension );
-		copier = RangeCopier.create( props.getRoot(), findRanges, memCopy, oob );
+		copier = RangeCopier.create( props.getRoot(), findRanges, memCopy, memCopyPut, oob );
 		tempArrayConvert = Cast.unchecked( TempArray.forPrimitiveType( primitiveType ) );
 		tempArrayPermute = Cast.unchecked( TempArray.forPrimitiveType( primitiveType ) );
-		permuteInvert = new PermuteInvert( memCopy, props.getPermuteInvertTransform() );
+		permuteInvert = new PermuteInvert( memCopyArray, props.getPermuteInvertTransform() );
+		permuteInvertPut = new PermuteInvert( memCopyArray, invPermutationInversion( props.getPermuteInvertTransform() ) );
 		convert = props.hasConverterSupplier()
 				? Convert.create( props.getRootType(), props.getViewType(), props.getConverterSupplier() )
 				: null;
+		final int n = props.getTransform().numTargetDimensions();
+		rootPos = new long[ n ];
+		rootSize = new int[ n ];
+		permuteSize = new int[ props.getPermuteInvertTransform().numSourceDimensions() ];
 	}
 
 	@Override
@@ -102,33 +122,16 @@ class ViewPrimitiveBlocks< T extends NativeType< T >, R extends NativeType< R >
 	 * @param size
 	 * 		dimensions of block to copy from src Img.
 	 */
+	@Override
 	public void copy( final long[] srcPos, final Object dest, final int[] size )
 	{
 		final long[] destPos;
 		final int[] destSize;
 		if ( props.hasTransform() )
 		{
-			final MixedTransform transform = props.getTransform();
-			final int n = transform.numTargetDimensions();
-			destPos = new long[ n ];
-			destSize = new int[ n ];
-			for ( int d = 0; d < n; d++ )
-			{
-				final int t = ( int ) transform.getTranslation( d );
-				if ( transform.getComponentZero( d ) )
-				{
-					destPos[ d ] = t;
-					destSize[ d ] = 1;
-				}
-				else
-				{
-					final int c = transform.getComponentMapping( d );
-					destPos[ d ] = transform.getComponentInversion( d )
-							? t - srcPos[ c ] - size[ c ] + 1
-							: t + srcPos[ c ];
-					destSize[ d ] = size[ c ];
-				}
-			}
+			transformToRoot( srcPos, size );
+			destPos = rootPos;
+			destSize = rootSize;
 		}
 		else
 		{
@@ -165,6 +168,78 @@ class ViewPrimitiveBlocks< T extends NativeType< T >, R extends NativeType< R >
 		}
 	}
 
+	/**
+	 * @param destPos
+	 * 		min coordinates of block to copy into dest Img.
+	 * @param src
+	 * 		source array. Type is {@code byte[]}, {@code float[]},
+	 * 		etc, corresponding to the dest Img's native type.
+	 * @param size
+	 * 		dimensions of block to copy into dest Img.
+	 */
+	@Override
+	public void put( final long[] destPos, final Object src, final int[] size )
+	{
+		if ( props.hasConverterSupplier() )
+			throw new UnsupportedOperationException( "Cannot put() into a View with a Converter" );
+
+		final long[] putPos;
+		final int[] putSize;
+		if ( props.hasTransform() )
+		{
+			transformToRoot( destPos, size );
+			putPos = rootPos;
+			putSize = rootSize;
+		}
+		else
+		{
+			putPos = destPos;
+			putSize = size;
+		}
+
+		if ( props.hasPermuteInvertTransform() )
+		{
+			final int length = ( int ) Intervals.numElements( size );
+			final Object permuteDest = tempArrayPermute.get( length );
+			for ( int d = 0; d < permuteSize.length; ++d )
+				permuteSize[ d ] = size[ props.getPermuteInvertTransform().getComponentMapping( d ) ];
+			permuteInvertPut.permuteAndInvert( src, permuteDest, permuteSize );
+			copier.put( putPos, permuteDest, putSize );
+		}
+		else
+		{
+			copier.put( putPos, src, putSize );
+		}
+	}
+
+	/**
+	 * Transform block min {@code pos} and {@code size} (in View coordinates)
+	 * to the root {@code NativeImg}. The result is stored in {@link #rootPos}
+	 * and {@link #rootSize}.
+	 */
+	private void transformToRoot( final long[] pos, final int[] size )
+	{
+		final MixedTransform transform = props.getTransform();
+		final int n = transform.numTargetDimensions();
+		for ( int d = 0; d < n; d++ )
+		{
+			final int t = ( int ) transform.getTranslation( d );
+			if ( transform.getComponentZero( d ) )
+			{
+				rootPos[ d ] = t;
+				rootSize[ d ] = 1;
+			}
+			else
+			{
+				final int c = transform.getComponentMapping( d );
+				rootPos[ d ] = transform.getComponentInversion( d )
+						? t - pos[ c ] - size[ c ] + 1
+						: t + pos[ c ];
+				rootSize[ d ] = size[ c ];
+			}
+		}
+	}
+
 	@Override
 	public PrimitiveBlocks< T > threadSafe()
 	{
@@ -190,6 +265,12 @@ class ViewPrimitiveBlocks< T extends NativeType< T >, R extends NativeType< R >
 				threadSafeSupplier.get().copy( srcPos, dest, size );
 			}
 
+			@Override
+			public void put( final long[] destPos, final Object src, final int[] size )
+			{
+				threadSafeSupplier.get().put( destPos, src, size );
+			}
+
 			@Override
 			public PrimitiveBlocks< T > independentCopy()
 			{
@@ -215,8 +296,12 @@ class ViewPrimitiveBlocks< T extends NativeType< T >, R extends NativeType< R >
 		props = blocks.props;
 		copier = blocks.copier.newInstance();
 		permuteInvert = blocks.permuteInvert.newInstance();
+		permuteInvertPut = blocks.permuteInvertPut.newInstance();
 		convert = blocks.convert == null ? null : blocks.convert.newInstance();
 		tempArrayConvert = blocks.tempArrayConvert.newInstance();
 		tempArrayPermute = blocks.tempArrayPermute.newInstance();
+		rootPos = new long[ blocks.rootPos.length ];
+		rootSize = new int[ blocks.rootSize.length ];
+		permuteSize = new int[ blocks.permuteSize.length ];
 	}
 }
@@ -0,0 +1,106 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.histogram;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+import net.imglib2.type.numeric.IntegerType;
+
+/**
+ * Helpers for counting values into primitive {@code long[]} bins, used by the
+ * parallel {@code countData} and {@code addData} methods of {@link
+ * Histogram1d} and {@link HistogramNd}. Each task counts into its own array,
+ * and the arrays are summed afterwards.
+ */
+final class BinCounts
+{
+	private BinCounts()
+	{}
+
+	/**
+	 * Largest number of bins that is counted into per-task {@code long[]}
+	 * arrays. (One more element is needed to count ignored values.)
+	 */
+	static final long MAX_BINS = Integer.MAX_VALUE - 9;
+
+	/**
+	 * Returns a function that maps values to bin positions, like {@link
+	 * BinMapper1d#map}, but returns {@code -1} for values that are not mapped
+	 * to any bin.
+	 * <p>
+	 * For {@link Integer1dBinMapper}, the bin is computed directly from the
+	 * integer value. Otherwise, a {@link BinMapper1d#copy() copy} of the
+	 * {@code mapper} is used, so the returned function can be used
+	 * concurrently with other functions returned by this method.
+	 */
+	static < T > ToLongFunction< T > binning( final BinMapper1d< T > mapper )
+	{
+		if ( mapper instanceof Integer1dBinMapper )
+		{
+			final Integer1dBinMapper< ? > integerMapper = ( Integer1dBinMapper< ? > ) mapper;
+			final long min = integerMapper.minValue();
+			final long max = integerMapper.maxValue();
+			final boolean tails = integerMapper.hasTails();
+			final long offset = tails ? min - 1 : min;
+			final long lower = tails ? 0 : -1;
+			final long upper = tails ? integerMapper.getBinCount() - 1 : -1;
+			return value -> {
+				final long v = ( ( IntegerType< ? > ) value ).getIntegerLong();
+				return v < min ? lower : ( v > max ? upper : v - offset );
+			};
+		}
+		final BinMapper1d< T > copy = mapper.copy();
+		return value -> {
+			final long bin = copy.map( value );
+			return ( bin == Long.MIN_VALUE || bin == Long.MAX_VALUE ) ? -1 : bin;
+		};
+	}
+
+	/**
+	 * Returns the element-wise sum of the given arrays, which all have the
+	 * same length.
+	 */
+	static long[] sum( final List< long[] > counts )
+	{
+		final long[] sum = counts.get( 0 ).clone();
+		for ( int i = 1; i < counts.size(); i++ )
+		{
+			final long[] c = counts.get( i );
+			for ( int j = 0; j < sum.length; j++ )
+				sum[ j ] += c[ j ];
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,101 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.histogram;
+
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.blocks.Blockwise;
+import net.imglib2.blocks.PrimitiveBlocks;
+import net.imglib2.parallel.Parallelization;
+import net.imglib2.parallel.TaskExecutor;
+import net.imglib2.type.NativeType;
+import net.imglib2.type.numeric.RealType;
+
+/**
+ * Compute {@link StreamingHistogram}s and {@link QuantileSketch}es of images
+ * in a single pass, block by block.
+ * <p>
+ * Blocks are copied into {@code double[]} arrays using {@link
+ * PrimitiveBlocks}. If the image is a {@code CellImg} (or a simple View of
+ * one), blocks are aligned to its cells (see {@link Blockwise#grid}). Blocks
+ * are processed in parallel, using the {@link TaskExecutor} obtained from
+ * {@link Parallelization#getTaskExecutor()}. Each task summarizes its blocks
+ * into its own summary, and the summaries are merged afterwards.
+ * <pre>{@code
+ * 		CellImg< UnsignedShortType, ? > img = ...
+ * 		QuantileSketch sketch = BlockwiseSummaries.quantileSketch( img, QuantileSketch.DEFAULT_K );
+ * 		double low = sketch.quantile( 0.01 );
+ * 		double high = sketch.quantile( 0.99 );
+ * }</pre>
+ */
+public final class BlockwiseSummaries
+{
+	private BlockwiseSummaries()
+	{
+		// prevent from instantiation
+	}
+
+	/**
+	 * Compute a histogram of {@code img} with {@code numBins} bins over
+	 * {@code [min, max]}.
+	 */
+	public static < T extends RealType< T > & NativeType< T > > StreamingHistogram histogram(
+			final RandomAccessibleInterval< T > img,
+			final double min,
+			final double max,
+			final int numBins )
+	{
+		return Blockwise.reduce( img,
+				() -> new StreamingHistogram( min, max, numBins ),
+				StreamingHistogram::add,
+				StreamingHistogram::merge );
+	}
+
+	/**
+	 * Compute a quantile sketch of {@code img} with the given {@code k}.
+	 * <p>
+	 * The partial sketch of each range of blocks is seeded with the index of
+	 * the range (see {@link QuantileSketch#seed(long)}). Partial sketches
+	 * therefore compact independently, and the result for a given image and
+	 * number of tasks is the same in every run.
+	 */
+	public static < T extends RealType< T > & NativeType< T > > QuantileSketch quantileSketch(
+			final RandomAccessibleInterval< T > img,
+			final int k )
+	{
+		return Blockwise.reduceIndexed( img,
+				i -> new QuantileSketch( k, QuantileSketch.seed( i ) ),
+				QuantileSketch::update,
+				QuantileSketch::merge );
+	}
+}
@@ -47,6 +47,7 @@ import net.imglib2.img.Img;
 import net.imglib2.img.ImgFactory;
 import net.imglib2.img.array.ArrayImgFactory;
 import net.imglib2.type.numeric.integer.LongType;
+import net.imglib2.util.IntervalIndexer;
 
 /**
  * This class represents an n-dimensional set of counters. Histogram
@@ -168,6 +169,32 @@ public class DiscreteFrequencyDistribution implements Img< LongType >
 		totalValues--;
 	}
 
+	/**
+	 * Adds counts to the frequency counts of all bins. The count for the bin
+	 * at position {@code binPos} is {@code binCounts[ i ]}, where {@code i} is the
+	 * flat index of {@code binPos}, i.e., bins are ordered with the first
+	 * dimension varying fastest. Elements of {@code binCounts} beyond {@link
+	 * #size()} are ignored.
+	 */
+	public void addCounts( final long[] binCounts )
+	{
+		if ( binCounts.length < size() ) { throw new IllegalArgumentException( "expected at least " + size() + " counts" ); }
+		final long[] dims = new long[ numDimensions() ];
+		final long[] binPos = new long[ numDimensions() ];
+		dimensions( dims );
+		final Cursor< LongType > cursor = counts.localizingCursor();
+		long sum = 0;
+		while ( cursor.hasNext() )
+		{
+			final LongType count = cursor.next();
+			cursor.localize( binPos );
+			final long c = binCounts[ ( int ) IntervalIndexer.positionToIndex( binPos, dims ) ];
+			count.set( count.get() + c );
+			sum += c;
+		}
+		totalValues += sum;
+	}
+
 	/**
 	 * Returns the total number of values counted by this distribution.
 	 */
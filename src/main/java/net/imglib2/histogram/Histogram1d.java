@@ -35,14 +35,19 @@
 package net.imglib2.histogram;
 
 import java.util.Iterator;
+import java.util.List;
+import java.util.function.ToLongFunction;
 
 import net.imglib2.Cursor;
 import net.imglib2.Interval;
+import net.imglib2.IterableInterval;
 import net.imglib2.Positionable;
 import net.imglib2.RandomAccess;
 import net.imglib2.RealPositionable;
 import net.imglib2.img.Img;
 import net.imglib2.img.ImgFactory;
+import net.imglib2.loops.IterableLoopBuilder;
+import net.imglib2.parallel.TaskExecutor;
 import net.imglib2.type.numeric.integer.LongType;
 
 /**
@@ -437,6 +442,66 @@ public class Histogram1d< T > implements Img< LongType >
 		add( data );
 	}
 
+	/**
+	 * Counts the data contained in the given data source using the underlying
+	 * bin distribution. The data is split into chunks which are counted in
+	 * parallel by the given {@link TaskExecutor}, each chunk into its own
+	 * {@code long[]} array of bins. The arrays are summed afterwards.
+	 * <p>
+	 * For {@link Integer1dBinMapper}, bins are computed directly from the
+	 * integer values. Other bin mappers are {@link BinMapper1d#copy() copied}
+	 * for each chunk.
+	 * 
+	 * @param data
+	 *            The total data to count
+	 * @param taskExecutor
+	 *            The executor used to count chunks in parallel
+	 */
+	public void countData( final IterableInterval< T > data, final TaskExecutor taskExecutor )
+	{
+		reset();
+		if ( data.size() > 0 )
+			firstValue = data.firstElement();
+		addData( data, taskExecutor );
+	}
+
+	/**
+	 * Counts additional data contained in a given iterable interval, in
+	 * parallel using the given {@link TaskExecutor}.
+	 * 
+	 * @param data
+	 *            The new data to count
+	 * @param taskExecutor
+	 *            The executor used to count chunks in parallel
+	 * @see #countData(IterableInterval, TaskExecutor)
+	 */
+	public void addData( final IterableInterval< T > data, final TaskExecutor taskExecutor )
+	{
+		final long binCount = mapper.getBinCount();
+		if ( binCount > BinCounts.MAX_BINS )
+		{
+			add( data );
+			return;
+		}
+		if ( data.size() == 0 )
+			return;
+
+		// the last element counts ignored values
+		final int ignored = ( int ) binCount;
+		final List< long[] > chunkCounts = IterableLoopBuilder.setImages( data ).multithreaded( taskExecutor ).forEachChunk( chunk -> {
+			final ToLongFunction< T > binning = BinCounts.binning( mapper );
+			final long[] counts = new long[ ignored + 1 ];
+			chunk.forEachPixel( value -> {
+				final long bin = binning.applyAsLong( value );
+				counts[ bin < 0 ? ignored : ( int ) bin ]++;
+			} );
+			return counts;
+		} );
+		final long[] counts = BinCounts.sum( chunkCounts );
+		distrib.addCounts( counts );
+		ignoredCount += counts[ ignored ];
+	}
+
 	/**
 	 * Uncounts some original data contained in a given iterable collection. One
 	 * can use this to update an existing histogram with a subset of values.
@@ -37,15 +37,21 @@ package net.imglib2.histogram;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.function.ToLongFunction;
 
 import net.imglib2.Cursor;
+import net.imglib2.FinalInterval;
 import net.imglib2.Interval;
+import net.imglib2.IterableInterval;
 import net.imglib2.Positionable;
 import net.imglib2.RandomAccess;
 import net.imglib2.RealPositionable;
 import net.imglib2.img.Img;
 import net.imglib2.img.ImgFactory;
+import net.imglib2.loops.IntervalChunks;
+import net.imglib2.parallel.TaskExecutor;
 import net.imglib2.type.numeric.integer.LongType;
+import net.imglib2.util.Util;
 
 // TODO - calculate lazily but should be able to count upper/lower/middle in
 // one pass rather than the multiple passes that are now in place.
@@ -780,6 +786,70 @@ public class HistogramNd< T > implements Img< LongType >
 		add( data );
 	}
 
+	/**
+	 * Counts the data contained in the given data sources using the underlying
+	 * bin distribution. There must be one data source per dimension, all of
+	 * the same size. The data is split into chunks which are counted in
+	 * parallel by the given {@link TaskExecutor}, each chunk into its own
+	 * {@code long[]} array of bins. The arrays are summed afterwards.
+	 * <p>
+	 * For {@link Integer1dBinMapper}, bins are computed directly from the
+	 * integer values. Other bin mappers are {@link BinMapper1d#copy() copied}
+	 * for each chunk. If the data sources do not have the same iteration
+	 * order, or if there are too many bins, the data is counted sequentially.
+	 * 
+	 * @param data
+	 *            The total data to count
+	 * @param taskExecutor
+	 *            The executor used to count chunks in parallel
+	 */
+	public void countData( final List< ? extends IterableInterval< T >> data, final TaskExecutor taskExecutor )
+	{
+		reset();
+		addData( data, taskExecutor );
+	}
+
+	/**
+	 * Counts additional data contained in the given data sources, in parallel
+	 * using the given {@link TaskExecutor}.
+	 * 
+	 * @param data
+	 *            The new data to count
+	 * @param taskExecutor
+	 *            The executor used to count chunks in parallel
+	 * @see #countData(List, TaskExecutor)
+	 */
+	public void addData( final List< ? extends IterableInterval< T >> data, final TaskExecutor taskExecutor )
+	{
+		if ( data.size() != mappers.size() ) { throw new IllegalArgumentException(
+				"expected " + mappers.size() + " data sources but got " + data.size() ); }
+		final long size = data.get( 0 ).size();
+		for ( final IterableInterval< T > d : data )
+		{
+			if ( d.size() != size ) { throw new IllegalArgumentException( "data sources differ in size" ); }
+		}
+		final long binCount = getBinCount();
+		if ( binCount > BinCounts.MAX_BINS || !Util.equalIterationOrder( data.toArray( new IterableInterval[ 0 ] ) ) )
+		{
+			add( new ArrayList< Iterable< T >>( data ) );
+			return;
+		}
+		if ( size == 0 )
+			return;
+
+		// the last element counts ignored values
+		final int ignored = ( int ) binCount;
+		final List< Interval > chunks = IntervalChunks.chunkInterval( new FinalInterval( size ), taskExecutor.suggestNumberOfTasks() );
+		final List< long[] > chunkCounts = taskExecutor.forEachApply( chunks, chunk -> {
+			final long[] counts = new long[ ignored + 1 ];
+			countChunk( data, chunk.min( 0 ), chunk.dimension( 0 ), counts, ignored );
+			return counts;
+		} );
+		final long[] counts = BinCounts.sum( chunkCounts );
+		distrib.addCounts( counts );
+		ignoredCount += counts[ ignored ];
+	}
+
 	/**
 	 * Uncounts some original data contained in a given iterable collection. One
 	 * can use this to update an existing histogram with a subset of values.
@@ -1103,6 +1173,35 @@ public class HistogramNd< T > implements Img< LongType >
 		while ( hasNext );
 	}
 
+	private void countChunk( final List< ? extends IterableInterval< T >> data, final long offset, final long length, final long[] counts, final int ignored )
+	{
+		final int n = mappers.size();
+		final List< ToLongFunction< T > > binnings = new ArrayList<>( n );
+		final List< Cursor< T > > cursors = new ArrayList<>( n );
+		final long[] strides = new long[ n ];
+		for ( int d = 0; d < n; d++ )
+		{
+			binnings.add( BinCounts.binning( mappers.get( d ) ) );
+			final Cursor< T > cursor = data.get( d ).cursor();
+			cursor.jumpFwd( offset );
+			cursors.add( cursor );
+			strides[ d ] = d == 0 ? 1 : strides[ d - 1 ] * mappers.get( d - 1 ).getBinCount();
+		}
+		for ( long i = 0; i < length; i++ )
+		{
+			long index = 0;
+			boolean isIgnored = false;
+			for ( int d = 0; d < n; d++ )
+			{
+				final long bin = binnings.get( d ).applyAsLong( cursors.get( d ).next() );
+				if ( bin < 0 )
+					isIgnored = true;
+				index += bin * strides[ d ];
+			}
+			counts[ isIgnored ? ignored : ( int ) index ]++;
+		}
+	}
+
 	private void count( final List< T > values, final Counter counter )
 	{
 		map( values, pos );
@@ -195,6 +195,22 @@ public class Integer1dBinMapper< T extends IntegerType< T >> implements
 		return tailBins;
 	}
 
+	/**
+	 * Returns the smallest value that is mapped to a non-tail bin.
+	 */
+	long minValue()
+	{
+		return minVal;
+	}
+
+	/**
+	 * Returns the largest value that is mapped to a non-tail bin.
+	 */
+	long maxValue()
+	{
+		return maxVal;
+	}
+
 	@Override
 	public Integer1dBinMapper< T > copy()
 	{
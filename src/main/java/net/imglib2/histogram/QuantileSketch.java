@@ -0,0 +1,460 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.histogram;
+
+import java.util.Arrays;
+
+/**
+ * A mergeable sketch for approximate quantiles of a stream of {@code double}
+ * values, using bounded memory.
+ * <p>
+ * This is a KLL sketch (Karnin, Lang, Liberty, "Optimal Quantile
+ * Approximation in Streams", 2016). Values are kept in a hierarchy of
+ * levels, where a value at level {@code h} represents {@code 2^h} original
+ * values. When a level is full, it is sorted and every other value (starting
+ * at a random offset) is moved to the next level. The capacity of levels
+ * shrinks geometrically from the top level down, so the sketch retains
+ * {@code O(k)} values (about {@code 3k}), independent of the number of values
+ * added.
+ * <p>
+ * Quantile queries have a rank error of {@code O(1/k)}: the returned value
+ * {@code x} for quantile {@code q} satisfies {@code |rank(x) - q| < epsilon}
+ * with high probability. For the default {@code k = 200}, {@code epsilon} is
+ * about {@code 0.01}. Unlike {@link StreamingHistogram}, the sketch needs no
+ * a-priori range of values.
+ * <p>
+ * Sketches with the same {@code k} can be {@link #merge merged}, with the
+ * same error guarantees as if all values had been added to one sketch. This
+ * makes it possible to summarize a large image block by block, in parallel.
+ * {@code NaN} values are ignored.
+ */
+public class QuantileSketch
+{
+	/**
+	 * The default {@code k}, giving a rank error of about {@code 0.01}.
+	 */
+	public static final int DEFAULT_K = 200;
+
+	private static final long DEFAULT_SEED = 0x9e3779b97f4a7c15L;
+
+	/**
+	 * Capacity of each level relative to the next higher level.
+	 */
+	private static final double CAPACITY_RATIO = 2.0 / 3.0;
+
+	private static final int MIN_LEVEL_CAPACITY = 2;
+
+	private final int k;
+
+	/**
+	 * Retained values of level {@code h} are {@code levels[h][0]} to {@code
+	 * levels[h][levelSizes[h] - 1]}.
+	 */
+	private double[][] levels;
+
+	private int[] levelSizes;
+
+	private int numLevels;
+
+	private int numRetained;
+
+	/**
+	 * Sum of level capacities. If {@code numRetained} reaches {@code
+	 * capacity}, the sketch is compressed.
+	 */
+	private int capacity;
+
+	private long n;
+
+	private double minValue = Double.POSITIVE_INFINITY;
+
+	private double maxValue = Double.NEGATIVE_INFINITY;
+
+	/**
+	 * State of the xorshift generator for compaction offsets.
+	 */
+	private long random;
+
+	/**
+	 * All retained values in ascending order and their cumulative weights.
+	 * Computed lazily for queries, {@code null} if invalid.
+	 */
+	private double[] sortedValues;
+
+	private long[] cumulativeWeights;
+
+	/**
+	 * Create an empty sketch with {@link #DEFAULT_K}.
+	 */
+	public QuantileSketch()
+	{
+		this( DEFAULT_K );
+	}
+
+	/**
+	 * Create an empty sketch. Larger {@code k} give smaller error, and the
+	 * sketch uses memory proportional to {@code k}.
+	 */
+	public QuantileSketch( final int k )
+	{
+		this( k, DEFAULT_SEED );
+	}
+
+	/**
+	 * Create an empty sketch, using the given {@code seed} for the random
+	 * offsets of compactions. Sketches that are to be merged should use
+	 * different seeds (see {@link #seed(long)}), because the error bounds of
+	 * the merged sketch rely on their compactions being independent.
+	 */
+	public QuantileSketch( final int k, final long seed )
+	{
+		if ( k < MIN_LEVEL_CAPACITY ) { throw new IllegalArgumentException( "k must be at least " + MIN_LEVEL_CAPACITY ); }
+		this.k = k;
+		levels = new double[ 1 ][];
+		levelSizes = new int[ 1 ];
+		levels[ 0 ] = new double[ k ];
+		numLevels = 1;
+		capacity = k;
+		random = seed == 0 ? 1 : seed;
+	}
+
+	/**
+	 * Create a copy of {@code other}.
+	 */
+	public QuantileSketch( final QuantileSketch other )
+	{
+		k = other.k;
+		numLevels = other.numLevels;
+		levels = new double[ other.levels.length ][];
+		for ( int h = 0; h < numLevels; ++h )
+			levels[ h ] = other.levels[ h ].clone();
+		levelSizes = other.levelSizes.clone();
+		numRetained = other.numRetained;
+		capacity = other.capacity;
+		n = other.n;
+		minValue = other.minValue;
+		maxValue = other.maxValue;
+		random = other.random;
+	}
+
+	/**
+	 * Returns a seed for the {@code i}-th of several sketches that are to be
+	 * merged. Seeds for different {@code i} are distinct and well mixed (using
+	 * the SplitMix64 generator), and the same {@code i} always gives the same
+	 * seed.
+	 */
+	public static long seed( final long i )
+	{
+		long z = DEFAULT_SEED * ( i + 1 );
+		z = ( z ^ ( z >>> 30 ) ) * 0xbf58476d1ce4e5b9L;
+		z = ( z ^ ( z >>> 27 ) ) * 0x94d049bb133111ebL;
+		return z ^ ( z >>> 31 );
+	}
+
+	/**
+	 * Add a value.
+	 */
+	public void update( final double value )
+	{
+		if ( Double.isNaN( value ) )
+			return;
+		if ( value < minValue )
+			minValue = value;
+		if ( value > maxValue )
+			maxValue = value;
+		append( 0, value );
+		++n;
+		sortedValues = null;
+		if ( numRetained >= capacity )
+			compress();
+	}
+
+	/**
+	 * Add {@code values[offset]}, ..., {@code values[offset + length - 1]}.
+	 */
+	public void update( final double[] values, final int offset, final int length )
+	{
+		for ( int i = offset; i < offset + length; ++i )
+			update( values[ i ] );
+	}
+
+	/**
+	 * Add {@code values[offset]}, ..., {@code values[offset + length - 1]}.
+	 */
+	public void update( final float[] values, final int offset, final int length )
+	{
+		for ( int i = offset; i < offset + length; ++i )
+			update( values[ i ] );
+	}
+
+	/**
+	 * Add all values summarized by {@code other} to this sketch. Both
+	 * sketches must have the same {@code k}.
+	 */
+	public void merge( final QuantileSketch other )
+	{
+		if ( other.k != k ) { throw new IllegalArgumentException( "cannot merge sketches with different k" ); }
+		if ( other.n == 0 )
+			return;
+		while ( numLevels < other.numLevels )
+			addLevel();
+		for ( int h = 0; h < other.numLevels; ++h )
+			for ( int i = 0; i < other.levelSizes[ h ]; ++i )
+				append( h, other.levels[ h ][ i ] );
+		n += other.n;
+		minValue = Math.min( minValue, other.minValue );
+		maxValue = Math.max( maxValue, other.maxValue );
+		sortedValues = null;
+		compress();
+	}
+
+	/**
+	 * Returns an approximation of the value {@code x} such that a fraction
+	 * {@code q} of the values is smaller than or equal to {@code x}, or {@code
+	 * NaN} if the sketch is empty. {@code quantile(0)} and {@code quantile(1)}
+	 * return the exact minimum and maximum.
+	 *
+	 * @param q
+	 *            the quantile, in {@code [0, 1]}
+	 */
+	public double quantile( final double q )
+	{
+		if ( !( q >= 0 && q <= 1 ) ) { throw new IllegalArgumentException( "quantile must be in [0, 1]" ); }
+		if ( n == 0 )
+			return Double.NaN;
+		if ( q == 0 )
+			return minValue;
+		if ( q == 1 )
+			return maxValue;
+		sort();
+		final double rank = q * n;
+		int lo = 0;
+		int hi = cumulativeWeights.length - 1;
+		while ( lo < hi )
+		{
+			final int mid = ( lo + hi ) >>> 1;
+			if ( cumulativeWeights[ mid ] < rank )
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+		return sortedValues[ lo ];
+	}
+
+	/**
+	 * Returns approximations of the given quantiles.
+	 *
+	 * @see #quantile(double)
+	 */
+	public double[] quantiles( final double... qs )
+	{
+		final double[] values = new double[ qs.length ];
+		for ( int i = 0; i < qs.length; ++i )
+			values[ i ] = quantile( qs[ i ] );
+		return values;
+	}
+
+	/**
+	 * Returns an approximation of the fraction of values that are smaller
+	 * than or equal to {@code value}, or {@code NaN} if the sketch is empty.
+	 */
+	public double rank( final double value )
+	{
+		if ( n == 0 )
+			return Double.NaN;
+		sort();
+		// number of retained values <= value
+		int lo = 0;
+		int hi = sortedValues.length;
+		while ( lo < hi )
+		{
+			final int mid = ( lo + hi ) >>> 1;
+			if ( sortedValues[ mid ] <= value )
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+		return lo == 0 ? 0 : ( double ) cumulativeWeights[ lo - 1 ] / n;
+	}
+
+	/**
+	 * Returns the number of values added.
+	 */
+	public long getN()
+	{
+		return n;
+	}
+
+	public int getK()
+	{
+		return k;
+	}
+
+	/**
+	 * Returns the number of values retained by the sketch.
+	 */
+	public int getNumRetained()
+	{
+		return numRetained;
+	}
+
+	/**
+	 * Returns the smallest value added, or {@code +Infinity} if the sketch is
+	 * empty.
+	 */
+	public double minValue()
+	{
+		return minValue;
+	}
+
+	/**
+	 * Returns the largest value added, or {@code -Infinity} if the sketch is
+	 * empty.
+	 */
+	public double maxValue()
+	{
+		return maxValue;
+	}
+
+	// -- helpers --
+
+	private int levelCapacity( final int h )
+	{
+		final double c = k * Math.pow( CAPACITY_RATIO, numLevels - 1 - h );
+		return Math.max( MIN_LEVEL_CAPACITY, ( int ) Math.ceil( c ) );
+	}
+
+	private void append( final int h, final double value )
+	{
+		if ( levelSizes[ h ] == levels[ h ].length )
+			levels[ h ] = Arrays.copyOf( levels[ h ], 2 * levels[ h ].length );
+		levels[ h ][ levelSizes[ h ]++ ] = value;
+		++numRetained;
+	}
+
+	private void addLevel()
+	{
+		if ( numLevels == levels.length )
+		{
+			levels = Arrays.copyOf( levels, 2 * numLevels );
+			levelSizes = Arrays.copyOf( levelSizes, 2 * numLevels );
+		}
+		levels[ numLevels ] = new double[ k ];
+		++numLevels;
+		capacity = 0;
+		for ( int h = 0; h < numLevels; ++h )
+			capacity += levelCapacity( h );
+	}
+
+	/**
+	 * Compact the lowest full level, until the sketch is within capacity.
+	 */
+	private void compress()
+	{
+		while ( numRetained >= capacity )
+		{
+			int h = 0;
+			while ( levelSizes[ h ] < levelCapacity( h ) )
+				++h;
+			compact( h );
+		}
+	}
+
+	/**
+	 * Sort level {@code h} and move every other value to level {@code h+1}.
+	 * If the level has an odd number of values, the smallest stays.
+	 */
+	private void compact( final int h )
+	{
+		if ( h + 1 == numLevels )
+			addLevel();
+		final double[] values = levels[ h ];
+		final int size = levelSizes[ h ];
+		Arrays.sort( values, 0, size );
+		final int start = size & 1;
+		for ( int i = start + nextBit(); i < size; i += 2 )
+			append( h + 1, values[ i ] );
+		levelSizes[ h ] = start;
+		numRetained -= size - start;
+	}
+
+	private int nextBit()
+	{
+		random ^= random << 13;
+		random ^= random >>> 7;
+		random ^= random << 17;
+		return ( int ) ( random >>> 63 );
+	}
+
+	/**
+	 * Compute {@link #sortedValues} and {@link #cumulativeWeights}, by merging
+	 * the sorted levels.
+	 */
+	private void sort()
+	{
+		if ( sortedValues != null )
+			return;
+		double[] values = new double[ 0 ];
+		long[] weights = new long[ 0 ];
+		for ( int h = 0; h < numLevels; ++h )
+		{
+			final int size = levelSizes[ h ];
+			final double[] level = Arrays.copyOf( levels[ h ], size );
+			Arrays.sort( level );
+			final long weight = 1L << h;
+			final double[] mergedValues = new double[ values.length + size ];
+			final long[] mergedWeights = new long[ values.length + size ];
+			int i = 0, j = 0;
+			for ( int m = 0; m < mergedValues.length; ++m )
+			{
+				if ( j == size || ( i < values.length && values[ i ] <= level[ j ] ) )
+				{
+					mergedValues[ m ] = values[ i ];
+					mergedWeights[ m ] = weights[ i++ ];
+				}
+				else
+				{
+					mergedValues[ m ] = level[ j++ ];
+					mergedWeights[ m ] = weight;
+				}
+			}
+			values = mergedValues;
+			weights = mergedWeights;
+		}
+		for ( int m = 1; m < weights.length; ++m )
+			weights[ m ] += weights[ m - 1 ];
+		sortedValues = values;
+		cumulativeWeights = weights;
+	}
+}
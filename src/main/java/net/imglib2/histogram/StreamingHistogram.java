@@ -0,0 +1,286 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.histogram;
+
+import java.util.Arrays;
+
+/**
+ * A histogram with a fixed number of equally sized bins over {@code [min,
+ * max]}, that counts into a primitive {@code long[]} array. Values can be
+ * added one at a time or from primitive arrays (for example, blocks copied
+ * out of an image with {@code PrimitiveBlocks}), and histograms with the same
+ * bins can be {@link #merge merged}. This makes it possible to compute a
+ * histogram of a large image block by block, in parallel.
+ * <p>
+ * Values below {@code min} and above {@code max} are counted in a lower and
+ * upper tail, and the smallest and largest values seen are recorded. {@code
+ * NaN} values are ignored. {@link #quantile(double)} interpolates linearly
+ * within bins, so the error of quantiles is at most one bin width (unless
+ * they fall into a tail).
+ *
+ * @see QuantileSketch
+ */
+public class StreamingHistogram
+{
+	private final double min;
+
+	private final double max;
+
+	private final double scale;
+
+	private final long[] counts;
+
+	private long lowerTailCount;
+
+	private long upperTailCount;
+
+	private double minValue = Double.POSITIVE_INFINITY;
+
+	private double maxValue = Double.NEGATIVE_INFINITY;
+
+	/**
+	 * Create an empty histogram with {@code numBins} bins of equal size over
+	 * {@code [min, max]}. (The last bin includes {@code max}.)
+	 */
+	public StreamingHistogram( final double min, final double max, final int numBins )
+	{
+		if ( !( min < max ) ) { throw new IllegalArgumentException( "invalid range: min must be smaller than max" ); }
+		if ( numBins <= 0 ) { throw new IllegalArgumentException( "invalid bin count (<= 0)" ); }
+		this.min = min;
+		this.max = max;
+		scale = numBins / ( max - min );
+		counts = new long[ numBins ];
+	}
+
+	/**
+	 * Create a histogram with the same bins and counts as {@code other}.
+	 */
+	public StreamingHistogram( final StreamingHistogram other )
+	{
+		this( other.min, other.max, other.counts.length );
+		merge( other );
+	}
+
+	/**
+	 * Add a value.
+	 */
+	public void add( final double value )
+	{
+		if ( value >= min && value <= max )
+			counts[ Math.min( ( int ) ( ( value - min ) * scale ), counts.length - 1 ) ]++;
+		else if ( value < min )
+			lowerTailCount++;
+		else if ( value > max )
+			upperTailCount++;
+		else
+			return; // NaN
+		if ( value < minValue )
+			minValue = value;
+		if ( value > maxValue )
+			maxValue = value;
+	}
+
+	/**
+	 * Add {@code values[offset]}, ..., {@code values[offset + length - 1]}.
+	 */
+	public void add( final double[] values, final int offset, final int length )
+	{
+		for ( int i = offset; i < offset + length; ++i )
+			add( values[ i ] );
+	}
+
+	/**
+	 * Add {@code values[offset]}, ..., {@code values[offset + length - 1]}.
+	 */
+	public void add( final float[] values, final int offset, final int length )
+	{
+		for ( int i = offset; i < offset + length; ++i )
+			add( values[ i ] );
+	}
+
+	/**
+	 * Add all counts of {@code other} to this histogram. Both histograms must
+	 * have the same bins.
+	 */
+	public void merge( final StreamingHistogram other )
+	{
+		if ( other.min != min || other.max != max || other.counts.length != counts.length ) { throw new IllegalArgumentException(
+				"cannot merge histograms with different bins" ); }
+		for ( int i = 0; i < counts.length; ++i )
+			counts[ i ] += other.counts[ i ];
+		lowerTailCount += other.lowerTailCount;
+		upperTailCount += other.upperTailCount;
+		minValue = Math.min( minValue, other.minValue );
+		maxValue = Math.max( maxValue, other.maxValue );
+	}
+
+	/**
+	 * Returns the value {@code x} such that a fraction {@code q} of the
+	 * counted values is smaller than or equal to {@code x}, or {@code NaN} if
+	 * the histogram is empty.
+	 *
+	 * @param q
+	 *            the quantile, in {@code [0, 1]}
+	 */
+	public double quantile( final double q )
+	{
+		if ( !( q >= 0 && q <= 1 ) ) { throw new IllegalArgumentException( "quantile must be in [0, 1]" ); }
+		final long count = count();
+		if ( count == 0 )
+			return Double.NaN;
+
+		final double rank = q * count;
+		if ( rank <= 0 )
+			return minValue;
+		if ( rank <= lowerTailCount )
+			return interpolate( minValue, min, rank / lowerTailCount );
+		double cumulative = lowerTailCount;
+		final double binWidth = ( max - min ) / counts.length;
+		for ( int i = 0; i < counts.length; ++i )
+		{
+			final long c = counts[ i ];
+			if ( c > 0 && cumulative + c >= rank )
+			{
+				final double x = min + ( i + ( rank - cumulative ) / c ) * binWidth;
+				return Math.max( minValue, Math.min( maxValue, x ) );
+			}
+			cumulative += c;
+		}
+		if ( upperTailCount == 0 )
+			return maxValue;
+		return interpolate( max, maxValue, ( rank - cumulative ) / upperTailCount );
+	}
+
+	private static double interpolate( final double from, final double to, final double t )
+	{
+		return t >= 1 ? to : from + t * ( to - from );
+	}
+
+	/**
+	 * Returns the number of counted values, including tails.
+	 */
+	public long count()
+	{
+		long count = lowerTailCount + upperTailCount;
+		for ( final long c : counts )
+			count += c;
+		return count;
+	}
+
+	/**
+	 * Returns the count of the bin with index {@code binPos}.
+	 */
+	public long frequency( final int binPos )
+	{
+		return counts[ binPos ];
+	}
+
+	/**
+	 * Returns the number of bins (not including tails).
+	 */
+	public int getBinCount()
+	{
+		return counts.length;
+	}
+
+	/**
+	 * Returns the number of values smaller than {@code min}.
+	 */
+	public long lowerTailCount()
+	{
+		return lowerTailCount;
+	}
+
+	/**
+	 * Returns the number of values larger than {@code max}.
+	 */
+	public long upperTailCount()
+	{
+		return upperTailCount;
+	}
+
+	/**
+	 * Returns the lower bound of the bin with index {@code binPos}.
+	 */
+	public double getLowerBound( final int binPos )
+	{
+		return min + binPos * ( max - min ) / counts.length;
+	}
+
+	/**
+	 * Returns the upper bound of the bin with index {@code binPos}.
+	 */
+	public double getUpperBound( final int binPos )
+	{
+		return getLowerBound( binPos + 1 );
+	}
+
+	/**
+	 * Returns the smallest value counted, or {@code +Infinity} if the
+	 * histogram is empty.
+	 */
+	public double minValue()
+	{
+		return minValue;
+	}
+
+	/**
+	 * Returns the largest value counted, or {@code -Infinity} if the
+	 * histogram is empty.
+	 */
+	public double maxValue()
+	{
+		return maxValue;
+	}
+
+	/**
+	 * Returns a copy of the bin counts (not including tails).
+	 */
+	public long[] toLongArray()
+	{
+		return counts.clone();
+	}
+
+	/**
+	 * Resets all counts to zero.
+	 */
+	public void reset()
+	{
+		Arrays.fill( counts, 0 );
+		lowerTailCount = 0;
+		upperTailCount = 0;
+		minValue = Double.POSITIVE_INFINITY;
+		maxValue = Double.NEGATIVE_INFINITY;
+	}
+}
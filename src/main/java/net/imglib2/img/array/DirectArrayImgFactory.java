@@ -0,0 +1,129 @@
+/*
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.img.array;
+
+import net.imglib2.Dimensions;
+import net.imglib2.exception.IncompatibleTypeException;
+import net.imglib2.img.AbstractImg;
+import net.imglib2.img.ImgFactory;
+import net.imglib2.img.basictypeaccess.nio.BufferAccess;
+import net.imglib2.img.basictypeaccess.nio.BufferDataAccessFactory;
+import net.imglib2.type.NativeType;
+import net.imglib2.type.NativeTypeFactory;
+import net.imglib2.util.Fraction;
+import net.imglib2.util.Intervals;
+import net.imglib2.util.Util;
+
+/**
+ * Factory for {@link ArrayImg}s that store their data outside of the Java heap,
+ * in a direct {@code java.nio.Buffer} (see {@link BufferAccess}).
+ * <p>
+ * The off-heap memory is not subject to garbage collection pauses. It is
+ * released when the {@code ArrayImg} (and all Views of it) become unreachable.
+ * <p>
+ * Because a {@code ByteBuffer} is indexed by {@code int}, the total size of an
+ * image created by this factory is limited to {@code Integer.MAX_VALUE} bytes.
+ * Use {@link net.imglib2.img.cell.DirectCellImgFactory} for larger images.
+ * <p>
+ * {@code BooleanType}s are not supported, because there is no boolean {@code
+ * BufferAccess}.
+ *
+ * @param <T> pixel type
+ */
+public class DirectArrayImgFactory< T extends NativeType< T > > extends ArrayImgFactory< T >
+{
+	public DirectArrayImgFactory( final T type )
+	{
+		super( type );
+	}
+
+	@Override
+	public ArrayImg< T, ? > create( final long... dimensions )
+	{
+		@SuppressWarnings( { "unchecked", "rawtypes" } )
+		final ArrayImg< T, ? > img = create( dimensions, type(), ( NativeTypeFactory ) type().getNativeTypeFactory() );
+		return img;
+	}
+
+	@Override
+	public ArrayImg< T, ? > create( final Dimensions dimensions )
+	{
+		return create( Intervals.dimensionsAsLongArray( dimensions ) );
+	}
+
+	@Override
+	public ArrayImg< T, ? > create( final int[] dimensions )
+	{
+		return create( Util.int2long( dimensions ) );
+	}
+
+	private < A extends BufferAccess< A > > ArrayImg< T, A > create(
+			final long[] dimensions,
+			final T type,
+			final NativeTypeFactory< T, ? super A > typeFactory )
+	{
+		Dimensions.verify( dimensions );
+		final Fraction entitiesPerPixel = type.getEntitiesPerPixel();
+		final A access = BufferDataAccessFactory.get( typeFactory );
+		final int numEntities = numBufferEntitiesRangeCheck( dimensions, entitiesPerPixel, access.getNumBytesPerEntity() );
+		final A data = access.createArray( numEntities );
+		final ArrayImg< T, A > img = new ArrayImg<>( data, dimensions, entitiesPerPixel );
+		img.setLinkedType( typeFactory.createLinkedType( img ) );
+		return img;
+	}
+
+	/**
+	 * Check that an image with the given {@code dimensions} fits into a
+	 * {@code ByteBuffer} and return the number of entities required to store
+	 * it.
+	 */
+	static int numBufferEntitiesRangeCheck( final long[] dimensions, final Fraction entitiesPerPixel, final int bytesPerEntity )
+	{
+		final long numEntities = entitiesPerPixel.mulCeil( AbstractImg.numElements( dimensions ) );
+
+		if ( numEntities * bytesPerEntity > Integer.MAX_VALUE )
+			throw new RuntimeException( "Number of bytes in DirectArrayImg too big, use for example DirectCellImgFactory instead: " + numEntities * bytesPerEntity + " > " + Integer.MAX_VALUE );
+
+		return ( int ) numEntities;
+	}
+
+	@SuppressWarnings( { "unchecked", "rawtypes" } )
+	@Override
+	public < S > ImgFactory< S > imgFactory( final S type ) throws IncompatibleTypeException
+	{
+		if ( type instanceof NativeType )
+			return new DirectArrayImgFactory( ( NativeType ) type );
+		throw new IncompatibleTypeException( this, type.getClass().getCanonicalName() + " does not implement NativeType." );
+	}
+}
@@ -0,0 +1,191 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.img.array;
+
+import static net.imglib2.img.basictypeaccess.AccessFlags.DIRTY;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import net.imglib2.Dimensions;
+import net.imglib2.Dirty;
+import net.imglib2.img.basictypeaccess.AccessFlags;
+import net.imglib2.img.basictypeaccess.nio.BufferAccess;
+import net.imglib2.img.basictypeaccess.nio.BufferDataAccessFactory;
+import net.imglib2.type.NativeType;
+import net.imglib2.type.NativeTypeFactory;
+import net.imglib2.util.Fraction;
+
+/**
+ * An {@link ArrayImg} backed by a memory-mapped region of a file.
+ * <p>
+ * The file is mapped with {@link FileChannel#map}, so pixel data is paged in
+ * and out by the operating system on demand. The file region is interpreted
+ * as the raw storage array of the image, i.e., pixels in flat iteration order
+ * (X fastest) with the {@link ByteOrder} given at creation.
+ * <p>
+ * With {@link MapMode#READ_WRITE}, modifications are written to the file by
+ * the operating system eventually. {@link #flush()} forces them to the storage
+ * device if the image was modified since the last flush. With
+ * {@link MapMode#READ_ONLY}, any attempt to modify the image throws a
+ * {@code ReadOnlyBufferException}. With {@link MapMode#PRIVATE},
+ * modifications are visible in the image only and never written to the file.
+ * <p>
+ * Because a {@code ByteBuffer} is indexed by {@code int}, the mapped region is
+ * limited to {@code Integer.MAX_VALUE} bytes. Use {@link
+ * net.imglib2.img.cell.MappedCellImg} for larger files. The mapping is
+ * released when the image (and all Views of it) become unreachable.
+ *
+ * @param <T> pixel type
+ * @param <A> access type
+ */
+public class MappedArrayImg< T extends NativeType< T >, A extends BufferAccess< A > > extends ArrayImg< T, A >
+{
+	private final A access;
+
+	private final MappedByteBuffer buffer;
+
+	private MappedArrayImg( final A access, final MappedByteBuffer buffer, final long[] dim, final Fraction entitiesPerPixel )
+	{
+		super( access, dim, entitiesPerPixel );
+		this.access = access;
+		this.buffer = buffer;
+	}
+
+	/**
+	 * Returns {@code true} if this image was mapped with
+	 * {@link MapMode#READ_ONLY}.
+	 */
+	public boolean isReadOnly()
+	{
+		return access.isReadOnly();
+	}
+
+	/**
+	 * Force modifications of the image to be written to the file.
+	 * <p>
+	 * Does nothing if the image was not modified since the last flush, or if
+	 * it was not mapped with {@link MapMode#READ_WRITE}.
+	 */
+	public void flush()
+	{
+		if ( access instanceof Dirty )
+		{
+			final Dirty dirty = ( Dirty ) access;
+			if ( dirty.isDirty() )
+			{
+				dirty.setDirty( false );
+				buffer.force();
+			}
+		}
+	}
+
+	/**
+	 * Map a region of {@code file} as an image of the given {@code type} and
+	 * {@code dimensions}.
+	 * <p>
+	 * With {@link MapMode#READ_WRITE}, the file is created if it does not exist
+	 * and grown if it is too small to hold the image.
+	 *
+	 * @param file
+	 *            the file to map
+	 * @param position
+	 *            offset in bytes of the image data within the file (e.g., to
+	 *            skip a header)
+	 * @param type
+	 *            pixel type
+	 * @param mode
+	 *            {@link MapMode#READ_ONLY}, {@link MapMode#READ_WRITE}, or
+	 *            {@link MapMode#PRIVATE}
+	 * @param order
+	 *            byte order of the data in the file
+	 * @param dimensions
+	 *            image dimensions
+	 *
+	 * @throws IOException
+	 *             if the file cannot be opened or mapped
+	 */
+	public static < T extends NativeType< T > > MappedArrayImg< T, ? > map(
+			final Path file,
+			final long position,
+			final T type,
+			final MapMode mode,
+			final ByteOrder order,
+			final long... dimensions ) throws IOException
+	{
+		@SuppressWarnings( { "unchecked", "rawtypes" } )
+		final MappedArrayImg< T, ? > img = map( file, position, type, ( NativeTypeFactory ) type.getNativeTypeFactory(), mode, order, dimensions );
+		return img;
+	}
+
+	private static < T extends NativeType< T >, A extends BufferAccess< A > > MappedArrayImg< T, A > map(
+			final Path file,
+			final long position,
+			final T type,
+			final NativeTypeFactory< T, ? super A > typeFactory,
+			final MapMode mode,
+			final ByteOrder order,
+			final long[] dimensions ) throws IOException
+	{
+		Dimensions.verify( dimensions );
+		final Fraction entitiesPerPixel = type.getEntitiesPerPixel();
+		final A prototype = BufferDataAccessFactory.get( typeFactory, mode == MapMode.READ_WRITE ? AccessFlags.setOf( DIRTY ) : AccessFlags.setOf() );
+		final int bytesPerEntity = prototype.getNumBytesPerEntity();
+		final int numEntities = DirectArrayImgFactory.numBufferEntitiesRangeCheck( dimensions, entitiesPerPixel, bytesPerEntity );
+		final MappedByteBuffer buffer;
+		try ( final FileChannel channel = open( file, mode ) )
+		{
+			buffer = channel.map( mode, position, ( long ) numEntities * bytesPerEntity );
+		}
+		final A access = prototype.newInstance( buffer.order( order ), true );
+		final MappedArrayImg< T, A > img = new MappedArrayImg<>( access, buffer, dimensions, entitiesPerPixel );
+		img.setLinkedType( typeFactory.createLinkedType( img ) );
+		return img;
+	}
+
+	private static FileChannel open( final Path file, final MapMode mode ) throws IOException
+	{
+		if ( mode == MapMode.READ_ONLY )
+			return FileChannel.open( file, StandardOpenOption.READ );
+		else if ( mode == MapMode.READ_WRITE )
+			return FileChannel.open( file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE );
+		else // PRIVATE mappings require a channel opened for reading and writing
+			return FileChannel.open( file, StandardOpenOption.READ, StandardOpenOption.WRITE );
+	}
+}
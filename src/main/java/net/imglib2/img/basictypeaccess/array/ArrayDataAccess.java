@@ -51,5 +51,19 @@ public interface ArrayDataAccess< A > extends DataAccess, Serializable
 
 	Object getCurrentStorageArray();
 
+	/**
+	 * Returns the underlying array for reading only. The returned array must
+	 * not be modified: it may be shared with other accesses (for example, the
+	 * background array of unwritten cells of a sparse image).
+	 * {@link #getCurrentStorageArray()} must be used to obtain an array that
+	 * may be written to.
+	 * <p>
+	 * By default, this returns {@link #getCurrentStorageArray()}.
+	 */
+	default Object getCurrentStorageArrayForReading()
+	{
+		return getCurrentStorageArray();
+	}
+
 	int getArrayLength();
 }
@@ -102,10 +102,31 @@ public class BufferDataAccessFactory
 			final Set< AccessFlags > flags )
 	{
 		final boolean dirty = flags.contains( DIRTY );
-		if ( dirty )
-			// TODO: implement DirtyByteBufferAccess etc.
-			throw new UnsupportedOperationException( "TODO: implement DirtyByteBufferAccess etc." );
 		final ByteBuffer buf = ByteBuffer.allocateDirect( 8 );
+		if ( dirty )
+		{
+			switch ( primitiveType )
+			{
+			case BOOLEAN:
+				throw new UnsupportedOperationException( "TODO: so far, no Boolean BufferAccess exists." );
+			case BYTE:
+				return ( A ) DirtyByteBufferAccess.fromByteBuffer( buf, true );
+			case CHAR:
+				return ( A ) DirtyCharBufferAccess.fromByteBuffer( buf, true );
+			case DOUBLE:
+				return ( A ) DirtyDoubleBufferAccess.fromByteBuffer( buf, true );
+			case FLOAT:
+				return ( A ) DirtyFloatBufferAccess.fromByteBuffer( buf, true );
+			case INT:
+				return ( A ) DirtyIntBufferAccess.fromByteBuffer( buf, true );
+			case LONG:
+				return ( A ) DirtyLongBufferAccess.fromByteBuffer( buf, true );
+			case SHORT:
+				return ( A ) DirtyShortBufferAccess.fromByteBuffer( buf, true );
+			default:
+				throw new IllegalArgumentException();
+			}
+		}
 		switch ( primitiveType )
 		{
 		case BOOLEAN:
@@ -0,0 +1,167 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.img.basictypeaccess.nio;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+import net.imglib2.Dirty;
+import net.imglib2.img.basictypeaccess.array.AbstractFloatArray;
+
+/**
+ * A {@link FloatBufferAccess} with an {@link #isDirty()} flag.
+ * <p>
+ * The flag is shared between this access and all views created by
+ * {@link #createView(Object)}, so that writing through any view (as done by
+ * the cursors and random accesses of an image) marks the access as dirty.
+ * Accesses obtained by {@link #newInstance} or {@link #createArray(int)} get
+ * their own flag.
+ */
+public class DirtyFloatBufferAccess extends FloatBufferAccess implements Dirty
+{
+
+	private static final long serialVersionUID = 1L;
+
+	private final DirtyFlag dirty;
+
+	DirtyFloatBufferAccess( final FloatBuffer buffer, final boolean isValid, final DirtyFlag dirty )
+	{
+		super( buffer, isValid );
+		this.dirty = dirty;
+	}
+
+	public DirtyFloatBufferAccess( final FloatBuffer buffer, final boolean isValid )
+	{
+		this( buffer, isValid, new DirtyFlag() );
+	}
+
+	public DirtyFloatBufferAccess( final ByteBuffer buffer, final boolean isValid )
+	{
+		this( buffer.asFloatBuffer(), isValid, new DirtyFlag() );
+	}
+
+	public DirtyFloatBufferAccess( final int numEntities, final boolean isValid )
+	{
+		this( FloatBuffer.allocate( numEntities ), isValid, new DirtyFlag() );
+	}
+
+	@Override
+	public void setValue( final int index, final float value )
+	{
+		dirty.dirty = true;
+		buffer.put( index, value );
+	}
+
+	/**
+	 * Returns a new instance with duplicated Buffer for thread safety, sharing
+	 * the dirty flag of this access.
+	 */
+	@Override
+	public DirtyFloatBufferAccess createView( final Object o )
+	{
+		return new DirtyFloatBufferAccess( buffer.duplicate(), isValid(), dirty );
+	}
+
+	@Override
+	public DirtyFloatBufferAccess newInstance( final ByteBuffer buffer, final boolean isValid )
+	{
+		return fromByteBuffer( buffer, isValid );
+	}
+
+	@Override
+	public DirtyFloatBufferAccess newInstance( final FloatBuffer buffer, final boolean isValid )
+	{
+		return new DirtyFloatBufferAccess( buffer, isValid );
+	}
+
+	@Override
+	DirtyFloatBufferAccess allocate( final int numEntities, final boolean isDirect, final boolean isValid )
+	{
+		if ( isDirect )
+			return newInstance( allocateByteBuffer( numEntities, true ), isValid );
+		else
+			return new DirtyFloatBufferAccess( numEntities, isValid );
+	}
+
+	@Override
+	public FloatBuffer setValues( final AbstractFloatArray< ? > array )
+	{
+		dirty.dirty = true;
+		return super.setValues( array );
+	}
+
+	@Override
+	public FloatBuffer setValues( final AbstractFloatArray< ? > array, final int offset, final int length )
+	{
+		dirty.dirty = true;
+		return super.setValues( array, offset, length );
+	}
+
+	@Override
+	public FloatBuffer setValues( final FloatBufferAccess access )
+	{
+		dirty.dirty = true;
+		return super.setValues( access );
+	}
+
+	@Override
+	public boolean isDirty()
+	{
+		return dirty.dirty;
+	}
+
+	@Override
+	public void setDirty()
+	{
+		dirty.dirty = true;
+	}
+
+	@Override
+	public void setDirty( final boolean dirty )
+	{
+		this.dirty.dirty = dirty;
+	}
+
+	/**
+	 * Create a new DirtyFloatBufferAccess from a ByteBuffer
+	 *
+	 * @param buffer
+	 * @param isValid
+	 * @return
+	 */
+	public static DirtyFloatBufferAccess fromByteBuffer( final ByteBuffer buffer, final boolean isValid )
+	{
+		return new DirtyFloatBufferAccess( buffer.asFloatBuffer(), isValid );
+	}
+}
@@ -0,0 +1,592 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.img.cell;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.function.ToLongFunction;
+
+import net.imglib2.Dirty;
+import net.imglib2.img.cell.LazyCellImg.Get;
+import net.imglib2.type.NativeType;
+import net.imglib2.util.Fraction;
+
+/**
+ * A concurrent cache of {@link Cell}s, bounded by the total size in bytes of
+ * the cells it holds strongly. It is used as the {@link Get} of a
+ * {@link LazyCellImg} (see {@link CachingLazyCellImg}), wrapping a loader
+ * {@code Get} that creates cells on demand (e.g., reads them from disk).
+ * <p>
+ * Cells are evicted using the CLOCK algorithm (an approximation of
+ * least-recently-used): every access sets a "referenced" bit on the cell, and
+ * when the cache exceeds its size bound, cells are visited in insertion order,
+ * cells with the bit set get a second chance (the bit is cleared), and the
+ * first cell without the bit set is evicted.
+ * <p>
+ * Evicted cells are not necessarily dropped. Depending on the
+ * {@link Fallback}, they (and their data) are kept in a {@link SoftReference}
+ * or {@link WeakReference}, and are re-admitted without re-loading if they
+ * are requested before the garbage collector clears them. An evicted cell
+ * stays available as long as its data is referenced (e.g., by a cursor), even
+ * if the {@code Cell} itself was garbage-collected.
+ * <p>
+ * If a {@link WriteBack} is given, cells with {@link Dirty} data that is
+ * marked dirty are written back when they are evicted, and by
+ * {@link #flush()}. The data of a dirty cell is strongly held until its
+ * write-back has finished. A concurrent request for the cell re-admits it,
+ * instead of loading the stale data that has not been written back yet. Clean
+ * cells are not held strongly after eviction.
+ * <p>
+ * A cell may be modified after it was evicted, if its data is still
+ * referenced. Such modifications are written back when the cell is evicted
+ * again, or by {@link #flush()} while the data is still referenced. Call
+ * {@link #flush()} when done modifying an image.
+ * <p>
+ * Concurrent requests for the same cell index are de-duplicated: only one
+ * thread loads the cell, the others wait for it.
+ *
+ * @param <A>
+ *            access type of the cells
+ */
+public class BoundedCellCache< A > implements Get< Cell< A > >
+{
+	/**
+	 * What happens to cells that are evicted from the strongly held, bounded
+	 * part of the cache.
+	 */
+	public enum Fallback
+	{
+		/**
+		 * Evicted cells are dropped and will be re-loaded when requested.
+		 */
+		NONE,
+
+		/**
+		 * Evicted cells are held in a {@link SoftReference}.
+		 */
+		SOFT,
+
+		/**
+		 * Evicted cells are held in a {@link WeakReference}.
+		 */
+		WEAK
+	}
+
+	/**
+	 * Writes back modified cells.
+	 */
+	@FunctionalInterface
+	public interface WriteBack< A >
+	{
+		void write( long index, Cell< A > cell );
+	}
+
+	private final Get< Cell< A > > loader;
+
+	private final WriteBack< A > writeBack;
+
+	private final ToLongFunction< Cell< A > > weigher;
+
+	private final long maxBytes;
+
+	private final Fallback fallback;
+
+	private final ConcurrentHashMap< Long, Entry< A > > map = new ConcurrentHashMap<>();
+
+	private final ReferenceQueue< A > queue = new ReferenceQueue<>();
+
+	/**
+	 * Strongly held entries, in CLOCK order. Guarded by {@code this}.
+	 */
+	private final ArrayDeque< Entry< A > > clock = new ArrayDeque<>();
+
+	/**
+	 * Total weight of the strongly held entries. Guarded by {@code this}.
+	 */
+	private long bytes = 0;
+
+	/**
+	 * @param loader
+	 *            creates the cell for a given index
+	 * @param writeBack
+	 *            writes back modified cells, may be {@code null} if cells are
+	 *            never modified or modifications should be discarded
+	 * @param weigher
+	 *            computes the size in bytes of a cell
+	 * @param maxBytes
+	 *            bound for the total size of the strongly held cells
+	 * @param fallback
+	 *            how evicted cells are held
+	 */
+	public BoundedCellCache(
+			final Get< Cell< A > > loader,
+			final WriteBack< A > writeBack,
+			final ToLongFunction< Cell< A > > weigher,
+			final long maxBytes,
+			final Fallback fallback )
+	{
+		this.loader = loader;
+		this.writeBack = writeBack;
+		this.weigher = weigher;
+		this.maxBytes = maxBytes;
+		this.fallback = fallback;
+	}
+
+	/**
+	 * Create a cache with {@link Fallback#SOFT soft} fallback, that weighs
+	 * cells by the storage size of their pixels of the given {@code type}.
+	 */
+	public BoundedCellCache(
+			final Get< Cell< A > > loader,
+			final WriteBack< A > writeBack,
+			final NativeType< ? > type,
+			final long maxBytes )
+	{
+		this( loader, writeBack, weigher( type ), maxBytes, Fallback.SOFT );
+	}
+
+	/**
+	 * Get a weigher that computes the storage size in bytes of a cell of
+	 * pixels of the given {@code type}.
+	 */
+	public static < A > ToLongFunction< Cell< A > > weigher( final NativeType< ? > type )
+	{
+		final Fraction entitiesPerPixel = type.getEntitiesPerPixel();
+		final int bytesPerEntity = Math.max( 1, type.getNativeTypeFactory().getPrimitiveType().getByteCount() );
+		return cell -> entitiesPerPixel.mulCeil( cell.size() ) * bytesPerEntity;
+	}
+
+	@Override
+	public Cell< A > get( final long index )
+	{
+		cleanUp();
+		while ( true )
+		{
+			final Entry< A > entry = map.get( index );
+			if ( entry != null )
+			{
+				final Cell< A > cell = entry.await();
+				if ( cell != null )
+				{
+					if ( entry.cell == null )
+						admit( entry, cell );
+					else if ( !entry.referenced )
+						entry.referenced = true;
+					return cell;
+				}
+				// the cell was garbage-collected, or loading failed
+				map.remove( index, entry );
+			}
+			else
+			{
+				final Entry< A > newEntry = new Entry<>( index );
+				if ( map.putIfAbsent( index, newEntry ) == null )
+				{
+					try
+					{
+						final Cell< A > cell = loader.get( index );
+						newEntry.weight = weigher.applyAsLong( cell );
+						admit( newEntry, cell );
+						return cell;
+					}
+					catch ( final RuntimeException | Error e )
+					{
+						map.remove( index, newEntry );
+						throw e;
+					}
+					finally
+					{
+						newEntry.loading.countDown();
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Load the cell with the given {@code index} asynchronously on the given
+	 * {@code executor}, unless it is already cached or being loaded. Loading
+	 * errors are ignored (the cell will be loaded again, and the error
+	 * reported, when it is requested by {@link #get(long)}).
+	 */
+	public void prefetch( final long index, final Executor executor )
+	{
+		if ( map.containsKey( index ) )
+			return;
+		executor.execute( () -> {
+			try
+			{
+				get( index );
+			}
+			catch ( final RuntimeException e )
+			{
+				// ignore
+			}
+		} );
+	}
+
+	/**
+	 * Write back all cells that are marked dirty. This includes cells that
+	 * have been evicted but not yet garbage-collected.
+	 */
+	public void flush()
+	{
+		if ( writeBack == null )
+			return;
+		for ( final Entry< A > entry : map.values() )
+		{
+			final Cell< A > cell = entry.peek();
+			if ( cell != null )
+				writeBackIfDirty( entry.index, cell );
+		}
+	}
+
+	/**
+	 * Write back all cells that are marked dirty and remove all cells from
+	 * the cache.
+	 */
+	public void invalidateAll()
+	{
+		flush();
+		synchronized ( this )
+		{
+			for ( final Entry< A > entry : map.values() )
+				entry.release();
+			map.clear();
+			for ( final Entry< A > entry : clock )
+				entry.cell = null;
+			clock.clear();
+			bytes = 0;
+		}
+	}
+
+	/**
+	 * Returns the total size in bytes of the strongly held cells.
+	 */
+	public synchronized long getCurrentBytes()
+	{
+		return bytes;
+	}
+
+	public long getMaxBytes()
+	{
+		return maxBytes;
+	}
+
+	/**
+	 * Make {@code entry} strongly held and evict entries until the size bound
+	 * is respected.
+	 */
+	private void admit( final Entry< A > entry, final Cell< A > cell )
+	{
+		final List< Entry< A > > evicted = new ArrayList<>();
+		final List< Integer > evictions = new ArrayList<>();
+		synchronized ( this )
+		{
+			if ( entry.cell != null || map.get( entry.index ) != entry )
+				return;
+			entry.cell = cell;
+			entry.release();
+			entry.referenced = false;
+			clock.addLast( entry );
+			bytes += entry.weight;
+
+			// Never evict the entry that was just admitted, so that a cell that
+			// is larger than maxBytes is still returned.
+			while ( bytes > maxBytes && clock.size() > 1 )
+			{
+				final Entry< A > e = clock.pollFirst();
+				if ( e == entry || e.referenced )
+				{
+					e.referenced = false;
+					clock.addLast( e );
+				}
+				else
+				{
+					bytes -= e.weight;
+					final Cell< A > c = e.cell;
+					final A data = c.getData();
+					e.evict( c );
+					// keep the data of a dirty cell until it is written back
+					final boolean dirty = writeBack != null && data instanceof Dirty && ( ( Dirty ) data ).isDirty();
+					if ( dirty )
+					{
+						e.evictedData = data;
+						evicted.add( e );
+						evictions.add( e.evictions );
+					}
+					switch ( fallback )
+					{
+					case SOFT:
+						e.cellRef = new SoftReference<>( c );
+						e.ref = new SoftEntryReference<>( data, queue, e );
+						break;
+					case WEAK:
+						e.cellRef = new WeakReference<>( c );
+						e.ref = new WeakEntryReference<>( data, queue, e );
+						break;
+					case NONE:
+						// keep the entry as a placeholder until the cell is
+						// written back
+						if ( !dirty )
+							map.remove( e.index, e );
+						break;
+					}
+				}
+			}
+		}
+
+		// Write back outside of the lock, so that slow I/O does not block
+		// other threads.
+		for ( int i = 0; i < evicted.size(); ++i )
+		{
+			final Entry< A > e = evicted.get( i );
+			final Cell< A > c = e.peek();
+			if ( c != null )
+				writeBackIfDirty( e.index, c );
+			releaseWrittenBack( e, evictions.get( i ) );
+		}
+	}
+
+	/**
+	 * Drop the strongly held data of an evicted cell after it was written
+	 * back. With {@link Fallback#NONE}, also remove the placeholder
+	 * {@code entry}. Nothing is done if the cell was re-admitted (and maybe
+	 * evicted again) in the meantime.
+	 */
+	private synchronized void releaseWrittenBack( final Entry< A > entry, final int eviction )
+	{
+		if ( entry.cell == null && entry.evictions == eviction )
+		{
+			entry.release();
+			if ( fallback == Fallback.NONE )
+				map.remove( entry.index, entry );
+		}
+	}
+
+	private void writeBackIfDirty( final long index, final Cell< A > cell )
+	{
+		if ( writeBack == null )
+			return;
+		final A data = cell.getData();
+		if ( data instanceof Dirty )
+		{
+			final Dirty dirty = ( Dirty ) data;
+			if ( dirty.isDirty() )
+			{
+				dirty.setDirty( false );
+				writeBack.write( index, cell );
+			}
+		}
+	}
+
+	/**
+	 * Remove entries whose cell data has been garbage-collected.
+	 */
+	private void cleanUp()
+	{
+		Reference< ? extends A > ref;
+		while ( ( ref = queue.poll() ) != null )
+		{
+			@SuppressWarnings( "unchecked" )
+			final Entry< A > entry = ( ( EntryReference< A > ) ref ).getEntry();
+			if ( entry.ref == ref && entry.cell == null )
+				map.remove( entry.index, entry );
+		}
+	}
+
+	private static final class Entry< A >
+	{
+		final long index;
+
+		final CountDownLatch loading = new CountDownLatch( 1 );
+
+		long weight;
+
+		/**
+		 * Set on access, cleared when passed by the CLOCK hand.
+		 */
+		volatile boolean referenced;
+
+		/**
+		 * The cell, while it is strongly held by the cache.
+		 */
+		volatile Cell< A > cell;
+
+		/**
+		 * Soft or weak reference to the cell after it has been evicted.
+		 */
+		volatile Reference< Cell< A > > cellRef;
+
+		/**
+		 * Soft or weak reference to the data of the cell after it has been
+		 * evicted. Together with {@code cellDims} and {@code cellMin}, this is
+		 * enough to re-create the cell if only the {@code Cell} was
+		 * garbage-collected. The entry is removed when this is cleared.
+		 */
+		volatile Reference< A > ref;
+
+		/**
+		 * Data of the evicted cell, strongly held while it is written back.
+		 */
+		volatile A evictedData;
+
+		int[] cellDims;
+
+		long[] cellMin;
+
+		/**
+		 * Counts how often the cell was evicted. Guarded by the cache.
+		 */
+		int evictions;
+
+		Entry( final long index )
+		{
+			this.index = index;
+		}
+
+		/**
+		 * Wait for loading to complete and return the cell, or {@code null} if
+		 * loading failed or the cell was garbage-collected.
+		 */
+		Cell< A > await()
+		{
+			boolean interrupted = false;
+			while ( true )
+			{
+				try
+				{
+					loading.await();
+					break;
+				}
+				catch ( final InterruptedException e )
+				{
+					interrupted = true;
+				}
+			}
+			if ( interrupted )
+				Thread.currentThread().interrupt();
+			return peek();
+		}
+
+		Cell< A > peek()
+		{
+			final Cell< A > c = cell;
+			if ( c != null )
+				return c;
+			final Reference< Cell< A > > cr = cellRef;
+			final Cell< A > rc = cr == null ? null : cr.get();
+			if ( rc != null )
+				return rc;
+			A data = evictedData;
+			if ( data == null )
+			{
+				final Reference< A > r = ref;
+				data = r == null ? null : r.get();
+			}
+			return data == null ? null : new Cell<>( cellDims, cellMin, data );
+		}
+
+		/**
+		 * Drop the strong reference to the cell {@code c}, remembering its
+		 * geometry. Must be called while holding the lock of the cache.
+		 */
+		void evict( final Cell< A > c )
+		{
+			if ( cellDims == null )
+			{
+				cellDims = new int[ c.numDimensions() ];
+				c.dimensions( cellDims );
+				cellMin = c.minAsLongArray();
+			}
+			cell = null;
+			++evictions;
+		}
+
+		/**
+		 * Drop the strongly held data of the evicted cell.
+		 */
+		void release()
+		{
+			evictedData = null;
+		}
+	}
+
+	private interface EntryReference< A >
+	{
+		Entry< A > getEntry();
+	}
+
+	private static final class SoftEntryReference< A > extends SoftReference< A > implements EntryReference< A >
+	{
+		private final Entry< A > entry;
+
+		SoftEntryReference( final A data, final ReferenceQueue< A > queue, final Entry< A > entry )
+		{
+			super( data, queue );
+			this.entry = entry;
+		}
+
+		@Override
+		public Entry< A > getEntry()
+		{
+			return entry;
+		}
+	}
+
+	private static final class WeakEntryReference< A > extends WeakReference< A > implements EntryReference< A >
+	{
+		private final Entry< A > entry;
+
+		WeakEntryReference( final A data, final ReferenceQueue< A > queue, final Entry< A > entry )
+		{
+			super( data, queue );
+			this.entry = entry;
+		}
+
+		@Override
+		public Entry< A > getEntry()
+		{
+			return entry;
+		}
+	}
+}
@@ -0,0 +1,253 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.img.cell;
+
+import java.util.concurrent.Executor;
+
+import net.imglib2.FinalInterval;
+import net.imglib2.Interval;
+import net.imglib2.img.basictypeaccess.DataAccess;
+import net.imglib2.img.cell.BoundedCellCache.WriteBack;
+import net.imglib2.iterator.LocalizingIntervalIterator;
+import net.imglib2.type.NativeType;
+import net.imglib2.util.IntervalIndexer;
+import net.imglib2.util.Intervals;
+
+/**
+ * A {@link LazyCellImg} that keeps loaded cells in a {@link BoundedCellCache},
+ * bounded by the total size of the cached cells in bytes.
+ * <p>
+ * Cells can be loaded asynchronously ahead of time, to overlap loading with
+ * computation: {@link #prefetch(Interval)} loads all cells intersecting an
+ * interval, and {@link #setPrefetching(Executor, int) look-ahead} loads the
+ * next cells in flat iteration order of the cell grid whenever a thread
+ * requests cells in that order. The latter matches the order in which cells
+ * are visited by the cursors and spliterators of the image, see
+ * {@link CellIterationOrder}. Random access to cells does not trigger
+ * look-ahead. {@link net.imglib2.blocks.PrimitiveBlocks PrimitiveBlocks}
+ * prefetch all cells of a requested block before copying from the first one
+ * (see {@link PrefetchableCellImg}), if prefetching is enabled.
+ *
+ * @param <T> pixel type
+ * @param <A> access type
+ */
+public class CachingLazyCellImg< T extends NativeType< T >, A extends DataAccess > extends LazyCellImg< T, A > implements PrefetchableCellImg
+{
+	private final BoundedCellCache< A > cache;
+
+	private final LookAhead< A > lookAhead;
+
+	/**
+	 * Create an image that loads cells using {@code cache}.
+	 */
+	public CachingLazyCellImg( final CellGrid grid, final T type, final BoundedCellCache< A > cache )
+	{
+		this( grid, type, new LookAhead<>( cache, grid ) );
+	}
+
+	/**
+	 * Create an image that loads cells using {@code loader}, and caches at
+	 * most {@code maxBytes} bytes of cells. Evicted cells are held in soft
+	 * references. Modifications are discarded when cells are evicted.
+	 */
+	public CachingLazyCellImg( final CellGrid grid, final T type, final Get< Cell< A > > loader, final long maxBytes )
+	{
+		this( grid, type, loader, null, maxBytes );
+	}
+
+	/**
+	 * Create an image that loads cells using {@code loader}, and caches at
+	 * most {@code maxBytes} bytes of cells. Evicted cells are held in soft
+	 * references. Modified cells are written back using {@code writeBack}.
+	 */
+	public CachingLazyCellImg( final CellGrid grid, final T type, final Get< Cell< A > > loader, final WriteBack< A > writeBack, final long maxBytes )
+	{
+		this( grid, type, new BoundedCellCache<>( loader, writeBack, type, maxBytes ) );
+	}
+
+	private CachingLazyCellImg( final CellGrid grid, final T type, final LookAhead< A > lookAhead )
+	{
+		super( grid, type, lookAhead );
+		this.cache = lookAhead.cache;
+		this.lookAhead = lookAhead;
+	}
+
+	public BoundedCellCache< A > getCache()
+	{
+		return cache;
+	}
+
+	/**
+	 * Write back all modified cells.
+	 *
+	 * @see BoundedCellCache#flush()
+	 */
+	public void flush()
+	{
+		cache.flush();
+	}
+
+	/**
+	 * Enable prefetching of cells on the given {@code executor}.
+	 * <p>
+	 * Whenever a thread requests the cell that directly follows the cell it
+	 * requested before (in flat iteration order of the cell grid), the next
+	 * {@code numCells} cells are loaded asynchronously. With
+	 * {@code numCells == 0}, only explicit prefetch requests are served. Note
+	 * that the cache should be large enough to hold at least
+	 * {@code numCells + 1} cells per thread accessing the image, otherwise
+	 * prefetched cells are evicted before they are used.
+	 *
+	 * @param executor
+	 *            executor to load cells on, or {@code null} to disable
+	 *            prefetching.
+	 * @param numCells
+	 *            number of cells to look ahead.
+	 */
+	public void setPrefetching( final Executor executor, final int numCells )
+	{
+		lookAhead.set( executor, numCells );
+	}
+
+	/**
+	 * Returns {@code true} if prefetching has been enabled by
+	 * {@link #setPrefetching(Executor, int)}.
+	 */
+	@Override
+	public boolean isPrefetching()
+	{
+		return lookAhead.executor != null;
+	}
+
+	/**
+	 * Asynchronously load all cells that intersect {@code interval}. Does
+	 * nothing if prefetching is not enabled.
+	 */
+	@Override
+	public void prefetch( final Interval interval )
+	{
+		final Executor executor = lookAhead.executor;
+		if ( executor == null )
+			return;
+		final Interval clamped = Intervals.intersect( interval, this );
+		if ( Intervals.isEmpty( clamped ) )
+			return;
+		final int n = numDimensions();
+		final long[] gridMin = new long[ n ];
+		final long[] gridMax = new long[ n ];
+		for ( int d = 0; d < n; ++d )
+		{
+			gridMin[ d ] = clamped.min( d ) / grid.cellDimension( d );
+			gridMax[ d ] = clamped.max( d ) / grid.cellDimension( d );
+		}
+		final long[] gridDimensions = grid.getGridDimensions();
+		final LocalizingIntervalIterator it = new LocalizingIntervalIterator( new FinalInterval( gridMin, gridMax ) );
+		final long[] gridPos = new long[ n ];
+		while ( it.hasNext() )
+		{
+			it.fwd();
+			it.localize( gridPos );
+			cache.prefetch( IntervalIndexer.positionToIndex( gridPos, gridDimensions ), executor );
+		}
+	}
+
+	/**
+	 * Asynchronously load the cell with the given flat {@code index} in the
+	 * cell grid. Does nothing if prefetching is not enabled.
+	 */
+	@Override
+	public void prefetch( final long index )
+	{
+		final Executor executor = lookAhead.executor;
+		if ( executor != null )
+			cache.prefetch( index, executor );
+	}
+
+	/**
+	 * Gets cells from the cache, and triggers prefetching of the following
+	 * cells if cells are requested sequentially.
+	 */
+	private static final class LookAhead< A > implements Get< Cell< A > >
+	{
+		final BoundedCellCache< A > cache;
+
+		private final long numCells;
+
+		volatile Executor executor;
+
+		private volatile int lookAhead;
+
+		/**
+		 * The index of the cell that was last requested by the current thread.
+		 */
+		private final ThreadLocal< long[] > previous = ThreadLocal.withInitial( () -> new long[] { -2 } );
+
+		LookAhead( final BoundedCellCache< A > cache, final CellGrid grid )
+		{
+			this.cache = cache;
+			this.numCells = Intervals.numElements( grid.getGridDimensions() );
+		}
+
+		synchronized void set( final Executor executor, final int lookAhead )
+		{
+			this.lookAhead = executor == null ? 0 : lookAhead;
+			this.executor = executor;
+		}
+
+		@Override
+		public Cell< A > get( final long index )
+		{
+			final Executor executor = this.executor;
+			if ( executor != null && lookAhead > 0 && isSequential( index ) )
+			{
+				final long end = Math.min( numCells, index + 1 + lookAhead );
+				for ( long i = index + 1; i < end; ++i )
+					cache.prefetch( i, executor );
+			}
+			return cache.get( index );
+		}
+
+		/**
+		 * Returns {@code true} if {@code index} directly follows the index
+		 * that the current thread requested before.
+		 */
+		private boolean isSequential( final long index )
+		{
+			final long[] p = previous.get();
+			final boolean sequential = index == p[ 0 ] + 1;
+			p[ 0 ] = index;
+			return sequential;
+		}
+	}
+}
@@ -0,0 +1,78 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.img.cell;
+
+import net.imglib2.type.PrimitiveType;
+
+/**
+ * Compresses the primitive array data of a cell into a {@code byte[]} and
+ * restores it. Used by {@link CompressedCellImg} to store cells that are not
+ * currently in use. See {@link CellCodecs} for implementations.
+ * <p>
+ * Implementations must be thread-safe.
+ */
+public interface CellCodec
+{
+	/**
+	 * Compress the first {@code numEntities} elements of {@code data}.
+	 *
+	 * @param type
+	 *            primitive type of the {@code data} array
+	 * @param data
+	 *            a primitive array ({@code byte[]}, {@code float[]}, etc.)
+	 * @param numEntities
+	 *            number of elements to compress
+	 *
+	 * @return compressed data
+	 */
+	byte[] encode( PrimitiveType type, Object data, int numEntities );
+
+	/**
+	 * Decompress {@code numEntities} elements, starting at {@code offset} in
+	 * {@code encoded}, into {@code data}.
+	 *
+	 * @param type
+	 *            primitive type of the {@code data} array
+	 * @param encoded
+	 *            compressed data produced by {@link #encode}
+	 * @param offset
+	 *            where the compressed data starts in {@code encoded}
+	 * @param data
+	 *            a primitive array ({@code byte[]}, {@code float[]}, etc.) to
+	 *            decompress into
+	 * @param numEntities
+	 *            number of elements to decompress
+	 */
+	void decode( PrimitiveType type, byte[] encoded, int offset, Object data, int numEntities );
+}
@@ -0,0 +1,512 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.img.cell;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import net.imglib2.type.PrimitiveType;
+
+/**
+ * {@link CellCodec} implementations in pure Java.
+ * <p>
+ * {@link #RLE} and {@link #DELTA} work on the bit patterns of the elements
+ * (for {@code float} and {@code double} data that is
+ * {@link Float#floatToRawIntBits(float)} and
+ * {@link Double#doubleToRawLongBits(double)}), so compression is always
+ * lossless. They are effective for label and mask data ({@code RLE}), and for
+ * smooth integer data ({@code DELTA}). {@link #adaptive(CellCodec...)} tries
+ * several codecs per cell and keeps the smallest result.
+ */
+public final class CellCodecs
+{
+	private CellCodecs()
+	{}
+
+	/**
+	 * Stores elements uncompressed, in little-endian byte order.
+	 */
+	public static final CellCodec RAW = new Raw();
+
+	/**
+	 * Run-length encoding. Each run of equal elements is stored as the run
+	 * length and the value, both as variable-length integers.
+	 */
+	public static final CellCodec RLE = new RunLength();
+
+	/**
+	 * Delta encoding. Each element is stored as the difference to the
+	 * previous element, as a zig-zag variable-length integer.
+	 */
+	public static final CellCodec DELTA = new Delta();
+
+	/**
+	 * Chooses the smallest of {@link #RAW}, {@link #RLE}, and {@link #DELTA}
+	 * for each cell.
+	 */
+	public static final CellCodec DEFAULT = adaptive( RAW, RLE, DELTA );
+
+	/**
+	 * Get a codec that compresses each cell with all of the given
+	 * {@code codecs} and keeps the smallest result. The chosen codec is
+	 * recorded in the first byte of the encoded data.
+	 */
+	public static CellCodec adaptive( final CellCodec... codecs )
+	{
+		if ( codecs.length == 0 || codecs.length > 256 )
+			throw new IllegalArgumentException( "expected 1 to 256 codecs" );
+		return new Adaptive( codecs.clone() );
+	}
+
+	private static final class Adaptive implements CellCodec
+	{
+		private final CellCodec[] codecs;
+
+		Adaptive( final CellCodec[] codecs )
+		{
+			this.codecs = codecs;
+		}
+
+		@Override
+		public byte[] encode( final PrimitiveType type, final Object data, final int numEntities )
+		{
+			int best = -1;
+			byte[] bestEncoded = null;
+			for ( int i = 0; i < codecs.length; ++i )
+			{
+				final byte[] encoded = codecs[ i ].encode( type, data, numEntities );
+				if ( bestEncoded == null || encoded.length < bestEncoded.length )
+				{
+					best = i;
+					bestEncoded = encoded;
+				}
+			}
+			final byte[] tagged = new byte[ bestEncoded.length + 1 ];
+			tagged[ 0 ] = ( byte ) best;
+			System.arraycopy( bestEncoded, 0, tagged, 1, bestEncoded.length );
+			return tagged;
+		}
+
+		@Override
+		public void decode( final PrimitiveType type, final byte[] encoded, final int offset, final Object data, final int numEntities )
+		{
+			codecs[ encoded[ offset ] & 0xff ].decode( type, encoded, offset + 1, data, numEntities );
+		}
+	}
+
+	private static final class Raw implements CellCodec
+	{
+		@Override
+		public byte[] encode( final PrimitiveType type, final Object data, final int numEntities )
+		{
+			final byte[] encoded = new byte[ numEntities * type.getByteCount() ];
+			final ByteBuffer buf = ByteBuffer.wrap( encoded ).order( ByteOrder.LITTLE_ENDIAN );
+			switch ( type )
+			{
+			case BOOLEAN:
+				final boolean[] booleans = ( boolean[] ) data;
+				for ( int i = 0; i < numEntities; ++i )
+					encoded[ i ] = booleans[ i ] ? ( byte ) 1 : 0;
+				break;
+			case BYTE:
+				System.arraycopy( data, 0, encoded, 0, numEntities );
+				break;
+			case CHAR:
+				buf.asCharBuffer().put( ( char[] ) data, 0, numEntities );
+				break;
+			case SHORT:
+				buf.asShortBuffer().put( ( short[] ) data, 0, numEntities );
+				break;
+			case INT:
+				buf.asIntBuffer().put( ( int[] ) data, 0, numEntities );
+				break;
+			case LONG:
+				buf.asLongBuffer().put( ( long[] ) data, 0, numEntities );
+				break;
+			case FLOAT:
+				buf.asFloatBuffer().put( ( float[] ) data, 0, numEntities );
+				break;
+			case DOUBLE:
+				buf.asDoubleBuffer().put( ( double[] ) data, 0, numEntities );
+				break;
+			default:
+				throw new IllegalArgumentException( "unsupported primitive type " + type );
+			}
+			return encoded;
+		}
+
+		@Override
+		public void decode( final PrimitiveType type, final byte[] encoded, final int offset, final Object data, final int numEntities )
+		{
+			final ByteBuffer buf = ByteBuffer.wrap( encoded, offset, encoded.length - offset ).slice().order( ByteOrder.LITTLE_ENDIAN );
+			switch ( type )
+			{
+			case BOOLEAN:
+				final boolean[] booleans = ( boolean[] ) data;
+				for ( int i = 0; i < numEntities; ++i )
+					booleans[ i ] = encoded[ offset + i ] != 0;
+				break;
+			case BYTE:
+				System.arraycopy( encoded, offset, data, 0, numEntities );
+				break;
+			case CHAR:
+				buf.asCharBuffer().get( ( char[] ) data, 0, numEntities );
+				break;
+			case SHORT:
+				buf.asShortBuffer().get( ( short[] ) data, 0, numEntities );
+				break;
+			case INT:
+				buf.asIntBuffer().get( ( int[] ) data, 0, numEntities );
+				break;
+			case LONG:
+				buf.asLongBuffer().get( ( long[] ) data, 0, numEntities );
+				break;
+			case FLOAT:
+				buf.asFloatBuffer().get( ( float[] ) data, 0, numEntities );
+				break;
+			case DOUBLE:
+				buf.asDoubleBuffer().get( ( double[] ) data, 0, numEntities );
+				break;
+			default:
+				throw new IllegalArgumentException( "unsupported primitive type " + type );
+			}
+		}
+	}
+
+	private static final class RunLength implements CellCodec
+	{
+		@Override
+		public byte[] encode( final PrimitiveType type, final Object data, final int numEntities )
+		{
+			final ByteSink sink = new ByteSink( 16 );
+			final long[] buf = new long[ Math.min( numEntities, BLOCK_SIZE ) ];
+			long value = 0;
+			int run = 0;
+			for ( int start = 0; start < numEntities; start += BLOCK_SIZE )
+			{
+				final int len = Math.min( BLOCK_SIZE, numEntities - start );
+				toLongs( type, data, start, buf, len );
+				for ( int i = 0; i < len; ++i )
+				{
+					final long v = buf[ i ];
+					if ( run > 0 && v == value )
+						++run;
+					else
+					{
+						if ( run > 0 )
+						{
+							sink.writeVarLong( run );
+							sink.writeVarLong( zigZag( value ) );
+						}
+						value = v;
+						run = 1;
+					}
+				}
+			}
+			if ( run > 0 )
+			{
+				sink.writeVarLong( run );
+				sink.writeVarLong( zigZag( value ) );
+			}
+			return sink.toByteArray();
+		}
+
+		@Override
+		public void decode( final PrimitiveType type, final byte[] encoded, final int offset, final Object data, final int numEntities )
+		{
+			final ByteSource source = new ByteSource( encoded, offset );
+			final long[] buf = new long[ Math.min( numEntities, BLOCK_SIZE ) ];
+			long value = 0;
+			long run = 0;
+			for ( int start = 0; start < numEntities; start += BLOCK_SIZE )
+			{
+				final int len = Math.min( BLOCK_SIZE, numEntities - start );
+				for ( int i = 0; i < len; )
+				{
+					if ( run == 0 )
+					{
+						run = source.readVarLong();
+						value = unZigZag( source.readVarLong() );
+					}
+					final int n = ( int ) Math.min( run, len - i );
+					Arrays.fill( buf, i, i + n, value );
+					i += n;
+					run -= n;
+				}
+				fromLongs( type, buf, data, start, len );
+			}
+		}
+	}
+
+	private static final class Delta implements CellCodec
+	{
+		@Override
+		public byte[] encode( final PrimitiveType type, final Object data, final int numEntities )
+		{
+			final ByteSink sink = new ByteSink( 16 );
+			final long[] buf = new long[ Math.min( numEntities, BLOCK_SIZE ) ];
+			long previous = 0;
+			for ( int start = 0; start < numEntities; start += BLOCK_SIZE )
+			{
+				final int len = Math.min( BLOCK_SIZE, numEntities - start );
+				toLongs( type, data, start, buf, len );
+				for ( int i = 0; i < len; ++i )
+				{
+					final long v = buf[ i ];
+					sink.writeVarLong( zigZag( v - previous ) );
+					previous = v;
+				}
+			}
+			return sink.toByteArray();
+		}
+
+		@Override
+		public void decode( final PrimitiveType type, final byte[] encoded, final int offset, final Object data, final int numEntities )
+		{
+			final ByteSource source = new ByteSource( encoded, offset );
+			final long[] buf = new long[ Math.min( numEntities, BLOCK_SIZE ) ];
+			long previous = 0;
+			for ( int start = 0; start < numEntities; start += BLOCK_SIZE )
+			{
+				final int len = Math.min( BLOCK_SIZE, numEntities - start );
+				for ( int i = 0; i < len; ++i )
+				{
+					previous += unZigZag( source.readVarLong() );
+					buf[ i ] = previous;
+				}
+				fromLongs( type, buf, data, start, len );
+			}
+		}
+	}
+
+	/**
+	 * Elements are converted to and from {@code long} in blocks of this size.
+	 */
+	private static final int BLOCK_SIZE = 1024;
+
+	/**
+	 * Copy {@code length} elements of {@code data}, starting at {@code start},
+	 * to {@code dest} as {@code long} bit patterns.
+	 */
+	private static void toLongs( final PrimitiveType type, final Object data, final int start, final long[] dest, final int length )
+	{
+		switch ( type )
+		{
+		case BOOLEAN:
+		{
+			final boolean[] a = ( boolean[] ) data;
+			for ( int i = 0; i < length; ++i )
+				dest[ i ] = a[ start + i ] ? 1 : 0;
+			break;
+		}
+		case BYTE:
+		{
+			final byte[] a = ( byte[] ) data;
+			for ( int i = 0; i < length; ++i )
+				dest[ i ] = a[ start + i ];
+			break;
+		}
+		case CHAR:
+		{
+			final char[] a = ( char[] ) data;
+			for ( int i = 0; i < length; ++i )
+				dest[ i ] = a[ start + i ];
+			break;
+		}
+		case SHORT:
+		{
+			final short[] a = ( short[] ) data;
+			for ( int i = 0; i < length; ++i )
+				dest[ i ] = a[ start + i ];
+			break;
+		}
+		case INT:
+		{
+			final int[] a = ( int[] ) data;
+			for ( int i = 0; i < length; ++i )
+				dest[ i ] = a[ start + i ];
+			break;
+		}
+		case LONG:
+			System.arraycopy( data, start, dest, 0, length );
+			break;
+		case FLOAT:
+		{
+			final float[] a = ( float[] ) data;
+			for ( int i = 0; i < length; ++i )
+				dest[ i ] = Float.floatToRawIntBits( a[ start + i ] );
+			break;
+		}
+		case DOUBLE:
+		{
+			final double[] a = ( double[] ) data;
+			for ( int i = 0; i < length; ++i )
+				dest[ i ] = Double.doubleToRawLongBits( a[ start + i ] );
+			break;
+		}
+		default:
+			throw new IllegalArgumentException( "unsupported primitive type " + type );
+		}
+	}
+
+	/**
+	 * Copy {@code length} {@code long} bit patterns from {@code src} to
+	 * {@code data}, starting at {@code start}.
+	 */
+	private static void fromLongs( final PrimitiveType type, final long[] src, final Object data, final int start, final int length )
+	{
+		switch ( type )
+		{
+		case BOOLEAN:
+		{
+			final boolean[] a = ( boolean[] ) data;
+			for ( int i = 0; i < length; ++i )
+				a[ start + i ] = src[ i ] != 0;
+			break;
+		}
+		case BYTE:
+		{
+			final byte[] a = ( byte[] ) data;
+			for ( int i = 0; i < length; ++i )
+				a[ start + i ] = ( byte ) src[ i ];
+			break;
+		}
+		case CHAR:
+		{
+			final char[] a = ( char[] ) data;
+			for ( int i = 0; i < length; ++i )
+				a[ start + i ] = ( char ) src[ i ];
+			break;
+		}
+		case SHORT:
+		{
+			final short[] a = ( short[] ) data;
+			for ( int i = 0; i < length; ++i )
+				a[ start + i ] = ( short ) src[ i ];
+			break;
+		}
+		case INT:
+		{
+			final int[] a = ( int[] ) data;
+			for ( int i = 0; i < length; ++i )
+				a[ start + i ] = ( int ) src[ i ];
+			break;
+		}
+		case LONG:
+			System.arraycopy( src, 0, data, start, length );
+			break;
+		case FLOAT:
+		{
+			final float[] a = ( float[] ) data;
+			for ( int i = 0; i < length; ++i )
+				a[ start + i ] = Float.intBitsToFloat( ( int ) src[ i ] );
+			break;
+		}
+		case DOUBLE:
+		{
+			final double[] a = ( double[] ) data;
+			for ( int i = 0; i < length; ++i )
+				a[ start + i ] = Double.longBitsToDouble( src[ i ] );
+			break;
+		}
+		default:
+			throw new IllegalArgumentException( "unsupported primitive type " + type );
+		}
+	}
+
+	private static long zigZag( final long v )
+	{
+		return ( v << 1 ) ^ ( v >> 63 );
+	}
+
+	private static long unZigZag( final long v )
+	{
+		return ( v >>> 1 ) ^ -( v & 1 );
+	}
+
+	private static final class ByteSink
+	{
+		private byte[] bytes;
+
+		private int size;
+
+		ByteSink( final int capacity )
+		{
+			bytes = new byte[ capacity ];
+		}
+
+		void writeVarLong( long v )
+		{
+			if ( size + 10 > bytes.length )
+				bytes = Arrays.copyOf( bytes, Math.max( bytes.length * 2, size + 10 ) );
+			while ( ( v & ~0x7fL ) != 0 )
+			{
+				bytes[ size++ ] = ( byte ) ( ( v & 0x7f ) | 0x80 );
+				v >>>= 7;
+			}
+			bytes[ size++ ] = ( byte ) v;
+		}
+
+		byte[] toByteArray()
+		{
+			return Arrays.copyOf( bytes, size );
+		}
+	}
+
+	private static final class ByteSource
+	{
+		private final byte[] bytes;
+
+		private int pos;
+
+		ByteSource( final byte[] bytes, final int pos )
+		{
+			this.bytes = bytes;
+			this.pos = pos;
+		}
+
+		long readVarLong()
+		{
+			long v = 0;
+			for ( int shift = 0;; shift += 7 )
+			{
+				final byte b = bytes[ pos++ ];
+				v |= ( long ) ( b & 0x7f ) << shift;
+				if ( b >= 0 )
+					return v;
+			}
+		}
+	}
+}
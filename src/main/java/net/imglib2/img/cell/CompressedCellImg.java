@@ -0,0 +1,208 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.img.cell;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.imglib2.img.basictypeaccess.AccessFlags;
+import net.imglib2.img.basictypeaccess.ArrayDataAccessFactory;
+import net.imglib2.img.basictypeaccess.array.ArrayDataAccess;
+import net.imglib2.img.cell.BoundedCellCache.Fallback;
+import net.imglib2.img.cell.BoundedCellCache.WriteBack;
+import net.imglib2.type.NativeType;
+import net.imglib2.type.PrimitiveType;
+import net.imglib2.util.Fraction;
+import net.imglib2.util.Intervals;
+
+/**
+ * A {@link CellImg}-like image that keeps only a working set of "hot" cells
+ * as uncompressed primitive arrays, and stores all other cells compressed
+ * with a {@link CellCodec}.
+ * <p>
+ * Hot cells are held in a {@link BoundedCellCache}, bounded by
+ * {@code maxHotBytes}. When a cell is evicted from the working set, it is
+ * compressed if it was modified. When an evicted cell is requested again, it
+ * is decompressed. Cells that have never been written are not stored at all,
+ * and read as {@code 0}.
+ * <p>
+ * A cell that is modified (through a reference held by a cursor, for example)
+ * after it was evicted, is compressed again when it is evicted again, or by
+ * {@link #flush()} while the reference is held (see {@link BoundedCellCache}).
+ * Call {@link #flush()} when done modifying the image.
+ * <p>
+ * Use {@link CompressedCellImgFactory} to create {@code CompressedCellImg}s.
+ *
+ * @param <T> pixel type
+ * @param <A> access type
+ */
+public class CompressedCellImg< T extends NativeType< T >, A extends ArrayDataAccess< A > > extends CachingLazyCellImg< T, A >
+{
+	private final CompressedCellImgFactory< T > factory;
+
+	private final CompressedCells< A > cells;
+
+	CompressedCellImg( final CompressedCellImgFactory< T > factory, final CellGrid grid, final T type, final CellCodec codec, final long maxHotBytes )
+	{
+		this( factory, grid, type, new CompressedCells<>( grid, type, codec ), maxHotBytes );
+	}
+
+	private CompressedCellImg( final CompressedCellImgFactory< T > factory, final CellGrid grid, final T type, final CompressedCells< A > cells, final long maxHotBytes )
+	{
+		super( grid, type, new BoundedCellCache<>( cells, cells, BoundedCellCache.weigher( type ), maxHotBytes, Fallback.WEAK ) );
+		this.factory = factory;
+		this.cells = cells;
+	}
+
+	/**
+	 * Returns the total size in bytes of the compressed cells. This does not
+	 * include the hot cells (unless they have been compressed before and not
+	 * modified since).
+	 */
+	public long getCompressedBytes()
+	{
+		return cells.compressedBytes.get();
+	}
+
+	/**
+	 * Returns the number of cells that are stored compressed.
+	 */
+	public int getNumCompressedCells()
+	{
+		return cells.store.size();
+	}
+
+	/**
+	 * Compress all modified hot cells, and remove all cells from the working
+	 * set.
+	 */
+	public void compressAll()
+	{
+		getCache().invalidateAll();
+	}
+
+	@Override
+	public CompressedCellImgFactory< T > factory()
+	{
+		return factory;
+	}
+
+	/**
+	 * Creates a copy of this image. Compressed cells are shared (they are
+	 * immutable), so copying is cheap.
+	 */
+	@Override
+	public CompressedCellImg< T, A > copy()
+	{
+		flush();
+		final CompressedCells< A > copyCells = new CompressedCells<>( cells );
+		return new CompressedCellImg<>( factory, grid, linkedType.createVariable(), copyCells, getCache().getMaxBytes() );
+	}
+
+	/**
+	 * Loads cells by decompressing them, and compresses modified cells when
+	 * they are written back.
+	 */
+	private static final class CompressedCells< A extends ArrayDataAccess< A > > implements Get< Cell< A > >, WriteBack< A >
+	{
+		private final CellGrid grid;
+
+		private final Fraction entitiesPerPixel;
+
+		private final PrimitiveType primitiveType;
+
+		private final A creator;
+
+		private final CellCodec codec;
+
+		final Map< Long, byte[] > store;
+
+		final AtomicLong compressedBytes;
+
+		CompressedCells( final CellGrid grid, final NativeType< ? > type, final CellCodec codec )
+		{
+			this.grid = grid;
+			this.entitiesPerPixel = type.getEntitiesPerPixel();
+			this.primitiveType = type.getNativeTypeFactory().getPrimitiveType();
+			this.creator = ArrayDataAccessFactory.get( primitiveType, AccessFlags.setOf( AccessFlags.DIRTY ) );
+			this.codec = codec;
+			this.store = new ConcurrentHashMap<>();
+			this.compressedBytes = new AtomicLong();
+		}
+
+		CompressedCells( final CompressedCells< A > other )
+		{
+			this.grid = other.grid;
+			this.entitiesPerPixel = other.entitiesPerPixel;
+			this.primitiveType = other.primitiveType;
+			this.creator = other.creator;
+			this.codec = other.codec;
+			this.store = new ConcurrentHashMap<>( other.store );
+			this.compressedBytes = new AtomicLong( other.compressedBytes.get() );
+		}
+
+		@Override
+		public Cell< A > get( final long index )
+		{
+			final long[] cellMin = new long[ grid.numDimensions() ];
+			final int[] cellDims = new int[ grid.numDimensions() ];
+			grid.getCellDimensions( index, cellMin, cellDims );
+			final int numEntities = ( int ) entitiesPerPixel.mulCeil( Intervals.numElements( cellDims ) );
+			final A data = creator.createArray( numEntities );
+			final byte[] encoded = store.get( index );
+			if ( encoded != null )
+				codec.decode( primitiveType, encoded, 0, data.getCurrentStorageArray(), numEntities );
+			return new Cell<>( cellDims, cellMin, data );
+		}
+
+		/**
+		 * Compress a snapshot of the cell data. Other threads may still write
+		 * to the cell (its dirty flag has already been cleared, so such writes
+		 * will be written back again later), and the codec must not see the
+		 * data change while encoding.
+		 */
+		@Override
+		public void write( final long index, final Cell< A > cell )
+		{
+			final A data = cell.getData();
+			final int numEntities = data.getArrayLength();
+			final A snapshot = creator.createArray( numEntities );
+			System.arraycopy( data.getCurrentStorageArray(), 0, snapshot.getCurrentStorageArray(), 0, numEntities );
+			final byte[] encoded = codec.encode( primitiveType, snapshot.getCurrentStorageArray(), numEntities );
+			final byte[] previous = store.put( index, encoded );
+			compressedBytes.addAndGet( encoded.length - ( previous == null ? 0 : previous.length ) );
+		}
+	}
+}
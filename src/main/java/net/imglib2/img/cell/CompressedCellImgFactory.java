@@ -0,0 +1,152 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.img.cell;
+
+import net.imglib2.Dimensions;
+import net.imglib2.exception.IncompatibleTypeException;
+import net.imglib2.img.ImgFactory;
+import net.imglib2.img.NativeImgFactory;
+import net.imglib2.img.basictypeaccess.array.ArrayDataAccess;
+import net.imglib2.type.NativeType;
+import net.imglib2.util.Fraction;
+import net.imglib2.util.Intervals;
+import net.imglib2.util.Util;
+
+/**
+ * Factory for {@link CompressedCellImg}s.
+ * <p>
+ * Besides the cell dimensions (default <em>64 x 64 x ... x 64</em>), the
+ * {@link CellCodec} used to compress cells (default
+ * {@link CellCodecs#DEFAULT}) and the maximum size in bytes of the working set
+ * of uncompressed cells (default {@link #DEFAULT_MAX_HOT_BYTES}) can be
+ * specified.
+ *
+ * @param <T> pixel type
+ */
+public class CompressedCellImgFactory< T extends NativeType< T > > extends NativeImgFactory< T >
+{
+	/**
+	 * Default maximum size of the working set of uncompressed cells: 64 MB.
+	 */
+	public static final long DEFAULT_MAX_HOT_BYTES = 64L << 20;
+
+	private final CellCodec codec;
+
+	private final long maxHotBytes;
+
+	private final int[] defaultCellDimensions;
+
+	public CompressedCellImgFactory( final T type )
+	{
+		this( type, 64 );
+	}
+
+	public CompressedCellImgFactory( final T type, final int... cellDimensions )
+	{
+		this( type, CellCodecs.DEFAULT, DEFAULT_MAX_HOT_BYTES, cellDimensions );
+	}
+
+	/**
+	 * @param type
+	 *            pixel type
+	 * @param codec
+	 *            compresses cells that are not in the working set
+	 * @param maxHotBytes
+	 *            maximum size in bytes of the working set of uncompressed
+	 *            cells
+	 * @param cellDimensions
+	 *            dimensions of a standard cell
+	 */
+	public CompressedCellImgFactory( final T type, final CellCodec codec, final long maxHotBytes, final int... cellDimensions )
+	{
+		super( type );
+		this.codec = codec;
+		this.maxHotBytes = maxHotBytes;
+		this.defaultCellDimensions = Dimensions.verify( cellDimensions ).clone();
+	}
+
+	@Override
+	public CompressedCellImg< T, ? > create( final long... dimensions )
+	{
+		return create( dimensions, type() );
+	}
+
+	@Override
+	public CompressedCellImg< T, ? > create( final Dimensions dimensions )
+	{
+		return create( Intervals.dimensionsAsLongArray( dimensions ) );
+	}
+
+	@Override
+	public CompressedCellImg< T, ? > create( final int[] dimensions )
+	{
+		return create( Util.int2long( dimensions ) );
+	}
+
+	@SuppressWarnings( { "unchecked", "rawtypes" } )
+	@Override
+	public < S > ImgFactory< S > imgFactory( final S type ) throws IncompatibleTypeException
+	{
+		if ( NativeType.class.isInstance( type ) )
+			return new CompressedCellImgFactory( ( NativeType ) type, codec, maxHotBytes, defaultCellDimensions );
+		throw new IncompatibleTypeException( this, type.getClass().getCanonicalName() + " does not implement NativeType." );
+	}
+
+	/*
+	 * -----------------------------------------------------------------------
+	 *
+	 * Deprecated API.
+	 *
+	 * Supports backwards compatibility with ImgFactories that are constructed
+	 * without a type instance or supplier.
+	 *
+	 * -----------------------------------------------------------------------
+	 */
+
+	@Deprecated
+	@Override
+	public CompressedCellImg< T, ? > create( final long[] dimensions, final T type )
+	{
+		Dimensions.verify( dimensions );
+		final Fraction entitiesPerPixel = type.getEntitiesPerPixel();
+		final int[] cellDimensions = CellImgFactory.getCellDimensions( defaultCellDimensions, dimensions.length, entitiesPerPixel );
+		final CellGrid grid = new CellGrid( dimensions, cellDimensions );
+		return create( grid, type );
+	}
+
+	private < A extends ArrayDataAccess< A > > CompressedCellImg< T, A > create( final CellGrid grid, final T type )
+	{
+		return new CompressedCellImg<>( this, grid, type, codec, maxHotBytes );
+	}
+}
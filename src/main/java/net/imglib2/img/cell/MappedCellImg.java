@@ -0,0 +1,296 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.img.cell;
+
+import static net.imglib2.img.basictypeaccess.AccessFlags.DIRTY;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.imglib2.Dimensions;
+import net.imglib2.Dirty;
+import net.imglib2.img.basictypeaccess.AccessFlags;
+import net.imglib2.img.basictypeaccess.nio.BufferAccess;
+import net.imglib2.img.basictypeaccess.nio.BufferDataAccessFactory;
+import net.imglib2.img.list.ListImg;
+import net.imglib2.type.NativeType;
+import net.imglib2.type.NativeTypeFactory;
+import net.imglib2.util.Fraction;
+import net.imglib2.util.IntervalIndexer;
+import net.imglib2.util.Intervals;
+
+/**
+ * A {@link AbstractCellImg CellImg} backed by a memory-mapped file, for files
+ * that are too large to be mapped into a single {@code ByteBuffer}.
+ * <p>
+ * The file is interpreted as the raw storage array of the image, i.e., pixels
+ * in flat iteration order (X fastest) with the {@link ByteOrder} given at
+ * creation. The image is divided into slabs such that each cell corresponds to
+ * a contiguous region of the file: cells span the full extent of the first
+ * dimensions, a part of one dimension, and have size 1 in the remaining
+ * dimensions. Each cell maps its file region with {@link FileChannel#map}, so
+ * pixel data is paged in and out by the operating system on demand.
+ * <p>
+ * With {@link MapMode#READ_WRITE}, modifications are written to the file by
+ * the operating system eventually. {@link #flush()} forces the regions of all
+ * cells that were modified since the last flush to the storage device. With
+ * {@link MapMode#READ_ONLY}, any attempt to modify the image throws a
+ * {@code ReadOnlyBufferException}. With {@link MapMode#PRIVATE},
+ * modifications are visible in the image only and never written to the file.
+ * <p>
+ * {@link #factory()} and {@link #copy()} create regular (on-heap)
+ * {@link CellImg}s. The mappings are released when the image (and all Views of
+ * it) become unreachable.
+ *
+ * @param <T> pixel type
+ * @param <A> access type
+ */
+public class MappedCellImg< T extends NativeType< T >, A extends BufferAccess< A > > extends AbstractCellImg< T, A, Cell< A >, ListImg< Cell< A > > >
+{
+	/**
+	 * Default maximum size in bytes of the file region mapped by one cell.
+	 */
+	public static final int DEFAULT_MAX_CELL_BYTES = 1 << 26;
+
+	private final CellImgFactory< T > factory;
+
+	private final List< MappedByteBuffer > buffers;
+
+	private MappedCellImg( final CellImgFactory< T > factory, final CellGrid grid, final ListImg< Cell< A > > imgOfCells, final List< MappedByteBuffer > buffers, final Fraction entitiesPerPixel )
+	{
+		super( grid, imgOfCells, entitiesPerPixel );
+		this.factory = factory;
+		this.buffers = buffers;
+	}
+
+	@Override
+	public CellImgFactory< T > factory()
+	{
+		return factory;
+	}
+
+	@Override
+	public CellImg< T, ? > copy()
+	{
+		final CellImg< T, ? > copy = factory.create( dimension );
+		copyDataTo( copy );
+		return copy;
+	}
+
+	/**
+	 * Returns {@code true} if this image was mapped with
+	 * {@link MapMode#READ_ONLY}.
+	 */
+	public boolean isReadOnly()
+	{
+		return buffers.get( 0 ).isReadOnly();
+	}
+
+	/**
+	 * Force modifications of the image to be written to the file.
+	 * <p>
+	 * Only the file regions of cells that were modified since the last flush
+	 * are written. Does nothing if the image was not mapped with
+	 * {@link MapMode#READ_WRITE}.
+	 */
+	public void flush()
+	{
+		int i = 0;
+		for ( final Cell< A > cell : getCells() )
+		{
+			final A access = cell.getData();
+			if ( access instanceof Dirty )
+			{
+				final Dirty dirty = ( Dirty ) access;
+				if ( dirty.isDirty() )
+				{
+					dirty.setDirty( false );
+					buffers.get( i ).force();
+				}
+			}
+			++i;
+		}
+	}
+
+	/**
+	 * Map a region of {@code file} as an image of the given {@code type} and
+	 * {@code dimensions}, using cells of at most
+	 * {@link #DEFAULT_MAX_CELL_BYTES} bytes.
+	 *
+	 * @see #map(Path, long, NativeType, MapMode, ByteOrder, int, long...)
+	 */
+	public static < T extends NativeType< T > > MappedCellImg< T, ? > map(
+			final Path file,
+			final long position,
+			final T type,
+			final MapMode mode,
+			final ByteOrder order,
+			final long... dimensions ) throws IOException
+	{
+		return map( file, position, type, mode, order, DEFAULT_MAX_CELL_BYTES, dimensions );
+	}
+
+	/**
+	 * Map a region of {@code file} as an image of the given {@code type} and
+	 * {@code dimensions}.
+	 * <p>
+	 * With {@link MapMode#READ_WRITE}, the file is created if it does not exist
+	 * and grown if it is too small to hold the image.
+	 *
+	 * @param file
+	 *            the file to map
+	 * @param position
+	 *            offset in bytes of the image data within the file (e.g., to
+	 *            skip a header)
+	 * @param type
+	 *            pixel type. Types with less than one entity per pixel (e.g.,
+	 *            {@code BitType}) are not supported.
+	 * @param mode
+	 *            {@link MapMode#READ_ONLY}, {@link MapMode#READ_WRITE}, or
+	 *            {@link MapMode#PRIVATE}
+	 * @param order
+	 *            byte order of the data in the file
+	 * @param maxCellBytes
+	 *            maximum size in bytes of the file region mapped by one cell
+	 * @param dimensions
+	 *            image dimensions
+	 *
+	 * @throws IOException
+	 *             if the file cannot be opened or mapped
+	 */
+	public static < T extends NativeType< T > > MappedCellImg< T, ? > map(
+			final Path file,
+			final long position,
+			final T type,
+			final MapMode mode,
+			final ByteOrder order,
+			final int maxCellBytes,
+			final long... dimensions ) throws IOException
+	{
+		@SuppressWarnings( { "unchecked", "rawtypes" } )
+		final MappedCellImg< T, ? > img = map( file, position, type, ( NativeTypeFactory ) type.getNativeTypeFactory(), mode, order, maxCellBytes, dimensions );
+		return img;
+	}
+
+	private static < T extends NativeType< T >, A extends BufferAccess< A > > MappedCellImg< T, A > map(
+			final Path file,
+			final long position,
+			final T type,
+			final NativeTypeFactory< T, ? super A > typeFactory,
+			final MapMode mode,
+			final ByteOrder order,
+			final int maxCellBytes,
+			final long[] dimensions ) throws IOException
+	{
+		Dimensions.verify( dimensions );
+		final Fraction entitiesPerPixel = type.getEntitiesPerPixel();
+		if ( entitiesPerPixel.getDenominator() != 1 )
+			throw new IllegalArgumentException( "MappedCellImg does not support types with fractional entities per pixel: " + type.getClass().getSimpleName() );
+		final int entitiesPerPixelInt = ( int ) entitiesPerPixel.getNumerator();
+
+		final A prototype = BufferDataAccessFactory.get( typeFactory, mode == MapMode.READ_WRITE ? AccessFlags.setOf( DIRTY ) : AccessFlags.setOf() );
+		final int bytesPerPixel = entitiesPerPixelInt * prototype.getNumBytesPerEntity();
+		final int[] cellDimensions = slabCellDimensions( dimensions, bytesPerPixel, maxCellBytes );
+		final CellGrid grid = new CellGrid( dimensions, cellDimensions );
+
+		final int n = dimensions.length;
+		final long[] gridDimensions = grid.getGridDimensions();
+		final long numCells = Intervals.numElements( gridDimensions );
+		final List< Cell< A > > cells = new ArrayList<>();
+		final List< MappedByteBuffer > buffers = new ArrayList<>();
+		final long[] cellMin = new long[ n ];
+		final int[] cellDims = new int[ n ];
+		try ( final FileChannel channel = open( file, mode ) )
+		{
+			for ( long index = 0; index < numCells; ++index )
+			{
+				grid.getCellDimensions( index, cellMin, cellDims );
+				final long offset = position + IntervalIndexer.positionToIndex( cellMin, dimensions ) * bytesPerPixel;
+				final long size = Intervals.numElements( cellDims ) * bytesPerPixel;
+				final MappedByteBuffer buffer = channel.map( mode, offset, size );
+				buffers.add( buffer );
+				cells.add( new Cell<>( cellDims, cellMin, prototype.newInstance( buffer.order( order ), true ) ) );
+			}
+		}
+
+		final CellImgFactory< T > factory = new CellImgFactory<>( type, cellDimensions );
+		final MappedCellImg< T, A > img = new MappedCellImg<>( factory, grid, new ListImg<>( cells, gridDimensions ), buffers, entitiesPerPixel );
+		img.setLinkedType( typeFactory.createLinkedType( img ) );
+		return img;
+	}
+
+	/**
+	 * Compute the dimensions of cells that correspond to contiguous regions
+	 * of the flattened image of at most {@code maxCellBytes} bytes.
+	 */
+	static int[] slabCellDimensions( final long[] dimensions, final int bytesPerPixel, final int maxCellBytes )
+	{
+		final int n = dimensions.length;
+		final int[] cellDimensions = new int[ n ];
+		long size = bytesPerPixel;
+		int d = 0;
+		for ( ; d < n && size * dimensions[ d ] <= maxCellBytes; ++d )
+		{
+			cellDimensions[ d ] = ( int ) dimensions[ d ];
+			size *= dimensions[ d ];
+		}
+		if ( d < n )
+		{
+			final long partial = maxCellBytes / size;
+			if ( partial < 1 )
+				throw new IllegalArgumentException( "A single pixel (" + bytesPerPixel + " bytes) does not fit into " + maxCellBytes + " bytes" );
+			cellDimensions[ d++ ] = ( int ) partial;
+		}
+		for ( ; d < n; ++d )
+			cellDimensions[ d ] = 1;
+		return cellDimensions;
+	}
+
+	private static FileChannel open( final Path file, final MapMode mode ) throws IOException
+	{
+		if ( mode == MapMode.READ_ONLY )
+			return FileChannel.open( file, StandardOpenOption.READ );
+		else if ( mode == MapMode.READ_WRITE )
+			return FileChannel.open( file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE );
+		else // PRIVATE mappings require a channel opened for reading and writing
+			return FileChannel.open( file, StandardOpenOption.READ, StandardOpenOption.WRITE );
+	}
+}
@@ -0,0 +1,126 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.img.sparse;
+
+import net.imglib2.img.basictypeaccess.array.ArrayDataAccess;
+
+/**
+ * Base class for the data accesses of {@link SparseCellImg} cells.
+ * <p>
+ * The access of a cell that has not been written yet is not
+ * <em>materialized</em>: it reads from a shared array filled with the
+ * background value. The first write materializes the access, that is, a
+ * private copy of the background array is created and added to the
+ * image. Until then, reads check whether the cell has been materialized
+ * through another access in the meantime. This check is a single volatile
+ * read of the {@link ChunkMap#modCount() modification count} of the image,
+ * as long as no chunks have been added.
+ * <p>
+ * {@link #getCurrentStorageArray()} materializes the access, so that code
+ * that writes directly to the storage array never modifies the shared
+ * background array. Code that only reads the storage array should use
+ * {@link #getCurrentStorageArrayForReading()}, which does not materialize.
+ *
+ * @param <A>
+ *            the concrete access type
+ */
+public abstract class AbstractSparseArray< A extends AbstractSparseArray< A > > implements ArrayDataAccess< A >
+{
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The chunks of the image, or {@code null} if this is a standalone access.
+	 */
+	final ChunkMap chunks;
+
+	/**
+	 * The flat index of the cell in the cell grid.
+	 */
+	final long index;
+
+	final int numEntities;
+
+	boolean materialized;
+
+	/**
+	 * The {@link ChunkMap#modCount() modification count} of {@code chunks}
+	 * when this access last looked up its chunk.
+	 */
+	private int seenModCount;
+
+	AbstractSparseArray( final ChunkMap chunks, final long index, final int numEntities, final boolean materialized )
+	{
+		this.chunks = chunks;
+		this.index = index;
+		this.numEntities = numEntities;
+		this.materialized = materialized;
+		// NB: read before the subclass looks up the chunk, so that chunks
+		// added in between are not missed
+		seenModCount = chunks == null ? 0 : chunks.modCount();
+	}
+
+	/**
+	 * Returns {@code true} if chunks have been added to the image since the
+	 * last call (or since construction). Only then does a non-materialized
+	 * access need to look up its chunk again.
+	 */
+	final boolean chunksModified()
+	{
+		final int modCount = chunks.modCount();
+		if ( modCount == seenModCount )
+			return false;
+		seenModCount = modCount;
+		return true;
+	}
+
+	/**
+	 * Returns {@code true} if the cell has its own storage (as opposed to
+	 * reading from the shared background array).
+	 */
+	public boolean isMaterialized()
+	{
+		return materialized;
+	}
+
+	/**
+	 * Make sure that the cell has its own storage, so that it can be written.
+	 */
+	public abstract void materialize();
+
+	@Override
+	public int getArrayLength()
+	{
+		return numEntities;
+	}
+}
@@ -0,0 +1,259 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.img.sparse;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongFunction;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Open-addressing hash map from {@code long} chunk index to chunk data (a
+ * primitive array), with linear probing. Chunks can be added but not
+ * removed.
+ * <p>
+ * Lookups are lock-free in the common case (using optimistic reads of a
+ * {@link StampedLock}), insertions are serialized. A volatile
+ * {@link #modCount() modification count} allows to cheaply check whether
+ * chunks have been added.
+ */
+final class ChunkMap
+{
+	private static final int MIN_CAPACITY = 16;
+
+	private final StampedLock lock = new StampedLock();
+
+	/**
+	 * Guarded by {@code lock}.
+	 */
+	private Table table = new Table( MIN_CAPACITY );
+
+	private int size;
+
+	/**
+	 * Incremented after each insertion.
+	 */
+	private volatile int modCount;
+
+	/**
+	 * Keys and values are kept in one object, so that an optimistic reader
+	 * always sees arrays of the same length.
+	 */
+	private static final class Table
+	{
+		final long[] keys;
+
+		/**
+		 * Slots with {@code values[i] == null} are empty.
+		 */
+		final Object[] values;
+
+		Table( final int capacity )
+		{
+			keys = new long[ capacity ];
+			values = new Object[ capacity ];
+		}
+	}
+
+	/**
+	 * Returns the chunk with the given {@code index}, or {@code null} if there
+	 * is no such chunk.
+	 */
+	Object get( final long index )
+	{
+		long stamp = lock.tryOptimisticRead();
+		Object value = find( table, index );
+		if ( !lock.validate( stamp ) )
+		{
+			stamp = lock.readLock();
+			try
+			{
+				value = find( table, index );
+			}
+			finally
+			{
+				lock.unlockRead( stamp );
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Returns the chunk with the given {@code index}. If there is no such
+	 * chunk, it is created by {@code create} and added.
+	 */
+	Object computeIfAbsent( final long index, final LongFunction< ? > create )
+	{
+		final Object existing = get( index );
+		if ( existing != null )
+			return existing;
+
+		final long stamp = lock.writeLock();
+		try
+		{
+			Object value = find( table, index );
+			if ( value == null )
+			{
+				value = create.apply( index );
+				if ( 2 * ( size + 1 ) > table.keys.length )
+					resize( 2 * table.keys.length );
+				insert( table, index, value );
+				++size;
+				++modCount;
+			}
+			return value;
+		}
+		finally
+		{
+			lock.unlockWrite( stamp );
+		}
+	}
+
+	/**
+	 * Returns the number of insertions so far. If this did not change, a
+	 * chunk that was not found by {@link #get(long)} is still absent.
+	 */
+	int modCount()
+	{
+		return modCount;
+	}
+
+	/**
+	 * Returns the number of chunks.
+	 */
+	int size()
+	{
+		final long stamp = lock.readLock();
+		try
+		{
+			return size;
+		}
+		finally
+		{
+			lock.unlockRead( stamp );
+		}
+	}
+
+	/**
+	 * Returns the indices of all chunks, in ascending order.
+	 */
+	long[] indices()
+	{
+		final long[] indices;
+		final long stamp = lock.readLock();
+		try
+		{
+			indices = new long[ size ];
+			final long[] keys = table.keys;
+			final Object[] values = table.values;
+			int j = 0;
+			for ( int i = 0; i < keys.length; ++i )
+				if ( values[ i ] != null )
+					indices[ j++ ] = keys[ i ];
+		}
+		finally
+		{
+			lock.unlockRead( stamp );
+		}
+		Arrays.sort( indices );
+		return indices;
+	}
+
+	/**
+	 * Calls {@code action} for each chunk and its index.
+	 */
+	void forEach( final ObjLongConsumer< Object > action )
+	{
+		final long stamp = lock.readLock();
+		try
+		{
+			final long[] keys = table.keys;
+			final Object[] values = table.values;
+			for ( int i = 0; i < keys.length; ++i )
+				if ( values[ i ] != null )
+					action.accept( values[ i ], keys[ i ] );
+		}
+		finally
+		{
+			lock.unlockRead( stamp );
+		}
+	}
+
+	private void resize( final int capacity )
+	{
+		final Table newTable = new Table( capacity );
+		final long[] keys = table.keys;
+		final Object[] values = table.values;
+		for ( int i = 0; i < keys.length; ++i )
+			if ( values[ i ] != null )
+				insert( newTable, keys[ i ], values[ i ] );
+		table = newTable;
+	}
+
+	/**
+	 * Find the value for {@code key}. Must terminate even if the table is
+	 * concurrently modified (in which case the result is discarded): this is
+	 * guaranteed because there is always at least one empty slot.
+	 */
+	private static Object find( final Table table, final long key )
+	{
+		final long[] keys = table.keys;
+		final Object[] values = table.values;
+		final int mask = values.length - 1;
+		for ( int i = hash( key ) & mask;; i = ( i + 1 ) & mask )
+		{
+			final Object value = values[ i ];
+			if ( value == null || keys[ i ] == key )
+				return value;
+		}
+	}
+
+	private static void insert( final Table table, final long key, final Object value )
+	{
+		final long[] keys = table.keys;
+		final Object[] values = table.values;
+		final int mask = values.length - 1;
+		int i = hash( key ) & mask;
+		while ( values[ i ] != null )
+			i = ( i + 1 ) & mask;
+		keys[ i ] = key;
+		values[ i ] = value;
+	}
+
+	private static int hash( final long key )
+	{
+		final long h = key * 0x9e3779b97f4a7c15L;
+		return ( int ) ( h ^ ( h >>> 32 ) );
+	}
+}
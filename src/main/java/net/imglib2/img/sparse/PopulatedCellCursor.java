@@ -0,0 +1,185 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.img.sparse;
+
+import net.imglib2.AbstractCursor;
+import net.imglib2.img.cell.AbstractCellImg;
+import net.imglib2.img.cell.Cell;
+import net.imglib2.type.Index;
+import net.imglib2.type.NativeType;
+
+/**
+ * Cursor over the pixels of a given set of cells of a {@link SparseCellImg}.
+ *
+ * @see SparseCellImg#populatedCursor()
+ */
+final class PopulatedCellCursor< T extends NativeType< T >, A extends AbstractSparseArray< A > >
+		extends AbstractCursor< T >
+		implements AbstractCellImg.CellImgSampler< Cell< A > >
+{
+	private final T type;
+
+	private final Index i;
+
+	private final SparseCellImg.Chunks< A > chunks;
+
+	/**
+	 * Flat grid indices of the cells to visit, in ascending order.
+	 */
+	private final long[] cellIndices;
+
+	private int cellIndex;
+
+	private Cell< A > cell;
+
+	private int lastIndexInCell;
+
+	private int typeIndex;
+
+	private PopulatedCellCursor( final PopulatedCellCursor< T, A > cursor )
+	{
+		super( cursor.numDimensions() );
+		type = cursor.type.duplicateTypeOnSameNativeImg();
+		i = type.index();
+		chunks = cursor.chunks;
+		cellIndices = cursor.cellIndices;
+		cellIndex = cursor.cellIndex;
+		cell = cursor.cell;
+		lastIndexInCell = cursor.lastIndexInCell;
+		typeIndex = cursor.typeIndex;
+		if ( cell != null )
+			type.updateContainer( this );
+		i.set( typeIndex );
+	}
+
+	PopulatedCellCursor( final SparseCellImg< T, A > img, final SparseCellImg.Chunks< A > chunks, final long[] cellIndices )
+	{
+		super( img.numDimensions() );
+		type = img.createLinkedType();
+		i = type.index();
+		this.chunks = chunks;
+		this.cellIndices = cellIndices;
+		reset();
+	}
+
+	@Override
+	public Cell< A > getCell()
+	{
+		return cell;
+	}
+
+	@Override
+	public T get()
+	{
+		return type;
+	}
+
+	@Override
+	public T getType()
+	{
+		return type;
+	}
+
+	@Override
+	public PopulatedCellCursor< T, A > copy()
+	{
+		return new PopulatedCellCursor<>( this );
+	}
+
+	@Override
+	public boolean hasNext()
+	{
+		return ( typeIndex < lastIndexInCell ) || ( cellIndex < cellIndices.length - 1 );
+	}
+
+	@Override
+	public void jumpFwd( final long steps )
+	{
+		long remaining = steps;
+		while ( remaining > lastIndexInCell - typeIndex )
+		{
+			remaining -= lastIndexInCell - typeIndex + 1;
+			moveToNextCell();
+			typeIndex = 0;
+		}
+		typeIndex += ( int ) remaining;
+		i.set( typeIndex );
+	}
+
+	@Override
+	public void fwd()
+	{
+		if ( ++typeIndex > lastIndexInCell )
+		{
+			moveToNextCell();
+			typeIndex = 0;
+		}
+		i.set( typeIndex );
+	}
+
+	@Override
+	public void reset()
+	{
+		cellIndex = -1;
+		cell = null;
+		lastIndexInCell = -1;
+		typeIndex = -1;
+		i.set( typeIndex );
+	}
+
+	@Override
+	public long getLongPosition( final int d )
+	{
+		return cell.indexToGlobalPosition( typeIndex, d );
+	}
+
+	@Override
+	public void localize( final long[] position )
+	{
+		cell.indexToGlobalPosition( typeIndex, position );
+	}
+
+	@Override
+	public String toString()
+	{
+		return type.toString();
+	}
+
+	private void moveToNextCell()
+	{
+		cell = chunks.get( cellIndices[ ++cellIndex ] );
+		lastIndexInCell = ( int ) ( cell.size() - 1 );
+		type.updateContainer( this );
+	}
+}
@@ -0,0 +1,130 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.img.sparse;
+
+import java.util.Arrays;
+
+import net.imglib2.img.basictypeaccess.ByteAccess;
+
+/**
+ * {@link ByteAccess} of a {@link SparseCellImg} cell.
+ *
+ * @see AbstractSparseArray
+ */
+public final class SparseByteArray extends AbstractSparseArray< SparseByteArray > implements ByteAccess
+{
+	private static final long serialVersionUID = 1L;
+
+	private final byte[] background;
+
+	private byte[] data;
+
+	/**
+	 * Create a standalone (materialized) access with {@code numEntities}
+	 * elements.
+	 */
+	public SparseByteArray( final int numEntities )
+	{
+		super( null, 0, numEntities, true );
+		background = null;
+		data = new byte[ numEntities ];
+	}
+
+	SparseByteArray( final ChunkMap chunks, final long index, final int numEntities, final byte[] background )
+	{
+		super( chunks, index, numEntities, false );
+		this.background = background;
+		final Object chunk = chunks.get( index );
+		materialized = chunk != null;
+		data = materialized ? ( byte[] ) chunk : background;
+	}
+
+	@Override
+	public byte getValue( final int index )
+	{
+		if ( !materialized && chunksModified() )
+			refresh();
+		return data[ index ];
+	}
+
+	@Override
+	public void setValue( final int index, final byte value )
+	{
+		if ( !materialized )
+			materialize();
+		data[ index ] = value;
+	}
+
+	@Override
+	public SparseByteArray createArray( final int numEntities )
+	{
+		return new SparseByteArray( numEntities );
+	}
+
+	@Override
+	public byte[] getCurrentStorageArray()
+	{
+		if ( !materialized )
+			materialize();
+		return data;
+	}
+
+	@Override
+	public byte[] getCurrentStorageArrayForReading()
+	{
+		if ( !materialized && chunksModified() )
+			refresh();
+		return data;
+	}
+
+	@Override
+	public void materialize()
+	{
+		if ( !materialized )
+		{
+			data = ( byte[] ) chunks.computeIfAbsent( index, i -> Arrays.copyOf( background, numEntities ) );
+			materialized = true;
+		}
+	}
+
+	private void refresh()
+	{
+		final Object chunk = chunks.get( index );
+		if ( chunk != null )
+		{
+			data = ( byte[] ) chunk;
+			materialized = true;
+		}
+	}
+}
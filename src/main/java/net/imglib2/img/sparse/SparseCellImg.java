@@ -0,0 +1,213 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.img.sparse;
+
+import java.lang.reflect.Array;
+
+import net.imglib2.Cursor;
+import net.imglib2.img.array.ArrayImg;
+import net.imglib2.img.array.ArrayImgFactory;
+import net.imglib2.img.basictypeaccess.array.ArrayDataAccess;
+import net.imglib2.img.cell.Cell;
+import net.imglib2.img.cell.CellGrid;
+import net.imglib2.img.cell.LazyCellImg;
+import net.imglib2.type.NativeType;
+import net.imglib2.type.PrimitiveType;
+import net.imglib2.util.Fraction;
+import net.imglib2.util.Intervals;
+
+/**
+ * A sparse image that stores only the cells that have been written. All
+ * other pixels have a constant background value.
+ * <p>
+ * The image is divided into cells by a {@link CellGrid}. Written cells are
+ * kept as primitive arrays in an open-addressing hash map, keyed by the flat
+ * index of the cell in the grid. Random access, cursors, and
+ * {@link net.imglib2.blocks.PrimitiveBlocks PrimitiveBlocks} work as for
+ * other cell images (this is a {@link LazyCellImg}). Cells that have not been
+ * written read from a shared background array, and are added to the map on
+ * the first write (see {@link AbstractSparseArray}). Setting a pixel to the
+ * background value does not remove its cell.
+ * <p>
+ * Use {@link #populatedCursor()} to iterate only the pixels of written
+ * cells, and {@link SparseCellImgFactory} to create {@code SparseCellImg}s.
+ *
+ * @param <T> pixel type
+ * @param <A> access type
+ */
+public class SparseCellImg< T extends NativeType< T >, A extends AbstractSparseArray< A > > extends LazyCellImg< T, A >
+{
+	private final SparseCellImgFactory< T > factory;
+
+	private final T background;
+
+	private final Chunks< A > chunks;
+
+	SparseCellImg( final SparseCellImgFactory< T > factory, final CellGrid grid, final T background )
+	{
+		this( factory, grid, background, new Chunks<>( grid, background, new ChunkMap() ) );
+	}
+
+	private SparseCellImg( final SparseCellImgFactory< T > factory, final CellGrid grid, final T background, final Chunks< A > chunks )
+	{
+		super( grid, background, chunks );
+		this.factory = factory;
+		this.background = background.copy();
+		this.chunks = chunks;
+	}
+
+	/**
+	 * Returns the value of pixels in cells that have not been written.
+	 */
+	public T getBackground()
+	{
+		return background.copy();
+	}
+
+	/**
+	 * Returns the number of cells that have been written.
+	 */
+	public int getNumPopulatedCells()
+	{
+		return chunks.map.size();
+	}
+
+	/**
+	 * Returns a cursor that iterates only the pixels of cells that have been
+	 * written (before the cursor was created). Cells are visited in flat
+	 * iteration order of the cell grid, pixels within a cell in flat
+	 * iteration order of the cell.
+	 */
+	public Cursor< T > populatedCursor()
+	{
+		return new PopulatedCellCursor<>( this, chunks, chunks.map.indices() );
+	}
+
+	@Override
+	public SparseCellImgFactory< T > factory()
+	{
+		return factory;
+	}
+
+	@Override
+	public SparseCellImg< T, A > copy()
+	{
+		final ChunkMap map = new ChunkMap();
+		chunks.map.forEach( ( chunk, index ) -> map.computeIfAbsent( index, i -> copyOf( chunk ) ) );
+		return new SparseCellImg<>( factory, grid, background, new Chunks< A >( grid, background, map ) );
+	}
+
+	private static Object copyOf( final Object array )
+	{
+		final int length = Array.getLength( array );
+		final Object copy = Array.newInstance( array.getClass().getComponentType(), length );
+		System.arraycopy( array, 0, copy, 0, length );
+		return copy;
+	}
+
+	/**
+	 * Creates cells, with accesses that are backed by the {@link ChunkMap}.
+	 */
+	static final class Chunks< A extends AbstractSparseArray< A > > implements Get< Cell< A > >
+	{
+		private final CellGrid grid;
+
+		private final Fraction entitiesPerPixel;
+
+		private final PrimitiveType primitiveType;
+
+		/**
+		 * A primitive array large enough for the largest cell, filled with the
+		 * background value.
+		 */
+		private final Object background;
+
+		final ChunkMap map;
+
+		Chunks( final CellGrid grid, final NativeType< ? > background, final ChunkMap map )
+		{
+			this.grid = grid;
+			this.entitiesPerPixel = background.getEntitiesPerPixel();
+			this.primitiveType = background.getNativeTypeFactory().getPrimitiveType();
+			this.background = backgroundArray( background, Intervals.numElements( grid.getCellDimensions() ) );
+			this.map = map;
+		}
+
+		@Override
+		public Cell< A > get( final long index )
+		{
+			final long[] cellMin = new long[ grid.numDimensions() ];
+			final int[] cellDims = new int[ grid.numDimensions() ];
+			grid.getCellDimensions( index, cellMin, cellDims );
+			final int numEntities = ( int ) entitiesPerPixel.mulCeil( Intervals.numElements( cellDims ) );
+			return new Cell<>( cellDims, cellMin, access( index, numEntities ) );
+		}
+
+		@SuppressWarnings( "unchecked" )
+		private A access( final long index, final int numEntities )
+		{
+			switch ( primitiveType )
+			{
+			case BOOLEAN:
+				return ( A ) new SparseBooleanArray( map, index, numEntities, ( boolean[] ) background );
+			case BYTE:
+				return ( A ) new SparseByteArray( map, index, numEntities, ( byte[] ) background );
+			case CHAR:
+				return ( A ) new SparseCharArray( map, index, numEntities, ( char[] ) background );
+			case SHORT:
+				return ( A ) new SparseShortArray( map, index, numEntities, ( short[] ) background );
+			case INT:
+				return ( A ) new SparseIntArray( map, index, numEntities, ( int[] ) background );
+			case LONG:
+				return ( A ) new SparseLongArray( map, index, numEntities, ( long[] ) background );
+			case FLOAT:
+				return ( A ) new SparseFloatArray( map, index, numEntities, ( float[] ) background );
+			case DOUBLE:
+				return ( A ) new SparseDoubleArray( map, index, numEntities, ( double[] ) background );
+			default:
+				throw new IllegalArgumentException( "unsupported primitive type " + primitiveType );
+			}
+		}
+
+		private static < T extends NativeType< T > > Object backgroundArray( final NativeType< ? > background, final long numPixels )
+		{
+			@SuppressWarnings( "unchecked" )
+			final T value = ( T ) background;
+			final ArrayImg< T, ? > img = new ArrayImgFactory<>( value ).create( numPixels );
+			for ( final T t : img )
+				t.set( value );
+			return ( ( ArrayDataAccess< ? > ) img.update( null ) ).getCurrentStorageArray();
+		}
+	}
+}
@@ -0,0 +1,440 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.kdtree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import net.imglib2.parallel.Parallelization;
+import net.imglib2.parallel.TaskExecutor;
+
+/**
+ * Nearest-neighbor, <em>k</em>-nearest-neighbor, and radius neighbor search
+ * on {@link KDTreeImpl} for many query points at once.
+ * <p>
+ * Query points are given as a flat {@code double[]} array, where {@code
+ * queries[d + i*n]} is dimension {@code d} of the {@code i}-th query point,
+ * with {@code n} the number of dimensions (the same layout as {@link
+ * KDTreePositions.PositionsLayout#FLAT FLAT} positions). Results are node
+ * indices and squared distances, written to flat primitive arrays.
+ * <p>
+ * Queries are split into chunks that are processed in parallel by a {@link
+ * TaskExecutor} (by default, {@link Parallelization#getTaskExecutor()}).
+ * Optionally, queries are processed in tree order, that is, sorted by the
+ * leaf of the tree that they fall into. Then consecutive queries visit
+ * mostly the same nodes, which improves cache locality. The order of the
+ * results is the order of the queries in either case.
+ */
+public final class BatchNeighborSearch
+{
+	private BatchNeighborSearch()
+	{}
+
+	/**
+	 * Chunks of queries are not made smaller than this.
+	 */
+	private static final int MIN_QUERIES_PER_TASK = 256;
+
+	/**
+	 * Find the nearest neighbor of each query point.
+	 *
+	 * @param tree
+	 *            the tree to search
+	 * @param queries
+	 *            query points in flat layout
+	 * @param indices
+	 *            {@code indices[i]} is set to the node index of the nearest
+	 *            neighbor of the {@code i}-th query point
+	 * @param squDistances
+	 *            {@code squDistances[i]} is set to the squared distance of the
+	 *            nearest neighbor of the {@code i}-th query point
+	 */
+	public static void nearest( final KDTreeImpl tree, final double[] queries, final int[] indices, final double[] squDistances )
+	{
+		nearest( tree, queries, indices, squDistances, false, Parallelization.getTaskExecutor() );
+	}
+
+	/**
+	 * Find the nearest neighbor of each query point.
+	 *
+	 * @param tree
+	 *            the tree to search
+	 * @param queries
+	 *            query points in flat layout
+	 * @param indices
+	 *            {@code indices[i]} is set to the node index of the nearest
+	 *            neighbor of the {@code i}-th query point
+	 * @param squDistances
+	 *            {@code squDistances[i]} is set to the squared distance of the
+	 *            nearest neighbor of the {@code i}-th query point
+	 * @param sortQueries
+	 *            whether to process queries in tree order
+	 * @param taskExecutor
+	 *            used to process chunks of queries in parallel
+	 */
+	public static void nearest(
+			final KDTreeImpl tree,
+			final double[] queries,
+			final int[] indices,
+			final double[] squDistances,
+			final boolean sortQueries,
+			final TaskExecutor taskExecutor )
+	{
+		final int n = tree.numDimensions();
+		final int numQueries = numQueries( tree, queries );
+		checkLength( indices, numQueries );
+		checkLength( squDistances, numQueries );
+		final int[] order = queryOrder( tree, queries, numQueries, sortQueries, taskExecutor );
+		taskExecutor.forEach( chunks( numQueries, taskExecutor ), chunk -> {
+			final NearestNeighborSearchImpl search = new NearestNeighborSearchImpl( tree );
+			for ( int i = chunk[ 0 ]; i < chunk[ 1 ]; ++i )
+			{
+				final int q = order == null ? i : order[ i ];
+				search.search( queries, q * n );
+				indices[ q ] = search.bestIndex();
+				squDistances[ q ] = search.bestSquDistance();
+			}
+		} );
+	}
+
+	/**
+	 * Find the {@code k} nearest neighbors of each query point.
+	 *
+	 * @param tree
+	 *            the tree to search
+	 * @param queries
+	 *            query points in flat layout
+	 * @param k
+	 *            number of neighbors
+	 * @param indices
+	 *            {@code indices[i*k + j]} is set to the node index of the
+	 *            {@code j}-th nearest neighbor of the {@code i}-th query point
+	 * @param squDistances
+	 *            {@code squDistances[i*k + j]} is set to the squared distance
+	 *            of the {@code j}-th nearest neighbor of the {@code i}-th
+	 *            query point
+	 */
+	public static void kNearest( final KDTreeImpl tree, final double[] queries, final int k, final int[] indices, final double[] squDistances )
+	{
+		kNearest( tree, queries, k, indices, squDistances, false, Parallelization.getTaskExecutor() );
+	}
+
+	/**
+	 * Find the {@code k} nearest neighbors of each query point. If the tree
+	 * has fewer than {@code k} points, missing neighbors have index {@code -1}
+	 * and squared distance {@code Double.POSITIVE_INFINITY}.
+	 *
+	 * @param tree
+	 *            the tree to search
+	 * @param queries
+	 *            query points in flat layout
+	 * @param k
+	 *            number of neighbors
+	 * @param indices
+	 *            {@code indices[i*k + j]} is set to the node index of the
+	 *            {@code j}-th nearest neighbor of the {@code i}-th query point
+	 * @param squDistances
+	 *            {@code squDistances[i*k + j]} is set to the squared distance
+	 *            of the {@code j}-th nearest neighbor of the {@code i}-th
+	 *            query point
+	 * @param sortQueries
+	 *            whether to process queries in tree order
+	 * @param taskExecutor
+	 *            used to process chunks of queries in parallel
+	 */
+	public static void kNearest(
+			final KDTreeImpl tree,
+			final double[] queries,
+			final int k,
+			final int[] indices,
+			final double[] squDistances,
+			final boolean sortQueries,
+			final TaskExecutor taskExecutor )
+	{
+		final int n = tree.numDimensions();
+		final int numQueries = numQueries( tree, queries );
+		checkLength( indices, ( long ) numQueries * k );
+		checkLength( squDistances, ( long ) numQueries * k );
+		final int[] order = queryOrder( tree, queries, numQueries, sortQueries, taskExecutor );
+		taskExecutor.forEach( chunks( numQueries, taskExecutor ), chunk -> {
+			final KNearestNeighborSearchImpl search = new KNearestNeighborSearchImpl( tree, k );
+			for ( int i = chunk[ 0 ]; i < chunk[ 1 ]; ++i )
+			{
+				final int q = order == null ? i : order[ i ];
+				search.search( queries, q * n );
+				final int o = q * k;
+				for ( int j = 0; j < k; ++j )
+				{
+					indices[ o + j ] = search.bestIndex( j );
+					squDistances[ o + j ] = search.bestSquDistance( j );
+				}
+			}
+		} );
+	}
+
+	/**
+	 * Find all neighbors within {@code radius} of each query point.
+	 *
+	 * @param tree
+	 *            the tree to search
+	 * @param queries
+	 *            query points in flat layout
+	 * @param radius
+	 *            search radius
+	 * @param sortResults
+	 *            whether the neighbors of each query point should be sorted
+	 *            by distance
+	 *
+	 * @return the neighbors of all query points
+	 */
+	public static RadiusNeighbors radius( final KDTreeImpl tree, final double[] queries, final double radius, final boolean sortResults )
+	{
+		return radius( tree, queries, radius, sortResults, false, Parallelization.getTaskExecutor() );
+	}
+
+	/**
+	 * Find all neighbors within {@code radius} of each query point.
+	 *
+	 * @param tree
+	 *            the tree to search
+	 * @param queries
+	 *            query points in flat layout
+	 * @param radius
+	 *            search radius
+	 * @param sortResults
+	 *            whether the neighbors of each query point should be sorted
+	 *            by distance
+	 * @param sortQueries
+	 *            whether to process queries in tree order
+	 * @param taskExecutor
+	 *            used to process chunks of queries in parallel
+	 *
+	 * @return the neighbors of all query points
+	 */
+	public static RadiusNeighbors radius(
+			final KDTreeImpl tree,
+			final double[] queries,
+			final double radius,
+			final boolean sortResults,
+			final boolean sortQueries,
+			final TaskExecutor taskExecutor )
+	{
+		final int n = tree.numDimensions();
+		final int numQueries = numQueries( tree, queries );
+		final int[] order = queryOrder( tree, queries, numQueries, sortQueries, taskExecutor );
+		final int[] counts = new int[ numQueries ];
+
+		// search, collecting the neighbors of each chunk of queries in a buffer
+		final List< int[] > chunks = chunks( numQueries, taskExecutor );
+		final List< RadiusNeighborSearchImpl.Neighbors > buffers = taskExecutor.forEachApply( chunks, chunk -> {
+			final RadiusNeighborSearchImpl search = new RadiusNeighborSearchImpl( tree );
+			final RadiusNeighborSearchImpl.Neighbors buffer = new RadiusNeighborSearchImpl.Neighbors();
+			for ( int i = chunk[ 0 ]; i < chunk[ 1 ]; ++i )
+			{
+				final int q = order == null ? i : order[ i ];
+				search.search( queries, q * n, radius, sortResults );
+				final int m = search.numNeighbors();
+				for ( int j = 0; j < m; ++j )
+					buffer.add( search.bestSquDistance( j ), search.bestIndex( j ) );
+				counts[ q ] = m;
+			}
+			return buffer;
+		} );
+
+		final int[] offsets = new int[ numQueries + 1 ];
+		for ( int q = 0; q < numQueries; ++q )
+		{
+			final long next = ( long ) offsets[ q ] + counts[ q ];
+			if ( next > KDTreeUtils.MAX_ARRAY_SIZE )
+				throw new IllegalArgumentException( "too many neighbors to be stored in a flat array" );
+			offsets[ q + 1 ] = ( int ) next;
+		}
+
+		// copy buffers to the result arrays, in query order
+		final int[] indices = new int[ offsets[ numQueries ] ];
+		final double[] squDistances = new double[ offsets[ numQueries ] ];
+		final List< Integer > chunkIndices = new ArrayList<>();
+		for ( int c = 0; c < chunks.size(); ++c )
+			chunkIndices.add( c );
+		taskExecutor.forEach( chunkIndices, c -> {
+			final int[] chunk = chunks.get( c );
+			final RadiusNeighborSearchImpl.Neighbors buffer = buffers.get( c );
+			int b = 0;
+			for ( int i = chunk[ 0 ]; i < chunk[ 1 ]; ++i )
+			{
+				final int q = order == null ? i : order[ i ];
+				final int m = counts[ q ];
+				System.arraycopy( buffer.indices, b, indices, offsets[ q ], m );
+				System.arraycopy( buffer.distances, b, squDistances, offsets[ q ], m );
+				b += m;
+			}
+		} );
+		return new RadiusNeighbors( offsets, indices, squDistances );
+	}
+
+	/**
+	 * Neighbors of many query points, in compressed sparse row layout: The
+	 * neighbors of the {@code i}-th query point are at indices {@link
+	 * #offset(int) offset(i)} (inclusive) to {@code offset(i+1)} (exclusive) in
+	 * the {@link #indices()} and {@link #squDistances()} arrays.
+	 */
+	public static final class RadiusNeighbors
+	{
+		private final int[] offsets;
+
+		private final int[] indices;
+
+		private final double[] squDistances;
+
+		RadiusNeighbors( final int[] offsets, final int[] indices, final double[] squDistances )
+		{
+			this.offsets = offsets;
+			this.indices = indices;
+			this.squDistances = squDistances;
+		}
+
+		public int numQueries()
+		{
+			return offsets.length - 1;
+		}
+
+		/**
+		 * Returns the number of neighbors of the {@code i}-th query point.
+		 */
+		public int numNeighbors( final int i )
+		{
+			return offsets[ i + 1 ] - offsets[ i ];
+		}
+
+		/**
+		 * Returns the index of the first neighbor of the {@code i}-th query
+		 * point in {@link #indices()} and {@link #squDistances()}.
+		 */
+		public int offset( final int i )
+		{
+			return offsets[ i ];
+		}
+
+		/**
+		 * Returns the node indices of the neighbors of all query points.
+		 */
+		public int[] indices()
+		{
+			return indices;
+		}
+
+		/**
+		 * Returns the squared distances of the neighbors of all query points.
+		 */
+		public double[] squDistances()
+		{
+			return squDistances;
+		}
+	}
+
+	private static int numQueries( final KDTreeImpl tree, final double[] queries )
+	{
+		final int n = tree.numDimensions();
+		if ( queries.length % n != 0 )
+			throw new IllegalArgumentException( "length of queries array is not a multiple of numDimensions" );
+		return queries.length / n;
+	}
+
+	private static void checkLength( final int[] array, final long length )
+	{
+		if ( array.length < length )
+			throw new IllegalArgumentException( "result array too small (required length " + length + ")" );
+	}
+
+	private static void checkLength( final double[] array, final long length )
+	{
+		if ( array.length < length )
+			throw new IllegalArgumentException( "result array too small (required length " + length + ")" );
+	}
+
+	/**
+	 * Split {@code [0, numQueries)} into ranges {@code {from, to}}, one per
+	 * task.
+	 */
+	private static List< int[] > chunks( final int numQueries, final TaskExecutor taskExecutor )
+	{
+		final int numTasks = Math.max( 1, Math.min( taskExecutor.suggestNumberOfTasks(), numQueries / MIN_QUERIES_PER_TASK ) );
+		final List< int[] > chunks = new ArrayList<>( numTasks );
+		for ( int t = 0; t < numTasks; ++t )
+			chunks.add( new int[] { ( int ) ( ( long ) numQueries * t / numTasks ), ( int ) ( ( long ) numQueries * ( t + 1 ) / numTasks ) } );
+		return chunks;
+	}
+
+	/**
+	 * If {@code sortQueries == true}, returns query indices sorted in tree
+	 * order. Otherwise, returns {@code null} (meaning that queries are
+	 * processed in the given order).
+	 * <p>
+	 * The tree order of a query point is determined by descending from the
+	 * root to the leaf level, going left or right at each node depending on
+	 * the query coordinate in the splitting dimension. The path of left/right
+	 * decisions (as bits, left-aligned to the depth of the tree) is the sort
+	 * key.
+	 */
+	static int[] queryOrder( final KDTreeImpl tree, final double[] queries, final int numQueries, final boolean sortQueries, final TaskExecutor taskExecutor )
+	{
+		if ( !sortQueries )
+			return null;
+
+		final int n = tree.numDimensions();
+		final int numPoints = tree.size();
+		final int treeDepth = tree.depth();
+		final long[] keys = new long[ numQueries ];
+		taskExecutor.forEach( chunks( numQueries, taskExecutor ), chunk -> {
+			for ( int q = chunk[ 0 ]; q < chunk[ 1 ]; ++q )
+			{
+				long path = 0;
+				int depth = 0;
+				for ( int node = 0; node < numPoints; ++depth )
+				{
+					final int d = depth % n;
+					final boolean left = queries[ q * n + d ] < tree.getDoublePosition( node, d );
+					path = ( path << 1 ) | ( left ? 0 : 1 );
+					node = 2 * node + ( left ? 1 : 2 );
+				}
+				keys[ q ] = ( ( path << ( treeDepth - depth ) ) << 32 ) | q;
+			}
+		} );
+		Arrays.sort( keys );
+		final int[] order = new int[ numQueries ];
+		Arrays.setAll( order, i -> ( int ) keys[ i ] );
+		return order;
+	}
+}
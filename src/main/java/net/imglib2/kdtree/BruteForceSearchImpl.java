@@ -0,0 +1,298 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.kdtree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import net.imglib2.RealLocalizable;
+import net.imglib2.parallel.Parallelization;
+import net.imglib2.parallel.TaskExecutor;
+
+/**
+ * Exhaustive <em>k</em>-nearest-neighbor search on points in a flat {@code
+ * double[]} array, where {@code positions[d + i*n]} is dimension {@code d} of
+ * the {@code i}-th point (for example {@link PointsSnapshot#positions()}).
+ * Results are point indices.
+ * <p>
+ * The best {@code k} candidates are kept in a bounded max-heap, so a
+ * candidate costs one comparison unless it is among the best {@code k} so
+ * far. For small to medium point sets this is faster than building and
+ * searching a {@link KDTreeImpl}, and it is a baseline to compare
+ * approximate searches against.
+ * <p>
+ * {@link #kNearest(double[], int, double[], int, int[], double[],
+ * TaskExecutor)} searches many queries at once. Queries and points are
+ * processed in blocks, such that a block of points stays in cache while it is
+ * compared to a block of queries, and query blocks are processed in
+ * parallel.
+ */
+public class BruteForceSearchImpl
+{
+	/**
+	 * Number of queries in a block for batch search.
+	 */
+	private static final int QUERY_BLOCK_SIZE = 16;
+
+	/**
+	 * Number of points in a block for batch search.
+	 */
+	private static final int POINT_BLOCK_SIZE = 2048;
+
+	private final double[] positions;
+
+	private final int numDimensions;
+
+	private final int numPoints;
+
+	private final int k;
+
+	private final double[] pos;
+
+	private final double[] bestSquDistance;
+
+	private final int[] bestIndex;
+
+	public BruteForceSearchImpl( final double[] positions, final int numDimensions, final int k )
+	{
+		if ( k < 1 )
+			throw new IllegalArgumentException( "k must be at least 1" );
+		this.positions = positions;
+		this.numDimensions = numDimensions;
+		numPoints = positions.length / numDimensions;
+		this.k = k;
+		pos = new double[ numDimensions ];
+		bestSquDistance = new double[ k ];
+		bestIndex = new int[ k ];
+	}
+
+	public void search( final RealLocalizable p )
+	{
+		p.localize( pos );
+		search();
+	}
+
+	/**
+	 * Search for the {@code k} nearest neighbors of the point with coordinates
+	 * {@code points[offset]}, ..., {@code points[offset + n - 1]}, where {@code
+	 * n} is the number of dimensions.
+	 */
+	public void search( final double[] points, final int offset )
+	{
+		System.arraycopy( points, offset, pos, 0, numDimensions );
+		search();
+	}
+
+	private void search()
+	{
+		Arrays.fill( bestSquDistance, Double.POSITIVE_INFINITY );
+		Arrays.fill( bestIndex, -1 );
+		scan( positions, numDimensions, 0, numPoints, pos, 0, bestSquDistance, bestIndex, 0, k );
+		sortHeap( bestSquDistance, bestIndex, 0, k );
+	}
+
+	public int k()
+	{
+		return k;
+	}
+
+	/**
+	 * @return the index of the {@code i}-th nearest neighbor, or {@code -1} if
+	 * there are fewer than {@code i+1} points
+	 */
+	public int bestIndex( final int i )
+	{
+		return bestIndex[ i ];
+	}
+
+	public double bestSquDistance( final int i )
+	{
+		return bestSquDistance[ i ];
+	}
+
+	public BruteForceSearchImpl copy()
+	{
+		final BruteForceSearchImpl copy = new BruteForceSearchImpl( positions, numDimensions, k );
+		System.arraycopy( pos, 0, copy.pos, 0, pos.length );
+		System.arraycopy( bestIndex, 0, copy.bestIndex, 0, k );
+		System.arraycopy( bestSquDistance, 0, copy.bestSquDistance, 0, k );
+		return copy;
+	}
+
+	/**
+	 * Find the {@code k} nearest neighbors of each query, using the {@link
+	 * Parallelization#getTaskExecutor() current TaskExecutor}.
+	 *
+	 * @param positions
+	 * 		points in flat layout
+	 * @param numDimensions
+	 * 		number of dimensions
+	 * @param queries
+	 * 		query points in flat layout
+	 * @param k
+	 * 		number of neighbors
+	 * @param indices
+	 * 		{@code indices[q*k + j]} is set to the index of the {@code j}-th
+	 * 		nearest neighbor of query {@code q}, or {@code -1} if there are
+	 * 		fewer than {@code k} points
+	 * @param squDistances
+	 * 		{@code squDistances[q*k + j]} is set to the corresponding squared
+	 * 		distance
+	 */
+	public static void kNearest( final double[] positions, final int numDimensions, final double[] queries, final int k, final int[] indices, final double[] squDistances )
+	{
+		kNearest( positions, numDimensions, queries, k, indices, squDistances, Parallelization.getTaskExecutor() );
+	}
+
+	/**
+	 * Find the {@code k} nearest neighbors of each query, using the given
+	 * {@code taskExecutor}.
+	 *
+	 * @see #kNearest(double[], int, double[], int, int[], double[])
+	 */
+	public static void kNearest( final double[] positions, final int numDimensions, final double[] queries, final int k, final int[] indices, final double[] squDistances, final TaskExecutor taskExecutor )
+	{
+		if ( k < 1 )
+			throw new IllegalArgumentException( "k must be at least 1" );
+		final int n = numDimensions;
+		final int numPoints = positions.length / n;
+		final int numQueries = queries.length / n;
+		final long length = ( long ) numQueries * k;
+		if ( indices.length < length || squDistances.length < length )
+			throw new IllegalArgumentException( "result array too small (required length " + length + ")" );
+		Arrays.fill( indices, 0, ( int ) length, -1 );
+		Arrays.fill( squDistances, 0, ( int ) length, Double.POSITIVE_INFINITY );
+
+		// split queries into chunks of whole query blocks
+		final int numBlocks = ( numQueries + QUERY_BLOCK_SIZE - 1 ) / QUERY_BLOCK_SIZE;
+		final int numTasks = Math.max( 1, Math.min( taskExecutor.suggestNumberOfTasks(), numBlocks ) );
+		final List< int[] > chunks = new ArrayList<>( numTasks );
+		for ( int t = 0; t < numTasks; ++t )
+		{
+			final int from = ( int ) Math.min( ( long ) numBlocks * t / numTasks * QUERY_BLOCK_SIZE, numQueries );
+			final int to = ( int ) Math.min( ( long ) numBlocks * ( t + 1 ) / numTasks * QUERY_BLOCK_SIZE, numQueries );
+			chunks.add( new int[] { from, to } );
+		}
+
+		taskExecutor.forEach( chunks, chunk -> {
+			for ( int q0 = chunk[ 0 ]; q0 < chunk[ 1 ]; q0 += QUERY_BLOCK_SIZE )
+			{
+				final int q1 = Math.min( q0 + QUERY_BLOCK_SIZE, chunk[ 1 ] );
+				for ( int p0 = 0; p0 < numPoints; p0 += POINT_BLOCK_SIZE )
+				{
+					final int p1 = Math.min( p0 + POINT_BLOCK_SIZE, numPoints );
+					for ( int q = q0; q < q1; ++q )
+						scan( positions, n, p0, p1, queries, q * n, squDistances, indices, q * k, k );
+				}
+				for ( int q = q0; q < q1; ++q )
+					sortHeap( squDistances, indices, q * k, k );
+			}
+		} );
+	}
+
+	/**
+	 * Offer points {@code from} (inclusive) to {@code to} (exclusive) to the
+	 * max-heap of size {@code k} starting at {@code heapOffset}, for the query
+	 * point starting at {@code queries[queryOffset]}.
+	 */
+	private static void scan( final double[] positions, final int n, final int from, final int to, final double[] queries, final int queryOffset, final double[] squDistances, final int[] indices, final int heapOffset, final int k )
+	{
+		double worst = squDistances[ heapOffset ];
+		for ( int i = from; i < to; ++i )
+		{
+			final int o = i * n;
+			double sum = 0;
+			for ( int d = 0; d < n; ++d )
+			{
+				final double diff = queries[ queryOffset + d ] - positions[ o + d ];
+				sum += diff * diff;
+			}
+			if ( sum < worst )
+			{
+				replaceMax( squDistances, indices, heapOffset, k, sum, i );
+				worst = squDistances[ heapOffset ];
+			}
+		}
+	}
+
+	/**
+	 * Replace the maximum element of the max-heap of size {@code k} starting
+	 * at {@code offset}, and restore the heap property.
+	 */
+	private static void replaceMax( final double[] squDistances, final int[] indices, final int offset, final int k, final double squDistance, final int index )
+	{
+		siftDown( squDistances, indices, offset, k, 0, squDistance, index );
+	}
+
+	/**
+	 * Put ({@code squDistance}, {@code index}) at heap position {@code i} and
+	 * sift it down in the max-heap of size {@code size} starting at {@code
+	 * offset}.
+	 */
+	private static void siftDown( final double[] squDistances, final int[] indices, final int offset, final int size, int i, final double squDistance, final int index )
+	{
+		while ( true )
+		{
+			final int left = 2 * i + 1;
+			if ( left >= size )
+				break;
+			final int right = left + 1;
+			final int larger = ( right < size && squDistances[ offset + right ] > squDistances[ offset + left ] ) ? right : left;
+			if ( squDistances[ offset + larger ] <= squDistance )
+				break;
+			squDistances[ offset + i ] = squDistances[ offset + larger ];
+			indices[ offset + i ] = indices[ offset + larger ];
+			i = larger;
+		}
+		squDistances[ offset + i ] = squDistance;
+		indices[ offset + i ] = index;
+	}
+
+	/**
+	 * Sort the max-heap of size {@code k} starting at {@code offset} into
+	 * ascending order.
+	 */
+	private static void sortHeap( final double[] squDistances, final int[] indices, final int offset, final int k )
+	{
+		for ( int end = k - 1; end > 0; --end )
+		{
+			final double maxDistance = squDistances[ offset ];
+			final int maxIndex = indices[ offset ];
+			siftDown( squDistances, indices, offset, end, 0, squDistances[ offset + end ], indices[ offset + end ] );
+			squDistances[ offset + end ] = maxDistance;
+			indices[ offset + end ] = maxIndex;
+		}
+	}
+}
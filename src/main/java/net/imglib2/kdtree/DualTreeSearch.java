@@ -0,0 +1,704 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.kdtree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import net.imglib2.kdtree.BatchNeighborSearch.RadiusNeighbors;
+import net.imglib2.parallel.Parallelization;
+import net.imglib2.parallel.TaskExecutor;
+
+/**
+ * <em>k</em>-nearest-neighbor and radius neighbor joins between two {@link
+ * KDTreeImpl}s: for every point of a query tree, find its neighbors in a
+ * reference tree. The self-join variants find the neighbors of every point of
+ * a tree among the other points of the same tree.
+ * <p>
+ * Instead of searching the reference tree once for every query point, both
+ * trees are traversed simultaneously (dual-tree search). Pairs of subtrees are
+ * pruned using the bounding boxes of their points: for <em>k</em>-nearest
+ * neighbors, if the boxes are farther apart than the current <em>k</em>-th
+ * neighbor distance of every query point in the query subtree; for radius
+ * search, if the boxes are farther apart than the radius. Small pairs of
+ * subtrees are compared exhaustively.
+ * <p>
+ * Results are indexed by query node index, and contain reference node
+ * indices. Query subtrees are processed in parallel by a {@link TaskExecutor}
+ * (by default, {@link Parallelization#getTaskExecutor()}).
+ */
+public final class DualTreeSearch
+{
+	private DualTreeSearch()
+	{}
+
+	/**
+	 * Subtrees with at most this many points are compared exhaustively.
+	 */
+	private static final int LEAF_SIZE = 16;
+
+	/**
+	 * Find the {@code k} nearest neighbors in {@code referenceTree} of each
+	 * point in {@code queryTree}.
+	 *
+	 * @param queryTree
+	 *            query points
+	 * @param referenceTree
+	 *            points to search
+	 * @param k
+	 *            number of neighbors
+	 * @param indices
+	 *            {@code indices[i*k + j]} is set to the reference node index of
+	 *            the {@code j}-th nearest neighbor of query node {@code i}, or
+	 *            {@code -1} if {@code referenceTree} has fewer than {@code k}
+	 *            points
+	 * @param squDistances
+	 *            {@code squDistances[i*k + j]} is set to the corresponding
+	 *            squared distance
+	 */
+	public static void kNearest( final KDTreeImpl queryTree, final KDTreeImpl referenceTree, final int k, final int[] indices, final double[] squDistances )
+	{
+		kNearest( queryTree, referenceTree, k, indices, squDistances, Parallelization.getTaskExecutor() );
+	}
+
+	/**
+	 * Find the {@code k} nearest neighbors in {@code referenceTree} of each
+	 * point in {@code queryTree}, using the given {@code taskExecutor}.
+	 *
+	 * @see #kNearest(KDTreeImpl, KDTreeImpl, int, int[], double[])
+	 */
+	public static void kNearest( final KDTreeImpl queryTree, final KDTreeImpl referenceTree, final int k, final int[] indices, final double[] squDistances, final TaskExecutor taskExecutor )
+	{
+		final Tree q = new Tree( queryTree );
+		final Tree r = queryTree == referenceTree ? q : new Tree( referenceTree );
+		kNearest( q, r, false, k, indices, squDistances, taskExecutor );
+	}
+
+	/**
+	 * Find the {@code k} nearest neighbors of each point in {@code tree},
+	 * among the other points in {@code tree}.
+	 *
+	 * @param tree
+	 *            points
+	 * @param k
+	 *            number of neighbors
+	 * @param indices
+	 *            {@code indices[i*k + j]} is set to the node index of the
+	 *            {@code j}-th nearest neighbor of node {@code i}, or {@code -1}
+	 *            if {@code tree} has not more than {@code k} points
+	 * @param squDistances
+	 *            {@code squDistances[i*k + j]} is set to the corresponding
+	 *            squared distance
+	 */
+	public static void kNearestSelf( final KDTreeImpl tree, final int k, final int[] indices, final double[] squDistances )
+	{
+		kNearestSelf( tree, k, indices, squDistances, Parallelization.getTaskExecutor() );
+	}
+
+	/**
+	 * Find the {@code k} nearest neighbors of each point in {@code tree},
+	 * among the other points in {@code tree}, using the given {@code
+	 * taskExecutor}.
+	 *
+	 * @see #kNearestSelf(KDTreeImpl, int, int[], double[])
+	 */
+	public static void kNearestSelf( final KDTreeImpl tree, final int k, final int[] indices, final double[] squDistances, final TaskExecutor taskExecutor )
+	{
+		final Tree t = new Tree( tree );
+		kNearest( t, t, true, k, indices, squDistances, taskExecutor );
+	}
+
+	/**
+	 * Find all neighbors in {@code referenceTree} within {@code radius} of
+	 * each point in {@code queryTree}.
+	 *
+	 * @param queryTree
+	 *            query points
+	 * @param referenceTree
+	 *            points to search
+	 * @param radius
+	 *            search radius
+	 * @param sortResults
+	 *            whether the neighbors of each query point should be sorted
+	 *            by distance
+	 *
+	 * @return neighbors of each query node
+	 */
+	public static RadiusNeighbors radius( final KDTreeImpl queryTree, final KDTreeImpl referenceTree, final double radius, final boolean sortResults )
+	{
+		return radius( queryTree, referenceTree, radius, sortResults, Parallelization.getTaskExecutor() );
+	}
+
+	/**
+	 * Find all neighbors in {@code referenceTree} within {@code radius} of
+	 * each point in {@code queryTree}, using the given {@code taskExecutor}.
+	 *
+	 * @see #radius(KDTreeImpl, KDTreeImpl, double, boolean)
+	 */
+	public static RadiusNeighbors radius( final KDTreeImpl queryTree, final KDTreeImpl referenceTree, final double radius, final boolean sortResults, final TaskExecutor taskExecutor )
+	{
+		final Tree q = new Tree( queryTree );
+		final Tree r = queryTree == referenceTree ? q : new Tree( referenceTree );
+		return radius( q, r, false, radius, sortResults, taskExecutor );
+	}
+
+	/**
+	 * Find all neighbors of each point in {@code tree} within {@code radius},
+	 * among the other points in {@code tree}.
+	 *
+	 * @param tree
+	 *            points
+	 * @param radius
+	 *            search radius
+	 * @param sortResults
+	 *            whether the neighbors of each point should be sorted by
+	 *            distance
+	 *
+	 * @return neighbors of each node
+	 */
+	public static RadiusNeighbors radiusSelf( final KDTreeImpl tree, final double radius, final boolean sortResults )
+	{
+		return radiusSelf( tree, radius, sortResults, Parallelization.getTaskExecutor() );
+	}
+
+	/**
+	 * Find all neighbors of each point in {@code tree} within {@code radius},
+	 * among the other points in {@code tree}, using the given {@code
+	 * taskExecutor}.
+	 *
+	 * @see #radiusSelf(KDTreeImpl, double, boolean)
+	 */
+	public static RadiusNeighbors radiusSelf( final KDTreeImpl tree, final double radius, final boolean sortResults, final TaskExecutor taskExecutor )
+	{
+		final Tree t = new Tree( tree );
+		return radius( t, t, true, radius, sortResults, taskExecutor );
+	}
+
+	private static void kNearest( final Tree q, final Tree r, final boolean self, final int k, final int[] indices, final double[] squDistances, final TaskExecutor taskExecutor )
+	{
+		checkDimensions( q, r );
+		final long length = ( long ) q.numPoints * k;
+		if ( indices.length < length || squDistances.length < length )
+			throw new IllegalArgumentException( "result array too small (required length " + length + ")" );
+		Arrays.fill( indices, 0, ( int ) length, -1 );
+		Arrays.fill( squDistances, 0, ( int ) length, Double.POSITIVE_INFINITY );
+		if ( k == 0 )
+			return;
+
+		final double[] bounds = new double[ q.numPoints ];
+		Arrays.fill( bounds, Double.POSITIVE_INFINITY );
+		taskExecutor.forEach( tasks( q, taskExecutor ), nodes -> {
+			final KNearestJoin join = new KNearestJoin( q, r, self, k, indices, squDistances, bounds );
+			for ( final int node : nodes )
+				join.join( node, 0 );
+		} );
+
+		// sort the neighbors of each query point by distance
+		for ( int i = 0; i < q.numPoints; ++i )
+			sortRange( indices, squDistances, i * k, k );
+	}
+
+	private static RadiusNeighbors radius( final Tree q, final Tree r, final boolean self, final double radius, final boolean sortResults, final TaskExecutor taskExecutor )
+	{
+		checkDimensions( q, r );
+		final List< RadiusJoin > joins = taskExecutor.forEachApply( tasks( q, taskExecutor ), nodes -> {
+			final RadiusJoin join = new RadiusJoin( q, r, self, radius * radius );
+			for ( final int node : nodes )
+				join.join( node, 0 );
+			return join;
+		} );
+
+		// gather pairs into compressed sparse row layout
+		final int[] offsets = new int[ q.numPoints + 1 ];
+		for ( final RadiusJoin join : joins )
+			for ( int i = 0; i < join.size; ++i )
+				++offsets[ join.queries[ i ] + 1 ];
+		for ( int i = 0; i < q.numPoints; ++i )
+		{
+			final long next = ( long ) offsets[ i ] + offsets[ i + 1 ];
+			if ( next > KDTreeUtils.MAX_ARRAY_SIZE )
+				throw new IllegalArgumentException( "too many neighbors to be stored in a flat array" );
+			offsets[ i + 1 ] = ( int ) next;
+		}
+		final int numNeighbors = offsets[ q.numPoints ];
+		final int[] indices = new int[ numNeighbors ];
+		final double[] squDistances = new double[ numNeighbors ];
+		final int[] fill = Arrays.copyOf( offsets, q.numPoints );
+		for ( final RadiusJoin join : joins )
+		{
+			for ( int i = 0; i < join.size; ++i )
+			{
+				final int o = fill[ join.queries[ i ] ]++;
+				indices[ o ] = join.references[ i ];
+				squDistances[ o ] = join.squDistances[ i ];
+			}
+		}
+		if ( sortResults )
+			for ( int i = 0; i < q.numPoints; ++i )
+				sortRange( indices, squDistances, offsets[ i ], offsets[ i + 1 ] - offsets[ i ] );
+		return new RadiusNeighbors( offsets, indices, squDistances );
+	}
+
+	private static void checkDimensions( final Tree q, final Tree r )
+	{
+		if ( q.n != r.n )
+			throw new IllegalArgumentException( "trees have different number of dimensions" );
+	}
+
+	/**
+	 * Split the query tree into disjoint parts to be processed in parallel.
+	 * Each part is a list of nodes (in the encoding of {@link Tree}). Subtrees
+	 * at the first level with at least {@code suggestNumberOfTasks()} nodes
+	 * become separate parts, the single points above that level are one
+	 * additional part.
+	 */
+	private static List< int[] > tasks( final Tree q, final TaskExecutor taskExecutor )
+	{
+		final int numTasks = taskExecutor.suggestNumberOfTasks();
+		int level = 0;
+		while ( ( 1L << level ) < numTasks && ( q.numPoints >> ( level + 1 ) ) > LEAF_SIZE )
+			++level;
+		final int firstInLevel = ( 1 << level ) - 1;
+		final List< int[] > tasks = new ArrayList<>();
+		if ( firstInLevel > 0 )
+		{
+			final int[] points = new int[ Math.min( firstInLevel, q.numPoints ) ];
+			Arrays.setAll( points, i -> ~i );
+			tasks.add( points );
+		}
+		for ( int i = firstInLevel; i < Math.min( 2 * firstInLevel + 1, q.numPoints ); ++i )
+			tasks.add( new int[] { i } );
+		return tasks;
+	}
+
+	/**
+	 * Sort {@code length} elements starting at {@code offset} in {@code
+	 * squDistances} (and {@code indices} correspondingly) by distance.
+	 */
+	private static void sortRange( final int[] indices, final double[] squDistances, final int offset, final int length )
+	{
+		// insertion sort, the ranges are usually short
+		for ( int i = offset + 1; i < offset + length; ++i )
+		{
+			final double d = squDistances[ i ];
+			final int index = indices[ i ];
+			int j = i;
+			for ( ; j > offset && squDistances[ j - 1 ] > d; --j )
+			{
+				squDistances[ j ] = squDistances[ j - 1 ];
+				indices[ j ] = indices[ j - 1 ];
+			}
+			squDistances[ j ] = d;
+			indices[ j ] = index;
+		}
+	}
+
+	/**
+	 * Positions, subtree bounding boxes and subtree sizes of a {@link
+	 * KDTreeImpl}.
+	 * <p>
+	 * In the traversal, a node {@code i >= 0} stands for the subtree rooted at
+	 * {@code i}, and a node {@code ~i < 0} stands for the single point at node
+	 * {@code i}.
+	 */
+	private static final class Tree
+	{
+		final int n;
+
+		final int numPoints;
+
+		/**
+		 * Positions in flat layout.
+		 */
+		final double[] pos;
+
+		/**
+		 * Bounding box of the subtree rooted at each node, in flat layout.
+		 */
+		final double[] boxMin;
+
+		final double[] boxMax;
+
+		/**
+		 * Number of points in the subtree rooted at each node.
+		 */
+		final int[] size;
+
+		Tree( final KDTreeImpl tree )
+		{
+			n = tree.numDimensions();
+			numPoints = tree.size();
+			if ( ( long ) n * numPoints > KDTreeUtils.MAX_ARRAY_SIZE )
+				throw new IllegalArgumentException( "tree is too large" );
+			pos = new double[ n * numPoints ];
+			for ( int i = 0; i < numPoints; ++i )
+				for ( int d = 0; d < n; ++d )
+					pos[ i * n + d ] = tree.getDoublePosition( i, d );
+			boxMin = pos.clone();
+			boxMax = pos.clone();
+			size = new int[ numPoints ];
+			for ( int i = numPoints - 1; i >= 0; --i )
+			{
+				size[ i ] = 1;
+				for ( int c = 2 * i + 1; c <= 2 * i + 2 && c < numPoints; ++c )
+				{
+					size[ i ] += size[ c ];
+					for ( int d = 0; d < n; ++d )
+					{
+						boxMin[ i * n + d ] = Math.min( boxMin[ i * n + d ], boxMin[ c * n + d ] );
+						boxMax[ i * n + d ] = Math.max( boxMax[ i * n + d ], boxMax[ c * n + d ] );
+					}
+				}
+			}
+		}
+
+		int size( final int node )
+		{
+			return node < 0 ? 1 : size[ node ];
+		}
+
+		/**
+		 * Squared distance between the bounding boxes of {@code node} in this
+		 * tree and {@code other} node in {@code tree}.
+		 */
+		double minSquDistance( final int node, final Tree tree, final int other )
+		{
+			final double[] aMin = node < 0 ? pos : boxMin;
+			final double[] aMax = node < 0 ? pos : boxMax;
+			final int ao = ( node < 0 ? ~node : node ) * n;
+			final double[] bMin = other < 0 ? tree.pos : tree.boxMin;
+			final double[] bMax = other < 0 ? tree.pos : tree.boxMax;
+			final int bo = ( other < 0 ? ~other : other ) * n;
+			double sum = 0;
+			for ( int d = 0; d < n; ++d )
+			{
+				final double gap = Math.max( Math.max( bMin[ bo + d ] - aMax[ ao + d ], aMin[ ao + d ] - bMax[ bo + d ] ), 0 );
+				sum += gap * gap;
+			}
+			return sum;
+		}
+
+		double squDistance( final int i, final Tree tree, final int j )
+		{
+			double sum = 0;
+			final int ao = i * n;
+			final int bo = j * n;
+			for ( int d = 0; d < n; ++d )
+			{
+				final double diff = pos[ ao + d ] - tree.pos[ bo + d ];
+				sum += diff * diff;
+			}
+			return sum;
+		}
+
+		/**
+		 * Put the indices of all points of {@code node} into {@code nodes}.
+		 *
+		 * @return the number of points
+		 */
+		int points( final int node, final int[] nodes )
+		{
+			if ( node < 0 )
+			{
+				nodes[ 0 ] = ~node;
+				return 1;
+			}
+			int count = 0;
+			// the subtree nodes on each level form a contiguous range
+			for ( long first = node, width = 1; first < numPoints; first = 2 * first + 1, width *= 2 )
+			{
+				final long end = Math.min( first + width, numPoints );
+				for ( long i = first; i < end; ++i )
+					nodes[ count++ ] = ( int ) i;
+			}
+			return count;
+		}
+	}
+
+	private static final class KNearestJoin
+	{
+		private final Tree q;
+
+		private final Tree r;
+
+		private final boolean self;
+
+		private final int k;
+
+		/**
+		 * Max-heaps of size {@code k} for each query point.
+		 */
+		private final int[] indices;
+
+		private final double[] squDistances;
+
+		/**
+		 * Upper bound of the {@code k}-th neighbor distance of all points in
+		 * each query subtree.
+		 */
+		private final double[] bounds;
+
+		private final int[] qPoints = new int[ LEAF_SIZE ];
+
+		private final int[] rPoints = new int[ LEAF_SIZE ];
+
+		private final int[] rChildren = new int[ 3 ];
+
+		private final double[] rChildDistances = new double[ 3 ];
+
+		KNearestJoin( final Tree q, final Tree r, final boolean self, final int k, final int[] indices, final double[] squDistances, final double[] bounds )
+		{
+			this.q = q;
+			this.r = r;
+			this.self = self;
+			this.k = k;
+			this.indices = indices;
+			this.squDistances = squDistances;
+			this.bounds = bounds;
+		}
+
+		private double bound( final int qNode )
+		{
+			return qNode < 0 ? squDistances[ ~qNode * k ] : bounds[ qNode ];
+		}
+
+		void join( final int qNode, final int rNode )
+		{
+			if ( q.minSquDistance( qNode, r, rNode ) > bound( qNode ) )
+				return;
+
+			final int qSize = q.size( qNode );
+			final int rSize = r.size( rNode );
+			if ( qSize <= LEAF_SIZE && rSize <= LEAF_SIZE )
+			{
+				compareAll( qNode, rNode );
+			}
+			else if ( qSize >= rSize )
+			{
+				// split the query node
+				join( ~qNode, rNode );
+				final int left = 2 * qNode + 1;
+				final int right = left + 1;
+				double bound = squDistances[ qNode * k ];
+				if ( left < q.numPoints )
+				{
+					join( left, rNode );
+					bound = Math.max( bound, bounds[ left ] );
+				}
+				if ( right < q.numPoints )
+				{
+					join( right, rNode );
+					bound = Math.max( bound, bounds[ right ] );
+				}
+				bounds[ qNode ] = bound;
+			}
+			else
+			{
+				// split the reference node, visit nearest parts first
+				int numChildren = 0;
+				for ( int m = 0; m < 3; ++m )
+				{
+					final int c = m == 0 ? ~rNode : 2 * rNode + m;
+					if ( c < r.numPoints )
+					{
+						final double d = q.minSquDistance( qNode, r, c );
+						int j = numChildren++;
+						for ( ; j > 0 && rChildDistances[ j - 1 ] > d; --j )
+						{
+							rChildDistances[ j ] = rChildDistances[ j - 1 ];
+							rChildren[ j ] = rChildren[ j - 1 ];
+						}
+						rChildDistances[ j ] = d;
+						rChildren[ j ] = c;
+					}
+				}
+				final int c0 = rChildren[ 0 ], c1 = rChildren[ 1 ], c2 = rChildren[ 2 ];
+				join( qNode, c0 );
+				if ( numChildren > 1 )
+					join( qNode, c1 );
+				if ( numChildren > 2 )
+					join( qNode, c2 );
+			}
+		}
+
+		private void compareAll( final int qNode, final int rNode )
+		{
+			final int nq = q.points( qNode, qPoints );
+			final int nr = r.points( rNode, rPoints );
+			double bound = 0;
+			for ( int a = 0; a < nq; ++a )
+			{
+				final int i = qPoints[ a ];
+				for ( int b = 0; b < nr; ++b )
+				{
+					final int j = rPoints[ b ];
+					if ( self && i == j )
+						continue;
+					final double d = q.squDistance( i, r, j );
+					if ( d < squDistances[ i * k ] )
+						replaceMax( i * k, d, j );
+				}
+				bound = Math.max( bound, squDistances[ i * k ] );
+			}
+			if ( qNode >= 0 )
+				bounds[ qNode ] = bound;
+		}
+
+		/**
+		 * Replace the maximum element of the heap starting at {@code offset},
+		 * and restore the heap property.
+		 */
+		private void replaceMax( final int offset, final double squDistance, final int index )
+		{
+			int i = 0;
+			while ( true )
+			{
+				final int left = 2 * i + 1;
+				if ( left >= k )
+					break;
+				final int right = left + 1;
+				final int larger = ( right < k && squDistances[ offset + right ] > squDistances[ offset + left ] ) ? right : left;
+				if ( squDistances[ offset + larger ] <= squDistance )
+					break;
+				squDistances[ offset + i ] = squDistances[ offset + larger ];
+				indices[ offset + i ] = indices[ offset + larger ];
+				i = larger;
+			}
+			squDistances[ offset + i ] = squDistance;
+			indices[ offset + i ] = index;
+		}
+	}
+
+	private static final class RadiusJoin
+	{
+		private final Tree q;
+
+		private final Tree r;
+
+		private final boolean self;
+
+		private final double squRadius;
+
+		private final int[] qPoints = new int[ LEAF_SIZE ];
+
+		private final int[] rPoints = new int[ LEAF_SIZE ];
+
+		/**
+		 * Pairs found so far.
+		 */
+		int[] queries = new int[ 16 ];
+
+		int[] references = new int[ 16 ];
+
+		double[] squDistances = new double[ 16 ];
+
+		int size = 0;
+
+		RadiusJoin( final Tree q, final Tree r, final boolean self, final double squRadius )
+		{
+			this.q = q;
+			this.r = r;
+			this.self = self;
+			this.squRadius = squRadius;
+		}
+
+		void join( final int qNode, final int rNode )
+		{
+			if ( q.minSquDistance( qNode, r, rNode ) >= squRadius )
+				return;
+
+			final int qSize = q.size( qNode );
+			final int rSize = r.size( rNode );
+			if ( qSize <= LEAF_SIZE && rSize <= LEAF_SIZE )
+			{
+				compareAll( qNode, rNode );
+			}
+			else if ( qSize >= rSize )
+			{
+				join( ~qNode, rNode );
+				final int left = 2 * qNode + 1;
+				if ( left < q.numPoints )
+					join( left, rNode );
+				if ( left + 1 < q.numPoints )
+					join( left + 1, rNode );
+			}
+			else
+			{
+				join( qNode, ~rNode );
+				final int left = 2 * rNode + 1;
+				if ( left < r.numPoints )
+					join( qNode, left );
+				if ( left + 1 < r.numPoints )
+					join( qNode, left + 1 );
+			}
+		}
+
+		private void compareAll( final int qNode, final int rNode )
+		{
+			final int nq = q.points( qNode, qPoints );
+			final int nr = r.points( rNode, rPoints );
+			for ( int a = 0; a < nq; ++a )
+			{
+				final int i = qPoints[ a ];
+				for ( int b = 0; b < nr; ++b )
+				{
+					final int j = rPoints[ b ];
+					if ( self && i == j )
+						continue;
+					final double d = q.squDistance( i, r, j );
+					if ( d < squRadius )
+						add( i, j, d );
+				}
+			}
+		}
+
+		private void add( final int query, final int reference, final double squDistance )
+		{
+			if ( size == queries.length )
+			{
+				final int capacity = ( int ) Math.min( 2L * size, KDTreeUtils.MAX_ARRAY_SIZE );
+				if ( capacity == size )
+					throw new IllegalArgumentException( "too many neighbors to be stored in a flat array" );
+				queries = Arrays.copyOf( queries, capacity );
+				references = Arrays.copyOf( references, capacity );
+				squDistances = Arrays.copyOf( squDistances, capacity );
+			}
+			queries[ size ] = query;
+			references[ size ] = reference;
+			squDistances[ size ] = squDistance;
+			++size;
+		}
+	}
+}
@@ -0,0 +1,754 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.kdtree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import net.imglib2.EuclideanSpace;
+import net.imglib2.RealLocalizable;
+import net.imglib2.Sampler;
+
+/**
+ * A kd-tree that supports adding, removing, and moving points.
+ * <p>
+ * Unlike {@link net.imglib2.KDTree}, which is immutable and has to be rebuilt
+ * to change its points, {@code DynamicKDTree} is updated incrementally. Points
+ * are kept in buckets of up to {@code bucketSize} points at the leaves of the
+ * tree. When a leaf overflows, it is split at the median of the dimension with
+ * the largest extent. The tree is kept balanced by rebuilding the highest
+ * subtree in which one child holds more than {@code 70%} of the points after
+ * an update (scapegoat-style), and subtrees that shrink to less than half a
+ * bucket are collapsed into a single leaf. This gives amortized {@code
+ * O(log n)} depth and update cost. Points at identical positions cannot be
+ * split: a leaf of such points may hold more than {@code bucketSize} points,
+ * and a subtree is rebuilt only after a quarter of its points have been
+ * updated since it was last built, so that duplicates do not trigger a
+ * rebuild on every update.
+ * <p>
+ * Points are identified by the {@code int} id returned by {@link
+ * #add(RealLocalizable, Object)}. Ids of removed points are re-used by
+ * subsequent {@code add()}s. {@link #move(int, RealLocalizable)} updates the
+ * position of a point in place if it stays within the region of its leaf,
+ * which is the common case when tracking slowly moving particles.
+ * <p>
+ * Use {@link DynamicKDTreeSearchImpl} (or the {@code *OnDynamicKDTree}
+ * searches in {@link net.imglib2.neighborsearch}) to search the tree.
+ * {@code DynamicKDTree} is not thread-safe: searches must not run
+ * concurrently with updates.
+ *
+ * @param <T>
+ * 		the type of values stored in the tree.
+ */
+public class DynamicKDTree< T > implements EuclideanSpace
+{
+	/**
+	 * Default maximum number of points in a leaf.
+	 */
+	public static final int DEFAULT_BUCKET_SIZE = 16;
+
+	/**
+	 * A subtree is rebuilt if one child holds more than this fraction of its
+	 * points.
+	 */
+	private static final double ALPHA = 0.7;
+
+	private final int n;
+
+	private final int bucketSize;
+
+	/*
+	 * Points, indexed by id.
+	 */
+
+	/**
+	 * Positions in flat layout, {@code positions[id * n + d]} is dimension
+	 * {@code d} of point {@code id}.
+	 */
+	private double[] positions;
+
+	private final ArrayList< T > values;
+
+	/**
+	 * The leaf containing each point, or {@code -1} if the id is not used.
+	 */
+	private int[] leafOf;
+
+	/**
+	 * Index of each point in the bucket of its leaf.
+	 */
+	private int[] indexInLeaf;
+
+	private int[] freeIds;
+
+	private int numFreeIds;
+
+	private int numIds;
+
+	/*
+	 * Nodes, indexed by node index.
+	 */
+
+	/**
+	 * Split dimension, or {@code -1} for leaves.
+	 */
+	int[] splitDimension;
+
+	/**
+	 * Points with coordinate {@code < splitValue} in the split dimension are
+	 * in the left subtree, the others in the right subtree.
+	 */
+	double[] splitValue;
+
+	int[] left;
+
+	int[] right;
+
+	private int[] parent;
+
+	/**
+	 * Number of points in the subtree.
+	 */
+	int[] nodeSize;
+
+	/**
+	 * Number of insertions and deletions in the subtree since it was built.
+	 */
+	private int[] numUpdates;
+
+	/**
+	 * Whether the node is a leaf with more than {@code bucketSize} points,
+	 * that could not be split because all points have identical positions.
+	 */
+	private boolean[] unsplittable;
+
+	/**
+	 * Point ids of leaves, the first {@code nodeSize} elements are used.
+	 */
+	int[][] buckets;
+
+	private int[] freeNodes;
+
+	private int numFreeNodes;
+
+	private int numNodes;
+
+	int root;
+
+	/**
+	 * Total number of points in rebuilt subtrees.
+	 */
+	// NB: package-private to allow testing
+	long numRebuiltPoints;
+
+	/**
+	 * Temporary storage for rebuilding subtrees.
+	 */
+	private int[] tmpIds = new int[ 0 ];
+
+	private double[] tmpCoordinates = new double[ 0 ];
+
+	/**
+	 * Create an empty tree with {@link #DEFAULT_BUCKET_SIZE}.
+	 *
+	 * @param numDimensions
+	 * 		dimensionality of the points
+	 */
+	public DynamicKDTree( final int numDimensions )
+	{
+		this( numDimensions, DEFAULT_BUCKET_SIZE );
+	}
+
+	/**
+	 * Create an empty tree.
+	 *
+	 * @param numDimensions
+	 * 		dimensionality of the points
+	 * @param bucketSize
+	 * 		maximum number of points in a leaf (unless more points have
+	 * 		identical positions)
+	 */
+	public DynamicKDTree( final int numDimensions, final int bucketSize )
+	{
+		if ( numDimensions < 1 )
+			throw new IllegalArgumentException( "numDimensions must be at least 1" );
+		if ( bucketSize < 2 )
+			throw new IllegalArgumentException( "bucketSize must be at least 2" );
+		n = numDimensions;
+		this.bucketSize = bucketSize;
+
+		final int idCapacity = 16;
+		positions = new double[ idCapacity * n ];
+		values = new ArrayList<>( idCapacity );
+		leafOf = new int[ idCapacity ];
+		indexInLeaf = new int[ idCapacity ];
+		freeIds = new int[ idCapacity ];
+
+		final int nodeCapacity = 16;
+		splitDimension = new int[ nodeCapacity ];
+		splitValue = new double[ nodeCapacity ];
+		left = new int[ nodeCapacity ];
+		right = new int[ nodeCapacity ];
+		parent = new int[ nodeCapacity ];
+		nodeSize = new int[ nodeCapacity ];
+		numUpdates = new int[ nodeCapacity ];
+		unsplittable = new boolean[ nodeCapacity ];
+		buckets = new int[ nodeCapacity ][];
+		freeNodes = new int[ nodeCapacity ];
+
+		root = allocateNode( -1 );
+		makeLeaf( root, tmpIds, 0, 0 );
+	}
+
+	@Override
+	public int numDimensions()
+	{
+		return n;
+	}
+
+	/**
+	 * @return the number of points in the tree
+	 */
+	public int size()
+	{
+		return nodeSize[ root ];
+	}
+
+	/**
+	 * @return the maximum number of points in a leaf
+	 */
+	public int bucketSize()
+	{
+		return bucketSize;
+	}
+
+	/**
+	 * Add a point.
+	 *
+	 * @param position
+	 * 		position of the point
+	 * @param value
+	 * 		value associated with the point
+	 *
+	 * @return the id of the new point
+	 */
+	public int add( final RealLocalizable position, final T value )
+	{
+		final int id = allocateId();
+		for ( int d = 0; d < n; ++d )
+			positions[ id * n + d ] = position.getDoublePosition( d );
+		values.set( id, value );
+		insert( id );
+		return id;
+	}
+
+	/**
+	 * Remove the point with the given {@code id}.
+	 */
+	public void remove( final int id )
+	{
+		checkId( id );
+		delete( id );
+		values.set( id, null );
+		leafOf[ id ] = -1;
+		if ( numFreeIds == freeIds.length )
+			freeIds = Arrays.copyOf( freeIds, 2 * freeIds.length );
+		freeIds[ numFreeIds++ ] = id;
+	}
+
+	/**
+	 * Move the point with the given {@code id} to a new {@code position}.
+	 */
+	public void move( final int id, final RealLocalizable position )
+	{
+		checkId( id );
+		final int leaf = leafOf[ id ];
+		if ( isInLeafRegion( leaf, position ) )
+		{
+			for ( int d = 0; d < n; ++d )
+				positions[ id * n + d ] = position.getDoublePosition( d );
+			if ( unsplittable[ leaf ] )
+			{
+				final int[] bucket = buckets[ leaf ];
+				final int other = bucket[ 0 ] == id ? bucket[ 1 ] : bucket[ 0 ];
+				if ( !samePosition( id, other ) )
+					unsplittable[ leaf ] = false;
+			}
+		}
+		else
+		{
+			delete( id );
+			for ( int d = 0; d < n; ++d )
+				positions[ id * n + d ] = position.getDoublePosition( d );
+			insert( id );
+		}
+	}
+
+	/**
+	 * Remove all points.
+	 */
+	public void clear()
+	{
+		values.clear();
+		Arrays.fill( leafOf, 0, numIds, -1 );
+		numIds = 0;
+		numFreeIds = 0;
+		numNodes = 0;
+		numFreeNodes = 0;
+		root = allocateNode( -1 );
+		makeLeaf( root, tmpIds, 0, 0 );
+	}
+
+	/**
+	 * @return whether a point with the given {@code id} is in the tree
+	 */
+	public boolean contains( final int id )
+	{
+		return id >= 0 && id < numIds && leafOf[ id ] >= 0;
+	}
+
+	/**
+	 * Get the value of the point with the given {@code id}.
+	 */
+	public T getValue( final int id )
+	{
+		return values.get( id );
+	}
+
+	/**
+	 * Set the value of the point with the given {@code id}.
+	 */
+	public void setValue( final int id, final T value )
+	{
+		checkId( id );
+		values.set( id, value );
+	}
+
+	/**
+	 * Get coordinate {@code d} of the point with the given {@code id}.
+	 */
+	public double getDoublePosition( final int id, final int d )
+	{
+		return positions[ id * n + d ];
+	}
+
+	/**
+	 * Compute the squared distance from the point with the given {@code id}
+	 * to {@code pos}.
+	 */
+	double squDistance( final int id, final double[] pos )
+	{
+		final int o = id * n;
+		double sum = 0;
+		for ( int d = 0; d < n; ++d )
+		{
+			final double diff = pos[ d ] - positions[ o + d ];
+			sum += diff * diff;
+		}
+		return sum;
+	}
+
+	/**
+	 * Create a re-usable proxy for accessing position and value of points.
+	 */
+	public Entry createEntry()
+	{
+		return new Entry();
+	}
+
+	/**
+	 * A proxy for accessing position and value of the point with a given id.
+	 */
+	public class Entry implements RealLocalizable, Sampler< T >
+	{
+		private int id = -1;
+
+		private Entry()
+		{}
+
+		public Entry setId( final int id )
+		{
+			this.id = id;
+			return this;
+		}
+
+		public int getId()
+		{
+			return id;
+		}
+
+		@Override
+		public int numDimensions()
+		{
+			return n;
+		}
+
+		@Override
+		public double getDoublePosition( final int d )
+		{
+			return positions[ id * n + d ];
+		}
+
+		@Override
+		public T get()
+		{
+			return values.get( id );
+		}
+
+		@Override
+		public Entry copy()
+		{
+			return new Entry().setId( id );
+		}
+	}
+
+	private void checkId( final int id )
+	{
+		if ( !contains( id ) )
+			throw new IllegalArgumentException( "no point with id " + id );
+	}
+
+	private int allocateId()
+	{
+		if ( numFreeIds > 0 )
+			return freeIds[ --numFreeIds ];
+		if ( numIds == leafOf.length )
+		{
+			final int capacity = 2 * numIds;
+			positions = Arrays.copyOf( positions, capacity * n );
+			leafOf = Arrays.copyOf( leafOf, capacity );
+			indexInLeaf = Arrays.copyOf( indexInLeaf, capacity );
+		}
+		values.add( null );
+		return numIds++;
+	}
+
+	private int allocateNode( final int parentNode )
+	{
+		final int node;
+		if ( numFreeNodes > 0 )
+			node = freeNodes[ --numFreeNodes ];
+		else
+		{
+			if ( numNodes == splitDimension.length )
+			{
+				final int capacity = 2 * numNodes;
+				splitDimension = Arrays.copyOf( splitDimension, capacity );
+				splitValue = Arrays.copyOf( splitValue, capacity );
+				left = Arrays.copyOf( left, capacity );
+				right = Arrays.copyOf( right, capacity );
+				parent = Arrays.copyOf( parent, capacity );
+				nodeSize = Arrays.copyOf( nodeSize, capacity );
+				numUpdates = Arrays.copyOf( numUpdates, capacity );
+				unsplittable = Arrays.copyOf( unsplittable, capacity );
+				buckets = Arrays.copyOf( buckets, capacity );
+			}
+			node = numNodes++;
+		}
+		parent[ node ] = parentNode;
+		numUpdates[ node ] = 0;
+		unsplittable[ node ] = false;
+		return node;
+	}
+
+	/**
+	 * Free all nodes in the subtree below {@code node} (but not {@code node}
+	 * itself).
+	 */
+	private void freeChildren( final int node )
+	{
+		if ( splitDimension[ node ] < 0 )
+			return;
+		for ( final int child : new int[] { left[ node ], right[ node ] } )
+		{
+			freeChildren( child );
+			buckets[ child ] = null;
+			if ( numFreeNodes == freeNodes.length )
+				freeNodes = Arrays.copyOf( freeNodes, 2 * freeNodes.length );
+			freeNodes[ numFreeNodes++ ] = child;
+		}
+	}
+
+	private void insert( final int id )
+	{
+		final int o = id * n;
+		int node = root;
+		while ( splitDimension[ node ] >= 0 )
+		{
+			++nodeSize[ node ];
+			++numUpdates[ node ];
+			node = positions[ o + splitDimension[ node ] ] < splitValue[ node ] ? left[ node ] : right[ node ];
+		}
+		int[] bucket = buckets[ node ];
+		final int i = nodeSize[ node ]++;
+		if ( i == bucket.length )
+			buckets[ node ] = bucket = Arrays.copyOf( bucket, 2 * bucket.length );
+		bucket[ i ] = id;
+		leafOf[ id ] = node;
+		indexInLeaf[ id ] = i;
+		if ( unsplittable[ node ] && !samePosition( id, bucket[ 0 ] ) )
+			unsplittable[ node ] = false;
+
+		final int unbalanced = highestUnbalancedAncestor( node );
+		if ( unbalanced >= 0 )
+			rebuild( unbalanced );
+		else if ( nodeSize[ node ] > bucketSize && !unsplittable[ node ] )
+			rebuild( node );
+	}
+
+	private void delete( final int id )
+	{
+		final int leaf = leafOf[ id ];
+		final int[] bucket = buckets[ leaf ];
+		final int last = --nodeSize[ leaf ];
+		if ( last <= bucketSize )
+			unsplittable[ leaf ] = false;
+		final int i = indexInLeaf[ id ];
+		final int moved = bucket[ last ];
+		bucket[ i ] = moved;
+		indexInLeaf[ moved ] = i;
+
+		int collapse = -1;
+		for ( int a = parent[ leaf ]; a >= 0; a = parent[ a ] )
+		{
+			--nodeSize[ a ];
+			++numUpdates[ a ];
+			if ( 2 * nodeSize[ a ] <= bucketSize )
+				collapse = a;
+		}
+		if ( collapse >= 0 )
+		{
+			rebuild( collapse );
+		}
+		else
+		{
+			final int unbalanced = highestUnbalancedAncestor( leaf );
+			if ( unbalanced >= 0 )
+				rebuild( unbalanced );
+		}
+	}
+
+	/**
+	 * Find the highest ancestor of {@code node} (inclusive) that is
+	 * unbalanced, that is, one of its children holds more than {@code ALPHA}
+	 * of its points. Small subtrees are not considered. Neither are subtrees
+	 * with less than a quarter of their points updated since they were built:
+	 * a balanced subtree can not become unbalanced that fast, so these
+	 * subtrees are unbalanced because of duplicate positions, and rebuilding
+	 * them would not help.
+	 *
+	 * @return the unbalanced ancestor, or {@code -1} if there is none.
+	 */
+	private int highestUnbalancedAncestor( final int node )
+	{
+		int unbalanced = -1;
+		for ( int a = node; a >= 0; a = parent[ a ] )
+		{
+			if ( splitDimension[ a ] >= 0 && nodeSize[ a ] > 2 * bucketSize && 4 * numUpdates[ a ] >= nodeSize[ a ] )
+			{
+				final int larger = Math.max( nodeSize[ left[ a ] ], nodeSize[ right[ a ] ] );
+				if ( larger > ALPHA * nodeSize[ a ] )
+					unbalanced = a;
+			}
+		}
+		return unbalanced;
+	}
+
+	/**
+	 * Returns {@code true} if a point at {@code position} would be inserted
+	 * into {@code leaf}.
+	 */
+	private boolean isInLeafRegion( final int leaf, final RealLocalizable position )
+	{
+		for ( int c = leaf, a = parent[ c ]; a >= 0; c = a, a = parent[ a ] )
+		{
+			final boolean isLeft = position.getDoublePosition( splitDimension[ a ] ) < splitValue[ a ];
+			if ( isLeft != ( left[ a ] == c ) )
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Replace the subtree rooted at {@code node} by a balanced subtree
+	 * containing the same points.
+	 */
+	private void rebuild( final int node )
+	{
+		final int count = nodeSize[ node ];
+		numRebuiltPoints += count;
+		if ( tmpIds.length < count )
+		{
+			tmpIds = new int[ Math.max( count, 2 * tmpIds.length ) ];
+			tmpCoordinates = new double[ tmpIds.length ];
+		}
+		collect( node, tmpIds, 0 );
+		freeChildren( node );
+		build( node, tmpIds, 0, count );
+	}
+
+	/**
+	 * Put the point ids in the subtree rooted at {@code node} into {@code ids},
+	 * starting at {@code offset}.
+	 *
+	 * @return the offset after the last added id
+	 */
+	private int collect( final int node, final int[] ids, final int offset )
+	{
+		if ( splitDimension[ node ] < 0 )
+		{
+			System.arraycopy( buckets[ node ], 0, ids, offset, nodeSize[ node ] );
+			return offset + nodeSize[ node ];
+		}
+		return collect( right[ node ], ids, collect( left[ node ], ids, offset ) );
+	}
+
+	/**
+	 * Build a balanced subtree rooted at {@code node} containing the points
+	 * {@code ids[from]} to {@code ids[to-1]}.
+	 */
+	private void build( final int node, final int[] ids, final int from, final int to )
+	{
+		final int count = to - from;
+		if ( count <= bucketSize )
+		{
+			makeLeaf( node, ids, from, to );
+			return;
+		}
+
+		// split the dimension with the largest extent
+		int dim = -1;
+		double maxExtent = 0;
+		for ( int d = 0; d < n; ++d )
+		{
+			double min = Double.POSITIVE_INFINITY;
+			double max = Double.NEGATIVE_INFINITY;
+			for ( int i = from; i < to; ++i )
+			{
+				final double x = positions[ ids[ i ] * n + d ];
+				min = Math.min( min, x );
+				max = Math.max( max, x );
+			}
+			if ( max - min > maxExtent )
+			{
+				maxExtent = max - min;
+				dim = d;
+			}
+		}
+		if ( dim < 0 )
+		{
+			// all points have identical positions
+			makeLeaf( node, ids, from, to );
+			unsplittable[ node ] = true;
+			return;
+		}
+
+		for ( int i = from; i < to; ++i )
+			tmpCoordinates[ i ] = positions[ ids[ i ] * n + dim ];
+		Arrays.sort( tmpCoordinates, from, to );
+		final double median = tmpCoordinates[ from + count / 2 ];
+		int m = partition( ids, from, to, dim, median );
+		double split = median;
+		if ( m == from )
+		{
+			// the median is the minimum, put it on the left
+			split = Math.nextUp( median );
+			m = partition( ids, from, to, dim, split );
+		}
+
+		splitDimension[ node ] = dim;
+		splitValue[ node ] = split;
+		nodeSize[ node ] = count;
+		numUpdates[ node ] = 0;
+		unsplittable[ node ] = false;
+		buckets[ node ] = null;
+		final int l = allocateNode( node );
+		final int r = allocateNode( node );
+		left[ node ] = l;
+		right[ node ] = r;
+		build( l, ids, from, m );
+		build( r, ids, m, to );
+	}
+
+	/**
+	 * Partition {@code ids[from]} to {@code ids[to-1]} such that points with
+	 * coordinate {@code < split} in dimension {@code dim} come first.
+	 *
+	 * @return the index of the first point with coordinate {@code >= split}
+	 */
+	private int partition( final int[] ids, final int from, final int to, final int dim, final double split )
+	{
+		int i = from;
+		int j = to - 1;
+		while ( true )
+		{
+			while ( i <= j && positions[ ids[ i ] * n + dim ] < split )
+				++i;
+			while ( i <= j && positions[ ids[ j ] * n + dim ] >= split )
+				--j;
+			if ( i > j )
+				return i;
+			final int tmp = ids[ i ];
+			ids[ i ] = ids[ j ];
+			ids[ j ] = tmp;
+		}
+	}
+
+	private boolean samePosition( final int id1, final int id2 )
+	{
+		for ( int d = 0; d < n; ++d )
+			if ( positions[ id1 * n + d ] != positions[ id2 * n + d ] )
+				return false;
+		return true;
+	}
+
+	private void makeLeaf( final int node, final int[] ids, final int from, final int to )
+	{
+		final int count = to - from;
+		int[] bucket = buckets[ node ];
+		if ( bucket == null || bucket.length < count )
+			bucket = new int[ Math.max( count, bucketSize ) ];
+		System.arraycopy( ids, from, bucket, 0, count );
+		buckets[ node ] = bucket;
+		splitDimension[ node ] = -1;
+		nodeSize[ node ] = count;
+		numUpdates[ node ] = 0;
+		unsplittable[ node ] = false;
+		for ( int i = 0; i < count; ++i )
+		{
+			leafOf[ bucket[ i ] ] = node;
+			indexInLeaf[ bucket[ i ] ] = i;
+		}
+	}
+}
@@ -0,0 +1,200 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.kdtree;
+
+import net.imglib2.RealLocalizable;
+import net.imglib2.kdtree.RadiusNeighborSearchImpl.Neighbors;
+
+/**
+ * <em>k</em>-nearest-neighbor and radius neighbor search on {@link
+ * DynamicKDTree}. Results are point ids.
+ * <p>
+ * The search must not run concurrently with updates of the tree.
+ */
+public class DynamicKDTreeSearchImpl
+{
+	private final DynamicKDTree< ? > tree;
+
+	private final int numDimensions;
+
+	private final double[] pos;
+
+	private final Neighbors neighbors;
+
+	private int k;
+
+	private double squRadius;
+
+	public DynamicKDTreeSearchImpl( final DynamicKDTree< ? > tree )
+	{
+		this.tree = tree;
+		numDimensions = tree.numDimensions();
+		pos = new double[ numDimensions ];
+		neighbors = new Neighbors();
+	}
+
+	/**
+	 * Search for the {@code k} nearest neighbors of {@code p}. Results are
+	 * ordered by distance. If the tree contains less than {@code k} points,
+	 * all points are found.
+	 */
+	public void searchKNearest( final RealLocalizable p, final int k )
+	{
+		if ( k < 1 )
+			throw new IllegalArgumentException( "k must be at least 1" );
+		p.localize( pos );
+		this.k = k;
+		neighbors.clear();
+		if ( tree.size() > 0 )
+			kNearest( tree.root );
+	}
+
+	/**
+	 * Search for the neighbors of {@code p} within distance {@code <= radius}.
+	 */
+	public void searchRadius( final RealLocalizable p, final double radius, final boolean sortResults )
+	{
+		assert radius >= 0;
+		p.localize( pos );
+		squRadius = radius * radius;
+		neighbors.clear();
+		if ( tree.size() > 0 )
+			radius( tree.root );
+		if ( sortResults )
+			neighbors.sort();
+	}
+
+	private void kNearest( final int node )
+	{
+		if ( tree.splitDimension[ node ] < 0 )
+		{
+			final int[] bucket = tree.buckets[ node ];
+			final int size = tree.nodeSize[ node ];
+			for ( int i = 0; i < size; ++i )
+				insert( tree.squDistance( bucket[ i ], pos ), bucket[ i ] );
+			return;
+		}
+
+		final double axisDiff = pos[ tree.splitDimension[ node ] ] - tree.splitValue[ node ];
+		final boolean leftIsNearBranch = axisDiff < 0;
+		kNearest( leftIsNearBranch ? tree.left[ node ] : tree.right[ node ] );
+		if ( neighbors.size < k || axisDiff * axisDiff <= neighbors.distances[ k - 1 ] )
+			kNearest( leftIsNearBranch ? tree.right[ node ] : tree.left[ node ] );
+	}
+
+	/**
+	 * Insert into the sorted list of best {@code k} points, if {@code
+	 * squDistance} is small enough.
+	 */
+	private void insert( final double squDistance, final int id )
+	{
+		final double[] distances = neighbors.distances;
+		if ( neighbors.size == k )
+		{
+			if ( squDistance >= distances[ k - 1 ] )
+				return;
+		}
+		else
+		{
+			// append a placeholder to make room (reallocating if necessary)
+			neighbors.add( Double.POSITIVE_INFINITY, -1 );
+		}
+		final double[] d = neighbors.distances;
+		final int[] indices = neighbors.indices;
+		int i;
+		for ( i = neighbors.size - 1; i > 0 && squDistance < d[ i - 1 ]; --i )
+		{
+			d[ i ] = d[ i - 1 ];
+			indices[ i ] = indices[ i - 1 ];
+		}
+		d[ i ] = squDistance;
+		indices[ i ] = id;
+	}
+
+	private void radius( final int node )
+	{
+		if ( tree.splitDimension[ node ] < 0 )
+		{
+			final int[] bucket = tree.buckets[ node ];
+			final int size = tree.nodeSize[ node ];
+			for ( int i = 0; i < size; ++i )
+			{
+				final double squDistance = tree.squDistance( bucket[ i ], pos );
+				if ( squDistance <= squRadius )
+					neighbors.add( squDistance, bucket[ i ] );
+			}
+			return;
+		}
+
+		final double axisDiff = pos[ tree.splitDimension[ node ] ] - tree.splitValue[ node ];
+		final boolean leftIsNearBranch = axisDiff < 0;
+		radius( leftIsNearBranch ? tree.left[ node ] : tree.right[ node ] );
+		if ( axisDiff * axisDiff <= squRadius )
+			radius( leftIsNearBranch ? tree.right[ node ] : tree.left[ node ] );
+	}
+
+	/**
+	 * @return the number of neighbors found by the last search
+	 */
+	public int numNeighbors()
+	{
+		return neighbors.size;
+	}
+
+	/**
+	 * @return the id of the {@code i}-th neighbor
+	 */
+	public int bestId( final int i )
+	{
+		return neighbors.indices[ i ];
+	}
+
+	/**
+	 * @return the squared distance of the {@code i}-th neighbor
+	 */
+	public double bestSquDistance( final int i )
+	{
+		return neighbors.distances[ i ];
+	}
+
+	public DynamicKDTreeSearchImpl copy()
+	{
+		final DynamicKDTreeSearchImpl copy = new DynamicKDTreeSearchImpl( tree );
+		System.arraycopy( pos, 0, copy.pos, 0, pos.length );
+		copy.neighbors.makeCopyOf( neighbors );
+		copy.k = k;
+		copy.squRadius = squRadius;
+		return copy;
+	}
+}
@@ -42,10 +42,13 @@ import net.imglib2.RealInterval;
 import net.imglib2.RealLocalizable;
 import net.imglib2.img.Img;
 import net.imglib2.img.list.ListImg;
+import net.imglib2.parallel.Parallelization;
+import net.imglib2.parallel.TaskExecutor;
 import net.imglib2.type.NativeType;
 import net.imglib2.util.Util;
 
 import net.imglib2.kdtree.KDTreePositions.PositionsLayout;
+import net.imglib2.kdtree.KDTreePositions.PositionsPrecision;
 
 /**
  * Stores the KDTree data, that is, positions and values.
@@ -56,7 +59,8 @@ import net.imglib2.kdtree.KDTreePositions.PositionsLayout;
  * {@code d} of the {@code i}-th point. With {@code FLAT} layout, positions are
  * stored as a flat {@code double[]} array, where {@code positions[d + i*n]} is
  * dimension {@code d} of the {@code i}-th point, with {@code n} the number of
- * dimensions.
+ * dimensions. Positions are stored as {@code double} or {@code float}
+ * values, depending on {@link PositionsPrecision precision}.
  * <p>
  * Values (of type {@code T}) are stored as either a 1D {@code
  * RandomAccessibleInterval<T>}, or a {@code List<T>}. Individual values can be
@@ -156,6 +160,11 @@ public class KDTreeData< T >
 	/**
 	 * Create {@link KDTreeData} from the given {@code values} and {@code positions}).
 	 * (copies {@code positions} and sorts into a KDTree structure).
+	 * <p>
+	 * For large trees, sorting and re-ordering positions runs in parallel on
+	 * the {@link Parallelization#getTaskExecutor() current TaskExecutor}. Use
+	 * {@link Parallelization#runSingleThreaded(Runnable)} to build
+	 * single-threaded. The resulting tree is the same in both cases.
 	 *
 	 * @param numPoints
 	 * 		number of points (number of elements in {@code values} and {@code positions}).
@@ -173,18 +182,59 @@ public class KDTreeData< T >
 			final Iterable< T > values,
 			final Iterable< L > positions,
 			final boolean storeValuesAsNativeImg )
+	{
+		return create( numPoints, values, positions, storeValuesAsNativeImg, PositionsPrecision.DOUBLE );
+	}
+
+	/**
+	 * Create {@link KDTreeData} from the given {@code values} and {@code positions}).
+	 * (copies {@code positions} and sorts into a KDTree structure).
+	 * <p>
+	 * With {@code FLOAT} {@code precision}, positions are rounded to {@code
+	 * float} and stored in {@code float[]} arrays, which halves the memory
+	 * required for the tree.
+	 * <p>
+	 * For large trees, sorting and re-ordering positions runs in parallel on
+	 * the {@link Parallelization#getTaskExecutor() current TaskExecutor}.
+	 *
+	 * @param numPoints
+	 * 		number of points (number of elements in {@code values} and {@code positions}).
+	 * @param values
+	 * 		values associated with points
+	 * @param positions
+	 * 		points positions
+	 * @param storeValuesAsNativeImg
+	 * 		If {@code true} and {@code T} is a {@code NativeType},
+	 * 		store values into {@code NativeImg}.
+	 * 		Otherwise, store values as a {@code List<T>}.
+	 * @param precision
+	 * 		whether to store positions as {@code double} or {@code float}.
+	 */
+	public static < L extends RealLocalizable, T > KDTreeData< T > create(
+			final int numPoints,
+			final Iterable< T > values,
+			final Iterable< L > positions,
+			final boolean storeValuesAsNativeImg,
+			final PositionsPrecision precision )
 	{
 		if ( numPoints <= 0 )
 			throw new IllegalArgumentException( "At least one point is required to construct a KDTree." );
 		final int numDimensions = KDTreeUtils.getNumDimensions( positions );
 		final double[][] points = KDTreeUtils.initPositions( numDimensions, numPoints, positions );
-		final int[] tree = KDTreeUtils.makeTree( points );
-		final int[] invtree = KDTreeUtils.invert( tree );
+		final TaskExecutor taskExecutor = Parallelization.getTaskExecutor();
+		final int[] tree = KDTreeUtils.makeTree( points, taskExecutor );
+		final int[] invtree = KDTreeUtils.invert( tree, taskExecutor );
 
 		final boolean useFlatLayout = (long) numDimensions * numPoints <= KDTreeUtils.MAX_ARRAY_SIZE;
-		final KDTreePositions treePositions = ( useFlatLayout )
-				? KDTreePositions.createFlat( KDTreeUtils.reorderToFlatLayout( points, tree ), numDimensions )
-				: KDTreePositions.createNested( KDTreeUtils.reorder( points, tree ) );
+		final KDTreePositions treePositions;
+		if ( precision == PositionsPrecision.FLOAT )
+			treePositions = ( useFlatLayout )
+					? KDTreePositions.createFlat( KDTreeUtils.reorderToFlatFloatLayout( points, tree, taskExecutor ), numDimensions )
+					: KDTreePositions.createNested( KDTreeUtils.reorderToFloat( points, tree, taskExecutor ) );
+		else
+			treePositions = ( useFlatLayout )
+					? KDTreePositions.createFlat( KDTreeUtils.reorderToFlatLayout( points, tree, taskExecutor ), numDimensions )
+					: KDTreePositions.createNested( KDTreeUtils.reorder( points, tree, taskExecutor ) );
 
 		final boolean storeAsImg = ( storeValuesAsNativeImg && KDTreeUtils.getType( values ) instanceof NativeType );
 		if ( storeAsImg )
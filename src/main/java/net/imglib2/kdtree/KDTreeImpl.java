@@ -184,13 +184,7 @@ public class KDTreeImpl
 	 */
 	public double squDistance( final int i, final double[] pos )
 	{
-		double sum = 0;
-		for ( int d = 0; d < numDimensions; ++d )
-		{
-			final double diff = pos[ d ] - positions.get( i, d );
-			sum += diff * diff;
-		}
-		return sum;
+		return positions.squDistance( i, pos );
 	}
 
 	/**
@@ -207,6 +201,11 @@ public class KDTreeImpl
 		return sum;
 	}
 
+	KDTreePositions positions()
+	{
+		return positions;
+	}
+
 	public int numDimensions()
 	{
 		return numDimensions;
@@ -40,7 +40,9 @@ import net.imglib2.RealInterval;
 /**
  * Stores the positions of the nodes in a KDTree and provides access to them.
  * <p>
- * Currently, there are two implementations:
+ * Positions are stored in {@code FLAT} or {@code NESTED} {@link
+ * PositionsLayout layout}, with {@code DOUBLE} or {@code FLOAT} {@link
+ * PositionsPrecision precision}:
  * <ul>
  * <li>{@link Nested} stores the positions as a {@code double[][]} where {@code
  * positions[d][i]} is dimension {@code d} of the {@code i}-th point. This
@@ -51,10 +53,18 @@ import net.imglib2.RealInterval;
  * {@code n} the number of dimensions. This means that the positions are
  * contiguous in memory but the number of nodes is limited to {@code
  * (2^31-8)/n}.</li>
+ * <li>{@link NestedFloat} and {@link FlatFloat} store the positions in the
+ * same layouts as {@code float[][]} and {@code float[]}, respectively. This
+ * halves the memory required for the tree (and the memory bandwidth required
+ * for searching it), at the cost of rounding the positions to {@code float}
+ * precision.</li>
  * </ul>
  * {@link #asNestedArray()} returns positions in nested {@code double[][]}
- * (which is created if class is {@link Flat}). {@link #asFlatArray()}
- * returns flat {@code double[]} if class is {@link Flat}, otherwise {@code null}.
+ * (which is created if class is not {@link Nested}). {@link #asFlatArray()}
+ * returns flat {@code double[]} if class is {@link Flat} (or {@link
+ * FlatFloat}, in which case it is created), otherwise {@code null}. {@link
+ * #asNestedFloatArray()} and {@link #asFlatFloatArray()} return the {@code
+ * float} positions of {@code FLOAT} precision trees.
  */
 public abstract class KDTreePositions
 {
@@ -72,6 +82,17 @@ public abstract class KDTreePositions
 		NESTED
 	}
 
+	/**
+	 * With {@code DOUBLE} precision, positions are stored in {@code double[]}
+	 * arrays. With {@code FLOAT} precision, positions are stored in {@code
+	 * float[]} arrays.
+	 */
+	public enum PositionsPrecision
+	{
+		DOUBLE,
+		FLOAT
+	}
+
 	final int numDimensions;
 
 	final int numPoints;
@@ -121,6 +142,24 @@ public abstract class KDTreePositions
 		{
 			return PositionsLayout.NESTED;
 		}
+
+		@Override
+		public PositionsPrecision precision()
+		{
+			return PositionsPrecision.DOUBLE;
+		}
+
+		@Override
+		double squDistance( final int i, final double[] pos )
+		{
+			double sum = 0;
+			for ( int d = 0; d < numDimensions; ++d )
+			{
+				final double diff = pos[ d ] - positions[ d ][ i ];
+				sum += diff * diff;
+			}
+			return sum;
+		}
 	}
 
 	private static class Flat extends KDTreePositions
@@ -165,6 +204,182 @@ public abstract class KDTreePositions
 		{
 			return PositionsLayout.FLAT;
 		}
+
+		@Override
+		public PositionsPrecision precision()
+		{
+			return PositionsPrecision.DOUBLE;
+		}
+
+		@Override
+		double squDistance( final int i, final double[] pos )
+		{
+			final int o = numDimensions * i;
+			double sum = 0;
+			for ( int d = 0; d < numDimensions; ++d )
+			{
+				final double diff = pos[ d ] - positions[ o + d ];
+				sum += diff * diff;
+			}
+			return sum;
+		}
+	}
+
+	private static class NestedFloat extends KDTreePositions
+	{
+		private final float[][] positions;
+
+		NestedFloat( final float[][] positions )
+		{
+			super( positions.length, positions[ 0 ].length );
+			this.positions = positions;
+		}
+
+		@Override
+		public double get( final int i, final int d )
+		{
+			return positions[ d ][ i ];
+		}
+
+		@Override
+		public double[] asFlatArray()
+		{
+			// positions in this case might be too large to fit in a single array
+			return null;
+		}
+
+		@Override
+		public double[][] asNestedArray()
+		{
+			final double[][] nested = new double[ numDimensions ][ numPoints ];
+			for ( int d = 0; d < numDimensions; ++d )
+				for ( int i = 0; i < numPoints; ++i )
+					nested[ d ][ i ] = positions[ d ][ i ];
+			return nested;
+		}
+
+		@Override
+		public float[][] asNestedFloatArray()
+		{
+			return positions;
+		}
+
+		@Override
+		protected RealInterval createBoundingBox()
+		{
+			final double[] min = new double[ numDimensions ];
+			final double[] max = new double[ numDimensions ];
+			KDTreeUtils.computeMinMax( positions, min, max );
+			return FinalRealInterval.wrap( min, max );
+		}
+
+		@Override
+		public PositionsLayout layout()
+		{
+			return PositionsLayout.NESTED;
+		}
+
+		@Override
+		public PositionsPrecision precision()
+		{
+			return PositionsPrecision.FLOAT;
+		}
+
+		@Override
+		double squDistance( final int i, final double[] pos )
+		{
+			double sum = 0;
+			for ( int d = 0; d < numDimensions; ++d )
+			{
+				final double diff = pos[ d ] - positions[ d ][ i ];
+				sum += diff * diff;
+			}
+			return sum;
+		}
+	}
+
+	private static class FlatFloat extends KDTreePositions
+	{
+		private final float[] positions;
+
+		FlatFloat( final float[] positions, final int numDimensions )
+		{
+			super( numDimensions, positions.length / numDimensions );
+			this.positions = positions;
+		}
+
+		@Override
+		public double get( final int i, final int d )
+		{
+			return positions[ numDimensions * i + d ];
+		}
+
+		@Override
+		public double[] asFlatArray()
+		{
+			final double[] flat = new double[ positions.length ];
+			for ( int i = 0; i < positions.length; ++i )
+				flat[ i ] = positions[ i ];
+			return flat;
+		}
+
+		@Override
+		public double[][] asNestedArray()
+		{
+			final double[][] nested = new double[ numDimensions ][ numPoints ];
+			for ( int i = 0; i < positions.length; ++i )
+				nested[ i % numDimensions ][ i / numDimensions ] = positions[ i ];
+			return nested;
+		}
+
+		@Override
+		public float[] asFlatFloatArray()
+		{
+			return positions;
+		}
+
+		@Override
+		public float[][] asNestedFloatArray()
+		{
+			final float[][] nested = new float[ numDimensions ][ numPoints ];
+			for ( int i = 0; i < positions.length; ++i )
+				nested[ i % numDimensions ][ i / numDimensions ] = positions[ i ];
+			return nested;
+		}
+
+		@Override
+		protected RealInterval createBoundingBox()
+		{
+			final double[] min = new double[ numDimensions ];
+			final double[] max = new double[ numDimensions ];
+			KDTreeUtils.computeMinMax( positions, min, max );
+			return FinalRealInterval.wrap( min, max );
+		}
+
+		@Override
+		public PositionsLayout layout()
+		{
+			return PositionsLayout.FLAT;
+		}
+
+		@Override
+		public PositionsPrecision precision()
+		{
+			return PositionsPrecision.FLOAT;
+		}
+
+		@Override
+		double squDistance( final int i, final double[] pos )
+		{
+			final int o = numDimensions * i;
+			double sum = 0;
+			for ( int d = 0; d < numDimensions; ++d )
+			{
+				final double diff = pos[ d ] - positions[ o + d ];
+				sum += diff * diff;
+			}
+			return sum;
+		}
 	}
 
 	KDTreePositions( final int numDimensions, final int numPoints )
@@ -180,6 +395,11 @@ public abstract class KDTreePositions
 	 */
 	public abstract double get( final int i, final int d );
 
+	/**
+	 * Compute the squared distance from node {@code i} to {@code pos}.
+	 */
+	abstract double squDistance( final int i, final double[] pos );
+
 	/**
 	 * Get positions of points in the tree as a flat {@code double[]} array
 	 * where {@code positions[d + i*n]} is dimension {@code d} of the {@code i}-th
@@ -204,6 +424,35 @@ public abstract class KDTreePositions
 	 */
 	public abstract double[][] asNestedArray();
 
+	/**
+	 * Get positions of points in the tree as a flat {@code float[]} array
+	 * where {@code positions[d + i*n]} is dimension {@code d} of the {@code i}-th
+	 * point.
+	 * <p>
+	 * Returns {@code null}, unless positions are stored with {@code FLAT}
+	 * {@link #layout() layout} and {@code FLOAT} {@link #precision()
+	 * precision}.
+	 */
+	public float[] asFlatFloatArray()
+	{
+		return null;
+	}
+
+	/**
+	 * Get positions of points in the tree as a nested {@code float[][]} array
+	 * where {@code positions[d][i]} is dimension {@code d} of the {@code i}-th
+	 * point.
+	 * <p>
+	 * Returns {@code null}, unless positions are stored with {@code FLOAT}
+	 * {@link #precision() precision}. If positions are stored with {@code
+	 * FLAT} {@link #layout() layout}, the nested {@code float[][]} array is
+	 * created here.
+	 */
+	public float[][] asNestedFloatArray()
+	{
+		return null;
+	}
+
 	abstract RealInterval createBoundingBox();
 
 	/**
@@ -219,6 +468,14 @@ public abstract class KDTreePositions
 	 */
 	public abstract PositionsLayout layout();
 
+	/**
+	 * Get the precision of stored positions.
+	 * <p>
+	 * Positions are stored as {@code double} or {@code float} values,
+	 * depending on {@link PositionsPrecision precision}.
+	 */
+	public abstract PositionsPrecision precision();
+
 	/**
 	 * @return dimensionality of points in the tree
 	 */
@@ -250,4 +507,22 @@ public abstract class KDTreePositions
 	{
 		return new Flat( positions, numDimensions );
 	}
+
+	/**
+	 * Create {@code KDTreePositions} with NESTED {@link #layout} and FLOAT
+	 * {@link #precision}.
+	 */
+	public static KDTreePositions createNested( final float[][] positions )
+	{
+		return new NestedFloat( positions );
+	}
+
+	/**
+	 * Create {@code KDTreePositions} with FLAT {@link #layout} and FLOAT
+	 * {@link #precision}.
+	 */
+	public static KDTreePositions createFlat( final float[] positions, final int numDimensions )
+	{
+		return new FlatFloat( positions, numDimensions );
+	}
 }
@@ -33,19 +33,31 @@
  */
 package net.imglib2.kdtree;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
 import net.imglib2.RandomAccess;
 import net.imglib2.RealLocalizable;
 import net.imglib2.img.Img;
 import net.imglib2.img.array.ArrayImgFactory;
+import net.imglib2.parallel.TaskExecutor;
 import net.imglib2.type.NativeType;
 
 final class KDTreeUtils
 {
 	static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
 
+	/**
+	 * Trees (and arrays) with fewer points are always built (and re-ordered)
+	 * single-threaded, because the overhead of running tasks would outweigh
+	 * the benefit.
+	 */
+	static final int MIN_POINTS_FOR_PARALLEL = 1 << 16;
+
 	/**
 	 * If the tree is flattened into an array the left child of node at
 	 * index {@code i} has index {@code 2 * i + 1}.
@@ -117,6 +129,29 @@ final class KDTreeUtils
 		return new MakeTree( positions ).tree;
 	}
 
+	/**
+	 * Sort the given points into a k-d tree, using the given {@code
+	 * taskExecutor} to build subtrees in parallel.
+	 * <p>
+	 * The top levels of the tree are built level by level, partitioning the
+	 * sublists of each level in parallel, until there are at least {@link
+	 * TaskExecutor#suggestNumberOfTasks()} subtrees. Then the remaining
+	 * subtrees are built in parallel. The result is identical to {@link
+	 * #makeTree(double[][])}.
+	 *
+	 * @param positions
+	 * 		The coordinates for the {@code i}th point are stored at {@code positions[d][i]} where {@code d} is the dimension.
+	 * 	    See {@link #initPositions(int, int, Iterable)}.
+	 * @param taskExecutor
+	 * 		used to build subtrees in parallel
+	 *
+	 * @return flattened tree of point indices
+	 */
+	static int[] makeTree( final double[][] positions, final TaskExecutor taskExecutor )
+	{
+		return new MakeTree( positions, taskExecutor ).tree;
+	}
+
 	/**
 	 * Re-order the node {@code positions} to form a tree corresponding to the index array {@code tree'={0,1,2,...}}.
 	 *
@@ -135,6 +170,28 @@ final class KDTreeUtils
 		return reordered;
 	}
 
+	/**
+	 * Re-order the node {@code positions} to form a tree corresponding to the index array {@code tree'={0,1,2,...}}.
+	 * Chunks of the arrays are re-ordered in parallel using the given {@code taskExecutor}.
+	 */
+	static double[][] reorder( final double[][] positions, final int[] tree, final TaskExecutor taskExecutor )
+	{
+		final int numDimensions = positions.length;
+		final int numPoints = positions[ 0 ].length;
+		assert tree.length == numPoints;
+		final double[][] reordered = new double[ numDimensions ][ numPoints ];
+		forEachChunk( numPoints, taskExecutor, ( from, to ) -> {
+			for ( int d = 0; d < numDimensions; ++d )
+			{
+				final double[] src = positions[ d ];
+				final double[] dest = reordered[ d ];
+				for ( int i = from; i < to; ++i )
+					dest[ i ] = src[ tree[ i ] ];
+			}
+		} );
+		return reordered;
+	}
+
 	/**
 	 * Create a new {@code double[]} array that contains the elements of {@code
 	 * values}, ordered such that {@code values[order[i]]} is at index {@code i}.
@@ -182,6 +239,71 @@ final class KDTreeUtils
 		return reordered;
 	}
 
+	/**
+	 * Re-order the node {@code positions} to form a tree corresponding to the index array {@code tree={0,1,2,...}}.
+	 * Then flatten the result into a 1-D array, interleaving coordinates in all dimensions.
+	 * Chunks of the array are re-ordered in parallel using the given {@code taskExecutor}.
+	 */
+	static double[] reorderToFlatLayout( final double[][] positions, final int[] tree, final TaskExecutor taskExecutor )
+	{
+		final int numDimensions = positions.length;
+		final int numPoints = positions[ 0 ].length;
+		assert tree.length == numPoints;
+		if ( ( long ) numDimensions * numPoints > MAX_ARRAY_SIZE )
+			throw new IllegalArgumentException( "positions[][] is too large to be stored in a flat array" );
+		final double[] reordered = new double[ numDimensions * numPoints ];
+		forEachChunk( numPoints, taskExecutor, ( from, to ) -> {
+			for ( int i = from; i < to; ++i )
+				for ( int d = 0; d < numDimensions; ++d )
+					reordered[ numDimensions * i + d ] = positions[ d ][ tree[ i ] ];
+		} );
+		return reordered;
+	}
+
+	/**
+	 * Re-order the node {@code positions} to form a tree corresponding to the index array {@code tree={0,1,2,...}},
+	 * rounding coordinates to {@code float}.
+	 * Chunks of the array are re-ordered in parallel using the given {@code taskExecutor}.
+	 */
+	static float[][] reorderToFloat( final double[][] positions, final int[] tree, final TaskExecutor taskExecutor )
+	{
+		final int numDimensions = positions.length;
+		final int numPoints = positions[ 0 ].length;
+		assert tree.length == numPoints;
+		final float[][] reordered = new float[ numDimensions ][ numPoints ];
+		forEachChunk( numPoints, taskExecutor, ( from, to ) -> {
+			for ( int d = 0; d < numDimensions; ++d )
+			{
+				final double[] src = positions[ d ];
+				final float[] dest = reordered[ d ];
+				for ( int i = from; i < to; ++i )
+					dest[ i ] = ( float ) src[ tree[ i ] ];
+			}
+		} );
+		return reordered;
+	}
+
+	/**
+	 * Re-order the node {@code positions} to form a tree corresponding to the index array {@code tree={0,1,2,...}}.
+	 * Then flatten the result into a 1-D array, interleaving coordinates in all dimensions, and rounding coordinates to {@code float}.
+	 * Chunks of the array are re-ordered in parallel using the given {@code taskExecutor}.
+	 */
+	static float[] reorderToFlatFloatLayout( final double[][] positions, final int[] tree, final TaskExecutor taskExecutor )
+	{
+		final int numDimensions = positions.length;
+		final int numPoints = positions[ 0 ].length;
+		assert tree.length == numPoints;
+		if ( ( long ) numDimensions * numPoints > MAX_ARRAY_SIZE )
+			throw new IllegalArgumentException( "positions[][] is too large to be stored in a flat array" );
+		final float[] reordered = new float[ numDimensions * numPoints ];
+		forEachChunk( numPoints, taskExecutor, ( from, to ) -> {
+			for ( int i = from; i < to; ++i )
+				for ( int d = 0; d < numDimensions; ++d )
+					reordered[ numDimensions * i + d ] = ( float ) positions[ d ][ tree[ i ] ];
+		} );
+		return reordered;
+	}
+
 	/**
 	 * Flatten the nested {@code positions} array.
 	 *
@@ -272,6 +394,36 @@ final class KDTreeUtils
 		}
 	}
 
+	static void computeMinMax( final float[][] positions, final double[] min, final double[] max )
+	{
+		final int n = min.length;
+		for ( int d = 0; d < n; d++ )
+		{
+			float maxd = Float.NEGATIVE_INFINITY;
+			float mind = Float.POSITIVE_INFINITY;
+			for ( final float v : positions[ d ] )
+			{
+				mind = Math.min( mind, v );
+				maxd = Math.max( maxd, v );
+			}
+			min[ d ] = mind;
+			max[ d ] = maxd;
+		}
+	}
+
+	static void computeMinMax( final float[] flatPositions, final double[] min, final double[] max )
+	{
+		final int n = min.length;
+		Arrays.fill( max, Double.NEGATIVE_INFINITY );
+		Arrays.fill( min, Double.POSITIVE_INFINITY );
+		for ( int i = 0; i < flatPositions.length; ++i )
+		{
+			final int d = i % n;
+			min[ d ] = Math.min( min[ d ], flatPositions[ i ] );
+			max[ d ] = Math.max( max[ d ], flatPositions[ i ] );
+		}
+	}
+
 	/**
 	 * Invert the given permutation {@code tree}.
 	 * <p>
@@ -299,6 +451,50 @@ final class KDTreeUtils
 		return inv;
 	}
 
+	/**
+	 * Invert the given permutation {@code tree}, using the given {@code
+	 * taskExecutor} to process chunks in parallel.
+	 *
+	 * @see #invert(int[])
+	 */
+	static int[] invert( final int[] tree, final TaskExecutor taskExecutor )
+	{
+		final int[] inv = new int[ tree.length ];
+		forEachChunk( tree.length, taskExecutor, ( from, to ) -> {
+			for ( int i = from; i < to; i++ )
+				inv[ tree[ i ] ] = i;
+		} );
+		return inv;
+	}
+
+	/**
+	 * Processes the range {@code [from, to)}.
+	 */
+	@FunctionalInterface
+	interface RangeTask
+	{
+		void run( int from, int to );
+	}
+
+	/**
+	 * Split {@code [0, size)} into chunks and run {@code task} on each chunk,
+	 * using the given {@code taskExecutor}. If {@code size} is small, {@code
+	 * task} is run once on the full range in the calling thread.
+	 */
+	static void forEachChunk( final int size, final TaskExecutor taskExecutor, final RangeTask task )
+	{
+		if ( size < MIN_POINTS_FOR_PARALLEL || taskExecutor.getParallelism() <= 1 )
+		{
+			task.run( 0, size );
+			return;
+		}
+		final int numTasks = Math.max( 1, Math.min( taskExecutor.suggestNumberOfTasks(), size / ( MIN_POINTS_FOR_PARALLEL / 4 ) ) );
+		final List< int[] > chunks = new ArrayList<>( numTasks );
+		for ( int t = 0; t < numTasks; ++t )
+			chunks.add( new int[] { ( int ) ( ( long ) size * t / numTasks ), ( int ) ( ( long ) size * ( t + 1 ) / numTasks ) } );
+		taskExecutor.forEach( chunks, chunk -> task.run( chunk[ 0 ], chunk[ 1 ] ) );
+	}
+
 	/**
 	 * Re-order the node {@code values} to form a tree corresponding to the index array {@code tree'={0,1,2,...}}.
 	 * The tree is given as an {@link #invert(int[]) inverted permutation}, so that we can iterate through the {@code values} in order, putting each at the right index in the returned {@code List}.
@@ -359,6 +555,32 @@ final class KDTreeUtils
 	 * @throws IllegalArgumentException
 	 * 		if {@code values} has no elements.
 	 */
+	/**
+	 * Copy {@code values} into new storage, such that the {@code i}-th value
+	 * is at index {@code invOrder[i]}. Values of {@code NativeType} are copied
+	 * into an {@code Img}, other values are stored (by reference) in a {@code
+	 * List}.
+	 *
+	 * @return a {@code Supplier} of (stateful) {@code IntFunction<T>} to access
+	 * values by index.
+	 */
+	static < T > Supplier< IntFunction< T > > orderValues(
+			final int[] invOrder,
+			final Iterable< T > values )
+	{
+		if ( getType( values ) instanceof NativeType )
+		{
+			@SuppressWarnings( { "unchecked", "rawtypes" } )
+			final Img< T > img = ( Img< T > ) orderValuesImg( invOrder, ( Iterable ) values );
+			return () -> img.randomAccess()::setPositionAndGet;
+		}
+		else
+		{
+			final List< T > list = orderValuesList( invOrder, values );
+			return () -> list::get;
+		}
+	}
+
 	static < T > T getType( Iterable< T > values )
 	{
 		final Iterator< T > ival = values.iterator();
@@ -510,6 +732,84 @@ final class KDTreeUtils
 			makeNode( 0, numPoints - 1, 0, 0 );
 		}
 
+		private MakeTree( final double[][] positions, final TaskExecutor taskExecutor )
+		{
+			this.positions = positions;
+			numDimensions = positions.length;
+			numPoints = positions[ 0 ].length;
+			indices = new int[ numPoints ];
+			tree = new int[ numPoints ];
+			Arrays.setAll( indices, j -> j );
+			if ( numPoints < MIN_POINTS_FOR_PARALLEL || taskExecutor.getParallelism() <= 1 )
+				makeNode( 0, numPoints - 1, 0, 0 );
+			else
+				makeNodes( taskExecutor );
+		}
+
+		/**
+		 * A sublist {@code [i,j]} of {@code indices} to be sorted into the
+		 * subtree rooted at {@code nodeIndex}, splitting on dimension {@code d}.
+		 */
+		private static final class Subtree
+		{
+			final int i;
+
+			final int j;
+
+			final int d;
+
+			final int nodeIndex;
+
+			Subtree( final int i, final int j, final int d, final int nodeIndex )
+			{
+				this.i = i;
+				this.j = j;
+				this.d = d;
+				this.nodeIndex = nodeIndex;
+			}
+		}
+
+		private void makeNodes( final TaskExecutor taskExecutor )
+		{
+			final int numTasks = taskExecutor.suggestNumberOfTasks();
+			List< Subtree > subtrees = Collections.singletonList( new Subtree( 0, numPoints - 1, 0, 0 ) );
+			while ( !subtrees.isEmpty() && subtrees.size() < numTasks )
+			{
+				final List< Subtree > children = new ArrayList<>();
+				taskExecutor.forEachApply( subtrees, this::splitNode ).forEach( children::addAll );
+				subtrees = children;
+			}
+			taskExecutor.forEach( subtrees, s -> makeNode( s.i, s.j, s.d, s.nodeIndex ) );
+		}
+
+		/**
+		 * Like {@link #makeNode}, but instead of recursing into the children,
+		 * return them.
+		 */
+		private List< Subtree > splitNode( final Subtree s )
+		{
+			final int i = s.i;
+			final int j = s.j;
+			if ( j > i )
+			{
+				final int k = i + pivot( j - i + 1 );
+				kthElement( i, j, k, s.d );
+				tree[ s.nodeIndex ] = indices[ k ];
+				final int dChild = ( s.d + 1 ) % numDimensions;
+				final List< Subtree > children = new ArrayList<>( 2 );
+				if ( k > i )
+					children.add( new Subtree( i, k - 1, dChild, leftChildIndex( s.nodeIndex ) ) );
+				if ( j > k )
+					children.add( new Subtree( k + 1, j, dChild, rightChildIndex( s.nodeIndex ) ) );
+				return children;
+			}
+			else if ( j == i )
+			{
+				tree[ s.nodeIndex ] = indices[ i ];
+			}
+			return Collections.emptyList();
+		}
+
 		/**
 		 * Calculate pivot index such that the tree will be arranged in a way that
 		 * "leaf layers" are filled from the left.
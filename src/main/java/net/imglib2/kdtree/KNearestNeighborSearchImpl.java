@@ -52,6 +52,19 @@ public class KNearestNeighborSearchImpl
 	private final double[] axisDiffs;
 	private final int[] awayChilds;
 
+	/**
+	 * Away branches are pruned if they are farther than the current best
+	 * distance divided by {@code (1 + epsilon)}. {@code pruneFactor} is {@code
+	 * (1 + epsilon)^2}.
+	 */
+	private double epsilon = 0;
+	private double pruneFactor = 1;
+
+	/**
+	 * The search stops after visiting this many nodes.
+	 */
+	private int maxNodeVisits = Integer.MAX_VALUE;
+
 	public KNearestNeighborSearchImpl( final KDTreeImpl tree, final int k )
 	{
 		this.tree = tree;
@@ -94,13 +107,32 @@ public class KNearestNeighborSearchImpl
 	public void search( final RealLocalizable p )
 	{
 		p.localize( pos );
+		search();
+	}
+
+	/**
+	 * Search for the {@code k} nearest neighbors of the point with coordinates
+	 * {@code points[offset]}, ..., {@code points[offset + n - 1]}, where {@code
+	 * n} is the number of dimensions.
+	 */
+	public void search( final double[] points, final int offset )
+	{
+		System.arraycopy( points, offset, pos, 0, numDimensions );
+		search();
+	}
+
+	private void search()
+	{
 		int current = tree.root();
 		int depth = 0;
+		int numVisits = 0;
 		Arrays.fill( bestSquDistance, Double.POSITIVE_INFINITY );
 		Arrays.fill( bestIndex, -1 );
 		while ( true )
 		{
 			insert( tree.squDistance( current, pos ), current );
+			if ( ++numVisits >= maxNodeVisits )
+				return;
 
 			final int d = depth % numDimensions;
 			final double axisDiff = pos[ d ] - tree.getDoublePosition( current, d );
@@ -111,7 +143,7 @@ public class KNearestNeighborSearchImpl
 			final int awayChild = ( 2 * current ) + ( leftIsNearBranch ? 2 : 1 );
 			++depth;
 			awayChilds[ depth ] = awayChild;
-			axisDiffs[ depth ] = axisDiff * axisDiff;
+			axisDiffs[ depth ] = axisDiff * axisDiff * pruneFactor;
 			if ( nearChild >= numPoints )
 			{
 				while ( awayChilds[ depth ] >= numPoints || axisDiffs[ depth ] > bestSquDistance[ k - 1 ] )
@@ -146,9 +178,51 @@ public class KNearestNeighborSearchImpl
 		return bestSquDistance[ i ];
 	}
 
+	/**
+	 * Set the error bound for approximate search. With {@code epsilon > 0},
+	 * the search returns neighbors that are at most a factor of {@code (1 +
+	 * epsilon)} farther away than the true {@code k} nearest neighbors, but
+	 * visits fewer nodes. {@code epsilon = 0} (the default) gives exact
+	 * results.
+	 */
+	public void setEpsilon( final double epsilon )
+	{
+		if ( !( epsilon >= 0 ) )
+			throw new IllegalArgumentException( "epsilon must be >= 0" );
+		this.epsilon = epsilon;
+		pruneFactor = ( 1 + epsilon ) * ( 1 + epsilon );
+	}
+
+	public double getEpsilon()
+	{
+		return epsilon;
+	}
+
+	/**
+	 * Set the maximum number of nodes to visit in a search. The search stops
+	 * after visiting {@code maxNodeVisits} nodes, and returns the best
+	 * neighbors found so far. Because the search descends into the near
+	 * branches first, these are usually good approximations. {@code
+	 * Integer.MAX_VALUE} (the default) gives exact results.
+	 */
+	public void setMaxNodeVisits( final int maxNodeVisits )
+	{
+		if ( maxNodeVisits < 1 )
+			throw new IllegalArgumentException( "maxNodeVisits must be >= 1" );
+		this.maxNodeVisits = maxNodeVisits;
+	}
+
+	public int getMaxNodeVisits()
+	{
+		return maxNodeVisits;
+	}
+
 	public KNearestNeighborSearchImpl copy()
 	{
 		final KNearestNeighborSearchImpl copy = new KNearestNeighborSearchImpl( tree, k );
+		copy.epsilon = epsilon;
+		copy.pruneFactor = pruneFactor;
+		copy.maxNodeVisits = maxNodeVisits;
 		System.arraycopy( pos, 0, copy.pos, 0, pos.length );
 		System.arraycopy( bestIndex, 0, copy.bestIndex, 0, bestIndex.length );
 		System.arraycopy( bestSquDistance, 0, copy.bestSquDistance, 0, bestSquDistance.length );
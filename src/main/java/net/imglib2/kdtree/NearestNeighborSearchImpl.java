@@ -50,6 +50,19 @@ public class NearestNeighborSearchImpl
 	private final double[] axisDiffs;
 	private final int[] awayChilds;
 
+	/**
+	 * Away branches are pruned if they are farther than the current best
+	 * distance divided by {@code (1 + epsilon)}. {@code pruneFactor} is {@code
+	 * (1 + epsilon)^2}.
+	 */
+	private double epsilon = 0;
+	private double pruneFactor = 1;
+
+	/**
+	 * The search stops after visiting this many nodes.
+	 */
+	private int maxNodeVisits = Integer.MAX_VALUE;
+
 	public NearestNeighborSearchImpl( final KDTreeImpl tree )
 	{
 		this.tree = tree;
@@ -66,8 +79,29 @@ public class NearestNeighborSearchImpl
 	public void search( final RealLocalizable p )
 	{
 		p.localize( pos );
+		search();
+	}
+
+	/**
+	 * Search for the nearest neighbor of the point with coordinates {@code
+	 * points[offset]}, ..., {@code points[offset + n - 1]}, where {@code n} is
+	 * the number of dimensions.
+	 */
+	public void search( final double[] points, final int offset )
+	{
+		System.arraycopy( points, offset, pos, 0, numDimensions );
+		search();
+	}
+
+	private void search()
+	{
 		int current = tree.root();
 		int depth = 0;
+		int numVisits = 0;
+		// Starting with the best match of the previous query speeds up exact
+		// search. The result of approximate search would depend on it.
+		if ( maxNodeVisits != Integer.MAX_VALUE || epsilon > 0 )
+			bestIndex = -1;
 		bestSquDistance = ( bestIndex >= 0 ) ? tree.squDistance( bestIndex, pos ) : Double.POSITIVE_INFINITY;
 		while ( true )
 		{
@@ -77,6 +111,8 @@ public class NearestNeighborSearchImpl
 				bestSquDistance = squDistance;
 				bestIndex = current;
 			}
+			if ( ++numVisits >= maxNodeVisits )
+				return;
 
 			final int d = depth % numDimensions;
 			final double axisDiff = pos[ d ] - tree.getDoublePosition( current, d );
@@ -87,7 +123,7 @@ public class NearestNeighborSearchImpl
 			final int awayChild = ( 2 * current ) + ( leftIsNearBranch ? 2 : 1 );
 			++depth;
 			awayChilds[ depth ] = awayChild;
-			axisDiffs[ depth ] = axisDiff * axisDiff;
+			axisDiffs[ depth ] = axisDiff * axisDiff * pruneFactor;
 			if ( nearChild >= numPoints )
 			{
 				while ( awayChilds[ depth ] >= numPoints || axisDiffs[ depth ] > bestSquDistance )
@@ -117,9 +153,50 @@ public class NearestNeighborSearchImpl
 		return bestSquDistance;
 	}
 
+	/**
+	 * Set the error bound for approximate search. With {@code epsilon > 0},
+	 * the search returns neighbors that are at most a factor of {@code (1 +
+	 * epsilon)} farther away than the true nearest neighbor, but visits fewer
+	 * nodes. {@code epsilon = 0} (the default) gives exact results.
+	 */
+	public void setEpsilon( final double epsilon )
+	{
+		if ( !( epsilon >= 0 ) )
+			throw new IllegalArgumentException( "epsilon must be >= 0" );
+		this.epsilon = epsilon;
+		pruneFactor = ( 1 + epsilon ) * ( 1 + epsilon );
+	}
+
+	public double getEpsilon()
+	{
+		return epsilon;
+	}
+
+	/**
+	 * Set the maximum number of nodes to visit in a search. The search stops
+	 * after visiting {@code maxNodeVisits} nodes, and returns the best
+	 * neighbor found so far. Because the search descends into the near
+	 * branches first, these are usually good approximations. {@code
+	 * Integer.MAX_VALUE} (the default) gives exact results.
+	 */
+	public void setMaxNodeVisits( final int maxNodeVisits )
+	{
+		if ( maxNodeVisits < 1 )
+			throw new IllegalArgumentException( "maxNodeVisits must be >= 1" );
+		this.maxNodeVisits = maxNodeVisits;
+	}
+
+	public int getMaxNodeVisits()
+	{
+		return maxNodeVisits;
+	}
+
 	public NearestNeighborSearchImpl copy()
 	{
 		final NearestNeighborSearchImpl copy = new NearestNeighborSearchImpl( tree );
+		copy.epsilon = epsilon;
+		copy.pruneFactor = pruneFactor;
+		copy.maxNodeVisits = maxNodeVisits;
 		System.arraycopy( pos, 0, copy.pos, 0, pos.length );
 		copy.bestIndex = bestIndex;
 		copy.bestSquDistance = bestSquDistance;
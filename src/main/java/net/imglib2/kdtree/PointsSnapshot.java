@@ -0,0 +1,185 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.kdtree;
+
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import net.imglib2.IterableRealInterval;
+import net.imglib2.RealCursor;
+import net.imglib2.RealLocalizable;
+import net.imglib2.Sampler;
+
+/**
+ * A copy of the positions and values of an {@link IterableRealInterval}, in
+ * iteration order.
+ * <p>
+ * Positions are stored in a flat {@code double[]} array, where {@code
+ * positions[d + i*n]} is dimension {@code d} of the {@code i}-th point, with
+ * {@code n} the number of dimensions. Values are stored as in {@link
+ * KDTreeData}: values of {@code NativeType} are copied into an {@code Img},
+ * other values are stored by reference.
+ *
+ * @param <T>
+ * 		the type of values
+ */
+public class PointsSnapshot< T >
+{
+	private final int n;
+
+	private final int numPoints;
+
+	private final double[] positions;
+
+	private final Supplier< IntFunction< T > > valuesSupplier;
+
+	public PointsSnapshot( final IterableRealInterval< T > points )
+	{
+		final long size = points.size();
+		n = points.numDimensions();
+		if ( size <= 0 )
+			throw new IllegalArgumentException( "At least one point is required." );
+		if ( size * n > KDTreeUtils.MAX_ARRAY_SIZE )
+			throw new IllegalArgumentException( "Interval contains too many points to store in a flat array" );
+		numPoints = ( int ) size;
+
+		positions = new double[ numPoints * n ];
+		final RealCursor< T > cursor = points.localizingCursor();
+		for ( int i = 0; i < numPoints; ++i )
+		{
+			cursor.fwd();
+			for ( int d = 0; d < n; ++d )
+				positions[ i * n + d ] = cursor.getDoublePosition( d );
+		}
+
+		final int[] identity = new int[ numPoints ];
+		for ( int i = 0; i < numPoints; ++i )
+			identity[ i ] = i;
+		valuesSupplier = KDTreeUtils.orderValues( identity, points );
+	}
+
+	/**
+	 * @return dimensionality of the points
+	 */
+	public int numDimensions()
+	{
+		return n;
+	}
+
+	/**
+	 * @return the number of points
+	 */
+	public int size()
+	{
+		return numPoints;
+	}
+
+	/**
+	 * Get the positions as a flat {@code double[]} array, where {@code
+	 * positions[d + i*n]} is dimension {@code d} of the {@code i}-th point.
+	 * (This is the internal storage, not a copy.)
+	 */
+	public double[] positions()
+	{
+		return positions;
+	}
+
+	/**
+	 * Get a {@code Supplier} that return {@code IntFunction<T>} to provide
+	 * values for given point indices. Every {@link Supplier#get()} creates a
+	 * new instance of the {@code IntFunction<T>}, which may return a re-used
+	 * proxy.
+	 */
+	public Supplier< IntFunction< T > > valuesSupplier()
+	{
+		return valuesSupplier;
+	}
+
+	/**
+	 * Create a re-usable proxy for accessing position and value of points.
+	 */
+	public Entry createEntry()
+	{
+		return new Entry();
+	}
+
+	/**
+	 * A proxy for accessing position and value of the point with a given
+	 * index.
+	 */
+	public class Entry implements RealLocalizable, Sampler< T >
+	{
+		private final IntFunction< T > values = valuesSupplier.get();
+
+		private int index = -1;
+
+		private Entry()
+		{}
+
+		public Entry setIndex( final int index )
+		{
+			this.index = index;
+			return this;
+		}
+
+		public int getIndex()
+		{
+			return index;
+		}
+
+		@Override
+		public int numDimensions()
+		{
+			return n;
+		}
+
+		@Override
+		public double getDoublePosition( final int d )
+		{
+			return positions[ index * n + d ];
+		}
+
+		@Override
+		public T get()
+		{
+			return values.apply( index );
+		}
+
+		@Override
+		public Entry copy()
+		{
+			return new Entry().setIndex( index );
+		}
+	}
+}
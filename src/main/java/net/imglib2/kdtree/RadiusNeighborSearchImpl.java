@@ -51,6 +51,7 @@ public class RadiusNeighborSearchImpl
 	private final double[] pos;
 	private final double[] axisDiffs;
 	private final int[] awayChilds;
+
 	private final Neighbors neighbors;
 
 	public RadiusNeighborSearchImpl( final KDTreeImpl tree )
@@ -66,10 +67,26 @@ public class RadiusNeighborSearchImpl
 	}
 
 	public void search( final RealLocalizable p, final double radius, final boolean sortResults )
+	{
+		p.localize( pos );
+		search( radius, sortResults );
+	}
+
+	/**
+	 * Search for the neighbors within {@code radius} of the point with
+	 * coordinates {@code points[offset]}, ..., {@code points[offset + n - 1]},
+	 * where {@code n} is the number of dimensions.
+	 */
+	public void search( final double[] points, final int offset, final double radius, final boolean sortResults )
+	{
+		System.arraycopy( points, offset, pos, 0, numDimensions );
+		search( radius, sortResults );
+	}
+
+	private void search( final double radius, final boolean sortResults )
 	{
 		assert radius >= 0;
 		final double squRadius = radius * radius;
-		p.localize( pos );
 		neighbors.clear();
 		int current = tree.root();
 		int depth = 0;
@@ -0,0 +1,388 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.kdtree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import net.imglib2.IterableRealInterval;
+import net.imglib2.RealCursor;
+import net.imglib2.RealLocalizable;
+import net.imglib2.Sampler;
+import net.imglib2.parallel.Parallelization;
+import net.imglib2.parallel.TaskExecutor;
+
+/**
+ * A uniform grid index over the points of an {@link IterableRealInterval},
+ * for fast fixed-radius neighbor search.
+ * <p>
+ * Space is divided into cubic cells of side length {@code cellSize}. Points
+ * are sorted by cell, and stored in compressed sparse row layout: the points
+ * of cell {@code c} are {@code cellStart[c]} to {@code cellStart[c+1]-1}
+ * (in the order in which they were iterated). If the grid covering the
+ * bounding box of the points does not have many more cells than there are
+ * points, every cell has its own row. Otherwise, cells are hashed into a
+ * table of about {@code numPoints} rows (spatial hashing), and a row may
+ * contain points from several cells.
+ * <p>
+ * With {@code cellSize} equal to the search radius, a radius search only
+ * needs to look at the {@code 3^n} cells around the query. Positions are
+ * stored in a flat {@code double[]} array in sorted order, so that the points
+ * of a cell are contiguous in memory.
+ * <p>
+ * The index is built in parallel on the {@link
+ * Parallelization#getTaskExecutor() current TaskExecutor} (or the given
+ * {@link TaskExecutor}).
+ *
+ * @param <T>
+ * 		the type of values stored in the grid.
+ */
+public class SpatialHashGrid< T >
+{
+	final int n;
+
+	final int numPoints;
+
+	final double cellSize;
+
+	/**
+	 * Minimum of the bounding box of the points, the corner of cell {@code
+	 * (0,...,0)}.
+	 */
+	final double[] origin;
+
+	/**
+	 * Number of cells in each dimension.
+	 */
+	final long[] gridDimensions;
+
+	/**
+	 * Whether each cell has its own row (otherwise, cells are hashed).
+	 */
+	final boolean dense;
+
+	final int numRows;
+
+	/**
+	 * Points of row {@code r} are {@code cellStart[r]} to {@code
+	 * cellStart[r+1]-1}.
+	 */
+	final int[] cellStart;
+
+	/**
+	 * Positions in flat layout, sorted by row.
+	 */
+	final double[] positions;
+
+	/**
+	 * {@code order[i]} is the index (in iteration order) of the {@code i}-th
+	 * sorted point.
+	 */
+	private final int[] order;
+
+	private final Supplier< IntFunction< T > > valuesSupplier;
+
+	/**
+	 * Build a grid index over the points of {@code points}, using the {@link
+	 * Parallelization#getTaskExecutor() current TaskExecutor}.
+	 *
+	 * @param points
+	 * 		the points (and values) to index
+	 * @param cellSize
+	 * 		side length of the grid cells, usually the search radius
+	 */
+	public SpatialHashGrid( final IterableRealInterval< T > points, final double cellSize )
+	{
+		this( points, cellSize, Parallelization.getTaskExecutor() );
+	}
+
+	/**
+	 * Build a grid index over the points of {@code points}, using the given
+	 * {@code taskExecutor}.
+	 *
+	 * @param points
+	 * 		the points (and values) to index
+	 * @param cellSize
+	 * 		side length of the grid cells, usually the search radius
+	 * @param taskExecutor
+	 * 		used to build the index in parallel
+	 */
+	public SpatialHashGrid( final IterableRealInterval< T > points, final double cellSize, final TaskExecutor taskExecutor )
+	{
+		if ( !( cellSize > 0 ) )
+			throw new IllegalArgumentException( "cellSize must be > 0" );
+		final long size = points.size();
+		n = points.numDimensions();
+		if ( size <= 0 )
+			throw new IllegalArgumentException( "At least one point is required to construct a SpatialHashGrid." );
+		if ( size * n > KDTreeUtils.MAX_ARRAY_SIZE )
+			throw new IllegalArgumentException( "Interval contains too many points to store in SpatialHashGrid" );
+		numPoints = ( int ) size;
+		this.cellSize = cellSize;
+
+		// read positions
+		final double[] unsorted = new double[ numPoints * n ];
+		final RealCursor< T > cursor = points.localizingCursor();
+		for ( int i = 0; i < numPoints; ++i )
+		{
+			cursor.fwd();
+			for ( int d = 0; d < n; ++d )
+				unsorted[ i * n + d ] = cursor.getDoublePosition( d );
+		}
+
+		// grid dimensions
+		origin = new double[ n ];
+		final double[] max = new double[ n ];
+		KDTreeUtils.computeMinMax( unsorted, origin, max );
+		gridDimensions = new long[ n ];
+		double numCells = 1;
+		for ( int d = 0; d < n; ++d )
+		{
+			gridDimensions[ d ] = ( long ) Math.floor( ( max[ d ] - origin[ d ] ) / cellSize ) + 1;
+			numCells *= gridDimensions[ d ];
+		}
+		dense = numCells <= Math.min( 2.0 * numPoints + 1024, KDTreeUtils.MAX_ARRAY_SIZE - 1 );
+		numRows = dense ? ( int ) numCells : Integer.highestOneBit( Math.max( 2 * numPoints - 1, 1 ) );
+
+		// compute row of each point
+		final int[] rowOf = new int[ numPoints ];
+		final List< int[] > chunks = chunks( numPoints, taskExecutor );
+		taskExecutor.forEach( chunks, chunk -> {
+			final long[] cell = new long[ n ];
+			for ( int i = chunk[ 0 ]; i < chunk[ 1 ]; ++i )
+			{
+				for ( int d = 0; d < n; ++d )
+					cell[ d ] = cellCoordinate( unsorted[ i * n + d ], d );
+				rowOf[ i ] = row( cell );
+			}
+		} );
+
+		// counting sort by row
+		final AtomicIntegerArray next = new AtomicIntegerArray( numRows );
+		taskExecutor.forEach( chunks, chunk -> {
+			for ( int i = chunk[ 0 ]; i < chunk[ 1 ]; ++i )
+				next.incrementAndGet( rowOf[ i ] );
+		} );
+		cellStart = new int[ numRows + 1 ];
+		for ( int r = 0; r < numRows; ++r )
+		{
+			final int count = next.get( r );
+			next.set( r, cellStart[ r ] );
+			cellStart[ r + 1 ] = cellStart[ r ] + count;
+		}
+		order = new int[ numPoints ];
+		taskExecutor.forEach( chunks, chunk -> {
+			for ( int i = chunk[ 0 ]; i < chunk[ 1 ]; ++i )
+				order[ next.getAndIncrement( rowOf[ i ] ) ] = i;
+		} );
+
+		// sort each row by index, so that points in each row are in iteration order
+		taskExecutor.forEach( chunks( numRows, taskExecutor ), chunk -> {
+			for ( int r = chunk[ 0 ]; r < chunk[ 1 ]; ++r )
+				if ( cellStart[ r + 1 ] - cellStart[ r ] > 1 )
+					Arrays.sort( order, cellStart[ r ], cellStart[ r + 1 ] );
+		} );
+
+		final int[] inverseOrder = new int[ numPoints ];
+		positions = new double[ numPoints * n ];
+		taskExecutor.forEach( chunks, chunk -> {
+			for ( int j = chunk[ 0 ]; j < chunk[ 1 ]; ++j )
+			{
+				final int i = order[ j ];
+				inverseOrder[ i ] = j;
+				System.arraycopy( unsorted, i * n, positions, j * n, n );
+			}
+		} );
+
+		valuesSupplier = KDTreeUtils.orderValues( inverseOrder, points );
+	}
+
+	private static List< int[] > chunks( final int size, final TaskExecutor taskExecutor )
+	{
+		final int numTasks = ( size < KDTreeUtils.MIN_POINTS_FOR_PARALLEL || taskExecutor.getParallelism() <= 1 )
+				? 1
+				: Math.max( 1, Math.min( taskExecutor.suggestNumberOfTasks(), size / ( KDTreeUtils.MIN_POINTS_FOR_PARALLEL / 4 ) ) );
+		final List< int[] > chunks = new ArrayList<>( numTasks );
+		for ( int t = 0; t < numTasks; ++t )
+			chunks.add( new int[] { ( int ) ( ( long ) size * t / numTasks ), ( int ) ( ( long ) size * ( t + 1 ) / numTasks ) } );
+		return chunks;
+	}
+
+	/**
+	 * Get the cell coordinate in dimension {@code d} of real coordinate {@code
+	 * x}. (May be outside the grid.)
+	 */
+	long cellCoordinate( final double x, final int d )
+	{
+		return ( long ) Math.floor( ( x - origin[ d ] ) / cellSize );
+	}
+
+	/**
+	 * Get the row of the cell with the given coordinates, which must be inside
+	 * the grid.
+	 */
+	int row( final long[] cell )
+	{
+		if ( dense )
+		{
+			long index = cell[ n - 1 ];
+			for ( int d = n - 2; d >= 0; --d )
+				index = index * gridDimensions[ d ] + cell[ d ];
+			return ( int ) index;
+		}
+		else
+		{
+			long h = 0;
+			for ( int d = 0; d < n; ++d )
+				h = h * 0x9E3779B97F4A7C15L + cell[ d ];
+			h ^= h >>> 32;
+			h *= 0xD6E8FEB86659FD93L;
+			h ^= h >>> 32;
+			return ( int ) h & ( numRows - 1 );
+		}
+	}
+
+	/**
+	 * @return dimensionality of the points
+	 */
+	public int numDimensions()
+	{
+		return n;
+	}
+
+	/**
+	 * @return the number of points
+	 */
+	public int size()
+	{
+		return numPoints;
+	}
+
+	/**
+	 * @return side length of the grid cells
+	 */
+	public double cellSize()
+	{
+		return cellSize;
+	}
+
+	/**
+	 * Get coordinate {@code d} of the {@code i}-th (sorted) point.
+	 */
+	public double getDoublePosition( final int i, final int d )
+	{
+		return positions[ i * n + d ];
+	}
+
+	/**
+	 * Get the index (in iteration order of the source {@code
+	 * IterableRealInterval}) of the {@code i}-th (sorted) point.
+	 */
+	public int originalIndex( final int i )
+	{
+		return order[ i ];
+	}
+
+	/**
+	 * Get a {@code Supplier} that return {@code IntFunction<T>} to provide
+	 * values for given (sorted) point indices. Every {@link Supplier#get()}
+	 * creates a new instance of the {@code IntFunction<T>}, which may return
+	 * a re-used proxy.
+	 */
+	public Supplier< IntFunction< T > > valuesSupplier()
+	{
+		return valuesSupplier;
+	}
+
+	/**
+	 * Create a re-usable proxy for accessing position and value of points.
+	 */
+	public Entry createEntry()
+	{
+		return new Entry();
+	}
+
+	/**
+	 * A proxy for accessing position and value of the point with a given
+	 * (sorted) index.
+	 */
+	public class Entry implements RealLocalizable, Sampler< T >
+	{
+		private final IntFunction< T > values = valuesSupplier.get();
+
+		private int index = -1;
+
+		private Entry()
+		{}
+
+		public Entry setIndex( final int index )
+		{
+			this.index = index;
+			return this;
+		}
+
+		public int getIndex()
+		{
+			return index;
+		}
+
+		@Override
+		public int numDimensions()
+		{
+			return n;
+		}
+
+		@Override
+		public double getDoublePosition( final int d )
+		{
+			return positions[ index * n + d ];
+		}
+
+		@Override
+		public T get()
+		{
+			return values.apply( index );
+		}
+
+		@Override
+		public Entry copy()
+		{
+			return new Entry().setIndex( index );
+		}
+	}
+}
@@ -0,0 +1,319 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.kdtree;
+
+import java.util.Arrays;
+
+import net.imglib2.RealLocalizable;
+import net.imglib2.kdtree.RadiusNeighborSearchImpl.Neighbors;
+
+/**
+ * Nearest-neighbor and radius neighbor search on {@link SpatialHashGrid}.
+ * Results are (sorted) point indices.
+ * <p>
+ * Radius search visits all grid cells that intersect the bounding box of the
+ * search sphere. Nearest-neighbor search visits rings of cells of increasing
+ * size around the query, until no closer point can be found in the
+ * remaining cells. If the number of cells to visit exceeds the number of
+ * points, all points are searched exhaustively instead.
+ */
+public class SpatialHashGridSearchImpl
+{
+	private final SpatialHashGrid< ? > grid;
+
+	private final int n;
+
+	private final double[] pos;
+
+	private final long[] min;
+
+	private final long[] max;
+
+	private final long[] center;
+
+	private final long[] cell;
+
+	/**
+	 * Rows to visit in a radius search on a hashed grid.
+	 */
+	private int[] rows = new int[ 32 ];
+
+	private final Neighbors neighbors;
+
+	private double squRadius;
+
+	private int bestIndex;
+
+	private double bestSquDistance;
+
+	public SpatialHashGridSearchImpl( final SpatialHashGrid< ? > grid )
+	{
+		this.grid = grid;
+		n = grid.numDimensions();
+		pos = new double[ n ];
+		min = new long[ n ];
+		max = new long[ n ];
+		center = new long[ n ];
+		cell = new long[ n ];
+		neighbors = new Neighbors();
+		bestIndex = -1;
+		bestSquDistance = Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Search for the neighbors of {@code p} within distance {@code <= radius}.
+	 */
+	public void searchRadius( final RealLocalizable p, final double radius, final boolean sortResults )
+	{
+		assert radius >= 0;
+		p.localize( pos );
+		squRadius = radius * radius;
+		neighbors.clear();
+
+		double numCells = 1;
+		for ( int d = 0; d < n; ++d )
+		{
+			min[ d ] = Math.max( grid.cellCoordinate( pos[ d ] - radius, d ), 0 );
+			max[ d ] = Math.min( grid.cellCoordinate( pos[ d ] + radius, d ), grid.gridDimensions[ d ] - 1 );
+			if ( min[ d ] > max[ d ] )
+				return;
+			numCells *= max[ d ] - min[ d ] + 1;
+		}
+
+		if ( numCells > grid.numRows )
+			addNeighbors( 0, grid.numPoints );
+		else if ( grid.dense )
+		{
+			// rows of consecutive cells in dimension 0 are contiguous
+			final int width = ( int ) ( max[ 0 ] - min[ 0 ] );
+			System.arraycopy( min, 0, cell, 0, n );
+			do
+			{
+				final int row = grid.row( cell );
+				addNeighbors( grid.cellStart[ row ], grid.cellStart[ row + width + 1 ] );
+			}
+			while ( next( 1 ) );
+		}
+		else
+		{
+			// several cells may hash to the same row, visit each row once
+			int numRows = 0;
+			System.arraycopy( min, 0, cell, 0, n );
+			do
+			{
+				if ( numRows == rows.length )
+					rows = Arrays.copyOf( rows, 2 * numRows );
+				rows[ numRows++ ] = grid.row( cell );
+			}
+			while ( next( 0 ) );
+			Arrays.sort( rows, 0, numRows );
+			for ( int i = 0; i < numRows; ++i )
+				if ( i == 0 || rows[ i ] != rows[ i - 1 ] )
+					addNeighbors( grid.cellStart[ rows[ i ] ], grid.cellStart[ rows[ i ] + 1 ] );
+		}
+
+		if ( sortResults )
+			neighbors.sort();
+	}
+
+	/**
+	 * Advance {@code cell} to the next cell in the range {@code min} to
+	 * {@code max}, iterating dimensions {@code first} to {@code n-1}.
+	 *
+	 * @return {@code false} if the range has been exhausted
+	 */
+	private boolean next( final int first )
+	{
+		for ( int d = first; d < n; ++d )
+		{
+			if ( ++cell[ d ] <= max[ d ] )
+				return true;
+			cell[ d ] = min[ d ];
+		}
+		return false;
+	}
+
+	private void addNeighbors( final int from, final int to )
+	{
+		for ( int i = from; i < to; ++i )
+		{
+			final double squDistance = squDistance( i );
+			if ( squDistance <= squRadius )
+				neighbors.add( squDistance, i );
+		}
+	}
+
+	/**
+	 * Search for the nearest neighbor of {@code p}.
+	 */
+	public void searchNearest( final RealLocalizable p )
+	{
+		p.localize( pos );
+		bestIndex = -1;
+		bestSquDistance = Double.POSITIVE_INFINITY;
+
+		long maxRing = 0;
+		for ( int d = 0; d < n; ++d )
+		{
+			final long c = grid.cellCoordinate( pos[ d ], d );
+			center[ d ] = Math.min( Math.max( c, 0 ), grid.gridDimensions[ d ] - 1 );
+			maxRing = Math.max( maxRing, Math.max( center[ d ], grid.gridDimensions[ d ] - 1 - center[ d ] ) );
+		}
+
+		double numVisitedCells = 0;
+		for ( long ring = 0; ring <= maxRing; ++ring )
+		{
+			double numCells = 1;
+			for ( int d = 0; d < n; ++d )
+			{
+				min[ d ] = Math.max( center[ d ] - ring, 0 );
+				max[ d ] = Math.min( center[ d ] + ring, grid.gridDimensions[ d ] - 1 );
+				numCells *= max[ d ] - min[ d ] + 1;
+			}
+			numVisitedCells += numCells;
+			if ( numVisitedCells > grid.numPoints )
+			{
+				// too many empty cells, fall back to exhaustive search
+				findNearest( 0, grid.numPoints );
+				return;
+			}
+
+			// visit cells at Chebyshev distance ring from center
+			System.arraycopy( min, 0, cell, 0, n );
+			do
+			{
+				if ( isOnRing( ring ) )
+				{
+					final int row = grid.row( cell );
+					findNearest( grid.cellStart[ row ], grid.cellStart[ row + 1 ] );
+				}
+			}
+			while ( next( 0 ) );
+
+			// points in cells on the remaining rings are at least ring * cellSize away
+			final double bound = ring * grid.cellSize;
+			if ( bestSquDistance <= bound * bound )
+				return;
+		}
+	}
+
+	private boolean isOnRing( final long ring )
+	{
+		for ( int d = 0; d < n; ++d )
+			if ( Math.abs( cell[ d ] - center[ d ] ) == ring )
+				return true;
+		return ring == 0;
+	}
+
+	private void findNearest( final int from, final int to )
+	{
+		for ( int i = from; i < to; ++i )
+		{
+			final double squDistance = squDistance( i );
+			if ( squDistance < bestSquDistance )
+			{
+				bestSquDistance = squDistance;
+				bestIndex = i;
+			}
+		}
+	}
+
+	private double squDistance( final int i )
+	{
+		final double[] positions = grid.positions;
+		final int o = i * n;
+		double sum = 0;
+		for ( int d = 0; d < n; ++d )
+		{
+			final double diff = pos[ d ] - positions[ o + d ];
+			sum += diff * diff;
+		}
+		return sum;
+	}
+
+	/**
+	 * @return the number of neighbors found by the last radius search
+	 */
+	public int numNeighbors()
+	{
+		return neighbors.size;
+	}
+
+	/**
+	 * @return the index of the {@code i}-th neighbor found by the last radius
+	 * search
+	 */
+	public int bestIndex( final int i )
+	{
+		return neighbors.indices[ i ];
+	}
+
+	/**
+	 * @return the squared distance of the {@code i}-th neighbor found by the
+	 * last radius search
+	 */
+	public double bestSquDistance( final int i )
+	{
+		return neighbors.distances[ i ];
+	}
+
+	/**
+	 * @return the index of the nearest neighbor found by the last nearest
+	 * neighbor search
+	 */
+	public int bestIndex()
+	{
+		return bestIndex;
+	}
+
+	/**
+	 * @return the squared distance of the nearest neighbor found by the last
+	 * nearest neighbor search
+	 */
+	public double bestSquDistance()
+	{
+		return bestSquDistance;
+	}
+
+	public SpatialHashGridSearchImpl copy()
+	{
+		final SpatialHashGridSearchImpl copy = new SpatialHashGridSearchImpl( grid );
+		System.arraycopy( pos, 0, copy.pos, 0, n );
+		copy.neighbors.makeCopyOf( neighbors );
+		copy.squRadius = squRadius;
+		copy.bestIndex = bestIndex;
+		copy.bestSquDistance = bestSquDistance;
+		return copy;
+	}
+}
@@ -58,6 +58,27 @@ public class IntervalChunks
 		return generateGrid( interval, chunkDimensions );
 	}
 
+	/**
+	 * Returns a list of disjoint intervals, that covers the given interval.
+	 * Like {@link #chunkInterval(Interval, int)}, but the boundaries of the
+	 * intervals are aligned to a grid of cells with the given dimensions,
+	 * starting at the min corner of {@code interval}. Each interval consists
+	 * of whole cells (cells at the border of {@code interval} may be
+	 * truncated). This is useful if the interval is backed by blocked
+	 * storage, such as a {@code CellImg}, so that different chunks do not
+	 * access the same cells.
+	 */
+	public static List< Interval > chunkInterval( Interval interval, long[] cellDimensions, int numberOfChunks )
+	{
+		final long[] dimensions = Intervals.dimensionsAsLongArray( interval );
+		final long[] gridDimensions = new long[ dimensions.length ];
+		Arrays.setAll( gridDimensions, d -> divideAndRoundUp( dimensions[ d ], cellDimensions[ d ] ) );
+		final long[] chunkCells = suggestChunkSize( gridDimensions, numberOfChunks );
+		final long[] chunkDimensions = new long[ dimensions.length ];
+		Arrays.setAll( chunkDimensions, d -> chunkCells[ d ] * cellDimensions[ d ] );
+		return generateGrid( interval, chunkDimensions );
+	}
+
 	/**
 	 * Suggest a chunk size that can be used, to divide an interval of the
 	 * given dimensions, into the given number of chunks.
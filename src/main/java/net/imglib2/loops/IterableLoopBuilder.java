@@ -35,12 +35,10 @@
 package net.imglib2.loops;
 
 import net.imglib2.Cursor;
-import net.imglib2.FinalInterval;
 import net.imglib2.Interval;
 import net.imglib2.IterableInterval;
 import net.imglib2.RandomAccess;
 import net.imglib2.RandomAccessible;
-import net.imglib2.loops.IntervalChunks;
 import net.imglib2.loops.LoopBuilder;
 import net.imglib2.parallel.Parallelization;
 import net.imglib2.parallel.TaskExecutor;
@@ -133,7 +131,7 @@ public class IterableLoopBuilder< T >
 	 */
 	public < R > List< R > forEachChunk( Function< LoopBuilder.Chunk< T >, R > chunkAction )
 	{
-		List< Interval > intervals = IntervalChunks.chunkInterval( new FinalInterval( firstImage.size() ), taskExecutor.suggestNumberOfTasks() );
+		List< Interval > intervals = StorageChunks.chunkIndices( firstImage, taskExecutor.suggestNumberOfTasks() );
 		List< Chunk< T > > chunks = ListUtils.map( interval -> new Chunk< T >( firstImage, otherImages, interval ), intervals );
 		return taskExecutor.forEachApply( chunks, chunkAction );
 	}
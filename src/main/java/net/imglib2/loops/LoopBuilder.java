@@ -39,6 +39,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.StringJoiner;
 import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.LongConsumer;
@@ -99,6 +100,14 @@ public class LoopBuilder< T >
 
 	private boolean useFlatIterationOrder = false;
 
+	private boolean dynamicScheduling = false;
+
+	/**
+	 * With dynamic scheduling, the image is split into this many chunks per
+	 * {@link TaskExecutor#suggestNumberOfTasks() suggested task}.
+	 */
+	private static final int DYNAMIC_CHUNKS_PER_TASK = 8;
+
 	// public methods
 
 	/**
@@ -199,6 +208,48 @@ public class LoopBuilder< T >
 			return runUsingRandomAccesses( action );
 	}
 
+	/**
+	 * Reduce the images to a single value. Like {@link #forEachChunk}, each
+	 * chunk is processed by {@code chunkAction}, possibly in parallel. The
+	 * results of the chunks are then combined, in order, starting with
+	 * {@code identity}.
+	 * <p>
+	 * The following example calculates the sum of the pixel values of an
+	 * image, using one {@link net.imglib2.util.RealSum} per chunk:
+	 *
+	 * <pre>
+	 * {@code
+	 *
+	 * double sum = LoopBuilder.setImages( image ).multiThreaded().reduce( 0.0,
+	 *     chunk -> {
+	 *         RealSum sum = new RealSum();
+	 *         chunk.forEachPixel( pixel -> sum.add( pixel.getRealDouble() ) );
+	 *         return sum.getSum();
+	 *     },
+	 *     Double::sum
+	 * );
+	 * }
+	 * </pre>
+	 *
+	 * For the sum, minimum, maximum, mean and variance of a single image,
+	 * {@link Reductions} is faster.
+	 *
+	 * @param identity
+	 * 		result if the images are empty, the chunk results are combined with it
+	 * @param chunkAction
+	 * 		computes the result for one chunk
+	 * @param combiner
+	 * 		combines two results, must be associative
+	 */
+	public < R > R reduce( final R identity, final Function< Chunk< T >, R > chunkAction, final BinaryOperator< R > combiner )
+	{
+		Objects.requireNonNull( combiner );
+		R result = identity;
+		for ( final R chunkResult : forEachChunk( chunkAction ) )
+			result = combiner.apply( result, chunkResult );
+		return result;
+	}
+
 	private boolean allCursorsAreFast( List< IterableInterval< ? > > iterableIntervals )
 	{
 		return ListUtils.allMatch( this::cursorIsFast, iterableIntervals );
@@ -263,6 +314,8 @@ public class LoopBuilder< T >
 	 * Calling this method causes LoopBuilder to use the given {@link TaskExecutor} for multi-threading.
 	 * <p>
 	 * WARNING: You need to make sure that your operation is thread safe.
+	 *
+	 * @see #dynamicScheduling()
 	 */
 	public LoopBuilder< T > multiThreaded( TaskExecutor taskExecutor )
 	{
@@ -270,6 +323,33 @@ public class LoopBuilder< T >
 		return this;
 	}
 
+	/**
+	 * Calling this method causes multi-threaded loops to use dynamic
+	 * scheduling: The image is split into more, smaller chunks, and threads
+	 * claim chunks as they become idle (see {@link
+	 * TaskExecutor#forEachDynamic}). This improves load balancing if the
+	 * cost per pixel is uneven, or if some chunks are slow (for example,
+	 * because cells of a lazily loaded {@code CellImg} need to be loaded).
+	 * <p>
+	 * Note that {@link #forEachChunk} returns one result per chunk, so with
+	 * dynamic scheduling it returns more results.
+	 */
+	public LoopBuilder< T > dynamicScheduling()
+	{
+		return this.dynamicScheduling( true );
+	}
+
+	/**
+	 * If true, multi-threaded loops use dynamic scheduling.
+	 *
+	 * @see #dynamicScheduling()
+	 */
+	public LoopBuilder< T > dynamicScheduling( boolean value )
+	{
+		this.dynamicScheduling = value;
+		return this;
+	}
+
 	/**
 	 * {@link LoopBuilder} might use any iteration order to execute
 	 * the loop. Calling this method will cause {@link LoopBuilder}
@@ -349,11 +429,22 @@ public class LoopBuilder< T >
 	}
 
 	private < R > List< R > runUsingRandomAccesses( Function< Chunk< T >, R > chunkAction )
+	{
+		final List< Interval > chunks = StorageChunks.chunkInterval( images, numberOfChunks() );
+		return forEachApply( chunks, chunk -> runOnChunkUsingRandomAccesses( images, chunkAction, chunk ) );
+	}
+
+	private int numberOfChunks()
 	{
 		final int nTasks = taskExecutor.suggestNumberOfTasks();
-		final Interval interval = new FinalInterval( dimensions );
-		final List< Interval > chunks = IntervalChunks.chunkInterval( interval, nTasks );
-		return taskExecutor.forEachApply( chunks, chunk -> runOnChunkUsingRandomAccesses( images, chunkAction, chunk ) );
+		return dynamicScheduling && nTasks > 1 ? nTasks * DYNAMIC_CHUNKS_PER_TASK : nTasks;
+	}
+
+	private < P, R > List< R > forEachApply( List< P > chunks, Function< P, R > action )
+	{
+		return dynamicScheduling ?
+				taskExecutor.forEachApplyDynamic( chunks, action ) :
+				taskExecutor.forEachApply( chunks, action );
 	}
 
 	static < T, R > R runOnChunkUsingRandomAccesses( RandomAccessibleInterval[] images, Function< Chunk< T >, R > chunkAction, Interval subInterval )
@@ -384,10 +475,8 @@ public class LoopBuilder< T >
 
 	private < R > List< R > runUsingCursors( List< IterableInterval< ? > > iterableIntervals, Function< Chunk< T >, R > chunkAction )
 	{
-		int nTasks = taskExecutor.suggestNumberOfTasks();
-		final FinalInterval indices = new FinalInterval( Intervals.numElements( images[ 0 ] ) );
-		List< Interval > chunks = IntervalChunks.chunkInterval( indices, nTasks );
-		return taskExecutor.forEachApply( chunks, chunk ->
+		List< Interval > chunks = StorageChunks.chunkIndices( iterableIntervals.get( 0 ), numberOfChunks() );
+		return forEachApply( chunks, chunk ->
 				LoopBuilder.runOnChunkUsingCursors( iterableIntervals, chunkAction, chunk.min( 0 ), chunk.dimension( 0 ) ) );
 	}
 
@@ -0,0 +1,214 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+package net.imglib2.loops;
+
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.blocks.Blockwise;
+import net.imglib2.parallel.Parallelization;
+import net.imglib2.parallel.TaskExecutor;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.util.RealSum;
+
+/**
+ * Parallel reductions of {@link RealType} images: sum, minimum, maximum, mean
+ * and variance.
+ * <p>
+ * The images are processed block-by-block with {@link Blockwise#reduce}.
+ * Blocks are copied into {@code double[]} arrays, which is fast for {@code
+ * ArrayImg}, {@code PlanarImg}, {@code CellImg} and simple Views of them.
+ * Blocks are processed in parallel, using the {@link TaskExecutor} obtained
+ * from {@link Parallelization#getTaskExecutor()}. Sums are accumulated with
+ * {@link RealSum} to reduce rounding errors.
+ * <pre>{@code
+ * 		Reductions.MeanVariance stats = Reductions.meanVariance( img );
+ * 		double mean = stats.getMean();
+ * 		double std = Math.sqrt( stats.getVariance() );
+ * }</pre>
+ */
+public final class Reductions
+{
+	private Reductions()
+	{
+		// prevent from instantiation
+	}
+
+	/**
+	 * Returns the sum of the values of {@code img}.
+	 */
+	public static < T extends RealType< T > > double sum( final RandomAccessibleInterval< T > img )
+	{
+		return Blockwise.reduce( img, RealSum::new, RealSum::add, RealSum::add ).getSum();
+	}
+
+	/**
+	 * Returns the minimum of the values of {@code img}. NaN values are
+	 * ignored. If all values are NaN, {@link Double#POSITIVE_INFINITY} is
+	 * returned.
+	 */
+	public static < T extends RealType< T > > double min( final RandomAccessibleInterval< T > img )
+	{
+		return Blockwise.reduce( img, () -> new double[] { Double.POSITIVE_INFINITY },
+				( min, values, offset, length ) -> {
+					double m = min[ 0 ];
+					for ( int i = offset; i < offset + length; ++i )
+						if ( values[ i ] < m )
+							m = values[ i ];
+					min[ 0 ] = m;
+				},
+				( min, other ) -> min[ 0 ] = Math.min( min[ 0 ], other[ 0 ] ) )[ 0 ];
+	}
+
+	/**
+	 * Returns the maximum of the values of {@code img}. NaN values are
+	 * ignored. If all values are NaN, {@link Double#NEGATIVE_INFINITY} is
+	 * returned.
+	 */
+	public static < T extends RealType< T > > double max( final RandomAccessibleInterval< T > img )
+	{
+		return Blockwise.reduce( img, () -> new double[] { Double.NEGATIVE_INFINITY },
+				( max, values, offset, length ) -> {
+					double m = max[ 0 ];
+					for ( int i = offset; i < offset + length; ++i )
+						if ( values[ i ] > m )
+							m = values[ i ];
+					max[ 0 ] = m;
+				},
+				( max, other ) -> max[ 0 ] = Math.max( max[ 0 ], other[ 0 ] ) )[ 0 ];
+	}
+
+	/**
+	 * Returns the mean of the values of {@code img}.
+	 */
+	public static < T extends RealType< T > > double mean( final RandomAccessibleInterval< T > img )
+	{
+		return sum( img ) / img.size();
+	}
+
+	/**
+	 * Returns the number of values, mean and variance of {@code img}.
+	 */
+	public static < T extends RealType< T > > MeanVariance meanVariance( final RandomAccessibleInterval< T > img )
+	{
+		return Blockwise.reduce( img, MeanVariance::new, MeanVariance::add, MeanVariance::add );
+	}
+
+	/**
+	 * Number of values, mean and variance of a set of values.
+	 * <p>
+	 * The values of each block are summarized in two passes: the mean first
+	 * (summed with {@link RealSum}), then the sum of squared differences from
+	 * the mean. The summaries of blocks are combined with the pairwise update
+	 * of Chan et al., which is numerically stable.
+	 */
+	public static final class MeanVariance
+	{
+		private long count;
+
+		private double mean;
+
+		// sum of squared differences from the mean
+		private double m2;
+
+		MeanVariance()
+		{
+		}
+
+		/**
+		 * Returns the number of values.
+		 */
+		public long getCount()
+		{
+			return count;
+		}
+
+		/**
+		 * Returns the mean of the values, or NaN if there are none.
+		 */
+		public double getMean()
+		{
+			return count == 0 ? Double.NaN : mean;
+		}
+
+		/**
+		 * Returns the population variance of the values, i.e. the sum of
+		 * squared differences from the mean divided by {@code n}.
+		 */
+		public double getVariance()
+		{
+			return count == 0 ? Double.NaN : m2 / count;
+		}
+
+		/**
+		 * Returns the sample variance of the values, i.e. the sum of
+		 * squared differences from the mean divided by {@code n - 1}.
+		 */
+		public double getSampleVariance()
+		{
+			return count < 2 ? Double.NaN : m2 / ( count - 1 );
+		}
+
+		void add( final double[] values, final int offset, final int length )
+		{
+			if ( length == 0 )
+				return;
+			final RealSum sum = new RealSum();
+			sum.add( values, offset, length );
+			final double blockMean = sum.getSum() / length;
+			double blockM2 = 0;
+			for ( int i = offset; i < offset + length; ++i )
+			{
+				final double d = values[ i ] - blockMean;
+				blockM2 += d * d;
+			}
+			add( length, blockMean, blockM2 );
+		}
+
+		void add( final MeanVariance other )
+		{
+			add( other.count, other.mean, other.m2 );
+		}
+
+		private void add( final long otherCount, final double otherMean, final double otherM2 )
+		{
+			if ( otherCount == 0 )
+				return;
+			final long n = count + otherCount;
+			final double delta = otherMean - mean;
+			mean += delta * otherCount / n;
+			m2 += otherM2 + delta * delta * ( ( double ) count * otherCount / n );
+			count = n;
+		}
+	}
+}
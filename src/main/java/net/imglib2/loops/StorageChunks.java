@@ -0,0 +1,189 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.loops;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.imglib2.FinalInterval;
+import net.imglib2.Interval;
+import net.imglib2.IterableInterval;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.img.cell.AbstractCellImg;
+import net.imglib2.img.cell.CellGrid;
+import net.imglib2.img.planar.PlanarImg;
+import net.imglib2.util.Intervals;
+
+/**
+ * Chunking for multi-threaded loops that is aligned to the storage of the
+ * images, such that chunks do not share cells of a {@link AbstractCellImg
+ * CellImg} or planes of a {@link PlanarImg}. For lazily loaded {@code
+ * CellImg}s this avoids that several threads load the same cell, and it
+ * avoids false sharing at chunk boundaries. For other images, chunks are
+ * computed by {@link IntervalChunks#chunkInterval(Interval, int)}.
+ */
+class StorageChunks
+{
+	/**
+	 * Split the flat index range of the iteration order of {@code image} into
+	 * about {@code numberOfChunks} chunks. If {@code image} is a {@code
+	 * CellImg} or {@code PlanarImg}, chunk boundaries are aligned to cells or
+	 * planes, respectively.
+	 *
+	 * @return list of one-dimensional intervals of indices
+	 */
+	static List< Interval > chunkIndices( final IterableInterval< ? > image, final int numberOfChunks )
+	{
+		if ( numberOfChunks > 1 )
+		{
+			if ( image instanceof AbstractCellImg )
+				return cellChunks( ( ( AbstractCellImg< ?, ?, ?, ? > ) image ).getCellGrid(), numberOfChunks );
+			if ( image instanceof PlanarImg && image.numDimensions() > 2 )
+				return planeChunks( image, numberOfChunks );
+		}
+		return IntervalChunks.chunkInterval( new FinalInterval( image.size() ), numberOfChunks );
+	}
+
+	/**
+	 * Split the interval of the given images into about {@code
+	 * numberOfChunks} chunks. If one of the images is a {@code CellImg} or
+	 * {@code PlanarImg}, the chunks are aligned to its cells or planes,
+	 * respectively.
+	 *
+	 * @return list of intervals, relative to the min corner of the images
+	 */
+	static List< Interval > chunkInterval( final RandomAccessibleInterval< ? >[] images, final int numberOfChunks )
+	{
+		final Interval interval = new FinalInterval( images[ 0 ].dimensionsAsLongArray() );
+		if ( numberOfChunks > 1 )
+		{
+			for ( final RandomAccessibleInterval< ? > image : images )
+			{
+				final long[] cellDimensions = cellDimensions( image );
+				if ( cellDimensions != null )
+					return IntervalChunks.chunkInterval( interval, cellDimensions, numberOfChunks );
+			}
+		}
+		return IntervalChunks.chunkInterval( interval, numberOfChunks );
+	}
+
+	/**
+	 * Returns the dimensions of the cells of a {@code CellImg}, or of the
+	 * planes of a {@code PlanarImg}, or {@code null} if the image is neither.
+	 */
+	static long[] cellDimensions( final RandomAccessibleInterval< ? > image )
+	{
+		final int n = image.numDimensions();
+		if ( image instanceof AbstractCellImg )
+		{
+			final CellGrid grid = ( ( AbstractCellImg< ?, ?, ?, ? > ) image ).getCellGrid();
+			final long[] cellDimensions = new long[ n ];
+			for ( int d = 0; d < n; ++d )
+				cellDimensions[ d ] = grid.cellDimension( d );
+			return cellDimensions;
+		}
+		if ( image instanceof PlanarImg && n > 2 )
+		{
+			final long[] cellDimensions = new long[ n ];
+			for ( int d = 0; d < n; ++d )
+				cellDimensions[ d ] = d < 2 ? image.dimension( d ) : 1;
+			return cellDimensions;
+		}
+		return null;
+	}
+
+	private static List< Interval > cellChunks( final CellGrid grid, final int numberOfChunks )
+	{
+		final long numCells = Intervals.numElements( grid.getGridDimensions() );
+		final int numChunks = ( int ) Math.min( numberOfChunks, numCells );
+		final List< Interval > chunks = new ArrayList<>( numChunks );
+		final long[] cellGridPosition = new long[ grid.numDimensions() ];
+		long start = 0;
+		for ( int i = 1; i <= numChunks; ++i )
+		{
+			final long end = cellOffset( grid, numCells * i / numChunks, numCells, cellGridPosition );
+			chunks.add( range( start, end ) );
+			start = end;
+		}
+		return chunks;
+	}
+
+	/**
+	 * Returns the number of pixels in cells before the cell with the given
+	 * flat {@code index}, in the iteration order of a {@code CellImg}.
+	 */
+	static long cellOffset( final CellGrid grid, final long index, final long numCells, final long[] cellGridPosition )
+	{
+		final int n = grid.numDimensions();
+		if ( index == numCells )
+			return Intervals.numElements( grid.getImgDimensions() );
+		grid.getCellGridPositionFlat( index, cellGridPosition );
+		// Cells are ordered with dimension 0 varying fastest. The cells before
+		// cellGridPosition are, for each dimension d, a block extending over
+		// the full image in dimensions < d, over cellGridPosition[d] cells in
+		// dimension d, and over the cell at cellGridPosition in dimensions > d.
+		long offset = 0;
+		for ( int d = 0; d < n; ++d )
+		{
+			long size = cellGridPosition[ d ] * grid.cellDimension( d );
+			for ( int e = 0; e < d; ++e )
+				size *= grid.imgDimension( e );
+			for ( int e = d + 1; e < n; ++e )
+				size *= grid.getCellDimension( e, cellGridPosition[ e ] );
+			offset += size;
+		}
+		return offset;
+	}
+
+	private static List< Interval > planeChunks( final IterableInterval< ? > image, final int numberOfChunks )
+	{
+		final long planeSize = image.dimension( 0 ) * image.dimension( 1 );
+		final long numPlanes = image.size() / planeSize;
+		final int numChunks = ( int ) Math.min( numberOfChunks, numPlanes );
+		final List< Interval > chunks = new ArrayList<>( numChunks );
+		long start = 0;
+		for ( int i = 1; i <= numChunks; ++i )
+		{
+			final long end = numPlanes * i / numChunks * planeSize;
+			chunks.add( range( start, end ) );
+			start = end;
+		}
+		return chunks;
+	}
+
+	private static Interval range( final long start, final long end )
+	{
+		return new FinalInterval( new long[] { start }, new long[] { end - 1 } );
+	}
+}
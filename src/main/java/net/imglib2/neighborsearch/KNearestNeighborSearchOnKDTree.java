@@ -88,6 +88,26 @@ public class KNearestNeighborSearchOnKDTree< T > implements KNearestNeighborSear
 		return k;
 	}
 
+	/**
+	 * Set the error bound for approximate search.
+	 *
+	 * @see KNearestNeighborSearchImpl#setEpsilon(double)
+	 */
+	public void setEpsilon( final double epsilon )
+	{
+		impl.setEpsilon( epsilon );
+	}
+
+	/**
+	 * Set the maximum number of nodes to visit in a search.
+	 *
+	 * @see KNearestNeighborSearchImpl#setMaxNodeVisits(int)
+	 */
+	public void setMaxNodeVisits( final int maxNodeVisits )
+	{
+		impl.setMaxNodeVisits( maxNodeVisits );
+	}
+
 	@Override
 	public void search( final RealLocalizable p )
 	{
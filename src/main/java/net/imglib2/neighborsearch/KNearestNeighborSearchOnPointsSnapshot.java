@@ -0,0 +1,159 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.neighborsearch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.imglib2.IterableRealInterval;
+import net.imglib2.RealLocalizable;
+import net.imglib2.Sampler;
+import net.imglib2.kdtree.BruteForceSearchImpl;
+import net.imglib2.kdtree.PointsSnapshot;
+
+/**
+ * <em>k</em>-nearest-neighbor search on a {@link PointsSnapshot}
+ * implemented as linear search.
+ * <p>
+ * Unlike {@link KNearestNeighborSearchOnIterableRealInterval}, this iterates
+ * over positions in a flat {@code double[]} array instead of a cursor, and
+ * does not copy cursors for the best candidates. If there are less than
+ * {@code k} points, the remaining neighbors are at distance {@code
+ * Double.POSITIVE_INFINITY} and have no position or value.
+ */
+public class KNearestNeighborSearchOnPointsSnapshot< T > implements KNearestNeighborSearch< T >
+{
+	private final PointsSnapshot< T > points;
+
+	private final int k;
+
+	private final BruteForceSearchImpl impl;
+
+	private final List< PointsSnapshot< T >.Entry > matches;
+
+	public KNearestNeighborSearchOnPointsSnapshot( final IterableRealInterval< T > points, final int k )
+	{
+		this( new PointsSnapshot<>( points ), k );
+	}
+
+	public KNearestNeighborSearchOnPointsSnapshot( final PointsSnapshot< T > points, final int k )
+	{
+		this.points = points;
+		this.k = k;
+		impl = new BruteForceSearchImpl( points.positions(), points.numDimensions(), k );
+		matches = new ArrayList<>( k );
+		for ( int i = 0; i < k; ++i )
+			matches.add( points.createEntry() );
+	}
+
+	private KNearestNeighborSearchOnPointsSnapshot( final KNearestNeighborSearchOnPointsSnapshot< T > knn )
+	{
+		points = knn.points;
+		k = knn.k;
+		impl = knn.impl.copy();
+		matches = new ArrayList<>( k );
+		for ( final PointsSnapshot< T >.Entry match : knn.matches )
+			matches.add( match.copy() );
+	}
+
+	@Override
+	public int numDimensions()
+	{
+		return points.numDimensions();
+	}
+
+	@Override
+	public int getK()
+	{
+		return k;
+	}
+
+	@Override
+	public void search( final RealLocalizable p )
+	{
+		impl.search( p );
+		for ( int i = 0; i < k; i++ )
+			matches.get( i ).setIndex( impl.bestIndex( i ) );
+	}
+
+	@Override
+	public Sampler< T > getSampler( final int i )
+	{
+		return matches.get( i );
+	}
+
+	@Override
+	public RealLocalizable getPosition( final int i )
+	{
+		return matches.get( i );
+	}
+
+	@Override
+	public double getSquareDistance( final int i )
+	{
+		return impl.bestSquDistance( i );
+	}
+
+	@Override
+	public KNearestNeighborSearchOnPointsSnapshot< T > copy()
+	{
+		return new KNearestNeighborSearchOnPointsSnapshot<>( this );
+	}
+
+	/* NearestNeighborSearch */
+
+	@Override
+	public RealLocalizable getPosition()
+	{
+		return getPosition( 0 );
+	}
+
+	@Override
+	public Sampler< T > getSampler()
+	{
+		return getSampler( 0 );
+	}
+
+	@Override
+	public double getSquareDistance()
+	{
+		return getSquareDistance( 0 );
+	}
+
+	@Override
+	public double getDistance()
+	{
+		return getDistance( 0 );
+	}
+}
@@ -75,6 +75,26 @@ public class NearestNeighborSearchOnKDTree< T > implements NearestNeighborSearch
 		return tree.numDimensions();
 	}
 
+	/**
+	 * Set the error bound for approximate search.
+	 *
+	 * @see NearestNeighborSearchImpl#setEpsilon(double)
+	 */
+	public void setEpsilon( final double epsilon )
+	{
+		impl.setEpsilon( epsilon );
+	}
+
+	/**
+	 * Set the maximum number of nodes to visit in a search.
+	 *
+	 * @see NearestNeighborSearchImpl#setMaxNodeVisits(int)
+	 */
+	public void setMaxNodeVisits( final int maxNodeVisits )
+	{
+		impl.setMaxNodeVisits( maxNodeVisits );
+	}
+
 	@Override
 	public void search( final RealLocalizable p )
 	{
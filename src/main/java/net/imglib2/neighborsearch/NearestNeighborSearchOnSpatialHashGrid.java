@@ -0,0 +1,103 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.neighborsearch;
+
+import net.imglib2.RealLocalizable;
+import net.imglib2.Sampler;
+import net.imglib2.kdtree.SpatialHashGrid;
+import net.imglib2.kdtree.SpatialHashGridSearchImpl;
+
+/**
+ * Implementation of {@link NearestNeighborSearch} search for {@link
+ * SpatialHashGrid}.
+ */
+public class NearestNeighborSearchOnSpatialHashGrid< T > implements NearestNeighborSearch< T >
+{
+	private final SpatialHashGrid< T > grid;
+
+	private final SpatialHashGridSearchImpl impl;
+
+	private final SpatialHashGrid< T >.Entry bestPoint;
+
+	public NearestNeighborSearchOnSpatialHashGrid( final SpatialHashGrid< T > grid )
+	{
+		this.grid = grid;
+		impl = new SpatialHashGridSearchImpl( grid );
+		bestPoint = grid.createEntry();
+	}
+
+	private NearestNeighborSearchOnSpatialHashGrid( final NearestNeighborSearchOnSpatialHashGrid< T > nn )
+	{
+		grid = nn.grid;
+		impl = nn.impl.copy();
+		bestPoint = nn.bestPoint.copy();
+	}
+
+	@Override
+	public int numDimensions()
+	{
+		return grid.numDimensions();
+	}
+
+	@Override
+	public void search( final RealLocalizable p )
+	{
+		impl.searchNearest( p );
+		bestPoint.setIndex( impl.bestIndex() );
+	}
+
+	@Override
+	public Sampler< T > getSampler()
+	{
+		return bestPoint;
+	}
+
+	@Override
+	public RealLocalizable getPosition()
+	{
+		return bestPoint;
+	}
+
+	@Override
+	public double getSquareDistance()
+	{
+		return impl.bestSquDistance();
+	}
+
+	@Override
+	public NearestNeighborSearchOnSpatialHashGrid< T > copy()
+	{
+		return new NearestNeighborSearchOnSpatialHashGrid<>( this );
+	}
+}
@@ -0,0 +1,121 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.neighborsearch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.imglib2.RealLocalizable;
+import net.imglib2.Sampler;
+import net.imglib2.kdtree.DynamicKDTree;
+import net.imglib2.kdtree.DynamicKDTreeSearchImpl;
+
+/**
+ * Implementation of {@link RadiusNeighborSearch} search for {@link
+ * DynamicKDTree}.
+ * <p>
+ * The search must not run concurrently with updates of the tree. The result
+ * of a search is invalidated by subsequent updates.
+ */
+public class RadiusNeighborSearchOnDynamicKDTree< T > implements RadiusNeighborSearch< T >
+{
+	private final DynamicKDTree< T > tree;
+
+	private final DynamicKDTreeSearchImpl impl;
+
+	private final List< DynamicKDTree< T >.Entry > matches;
+
+	public RadiusNeighborSearchOnDynamicKDTree( final DynamicKDTree< T > tree )
+	{
+		this.tree = tree;
+		impl = new DynamicKDTreeSearchImpl( tree );
+		matches = new ArrayList<>();
+	}
+
+	private RadiusNeighborSearchOnDynamicKDTree( final RadiusNeighborSearchOnDynamicKDTree< T > other )
+	{
+		tree = other.tree;
+		impl = other.impl.copy();
+		matches = new ArrayList<>();
+		for ( final DynamicKDTree< T >.Entry match : other.matches )
+			matches.add( match.copy() );
+	}
+
+	@Override
+	public void search( final RealLocalizable reference, final double radius, final boolean sortResults )
+	{
+		impl.searchRadius( reference, radius, sortResults );
+		final int numNeighbors = impl.numNeighbors();
+		while ( matches.size() < numNeighbors )
+			matches.add( tree.createEntry() );
+		for ( int i = 0; i < numNeighbors; ++i )
+			matches.get( i ).setId( impl.bestId( i ) );
+	}
+
+	@Override
+	public int numDimensions()
+	{
+		return tree.numDimensions();
+	}
+
+	@Override
+	public int numNeighbors()
+	{
+		return impl.numNeighbors();
+	}
+
+	@Override
+	public Sampler< T > getSampler( final int i )
+	{
+		return matches.get( i );
+	}
+
+	@Override
+	public RealLocalizable getPosition( final int i )
+	{
+		return matches.get( i );
+	}
+
+	@Override
+	public double getSquareDistance( final int i )
+	{
+		return impl.bestSquDistance( i );
+	}
+
+	@Override
+	public RadiusNeighborSearchOnDynamicKDTree< T > copy()
+	{
+		return new RadiusNeighborSearchOnDynamicKDTree<>( this );
+	}
+}
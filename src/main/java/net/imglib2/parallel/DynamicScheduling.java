@@ -0,0 +1,80 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.parallel;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Implementation of {@link TaskExecutor#forEachApplyDynamic(List, Function)}.
+ * <p>
+ * One worker per thread is started with {@link TaskExecutor#runAll(List)}.
+ * Workers claim batches of consecutive parameters from a shared counter. The
+ * size of a batch is the number of remaining parameters divided by twice the
+ * number of workers (but at least 1), so that batches get smaller towards the
+ * end and the workers finish at about the same time.
+ */
+class DynamicScheduling
+{
+	static < T, R > List< R > forEachApply( final TaskExecutor taskExecutor, final List< ? extends T > parameters, final Function< ? super T, ? extends R > task )
+	{
+		final int size = parameters.size();
+		final Object[] results = new Object[ size ];
+		final int numWorkers = Math.min( taskExecutor.getParallelism(), size );
+		final AtomicInteger next = new AtomicInteger();
+		final Runnable worker = () -> {
+			while ( true )
+			{
+				final int start = next.get();
+				if ( start >= size )
+					return;
+				final int batch = Math.max( 1, ( size - start ) / ( 2 * numWorkers ) );
+				if ( !next.compareAndSet( start, start + batch ) )
+					continue;
+				for ( int i = start; i < start + batch; ++i )
+					results[ i ] = task.apply( parameters.get( i ) );
+			}
+		};
+		if ( numWorkers == 1 )
+			worker.run();
+		else if ( numWorkers > 1 )
+			taskExecutor.runAll( Collections.nCopies( numWorkers, worker ) );
+		@SuppressWarnings( "unchecked" )
+		final List< R > list = ( List< R > ) Arrays.asList( results );
+		return list;
+	}
+}
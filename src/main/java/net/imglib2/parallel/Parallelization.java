@@ -58,6 +58,13 @@ import java.util.concurrent.ExecutorService;
  *     // ExecutorService
  *     Parallelization.withExecutor( executorService, () -> myAlgorithm( image ) );
  *
+ *     // I/O-bound, e.g. on a LazyCellImg: many tasks wait for cells to be
+ *     // loaded, nested compute runs on the common ForkJoinPool.
+ *     try ( TaskExecutor ioExecutor = TaskExecutors.ioBound( 256 ) )
+ *     {
+ *         Parallelization.runWithExecutor( ioExecutor, () -> myAlgorithm( image ) );
+ *     }
+ *
  *     // Multi-threaded is the default.
  *     //     A normal function call, that's not somehow wrapped by
  *     //     Parallelization.runSingleThreaded( ... ) runs multi-threaded.
@@ -105,6 +105,35 @@ public interface TaskExecutor extends AutoCloseable
 	 */
 	< T, R > List< R > forEachApply( List< ? extends T > parameters, Function< ? super T, ? extends R > task );
 
+	/**
+	 * Like {@link #forEach(List, Consumer)}, but the parameters are
+	 * distributed to the threads dynamically: Each thread repeatedly claims
+	 * a batch of consecutive parameters that have not been processed yet.
+	 * Batches get smaller as fewer parameters remain (guided scheduling), so
+	 * that threads that finish early take over work from slow parameters
+	 * instead of idling at the end.
+	 * <p>
+	 * This is useful if the cost of tasks is uneven or unpredictable (for
+	 * example, tasks that need to load data). Pass more parameters than
+	 * {@link #suggestNumberOfTasks()} to give the scheduling some room.
+	 */
+	default < T > void forEachDynamic( final List< ? extends T > parameters, final Consumer< ? super T > task )
+	{
+		forEachApplyDynamic( parameters, parameter -> {
+			task.accept( parameter );
+			return null;
+		} );
+	}
+
+	/**
+	 * Like {@link #forEachDynamic(List, Consumer)} but collects the results.
+	 * The results are in the order of the parameters.
+	 */
+	default < T, R > List< R > forEachApplyDynamic( final List< ? extends T > parameters, final Function< ? super T, ? extends R > task )
+	{
+		return DynamicScheduling.forEachApply( this, parameters, task );
+	}
+
 	/**
 	 * Get the underlying {@link ExecutorService}. This is not always a
 	 * fully functional {@link ExecutorService}: Especially the methods
@@ -36,6 +36,7 @@ package net.imglib2.parallel;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadFactory;
 import java.util.function.Supplier;
 
@@ -146,6 +147,83 @@ public final class TaskExecutors
 		return forExecutorService( Executors.newFixedThreadPool( numThreads, threadFactory ) );
 	}
 
+	/**
+	 * Returns a {@link TaskExecutor} for I/O-bound tasks, for example tasks
+	 * that mostly wait for the cells of a {@code LazyCellImg} to be loaded.
+	 * <p>
+	 * At most {@code maxConcurrency} tasks run at the same time. On Java 21 or
+	 * newer, each task runs in its own virtual thread. Thousands of tasks can
+	 * therefore wait for I/O at the same time, without occupying a platform
+	 * thread each. Tasks beyond {@code maxConcurrency} wait for a permit of a
+	 * {@link Semaphore} before they start. On older Java versions, a fixed
+	 * thread pool with {@code maxConcurrency} threads is used instead.
+	 * <p>
+	 * {@code maxConcurrency} is returned by {@link TaskExecutor#getParallelism()}
+	 * and therefore determines how many tasks algorithms create. Within the
+	 * tasks, {@link Parallelization#getTaskExecutor()} returns
+	 * {@code computeExecutor}. Compute-heavy, nested parallelization thus uses
+	 * the bounded {@code computeExecutor} and does not oversubscribe the CPUs.
+	 * <p>
+	 * The returned {@link TaskExecutor} needs to be closed by calling
+	 * {@link TaskExecutor#close()}. This does not close {@code computeExecutor}.
+	 */
+	public static TaskExecutor ioBound( int maxConcurrency, TaskExecutor computeExecutor )
+	{
+		maxConcurrency = Math.max( 1, maxConcurrency );
+		final boolean virtual = VirtualThreads.isAvailable();
+		final ThreadFactory threadFactory = applySharedTaskExecutorToThreadFactory( computeExecutor,
+				virtual ? VirtualThreads.threadFactory() : Executors.defaultThreadFactory() );
+		final ExecutorService executorService = virtual
+				? VirtualThreads.newThreadPerTaskExecutor( limitConcurrency( maxConcurrency, threadFactory ) )
+				: Executors.newFixedThreadPool( maxConcurrency, threadFactory );
+		return forExecutorServiceAndNumThreads( executorService, maxConcurrency );
+	}
+
+	/**
+	 * Returns a {@link TaskExecutor} for I/O-bound tasks, as
+	 * {@link #ioBound(int, TaskExecutor)}. Compute-heavy, nested
+	 * parallelization uses {@link #multiThreaded()}.
+	 */
+	public static TaskExecutor ioBound( int maxConcurrency )
+	{
+		return ioBound( maxConcurrency, multiThreaded() );
+	}
+
+	/**
+	 * Returns true if {@link #ioBound(int, TaskExecutor)} uses virtual
+	 * threads, i.e. if the JVM is Java 21 or newer.
+	 */
+	public static boolean virtualThreadsAvailable()
+	{
+		return VirtualThreads.isAvailable();
+	}
+
+	/**
+	 * Wraps {@code threadFactory} such that at most {@code maxConcurrency} of
+	 * the created threads run their task at the same time. This is meant for
+	 * virtual threads, that can cheaply wait for a permit.
+	 */
+	private static ThreadFactory limitConcurrency( int maxConcurrency, ThreadFactory threadFactory )
+	{
+		final Semaphore permits = new Semaphore( maxConcurrency );
+		return runnable -> threadFactory.newThread( () -> {
+			permits.acquireUninterruptibly();
+			try
+			{
+				runnable.run();
+			}
+			finally
+			{
+				permits.release();
+			}
+		} );
+	}
+
+	private static ThreadFactory applySharedTaskExecutorToThreadFactory( TaskExecutor taskExecutor, ThreadFactory threadFactory )
+	{
+		return runnable -> threadFactory.newThread( () -> Parallelization.runWithExecutor( taskExecutor, runnable ) );
+	}
+
 	/**
 	 * Returns a {@link ThreadFactory}. Whenever this thread factory is used
 	 * to create a thread, a {@link TaskExecutor} will is create and assigned
@@ -0,0 +1,131 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.parallel;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to virtual threads (Java 21+) via reflection, such that ImgLib2 can
+ * still be compiled for and run on older Java versions.
+ */
+final class VirtualThreads
+{
+
+	private VirtualThreads()
+	{
+		// prevent from instantiation
+	}
+
+	private static final Method OF_VIRTUAL = findMethod( Thread.class, "ofVirtual" );
+
+	private static final Method FACTORY = findMethod( "java.lang.Thread$Builder", "factory" );
+
+	private static final Method NEW_THREAD_PER_TASK_EXECUTOR = findMethod( Executors.class, "newThreadPerTaskExecutor", ThreadFactory.class );
+
+	/**
+	 * Returns true if the running JVM supports virtual threads.
+	 */
+	static boolean isAvailable()
+	{
+		return OF_VIRTUAL != null && FACTORY != null && NEW_THREAD_PER_TASK_EXECUTOR != null;
+	}
+
+	/**
+	 * Returns a {@link ThreadFactory} that creates virtual threads.
+	 *
+	 * @throws UnsupportedOperationException
+	 *             if virtual threads are not available.
+	 */
+	static ThreadFactory threadFactory()
+	{
+		if ( !isAvailable() )
+			throw new UnsupportedOperationException( "Virtual threads require Java 21 or newer." );
+		try
+		{
+			return ( ThreadFactory ) FACTORY.invoke( OF_VIRTUAL.invoke( null ) );
+		}
+		catch ( ReflectiveOperationException e )
+		{
+			throw new RuntimeException( e );
+		}
+	}
+
+	/**
+	 * Returns an {@link ExecutorService} that starts a new thread, created by
+	 * the given {@link ThreadFactory}, for each task.
+	 *
+	 * @throws UnsupportedOperationException
+	 *             if virtual threads are not available.
+	 */
+	static ExecutorService newThreadPerTaskExecutor( final ThreadFactory threadFactory )
+	{
+		if ( !isAvailable() )
+			throw new UnsupportedOperationException( "Virtual threads require Java 21 or newer." );
+		try
+		{
+			return ( ExecutorService ) NEW_THREAD_PER_TASK_EXECUTOR.invoke( null, threadFactory );
+		}
+		catch ( ReflectiveOperationException e )
+		{
+			throw new RuntimeException( e );
+		}
+	}
+
+	private static Method findMethod( final String className, final String name, final Class< ? >... parameterTypes )
+	{
+		try
+		{
+			return findMethod( Class.forName( className ), name, parameterTypes );
+		}
+		catch ( ClassNotFoundException e )
+		{
+			return null;
+		}
+	}
+
+	private static Method findMethod( final Class< ? > clazz, final String name, final Class< ? >... parameterTypes )
+	{
+		try
+		{
+			return clazz.getMethod( name, parameterTypes );
+		}
+		catch ( NoSuchMethodException e )
+		{
+			return null;
+		}
+	}
+}
@@ -88,4 +88,137 @@ public class RealSum {
 		}
 		sum = t;
 	}
+
+	/**
+	 * Add {@code length} elements of {@code values}, starting at index
+	 * {@code offset}, to the sum.
+	 * <p>
+	 * The result is as accurate as calling {@link #add(double)} for each
+	 * element, but this is considerably faster for large arrays: the
+	 * elements are distributed over four independent compensated sums, that
+	 * the CPU can compute in parallel. Each of them uses a branch-free exact
+	 * two-sum to compute the rounding error of every addition. The four sums
+	 * are added to this sum at the end.
+	 *
+	 * @param values the summands to be added
+	 * @param offset index of the first summand
+	 * @param length number of summands
+	 */
+	public void add(final double[] values, final int offset, final int length) {
+		double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		double c0 = 0, c1 = 0, c2 = 0, c3 = 0;
+		final int end = offset + length;
+		final int end4 = offset + (length & ~3);
+		int i = offset;
+		for (; i < end4; i += 4) {
+			final double v0 = values[i];
+			final double v1 = values[i + 1];
+			final double v2 = values[i + 2];
+			final double v3 = values[i + 3];
+			final double t0 = s0 + v0;
+			final double t1 = s1 + v1;
+			final double t2 = s2 + v2;
+			final double t3 = s3 + v3;
+			final double b0 = t0 - s0;
+			final double b1 = t1 - s1;
+			final double b2 = t2 - s2;
+			final double b3 = t3 - s3;
+			c0 += (s0 - (t0 - b0)) + (v0 - b0);
+			c1 += (s1 - (t1 - b1)) + (v1 - b1);
+			c2 += (s2 - (t2 - b2)) + (v2 - b2);
+			c3 += (s3 - (t3 - b3)) + (v3 - b3);
+			s0 = t0;
+			s1 = t1;
+			s2 = t2;
+			s3 = t3;
+		}
+		for (; i < end; ++i) {
+			add(values[i]);
+		}
+		add(s0);
+		add(s1);
+		add(s2);
+		add(s3);
+		compensation += (c0 + c1) + (c2 + c3);
+	}
+
+	/**
+	 * Add all elements of {@code values} to the sum.
+	 *
+	 * @param values the summands to be added
+	 * @see #add(double[], int, int)
+	 */
+	public void add(final double[] values) {
+		add(values, 0, values.length);
+	}
+
+	/**
+	 * Add {@code length} elements of {@code values}, starting at index
+	 * {@code offset}, to the sum. Like {@link #add(double[], int, int)}, the
+	 * elements are distributed over four independent compensated sums.
+	 *
+	 * @param values the summands to be added
+	 * @param offset index of the first summand
+	 * @param length number of summands
+	 */
+	public void add(final float[] values, final int offset, final int length) {
+		double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		double c0 = 0, c1 = 0, c2 = 0, c3 = 0;
+		final int end = offset + length;
+		final int end4 = offset + (length & ~3);
+		int i = offset;
+		for (; i < end4; i += 4) {
+			final double v0 = values[i];
+			final double v1 = values[i + 1];
+			final double v2 = values[i + 2];
+			final double v3 = values[i + 3];
+			final double t0 = s0 + v0;
+			final double t1 = s1 + v1;
+			final double t2 = s2 + v2;
+			final double t3 = s3 + v3;
+			final double b0 = t0 - s0;
+			final double b1 = t1 - s1;
+			final double b2 = t2 - s2;
+			final double b3 = t3 - s3;
+			c0 += (s0 - (t0 - b0)) + (v0 - b0);
+			c1 += (s1 - (t1 - b1)) + (v1 - b1);
+			c2 += (s2 - (t2 - b2)) + (v2 - b2);
+			c3 += (s3 - (t3 - b3)) + (v3 - b3);
+			s0 = t0;
+			s1 = t1;
+			s2 = t2;
+			s3 = t3;
+		}
+		for (; i < end; ++i) {
+			add(values[i]);
+		}
+		add(s0);
+		add(s1);
+		add(s2);
+		add(s3);
+		compensation += (c0 + c1) + (c2 + c3);
+	}
+
+	/**
+	 * Add all elements of {@code values} to the sum.
+	 *
+	 * @param values the summands to be added
+	 * @see #add(float[], int, int)
+	 */
+	public void add(final float[] values) {
+		add(values, 0, values.length);
+	}
+
+	/**
+	 * Add another {@link RealSum} to this sum, including its compensation.
+	 * This can be used to combine partial sums that were computed in
+	 * parallel.
+	 *
+	 * @param other the sum to be added
+	 */
+	public void add(final RealSum other) {
+		final double otherCompensation = other.compensation;
+		add(other.sum);
+		compensation += otherCompensation;
+	}
 }
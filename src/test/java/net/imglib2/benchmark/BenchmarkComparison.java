@@ -0,0 +1,396 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH result files in JSON format (as written by
+ * {@link BenchmarkSuite}, or by JMH with {@code -rf json}) and reports
+ * regressions.
+ * <p>
+ * Usage: {@code BenchmarkComparison <baseline.json> <current.json>
+ * [threshold]}
+ * <p>
+ * Benchmarks are matched by name and parameters. A benchmark has regressed if
+ * its score got worse by more than {@code threshold} (default {@code 0.1},
+ * i.e., 10%) relative to the baseline, and the difference is larger than the
+ * combined score errors. For throughput modes higher scores are better, for
+ * all other modes lower scores are better. Benchmarks of the baseline that
+ * are missing from the current results (e.g., because they crashed or were
+ * renamed) are reported as well. Exits with status 1 if any benchmark
+ * regressed or is missing.
+ */
+public class BenchmarkComparison
+{
+	public static class Result
+	{
+		public final String benchmark;
+
+		public final String mode;
+
+		public final double score;
+
+		public final double scoreError;
+
+		public final String unit;
+
+		public Result( final String benchmark, final String mode, final double score, final double scoreError, final String unit )
+		{
+			this.benchmark = benchmark;
+			this.mode = mode;
+			this.score = score;
+			this.scoreError = scoreError;
+			this.unit = unit;
+		}
+
+		boolean higherIsBetter()
+		{
+			return "thrpt".equals( mode );
+		}
+	}
+
+	/**
+	 * Read JMH results in JSON format, keyed by benchmark name and parameters.
+	 */
+	public static Map< String, Result > read( final String json )
+	{
+		final Map< String, Result > results = new TreeMap<>();
+		for ( final Object o : ( List< ? > ) new JsonParser( json ).parse() )
+		{
+			final Map< ?, ? > entry = ( Map< ?, ? > ) o;
+			final StringBuilder key = new StringBuilder( ( String ) entry.get( "benchmark" ) );
+			final Map< ?, ? > params = ( Map< ?, ? > ) entry.get( "params" );
+			if ( params != null )
+				for ( final Map.Entry< ?, ? > param : new TreeMap<>( params ).entrySet() )
+					key.append( ' ' ).append( param.getKey() ).append( '=' ).append( param.getValue() );
+			final Map< ?, ? > metric = ( Map< ?, ? > ) entry.get( "primaryMetric" );
+			results.put( key.toString(), new Result(
+					key.toString(),
+					( String ) entry.get( "mode" ),
+					toDouble( metric.get( "score" ) ),
+					toDouble( metric.get( "scoreError" ) ),
+					( String ) metric.get( "scoreUnit" ) ) );
+		}
+		return results;
+	}
+
+	private static double toDouble( final Object o )
+	{
+		if ( o instanceof Number )
+			return ( ( Number ) o ).doubleValue();
+		// JMH writes "NaN" as a String
+		return Double.NaN;
+	}
+
+	/**
+	 * Returns the relative change of {@code current} with respect to
+	 * {@code baseline}. Positive values mean that {@code current} is worse.
+	 */
+	public static double relativeChange( final Result baseline, final Result current )
+	{
+		final double change = ( current.score - baseline.score ) / baseline.score;
+		return baseline.higherIsBetter() ? -change : change;
+	}
+
+	/**
+	 * Returns {@code true} if {@code current} is worse than {@code baseline}
+	 * by more than {@code threshold}, and the difference exceeds the combined
+	 * score errors.
+	 */
+	public static boolean isRegression( final Result baseline, final Result current, final double threshold )
+	{
+		final double error = ( Double.isNaN( baseline.scoreError ) ? 0 : baseline.scoreError ) + ( Double.isNaN( current.scoreError ) ? 0 : current.scoreError );
+		return relativeChange( baseline, current ) > threshold && Math.abs( current.score - baseline.score ) > error;
+	}
+
+	/**
+	 * Returns the names of the benchmarks in {@code baseline} that are
+	 * missing from {@code current}.
+	 */
+	public static List< String > missing( final Map< String, Result > baseline, final Map< String, Result > current )
+	{
+		final List< String > missing = new ArrayList<>();
+		for ( final String benchmark : baseline.keySet() )
+			if ( !current.containsKey( benchmark ) )
+				missing.add( benchmark );
+		return missing;
+	}
+
+	public static void main( final String... args ) throws IOException
+	{
+		if ( args.length < 2 )
+		{
+			System.err.println( "Usage: BenchmarkComparison <baseline.json> <current.json> [threshold]" );
+			System.exit( 2 );
+		}
+		final Map< String, Result > baseline = read( new String( Files.readAllBytes( Paths.get( args[ 0 ] ) ), StandardCharsets.UTF_8 ) );
+		final Map< String, Result > current = read( new String( Files.readAllBytes( Paths.get( args[ 1 ] ) ), StandardCharsets.UTF_8 ) );
+		final double threshold = args.length > 2 ? Double.parseDouble( args[ 2 ] ) : 0.1;
+
+		final List< String > regressions = new ArrayList<>();
+		for ( final Result c : current.values() )
+		{
+			final Result b = baseline.get( c.benchmark );
+			if ( b == null )
+			{
+				System.out.printf( "%-100s %12s %12.3f %s  (new)%n", c.benchmark, "", c.score, c.unit );
+				continue;
+			}
+			final boolean regression = isRegression( b, c, threshold );
+			System.out.printf( "%-100s %12.3f %12.3f %s %+7.1f%%%s%n", c.benchmark, b.score, c.score, c.unit, 100 * relativeChange( b, c ), regression ? "  REGRESSION" : "" );
+			if ( regression )
+				regressions.add( c.benchmark );
+		}
+		final List< String > missing = missing( baseline, current );
+		for ( final String benchmark : missing )
+		{
+			final Result b = baseline.get( benchmark );
+			System.out.printf( "%-100s %12.3f %12s %s  (missing)%n", benchmark, b.score, "", b.unit );
+		}
+
+		if ( !regressions.isEmpty() )
+		{
+			System.out.println();
+			System.out.println( regressions.size() + " regression(s) above " + ( 100 * threshold ) + "%:" );
+			regressions.forEach( r -> System.out.println( "  " + r ) );
+		}
+		if ( !missing.isEmpty() )
+		{
+			System.out.println();
+			System.out.println( missing.size() + " benchmark(s) missing from " + args[ 1 ] + ":" );
+			missing.forEach( m -> System.out.println( "  " + m ) );
+		}
+		if ( !regressions.isEmpty() || !missing.isEmpty() )
+			System.exit( 1 );
+	}
+
+	/**
+	 * Minimal JSON parser, sufficient for JMH result files. Objects are parsed
+	 * into {@code Map}s, arrays into {@code List}s, and numbers into
+	 * {@code Double}s.
+	 */
+	static class JsonParser
+	{
+		private final String s;
+
+		private int i = 0;
+
+		JsonParser( final String s )
+		{
+			this.s = s;
+		}
+
+		Object parse()
+		{
+			final Object value = value();
+			skipWhitespace();
+			if ( i != s.length() )
+				throw error( "trailing characters" );
+			return value;
+		}
+
+		private Object value()
+		{
+			skipWhitespace();
+			if ( i >= s.length() )
+				throw error( "unexpected end of input" );
+			final char c = s.charAt( i );
+			switch ( c )
+			{
+			case '{':
+				return object();
+			case '[':
+				return array();
+			case '"':
+				return string();
+			case 't':
+				return literal( "true", Boolean.TRUE );
+			case 'f':
+				return literal( "false", Boolean.FALSE );
+			case 'n':
+				return literal( "null", null );
+			default:
+				return number();
+			}
+		}
+
+		private Map< String, Object > object()
+		{
+			final Map< String, Object > map = new LinkedHashMap<>();
+			expect( '{' );
+			skipWhitespace();
+			if ( peek() == '}' )
+			{
+				++i;
+				return map;
+			}
+			while ( true )
+			{
+				skipWhitespace();
+				final String key = string();
+				skipWhitespace();
+				expect( ':' );
+				map.put( key, value() );
+				skipWhitespace();
+				if ( peek() == ',' )
+					++i;
+				else
+				{
+					expect( '}' );
+					return map;
+				}
+			}
+		}
+
+		private List< Object > array()
+		{
+			final List< Object > list = new ArrayList<>();
+			expect( '[' );
+			skipWhitespace();
+			if ( peek() == ']' )
+			{
+				++i;
+				return list;
+			}
+			while ( true )
+			{
+				list.add( value() );
+				skipWhitespace();
+				if ( peek() == ',' )
+					++i;
+				else
+				{
+					expect( ']' );
+					return list;
+				}
+			}
+		}
+
+		private String string()
+		{
+			expect( '"' );
+			final StringBuilder sb = new StringBuilder();
+			while ( true )
+			{
+				if ( i >= s.length() )
+					throw error( "unterminated string" );
+				final char c = s.charAt( i++ );
+				if ( c == '"' )
+					return sb.toString();
+				if ( c != '\\' )
+				{
+					sb.append( c );
+					continue;
+				}
+				final char e = s.charAt( i++ );
+				switch ( e )
+				{
+				case 'b':
+					sb.append( '\b' );
+					break;
+				case 'f':
+					sb.append( '\f' );
+					break;
+				case 'n':
+					sb.append( '\n' );
+					break;
+				case 'r':
+					sb.append( '\r' );
+					break;
+				case 't':
+					sb.append( '\t' );
+					break;
+				case 'u':
+					sb.append( ( char ) Integer.parseInt( s.substring( i, i + 4 ), 16 ) );
+					i += 4;
+					break;
+				default:
+					sb.append( e );
+				}
+			}
+		}
+
+		private Double number()
+		{
+			final int start = i;
+			while ( i < s.length() && "+-0123456789.eE".indexOf( s.charAt( i ) ) >= 0 )
+				++i;
+			if ( start == i )
+				throw error( "unexpected character '" + s.charAt( i ) + "'" );
+			return Double.valueOf( s.substring( start, i ) );
+		}
+
+		private Object literal( final String literal, final Object value )
+		{
+			if ( !s.startsWith( literal, i ) )
+				throw error( "expected " + literal );
+			i += literal.length();
+			return value;
+		}
+
+		private char peek()
+		{
+			if ( i >= s.length() )
+				throw error( "unexpected end of input" );
+			return s.charAt( i );
+		}
+
+		private void expect( final char c )
+		{
+			if ( peek() != c )
+				throw error( "expected '" + c + "'" );
+			++i;
+		}
+
+		private void skipWhitespace()
+		{
+			while ( i < s.length() && Character.isWhitespace( s.charAt( i ) ) )
+				++i;
+		}
+
+		private IllegalArgumentException error( final String message )
+		{
+			return new IllegalArgumentException( "Invalid JSON at position " + i + ": " + message );
+		}
+	}
+}
@@ -0,0 +1,118 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.benchmark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import net.imglib2.benchmark.BenchmarkComparison.Result;
+
+public class BenchmarkComparisonTest
+{
+	private static String json( final String mode, final double score, final double error )
+	{
+		return "[\n" +
+				"  {\n" +
+				"    \"jmhVersion\" : \"1.37\",\n" +
+				"    \"benchmark\" : \"net.imglib2.benchmark.ImgIterationBenchmark.cursor\",\n" +
+				"    \"mode\" : \"" + mode + "\",\n" +
+				"    \"threads\" : 1,\n" +
+				"    \"jvmArgs\" : [ \"-Xmx1g\" ],\n" +
+				"    \"params\" : { \"type\" : \"float\", \"container\" : \"array\" },\n" +
+				"    \"primaryMetric\" : {\n" +
+				"      \"score\" : " + score + ",\n" +
+				"      \"scoreError\" : " + error + ",\n" +
+				"      \"scoreConfidence\" : [ " + ( score - error ) + ", " + ( score + error ) + " ],\n" +
+				"      \"scoreUnit\" : \"us/op\",\n" +
+				"      \"rawData\" : [ [ 1.0E2, 1.1e+2 ] ]\n" +
+				"    },\n" +
+				"    \"secondaryMetrics\" : { }\n" +
+				"  }\n" +
+				"]\n";
+	}
+
+	@Test
+	public void testRead()
+	{
+		final Map< String, Result > results = BenchmarkComparison.read( json( "avgt", 123.5, 2.5 ) );
+		assertEquals( 1, results.size() );
+		final Result result = results.get( "net.imglib2.benchmark.ImgIterationBenchmark.cursor container=array type=float" );
+		assertEquals( "avgt", result.mode );
+		assertEquals( 123.5, result.score, 0 );
+		assertEquals( 2.5, result.scoreError, 0 );
+		assertEquals( "us/op", result.unit );
+	}
+
+	@Test
+	public void testRegression()
+	{
+		final Result baseline = BenchmarkComparison.read( json( "avgt", 100, 1 ) ).values().iterator().next();
+		final Result slower = BenchmarkComparison.read( json( "avgt", 120, 1 ) ).values().iterator().next();
+		final Result noisy = BenchmarkComparison.read( json( "avgt", 120, 30 ) ).values().iterator().next();
+		final Result faster = BenchmarkComparison.read( json( "avgt", 80, 1 ) ).values().iterator().next();
+		assertTrue( BenchmarkComparison.isRegression( baseline, slower, 0.1 ) );
+		assertFalse( BenchmarkComparison.isRegression( baseline, slower, 0.25 ) );
+		assertFalse( BenchmarkComparison.isRegression( baseline, noisy, 0.1 ) );
+		assertFalse( BenchmarkComparison.isRegression( baseline, faster, 0.1 ) );
+
+		// for throughput, lower scores are worse
+		final Result thrptBaseline = BenchmarkComparison.read( json( "thrpt", 100, 1 ) ).values().iterator().next();
+		final Result thrptLower = BenchmarkComparison.read( json( "thrpt", 80, 1 ) ).values().iterator().next();
+		assertTrue( BenchmarkComparison.isRegression( thrptBaseline, thrptLower, 0.1 ) );
+		assertFalse( BenchmarkComparison.isRegression( thrptLower, thrptBaseline, 0.1 ) );
+	}
+
+	@Test
+	public void testMissing()
+	{
+		final Map< String, Result > baseline = new HashMap<>( BenchmarkComparison.read( json( "avgt", 100, 1 ) ) );
+		final Map< String, Result > current = new HashMap<>( baseline );
+		assertTrue( BenchmarkComparison.missing( baseline, current ).isEmpty() );
+
+		// new benchmarks in the current results are not missing
+		current.put( "renamed", baseline.values().iterator().next() );
+		assertTrue( BenchmarkComparison.missing( baseline, current ).isEmpty() );
+
+		current.keySet().retainAll( Collections.singleton( "renamed" ) );
+		assertEquals( Collections.singletonList( "net.imglib2.benchmark.ImgIterationBenchmark.cursor container=array type=float" ),
+				BenchmarkComparison.missing( baseline, current ) );
+	}
+}
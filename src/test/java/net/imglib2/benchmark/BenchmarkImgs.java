@@ -0,0 +1,192 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.benchmark;
+
+import java.util.Random;
+
+import net.imglib2.img.Img;
+import net.imglib2.img.ImgFactory;
+import net.imglib2.img.array.ArrayImgFactory;
+import net.imglib2.img.cell.CellImgFactory;
+import net.imglib2.img.list.ListImgFactory;
+import net.imglib2.img.planar.PlanarImgFactory;
+import net.imglib2.img.sparse.NtreeImgFactory;
+import net.imglib2.type.NativeType;
+import net.imglib2.type.PrimitiveType;
+import net.imglib2.type.logic.BitType;
+import net.imglib2.type.logic.NativeBoolType;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.integer.ByteType;
+import net.imglib2.type.numeric.integer.IntType;
+import net.imglib2.type.numeric.integer.LongType;
+import net.imglib2.type.numeric.integer.ShortType;
+import net.imglib2.type.numeric.integer.Unsigned12BitType;
+import net.imglib2.type.numeric.integer.UnsignedByteType;
+import net.imglib2.type.numeric.integer.UnsignedIntType;
+import net.imglib2.type.numeric.integer.UnsignedLongType;
+import net.imglib2.type.numeric.integer.UnsignedShortType;
+import net.imglib2.type.numeric.real.DoubleType;
+import net.imglib2.type.numeric.real.FloatType;
+
+/**
+ * Creates the images used by the benchmarks in this package, from the
+ * {@code String} names used as JMH {@code @Param} values.
+ * <p>
+ * Containers are {@code "array"}, {@code "planar"}, {@code "cell"}, {@code
+ * "ntree"}, and {@code "list"}. Types are {@code "byte"}, {@code "ubyte"},
+ * {@code "short"}, {@code "ushort"}, {@code "int"}, {@code "uint"}, {@code
+ * "long"}, {@code "ulong"}, {@code "float"}, {@code "double"}, and the
+ * sub-byte types {@code "bit"}, {@code "u12bit"}, and {@code "nativebool"}.
+ * The sub-byte types are not in the default parameter set of the benchmarks,
+ * because not every container (and not {@code PrimitiveBlocks}) supports
+ * them. They can be selected on the command line, e.g., {@code -p
+ * type=bit -p container=array}.
+ */
+public class BenchmarkImgs
+{
+	public static NativeType< ? > type( final String name )
+	{
+		switch ( name )
+		{
+		case "byte":
+			return new ByteType();
+		case "ubyte":
+			return new UnsignedByteType();
+		case "short":
+			return new ShortType();
+		case "ushort":
+			return new UnsignedShortType();
+		case "int":
+			return new IntType();
+		case "uint":
+			return new UnsignedIntType();
+		case "long":
+			return new LongType();
+		case "ulong":
+			return new UnsignedLongType();
+		case "float":
+			return new FloatType();
+		case "double":
+			return new DoubleType();
+		case "bit":
+			return new BitType();
+		case "u12bit":
+			return new Unsigned12BitType();
+		case "nativebool":
+			return new NativeBoolType();
+		default:
+			throw new IllegalArgumentException( "unknown type: " + name );
+		}
+	}
+
+	public static < T extends NativeType< T > > ImgFactory< T > factory( final String container, final T type )
+	{
+		switch ( container )
+		{
+		case "array":
+			return new ArrayImgFactory<>( type );
+		case "planar":
+			return new PlanarImgFactory<>( type );
+		case "cell":
+			return new CellImgFactory<>( type, 32 );
+		case "ntree":
+			return new NtreeImgFactory<>( type );
+		case "list":
+			return new ListImgFactory<>( type );
+		default:
+			throw new IllegalArgumentException( "unknown container: " + container );
+		}
+	}
+
+	/**
+	 * Create an image of the given {@code container} and {@code type}, filled
+	 * with (reproducible) random values.
+	 */
+	@SuppressWarnings( { "unchecked", "rawtypes" } )
+	public static Img< ? extends RealType< ? > > create( final String container, final String type, final long... dimensions )
+	{
+		final Img img = factory( container, ( NativeType ) type( type ) ).create( dimensions );
+		fillRandom( img, 42 );
+		return img;
+	}
+
+	public static void fillRandom( final Img< ? extends RealType< ? > > img, final long seed )
+	{
+		final Random random = new Random( seed );
+		for ( final RealType< ? > t : img )
+			t.setReal( random.nextInt( ( int ) Math.min( t.getMaxValue() + 1, 100 ) ) );
+	}
+
+	/**
+	 * Parse dimensions from a comma-separated {@code String}, e.g., {@code
+	 * "64,64,64"}.
+	 */
+	public static long[] dimensions( final String dimensions )
+	{
+		final String[] parts = dimensions.split( "," );
+		final long[] dims = new long[ parts.length ];
+		for ( int d = 0; d < dims.length; ++d )
+			dims[ d ] = Long.parseLong( parts[ d ].trim() );
+		return dims;
+	}
+
+	/**
+	 * Create a primitive array suitable as {@code PrimitiveBlocks} copy
+	 * target for the given {@code PrimitiveType}.
+	 */
+	public static Object primitiveArray( final PrimitiveType primitiveType, final int length )
+	{
+		switch ( primitiveType )
+		{
+		case BOOLEAN:
+			return new boolean[ length ];
+		case BYTE:
+			return new byte[ length ];
+		case CHAR:
+			return new char[ length ];
+		case SHORT:
+			return new short[ length ];
+		case INT:
+			return new int[ length ];
+		case LONG:
+			return new long[ length ];
+		case FLOAT:
+			return new float[ length ];
+		case DOUBLE:
+			return new double[ length ];
+		default:
+			throw new IllegalArgumentException();
+		}
+	}
+}
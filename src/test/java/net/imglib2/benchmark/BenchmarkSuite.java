@@ -0,0 +1,80 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs all benchmarks in this package and writes the results in JMH's JSON
+ * format.
+ * <p>
+ * Usage: {@code BenchmarkSuite <results.json> [JMH options...]}
+ * <p>
+ * Additional arguments are passed to JMH. For example, {@code -p
+ * container=array,cell} restricts the containers, and a regular expression
+ * (e.g., {@code ImgIterationBenchmark.cursor}) restricts the benchmarks. Two
+ * result files can be compared with {@link BenchmarkComparison}, e.g., a
+ * baseline from the last release and the results of the current version.
+ */
+public class BenchmarkSuite
+{
+	public static void main( final String... args ) throws RunnerException, CommandLineOptionException
+	{
+		if ( args.length < 1 )
+		{
+			System.err.println( "Usage: BenchmarkSuite <results.json> [JMH options...]" );
+			System.exit( 2 );
+		}
+		final String result = args[ 0 ];
+		final String[] jmhArgs = new String[ args.length - 1 ];
+		System.arraycopy( args, 1, jmhArgs, 0, jmhArgs.length );
+		final CommandLineOptions commandLineOptions = new CommandLineOptions( jmhArgs );
+
+		final OptionsBuilder builder = new OptionsBuilder();
+		builder.parent( commandLineOptions );
+		if ( commandLineOptions.getIncludes().isEmpty() )
+			builder.include( BenchmarkSuite.class.getPackage().getName() + "\\..*Benchmark" );
+		final Options options = builder
+				.resultFormat( ResultFormatType.JSON )
+				.result( result )
+				.build();
+		new Runner( options ).run();
+	}
+}
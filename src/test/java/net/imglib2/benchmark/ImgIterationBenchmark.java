@@ -0,0 +1,141 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import net.imglib2.Cursor;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.img.Img;
+import net.imglib2.loops.LoopBuilder;
+import net.imglib2.type.Type;
+import net.imglib2.type.numeric.RealType;
+
+/**
+ * Benchmarks iteration over all pixels of an {@code Img}: cursors, streams,
+ * and {@link LoopBuilder}.
+ */
+@Warmup( iterations = 5, time = 100, timeUnit = TimeUnit.MILLISECONDS )
+@Measurement( iterations = 10, time = 200, timeUnit = TimeUnit.MILLISECONDS )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Fork( 1 )
+public class ImgIterationBenchmark extends AbstractImgBenchmark
+{
+	private Img< ? extends RealType< ? > > target;
+
+	@Override
+	protected void init()
+	{
+		target = img.copy();
+	}
+
+	@Benchmark
+	public double cursor()
+	{
+		double sum = 0;
+		for ( final Cursor< ? extends RealType< ? > > c = img.cursor(); c.hasNext(); )
+			sum += c.next().getRealDouble();
+		return sum;
+	}
+
+	@Benchmark
+	public double localizingCursor()
+	{
+		final int d = img.numDimensions() - 1;
+		double sum = 0;
+		final Cursor< ? extends RealType< ? > > c = img.localizingCursor();
+		while ( c.hasNext() )
+		{
+			final double value = c.next().getRealDouble();
+			sum += value * c.getLongPosition( d );
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public double stream()
+	{
+		return img.stream().mapToDouble( t -> t.getRealDouble() ).sum();
+	}
+
+	@Benchmark
+	public double parallelStream()
+	{
+		return img.parallelStream().mapToDouble( t -> t.getRealDouble() ).sum();
+	}
+
+	@Benchmark
+	public void loopBuilderCopy()
+	{
+		copy( img, target, false );
+	}
+
+	@Benchmark
+	public void loopBuilderCopyMultiThreaded()
+	{
+		copy( img, target, true );
+	}
+
+	@SuppressWarnings( { "unchecked", "rawtypes" } )
+	private static void copy( final Img< ? > source, final Img< ? > target, final boolean multiThreaded )
+	{
+		copy( ( RandomAccessibleInterval ) source, ( RandomAccessibleInterval ) target, multiThreaded );
+	}
+
+	private static < T extends Type< T > > void copy( final RandomAccessibleInterval< T > source, final RandomAccessibleInterval< T > target, final boolean multiThreaded )
+	{
+		LoopBuilder.setImages( source, target ).multiThreaded( multiThreaded ).forEachPixel( ( s, t ) -> t.set( s ) );
+	}
+
+	public static void main( final String... args ) throws RunnerException
+	{
+		final Options options = new OptionsBuilder()
+				.include( ImgIterationBenchmark.class.getSimpleName() )
+				.build();
+		new Runner( options ).run();
+	}
+}
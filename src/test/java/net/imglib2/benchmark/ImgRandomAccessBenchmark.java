@@ -0,0 +1,177 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import net.imglib2.Cursor;
+import net.imglib2.Interval;
+import net.imglib2.RandomAccess;
+import net.imglib2.RandomAccessible;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.util.Intervals;
+import net.imglib2.view.Views;
+
+/**
+ * Benchmarks {@code RandomAccess} to an {@code Img} in different access
+ * patterns: sequential (in flat iteration order), strided (with the last
+ * dimension varying fastest), and random. Also benchmarks iteration over an
+ * out-of-bounds extended image.
+ */
+@Warmup( iterations = 5, time = 100, timeUnit = TimeUnit.MILLISECONDS )
+@Measurement( iterations = 10, time = 200, timeUnit = TimeUnit.MILLISECONDS )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Fork( 1 )
+public class ImgRandomAccessBenchmark extends AbstractImgBenchmark
+{
+	private static final int NUM_RANDOM_POSITIONS = 1 << 16;
+
+	private static final int BORDER = 8;
+
+	private long[][] randomPositions;
+
+	private Interval expanded;
+
+	@Override
+	protected void init()
+	{
+		final int n = img.numDimensions();
+		final Random random = new Random( 1L );
+		randomPositions = new long[ NUM_RANDOM_POSITIONS ][ n ];
+		for ( final long[] pos : randomPositions )
+			for ( int d = 0; d < n; ++d )
+				pos[ d ] = ( long ) ( random.nextDouble() * img.dimension( d ) );
+		expanded = Intervals.expand( img, BORDER );
+	}
+
+	@Benchmark
+	public double randomAccessSequential()
+	{
+		return sumAlong( 0 );
+	}
+
+	@Benchmark
+	public double randomAccessStrided()
+	{
+		return sumAlong( img.numDimensions() - 1 );
+	}
+
+	@Benchmark
+	public double randomAccessRandom()
+	{
+		double sum = 0;
+		final RandomAccess< ? extends RealType< ? > > ra = img.randomAccess();
+		for ( final long[] pos : randomPositions )
+			sum += ra.setPositionAndGet( pos ).getRealDouble();
+		return sum;
+	}
+
+	@Benchmark
+	public double outOfBoundsMirror()
+	{
+		return sum( Views.extendMirrorSingle( img ), expanded );
+	}
+
+	@Benchmark
+	public double outOfBoundsBorder()
+	{
+		return sum( Views.extendBorder( img ), expanded );
+	}
+
+	/**
+	 * Visit all pixels with a {@code RandomAccess}, moving along dimension
+	 * {@code fastest} in the innermost loop.
+	 */
+	private double sumAlong( final int fastest )
+	{
+		final int n = img.numDimensions();
+		final long[] dims = img.dimensionsAsLongArray();
+		final long[] pos = new long[ n ];
+		final long lineLength = dims[ fastest ];
+		final long numLines = Intervals.numElements( dims ) / lineLength;
+		final RandomAccess< ? extends RealType< ? > > ra = img.randomAccess();
+		double sum = 0;
+		for ( long line = 0; line < numLines; ++line )
+		{
+			ra.setPosition( pos );
+			for ( long x = 0; x < lineLength; ++x )
+			{
+				sum += ra.get().getRealDouble();
+				ra.fwd( fastest );
+			}
+			// next line: increment position in all dimensions except fastest
+			for ( int d = 0; d < n; ++d )
+			{
+				if ( d == fastest )
+					continue;
+				if ( ++pos[ d ] < dims[ d ] )
+					break;
+				pos[ d ] = 0;
+			}
+		}
+		return sum;
+	}
+
+	private static double sum( final RandomAccessible< ? extends RealType< ? > > source, final Interval interval )
+	{
+		final RandomAccessibleInterval< ? extends RealType< ? > > view = Views.interval( source, interval );
+		double sum = 0;
+		for ( final Cursor< ? extends RealType< ? > > c = Views.flatIterable( view ).cursor(); c.hasNext(); )
+			sum += c.next().getRealDouble();
+		return sum;
+	}
+
+	public static void main( final String... args ) throws RunnerException
+	{
+		final Options options = new OptionsBuilder()
+				.include( ImgRandomAccessBenchmark.class.getSimpleName() )
+				.build();
+		new Runner( options ).run();
+	}
+}
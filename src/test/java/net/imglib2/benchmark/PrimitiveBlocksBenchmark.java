@@ -0,0 +1,147 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import net.imglib2.blocks.PrimitiveBlocks;
+import net.imglib2.blocks.PrimitiveBlocks.OnFallback;
+import net.imglib2.img.Img;
+import net.imglib2.type.NativeType;
+import net.imglib2.view.Views;
+
+/**
+ * Benchmarks {@link PrimitiveBlocks} copying blocks from (and putting blocks
+ * into) an {@code Img}: aligned with the image origin, unaligned, and partially
+ * out-of-bounds. For {@code "ntree"} and {@code "list"} containers, this
+ * measures the fallback implementation.
+ */
+@Warmup( iterations = 5, time = 100, timeUnit = TimeUnit.MILLISECONDS )
+@Measurement( iterations = 10, time = 200, timeUnit = TimeUnit.MILLISECONDS )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Fork( 1 )
+public class PrimitiveBlocksBenchmark extends AbstractImgBenchmark
+{
+	@Param( { "32" } )
+	public int blockSize;
+
+	private PrimitiveBlocks< ? > blocks;
+
+	private PrimitiveBlocks< ? > extendedBlocks;
+
+	private int[] size;
+
+	private long[] alignedPos;
+
+	private long[] unalignedPos;
+
+	private long[] outOfBoundsPos;
+
+	private Object dest;
+
+	@Override
+	protected void init()
+	{
+		final int n = img.numDimensions();
+		size = new int[ n ];
+		Arrays.fill( size, blockSize );
+		alignedPos = new long[ n ];
+		unalignedPos = new long[ n ];
+		Arrays.fill( unalignedPos, 5 );
+		outOfBoundsPos = new long[ n ];
+		Arrays.fill( outOfBoundsPos, -blockSize / 2 );
+
+		blocks = blocks( img, false );
+		extendedBlocks = blocks( img, true );
+		final NativeType< ? > type = ( NativeType< ? > ) img.getType();
+		dest = BenchmarkImgs.primitiveArray( type.getNativeTypeFactory().getPrimitiveType(), ( int ) ( ( long ) Math.pow( blockSize, n ) ) );
+	}
+
+	@SuppressWarnings( { "unchecked", "rawtypes" } )
+	private static PrimitiveBlocks< ? > blocks( final Img< ? > img, final boolean extended )
+	{
+		final Img raw = img;
+		return PrimitiveBlocks.of( extended ? Views.extendMirrorSingle( raw ) : raw, OnFallback.ACCEPT );
+	}
+
+	@Benchmark
+	public Object copyAligned()
+	{
+		blocks.copy( alignedPos, dest, size );
+		return dest;
+	}
+
+	@Benchmark
+	public Object copyUnaligned()
+	{
+		blocks.copy( unalignedPos, dest, size );
+		return dest;
+	}
+
+	@Benchmark
+	public Object copyOutOfBounds()
+	{
+		extendedBlocks.copy( outOfBoundsPos, dest, size );
+		return dest;
+	}
+
+	@Benchmark
+	public void putUnaligned()
+	{
+		blocks.put( unalignedPos, dest, size );
+	}
+
+	public static void main( final String... args ) throws RunnerException
+	{
+		final Options options = new OptionsBuilder()
+				.include( PrimitiveBlocksBenchmark.class.getSimpleName() )
+				.build();
+		new Runner( options ).run();
+	}
+}
@@ -0,0 +1,189 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.blocks;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Random;
+
+import net.imglib2.Cursor;
+import net.imglib2.RandomAccess;
+import net.imglib2.RandomAccessible;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.img.Img;
+import net.imglib2.img.array.ArrayImgFactory;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.img.cell.CellImgFactory;
+import net.imglib2.parallel.Parallelization;
+import net.imglib2.type.numeric.integer.UnsignedShortType;
+import net.imglib2.type.numeric.real.FloatType;
+import net.imglib2.util.Grid;
+import net.imglib2.view.Views;
+import org.junit.Test;
+
+public class BlockwiseTest
+{
+	/**
+	 * Sums 3 neighboring pixels along X.
+	 */
+	static class Sum3 implements UnaryBlockOperator< UnsignedShortType, FloatType >
+	{
+		@Override
+		public UnsignedShortType getSourceType()
+		{
+			return new UnsignedShortType();
+		}
+
+		@Override
+		public FloatType getTargetType()
+		{
+			return new FloatType();
+		}
+
+		@Override
+		public int numSourceDimensions()
+		{
+			return 3;
+		}
+
+		@Override
+		public int numTargetDimensions()
+		{
+			return 3;
+		}
+
+		@Override
+		public void getSourceBlock( final long[] targetPos, final int[] targetSize, final long[] sourcePos, final int[] sourceSize )
+		{
+			for ( int d = 0; d < 3; ++d )
+			{
+				sourcePos[ d ] = d == 0 ? targetPos[ d ] - 1 : targetPos[ d ];
+				sourceSize[ d ] = d == 0 ? targetSize[ d ] + 2 : targetSize[ d ];
+			}
+		}
+
+		@Override
+		public void compute( final Object src, final int[] srcSize, final Object dest, final int[] destSize )
+		{
+			final short[] s = ( short[] ) src;
+			final float[] t = ( float[] ) dest;
+			final int numLines = destSize[ 1 ] * destSize[ 2 ];
+			for ( int l = 0; l < numLines; ++l )
+			{
+				final int so = l * srcSize[ 0 ];
+				final int to = l * destSize[ 0 ];
+				for ( int x = 0; x < destSize[ 0 ]; ++x )
+					t[ to + x ] = ( s[ so + x ] & 0xffff ) + ( s[ so + x + 1 ] & 0xffff ) + ( s[ so + x + 2 ] & 0xffff );
+			}
+		}
+
+		@Override
+		public Sum3 independentCopy()
+		{
+			return this;
+		}
+	}
+
+	private static Img< UnsignedShortType > createSource()
+	{
+		final Img< UnsignedShortType > img = ArrayImgs.unsignedShorts( 50, 40, 30 );
+		final Random random = new Random( 1 );
+		img.forEach( t -> t.set( random.nextInt( 1000 ) ) );
+		return img;
+	}
+
+	private static void checkResult( final RandomAccessible< UnsignedShortType > source, final RandomAccessibleInterval< FloatType > target )
+	{
+		final RandomAccess< UnsignedShortType > ra = source.randomAccess();
+		final Cursor< FloatType > c = Views.flatIterable( target ).localizingCursor();
+		while ( c.hasNext() )
+		{
+			c.fwd();
+			ra.setPosition( c );
+			ra.move( -1, 0 );
+			float expected = 0;
+			for ( int i = 0; i < 3; ++i, ra.fwd( 0 ) )
+				expected += ra.get().get();
+			assertEquals( expected, c.get().get(), 0 );
+		}
+	}
+
+	@Test
+	public void testCellImgTarget()
+	{
+		final RandomAccessible< UnsignedShortType > source = Views.extendBorder( createSource() );
+		final Img< FloatType > target = new CellImgFactory<>( new FloatType(), 16, 8, 7 ).create( 50, 40, 30 );
+		Blockwise.apply( source, target, new Sum3() );
+		checkResult( source, target );
+	}
+
+	@Test
+	public void testArrayImgTarget()
+	{
+		final RandomAccessible< UnsignedShortType > source = Views.extendBorder( createSource() );
+		final Img< FloatType > target = new ArrayImgFactory<>( new FloatType() ).create( 50, 40, 30 );
+		Parallelization.runSingleThreaded( () -> Blockwise.apply( source, target, new Sum3() ) );
+		checkResult( source, target );
+	}
+
+	@Test
+	public void testBlockSize()
+	{
+		final RandomAccessible< UnsignedShortType > source = Views.extendBorder( createSource() );
+		final Img< FloatType > img = new ArrayImgFactory<>( new FloatType() ).create( 50, 40, 30 );
+		final RandomAccessibleInterval< FloatType > target = Views.interval( img, new long[] { 3, 5, 7 }, new long[] { 44, 33, 22 } );
+		Blockwise.apply( source, target, new Sum3(), 10, 10, 10 );
+		checkResult( source, target );
+	}
+
+	@Test
+	public void testCellAlignedGrid()
+	{
+		final Img< FloatType > img = new CellImgFactory<>( new FloatType(), 16, 8, 7 ).create( 50, 40, 30 );
+		final RandomAccessibleInterval< FloatType > target = Views.interval( img, new long[] { 3, 5, 7 }, new long[] { 44, 33, 22 } );
+		final Grid grid = Blockwise.cellAlignedGrid( target );
+		final long[] min = new long[ 3 ];
+		final long[] dims = new long[ 3 ];
+		grid.getCellDimensions( 0, min, dims );
+		assertArrayEquals( new long[] { 13, 3, 7 }, dims );
+		grid.getCellDimensions( new long[] { 1, 1, 1 }, min, dims );
+		assertArrayEquals( new long[] { 13, 3, 7 }, min );
+		assertArrayEquals( new long[] { 16, 8, 7 }, dims );
+
+		assertNull( Blockwise.cellAlignedGrid( Views.permute( img, 0, 1 ) ) );
+		assertNull( Blockwise.cellAlignedGrid( ArrayImgs.floats( 10, 10 ) ) );
+	}
+}
@@ -0,0 +1,171 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.blocks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.imglib2.converter.Converters;
+import net.imglib2.converter.RealFloatConverter;
+import net.imglib2.img.array.ArrayImg;
+import net.imglib2.img.array.ArrayImgFactory;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.img.basictypeaccess.array.ArrayDataAccess;
+import net.imglib2.blocks.ConvertOperator.ClampType;
+import net.imglib2.type.NativeType;
+import net.imglib2.type.numeric.IntegerType;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.integer.ByteType;
+import net.imglib2.type.numeric.integer.IntType;
+import net.imglib2.type.numeric.integer.LongType;
+import net.imglib2.type.numeric.integer.ShortType;
+import net.imglib2.type.numeric.integer.UnsignedByteType;
+import net.imglib2.type.numeric.integer.UnsignedIntType;
+import net.imglib2.type.numeric.integer.UnsignedShortType;
+import net.imglib2.type.numeric.real.DoubleType;
+import net.imglib2.type.numeric.real.FloatType;
+
+public class ConvertOperatorTest
+{
+	private static final int N = 1000;
+
+	private static final List< RealType< ? > > TYPES = Arrays.asList(
+			new ByteType(), new UnsignedByteType(), new ShortType(), new UnsignedShortType(),
+			new IntType(), new UnsignedIntType(), new LongType(), new FloatType(), new DoubleType() );
+
+	@SuppressWarnings( { "rawtypes", "unchecked" } )
+	@Test
+	public void testConvert()
+	{
+		for ( final RealType s : TYPES )
+			for ( final RealType t : TYPES )
+				testConvert( ( RealType & NativeType ) s, ( RealType & NativeType ) t );
+	}
+
+	private < S extends RealType< S > & NativeType< S >, T extends RealType< T > & NativeType< T > > void testConvert( final S sourceType, final T targetType )
+	{
+		final ArrayImg< S, ? > src = randomImg( sourceType );
+		final ArrayImg< T, ? > dest = new ArrayImgFactory<>( targetType ).create( N );
+		final ArrayImg< T, ? > destClamp = new ArrayImgFactory<>( targetType ).create( N );
+		final ArrayImg< T, ? > destLinear = new ArrayImgFactory<>( targetType ).create( N );
+
+		final double scale = 0.37;
+		final double offset = 12.4;
+		ConvertOperator.convert( sourceType, targetType, 1, ClampType.NONE ).compute( data( src ), new int[] { N }, data( dest ), new int[] { N } );
+		ConvertOperator.convert( sourceType, targetType, 1, ClampType.CLAMP ).compute( data( src ), new int[] { N }, data( destClamp ), new int[] { N } );
+		ConvertOperator.linear( sourceType, targetType, 1, scale, offset ).compute( data( src ), new int[] { N }, data( destLinear ), new int[] { N } );
+
+		final T expected = targetType.createVariable();
+		final String msg = sourceType.getClass().getSimpleName() + " to " + targetType.getClass().getSimpleName();
+		final boolean integerTarget = targetType instanceof IntegerType;
+		for ( int i = 0; i < N; ++i )
+		{
+			final S s = src.getAt( i );
+
+			if ( !integerTarget )
+				expected.setReal( targetType instanceof FloatType ? s.getRealFloat() : s.getRealDouble() );
+			else if ( s instanceof IntegerType )
+				( ( IntegerType< ? > ) expected ).setInteger( ( ( IntegerType< ? > ) s ).getIntegerLong() );
+			else
+				expected.setReal( s.getRealDouble() );
+			assertEquals( msg, expected.getRealDouble(), dest.getAt( i ).getRealDouble(), 0 );
+
+			if ( !integerTarget )
+				expected.setReal( targetType instanceof FloatType ? s.getRealFloat() : s.getRealDouble() );
+			else
+				expected.setReal( clamp( s.getRealDouble(), targetType ) );
+			if ( integerTarget && s instanceof IntegerType && Math.abs( s.getRealDouble() ) < ( 1L << 52 ) )
+				assertEquals( msg + " (clamp)", expected.getRealDouble(), destClamp.getAt( i ).getRealDouble(), 0 );
+			else if ( integerTarget )
+				assertEquals( msg + " (clamp)", expected.getRealDouble(), destClamp.getAt( i ).getRealDouble(), Math.ulp( expected.getRealDouble() ) );
+
+			final double v = s.getRealDouble() * scale + offset;
+			expected.setReal( integerTarget ? clamp( v, targetType ) : v );
+			assertEquals( msg + " (linear)", expected.getRealDouble(), destLinear.getAt( i ).getRealDouble(), Math.ulp( expected.getRealDouble() ) );
+		}
+	}
+
+	private static double clamp( final double v, final RealType< ? > type )
+	{
+		return Math.max( type.getMinValue(), Math.min( type.getMaxValue(), v ) );
+	}
+
+	private static Object data( final ArrayImg< ?, ? > img )
+	{
+		return ( ( ArrayDataAccess< ? > ) img.update( null ) ).getCurrentStorageArray();
+	}
+
+	private static < S extends RealType< S > & NativeType< S > > ArrayImg< S, ? > randomImg( final S type )
+	{
+		final Random random = new Random( 1 );
+		final ArrayImg< S, ? > img = new ArrayImgFactory<>( type ).create( N );
+		int i = 0;
+		for ( final S t : img )
+		{
+			if ( type instanceof IntegerType )
+			{
+				// mix of small values and values from the full range
+				final long l = ( i++ % 2 == 0 ) ? random.nextInt( 600 ) - 300 : random.nextLong();
+				( ( IntegerType< ? > ) t ).setInteger( l );
+			}
+			else
+				t.setReal( ( random.nextDouble() - 0.5 ) * ( i++ % 2 == 0 ? 600 : 1e12 ) );
+		}
+		return img;
+	}
+
+	@Test( expected = IllegalArgumentException.class )
+	public void testUnsupportedType()
+	{
+		ConvertOperator.convert( new net.imglib2.type.numeric.integer.UnsignedLongType(), new FloatType(), 2, ClampType.NONE );
+	}
+
+	@Test
+	public void testConverterViewUsesLoop()
+	{
+		final short[] data = { 0, 1, -1, 1000 };
+		final ArrayImg< UnsignedShortType, ? > img = ArrayImgs.unsignedShorts( data, 4 );
+		final PrimitiveBlocks< FloatType > blocks = PrimitiveBlocks.of( Converters.convert( img, new RealFloatConverter<>(), new FloatType() ) );
+		final float[] dest = new float[ 4 ];
+		blocks.copy( new long[] { 0 }, dest, new int[] { 4 } );
+		assertTrue( Arrays.equals( new float[] { 0, 1, 65535, 1000 }, dest ) );
+		assertTrue( Convert.create( new UnsignedShortType(), new FloatType(), RealFloatConverter::new ) instanceof ConvertImpl.ConvertLoop );
+	}
+}
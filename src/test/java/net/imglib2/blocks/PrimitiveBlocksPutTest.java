@@ -0,0 +1,155 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.blocks;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import java.util.function.Function;
+
+import net.imglib2.FinalInterval;
+import net.imglib2.Interval;
+import net.imglib2.RandomAccessible;
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.converter.Converters;
+import net.imglib2.img.Img;
+import net.imglib2.img.ImgFactory;
+import net.imglib2.img.array.ArrayImgFactory;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.img.cell.CellImgFactory;
+import net.imglib2.img.planar.PlanarImgFactory;
+import net.imglib2.loops.LoopBuilder;
+import net.imglib2.type.numeric.integer.UnsignedShortType;
+import net.imglib2.util.Intervals;
+import net.imglib2.util.Util;
+import net.imglib2.view.Views;
+import org.junit.Test;
+
+public class PrimitiveBlocksPutTest
+{
+	private static final long[] imgSize = { 20, 15, 10 };
+
+	private static final long[] blockPos = { 3, -2, 4 };
+
+	private static final int[] blockSize = { 8, 7, 9 };
+
+	@Test
+	public void testArrayImg()
+	{
+		final ImgFactory< UnsignedShortType > factory = new ArrayImgFactory<>( new UnsignedShortType() );
+		testPut( factory, Function.identity() );
+		testPut( factory, PrimitiveBlocksPutTest::permuted );
+		testPut( factory, PrimitiveBlocksPutTest::extended );
+	}
+
+	@Test
+	public void testPlanarImg()
+	{
+		final ImgFactory< UnsignedShortType > factory = new PlanarImgFactory<>( new UnsignedShortType() );
+		testPut( factory, Function.identity() );
+		testPut( factory, PrimitiveBlocksPutTest::permuted );
+		testPut( factory, PrimitiveBlocksPutTest::extended );
+	}
+
+	@Test
+	public void testCellImg()
+	{
+		final ImgFactory< UnsignedShortType > factory = new CellImgFactory<>( new UnsignedShortType(), 4, 3, 5 );
+		testPut( factory, Function.identity() );
+		testPut( factory, PrimitiveBlocksPutTest::permuted );
+		testPut( factory, PrimitiveBlocksPutTest::extended );
+	}
+
+	@Test
+	public void testThreadSafe()
+	{
+		final ImgFactory< UnsignedShortType > factory = new CellImgFactory<>( new UnsignedShortType(), 4, 3, 5 );
+		testPut( factory, PrimitiveBlocksPutTest::permuted, true );
+	}
+
+	@Test( expected = UnsupportedOperationException.class )
+	public void testConverterNotSupported()
+	{
+		final RandomAccessible< UnsignedShortType > img = ArrayImgs.unsignedShorts( imgSize );
+		final RandomAccessible< UnsignedShortType > view = Converters.convert( img, ( a, b ) -> b.set( a ), new UnsignedShortType() );
+		PrimitiveBlocks.of( view ).put( blockPos, new short[ ( int ) Intervals.numElements( blockSize ) ], blockSize );
+	}
+
+	private static RandomAccessibleInterval< UnsignedShortType > permuted( final RandomAccessibleInterval< UnsignedShortType > img )
+	{
+		return Views.translate( Views.invertAxis( Views.permute( img, 0, 2 ), 1 ), 2, 1, -3 );
+	}
+
+	// the extended view has the same interval as the un-extended one
+	private static RandomAccessibleInterval< UnsignedShortType > extended( final RandomAccessibleInterval< UnsignedShortType > img )
+	{
+		final RandomAccessibleInterval< UnsignedShortType > rotated = Views.rotate( img, 1, 0 );
+		return Views.interval( Views.extendBorder( rotated ), rotated );
+	}
+
+	private static void testPut(
+			final ImgFactory< UnsignedShortType > factory,
+			final Function< RandomAccessibleInterval< UnsignedShortType >, RandomAccessibleInterval< UnsignedShortType > > view )
+	{
+		testPut( factory, view, false );
+	}
+
+	private static void testPut(
+			final ImgFactory< UnsignedShortType > factory,
+			final Function< RandomAccessibleInterval< UnsignedShortType >, RandomAccessibleInterval< UnsignedShortType > > view,
+			final boolean threadSafe )
+	{
+		final Img< UnsignedShortType > img = factory.create( imgSize );
+		final Img< UnsignedShortType > expected = factory.create( imgSize );
+
+		final short[] data = new short[ ( int ) Intervals.numElements( blockSize ) ];
+		final Random random = new Random( 1 );
+		for ( int i = 0; i < data.length; i++ )
+			data[ i ] = ( short ) random.nextInt( 65536 );
+
+		// put block using PrimitiveBlocks
+		PrimitiveBlocks< UnsignedShortType > blocks = PrimitiveBlocks.of( view.apply( img ), PrimitiveBlocks.OnFallback.FAIL );
+		if ( threadSafe )
+			blocks = blocks.threadSafe();
+		blocks.put( blockPos, data, blockSize );
+
+		// write the in-bounds part of the block pixel-by-pixel
+		final RandomAccessibleInterval< UnsignedShortType > expectedView = view.apply( expected );
+		final Interval bounds = Intervals.intersect( FinalInterval.createMinSize( blockPos, Util.int2long( blockSize ) ), expectedView );
+		final RandomAccessibleInterval< UnsignedShortType > block = Views.translate( ArrayImgs.unsignedShorts( data, Util.int2long( blockSize ) ), blockPos );
+		LoopBuilder.setImages( Views.interval( block, bounds ), Views.interval( expectedView, bounds ) ).forEachPixel( ( a, b ) -> b.set( a ) );
+
+		LoopBuilder.setImages( expected, img ).forEachPixel( ( e, a ) -> assertEquals( e.get(), a.get() ) );
+	}
+}
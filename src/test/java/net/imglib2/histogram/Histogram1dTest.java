@@ -34,12 +34,19 @@
 
 package net.imglib2.histogram;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
+import net.imglib2.img.Img;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.parallel.TaskExecutor;
+import net.imglib2.parallel.TaskExecutors;
 import net.imglib2.type.numeric.integer.UnsignedByteType;
+import net.imglib2.type.numeric.integer.UnsignedShortType;
 
 import org.junit.Test;
 
@@ -104,6 +111,39 @@ public class Histogram1dTest
 		assertEquals( 0, hist.upperTailCount() );
 	}
 
+	@Test
+	public void testCountDataParallel()
+	{
+		final Img< UnsignedShortType > img = ArrayImgs.unsignedShorts( 64, 64, 33 );
+		final Random random = new Random( 1 );
+		img.forEach( t -> t.set( random.nextInt( 1 << 16 ) ) );
+
+		final List< BinMapper1d< UnsignedShortType > > mappers = new ArrayList<>();
+		mappers.add( new Integer1dBinMapper<>( 0, 1 << 16, false ) );
+		mappers.add( new Integer1dBinMapper<>( 1000, 20000, true ) );
+		mappers.add( new Integer1dBinMapper<>( 1000, 20000, false ) );
+		mappers.add( new Real1dBinMapper<>( 100, 50000, 97, true ) );
+		mappers.add( new Real1dBinMapper<>( 100, 50000, 97, false ) );
+
+		try ( final TaskExecutor taskExecutor = TaskExecutors.numThreads( 4 ) )
+		{
+			for ( final BinMapper1d< UnsignedShortType > mapper : mappers )
+			{
+				final Histogram1d< UnsignedShortType > expected = new Histogram1d<>( img, mapper );
+				final Histogram1d< UnsignedShortType > hist = new Histogram1d<>( mapper );
+				hist.countData( img, taskExecutor );
+				assertArrayEquals( expected.toLongArray(), hist.toLongArray() );
+				assertEquals( expected.distributionCount(), hist.distributionCount() );
+				assertEquals( expected.ignoredCount(), hist.ignoredCount() );
+				assertEquals( img.firstElement(), hist.firstDataValue() );
+
+				hist.addData( img, taskExecutor );
+				assertEquals( 2 * expected.totalCount(), hist.totalCount() );
+				assertEquals( 2 * expected.frequency( 1 ), hist.frequency( 1 ) );
+			}
+		}
+	}
+
 	private List< UnsignedByteType > getData1()
 	{
 		final List< UnsignedByteType > data = new ArrayList< UnsignedByteType >();
@@ -38,15 +38,24 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 
 import net.imglib2.Cursor;
+import net.imglib2.RandomAccess;
 import net.imglib2.img.Img;
 import net.imglib2.img.array.ArrayImgFactory;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.img.cell.CellImgFactory;
+import net.imglib2.parallel.TaskExecutor;
+import net.imglib2.parallel.TaskExecutors;
 import net.imglib2.type.numeric.ARGBType;
 import net.imglib2.type.numeric.integer.IntType;
+import net.imglib2.type.numeric.integer.LongType;
 import net.imglib2.type.numeric.integer.UnsignedByteType;
+import net.imglib2.type.numeric.integer.UnsignedShortType;
 
 import org.junit.Test;
 
@@ -292,6 +301,44 @@ public class HistogramNdTest
 		assertEquals( 20000, hist.distributionCount() );
 	}
 
+	@Test
+	public void testCountDataParallel()
+	{
+		final Random random = new Random( 1 );
+		final Img< UnsignedShortType > img1 = ArrayImgs.unsignedShorts( 64, 64, 33 );
+		img1.forEach( t -> t.set( random.nextInt( 1 << 16 ) ) );
+		final Img< UnsignedShortType > img2 = ArrayImgs.unsignedShorts( 64, 64, 33 );
+		img2.forEach( t -> t.set( random.nextInt( 1 << 12 ) ) );
+		// different iteration order than img1 and img2
+		final Img< UnsignedShortType > img3 = new CellImgFactory<>( new UnsignedShortType(), 16 ).create( 64, 64, 33 );
+		img3.forEach( t -> t.set( random.nextInt( 1 << 16 ) ) );
+
+		final List< BinMapper1d< UnsignedShortType > > mappers = new ArrayList<>();
+		mappers.add( new Integer1dBinMapper<>( 1000, 200, true ) );
+		mappers.add( new Real1dBinMapper<>( 100, 3000, 50, false ) );
+
+		try ( final TaskExecutor taskExecutor = TaskExecutors.numThreads( 4 ) )
+		{
+			for ( final Img< UnsignedShortType > other : Arrays.asList( img2, img3 ) )
+			{
+				final List< Iterable< UnsignedShortType > > data = Arrays.asList( img1, other );
+				final HistogramNd< UnsignedShortType > expected = new HistogramNd<>( data, mappers );
+				final HistogramNd< UnsignedShortType > hist = new HistogramNd<>( mappers );
+				hist.countData( Arrays.asList( img1, other ), taskExecutor );
+				assertEquals( expected.distributionCount(), hist.distributionCount() );
+				assertEquals( expected.ignoredCount(), hist.ignoredCount() );
+				final Cursor< LongType > e = expected.localizingCursor();
+				final RandomAccess< LongType > h = hist.randomAccess();
+				while ( e.hasNext() )
+				{
+					e.fwd();
+					h.setPosition( e );
+					assertEquals( e.get().get(), h.get().get() );
+				}
+			}
+		}
+	}
+
 	private List< UnsignedByteType > getData1()
 	{
 		final List< UnsignedByteType > data = new ArrayList< UnsignedByteType >();
@@ -37,6 +37,7 @@ package net.imglib2.histogram;
 import net.imglib2.img.Img;
 import net.imglib2.img.ImgFactory;
 import net.imglib2.img.array.ArrayImgFactory;
+import net.imglib2.parallel.Parallelization;
 import net.imglib2.type.NativeType;
 import net.imglib2.type.numeric.IntegerType;
 import net.imglib2.type.numeric.integer.UnsignedByteType;
@@ -59,11 +60,13 @@ public class HistogramPerformanceTest< T extends IntegerType< T > & NativeType<
 	public static void main( final String[] args )
 	{
 		System.out.println( "== UNSIGNED 8-BIT ==" );
-		new HistogramPerformanceTest< UnsignedByteType >().run(
-				new UnsignedByteType(), 256 );
-		System.out.println( "== UNSIGNED 16-BIT ==" );
-		new HistogramPerformanceTest< UnsignedShortType >().run(
-				new UnsignedShortType(), 65536 );
+		Parallelization.runMultiThreaded( () -> {
+			new HistogramPerformanceTest< UnsignedByteType >().run(
+					new UnsignedByteType(), 256 );
+			System.out.println( "== UNSIGNED 16-BIT ==" );
+			new HistogramPerformanceTest< UnsignedShortType >().run(
+					new UnsignedShortType(), 65536 );
+		} );
 	}
 
 	public void run( final T type, final int max )
@@ -99,6 +102,15 @@ public class HistogramPerformanceTest< T extends IntegerType< T > & NativeType<
 		final long histMillis = end - start;
 		System.out.println( histMillis + " ms" );
 
+		// build histogram with parallel counting
+		System.out.print( "Building histogram in parallel... " );
+		start = System.currentTimeMillis();
+		final Histogram1d< T > parallelHist = new Histogram1d< T >( binMapper );
+		parallelHist.countData( img, Parallelization.getTaskExecutor() );
+		end = System.currentTimeMillis();
+		final long parallelMillis = end - start;
+		System.out.println( parallelMillis + " ms" );
+
 		// check results
 		final T val = img.firstElement();
 		for ( int i = 0; i < max; i++ )
@@ -112,6 +124,12 @@ public class HistogramPerformanceTest< T extends IntegerType< T > & NativeType<
 				System.out.println( "Error: for bin #" + i + ": expected=" + expect +
 						", actual=" + actual );
 			}
+			final long parallelActual = parallelHist.frequency( binPos );
+			if ( parallelActual != expect )
+			{
+				System.out.println( "Error: for bin #" + i + " (parallel): expected=" + expect +
+						", actual=" + parallelActual );
+			}
 		}
 	}
 
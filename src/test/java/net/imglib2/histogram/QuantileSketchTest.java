@@ -0,0 +1,173 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.histogram;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.imglib2.img.Img;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.img.cell.CellImgFactory;
+import net.imglib2.parallel.Parallelization;
+import net.imglib2.type.numeric.real.FloatType;
+
+public class QuantileSketchTest
+{
+	private static final double EPSILON = 0.01;
+
+	@Test
+	public void testSmall()
+	{
+		final QuantileSketch sketch = new QuantileSketch();
+		assertTrue( Double.isNaN( sketch.quantile( 0.5 ) ) );
+		for ( int i = 1; i <= 100; ++i )
+			sketch.update( i );
+		sketch.update( Double.NaN );
+		// no compaction yet, so quantiles are exact
+		assertEquals( 100, sketch.getN() );
+		assertEquals( 1, sketch.quantile( 0 ), 0 );
+		assertEquals( 50, sketch.quantile( 0.5 ), 0 );
+		assertEquals( 100, sketch.quantile( 1 ), 0 );
+		assertEquals( 0.25, sketch.rank( 25 ), 0 );
+	}
+
+	@Test
+	public void testAccuracy()
+	{
+		final double[] values = gaussian( 1000000, new Random( 1 ) );
+		final QuantileSketch sketch = new QuantileSketch();
+		sketch.update( values, 0, values.length );
+		assertTrue( sketch.getNumRetained() < 4 * QuantileSketch.DEFAULT_K );
+		assertRankError( values, sketch );
+	}
+
+	@Test
+	public void testMerge()
+	{
+		final double[] values = gaussian( 1000000, new Random( 2 ) );
+		final QuantileSketch sketch = new QuantileSketch();
+		final int numParts = 10;
+		final int partSize = values.length / numParts;
+		for ( int p = 0; p < numParts; ++p )
+		{
+			final QuantileSketch part = new QuantileSketch( QuantileSketch.DEFAULT_K, p + 1 );
+			part.update( values, p * partSize, partSize );
+			sketch.merge( part );
+		}
+		assertEquals( values.length, sketch.getN() );
+		assertRankError( values, sketch );
+	}
+
+	@Test
+	public void testDeterministic()
+	{
+		final double[] values = gaussian( 100000, new Random( 5 ) );
+		final QuantileSketch a = new QuantileSketch();
+		final QuantileSketch b = new QuantileSketch();
+		a.update( values, 0, values.length );
+		b.update( values, 0, values.length );
+		final double[] qs = new double[ 99 ];
+		for ( int i = 0; i < qs.length; ++i )
+			qs[ i ] = ( i + 1 ) / 100.0;
+		assertArrayEquals( a.quantiles( qs ), b.quantiles( qs ), 0 );
+	}
+
+	@Test
+	public void testDistinctSeeds()
+	{
+		final double[] values = gaussian( 100000, new Random( 5 ) );
+		final QuantileSketch a = new QuantileSketch( QuantileSketch.DEFAULT_K, QuantileSketch.seed( 0 ) );
+		final QuantileSketch b = new QuantileSketch( QuantileSketch.DEFAULT_K, QuantileSketch.seed( 1 ) );
+		a.update( values, 0, values.length );
+		b.update( values, 0, values.length );
+		final double[] qs = new double[ 99 ];
+		for ( int i = 0; i < qs.length; ++i )
+			qs[ i ] = ( i + 1 ) / 100.0;
+		assertFalse( Arrays.equals( a.quantiles( qs ), b.quantiles( qs ) ) );
+	}
+
+	@Test
+	public void testBlockwise()
+	{
+		final Random random = new Random( 3 );
+		final Img< FloatType > cellImg = new CellImgFactory<>( new FloatType(), 32 ).create( 100, 100, 50 );
+		cellImg.forEach( t -> t.set( ( float ) random.nextGaussian() ) );
+		final double[] values = new double[ ( int ) cellImg.size() ];
+		final int[] i = { 0 };
+		cellImg.forEach( t -> values[ i[ 0 ]++ ] = t.get() );
+
+		final QuantileSketch sketch = Parallelization.runWithNumThreads( 4,
+				() -> BlockwiseSummaries.quantileSketch( cellImg, QuantileSketch.DEFAULT_K ) );
+		assertEquals( values.length, sketch.getN() );
+		assertRankError( values, sketch );
+
+		// the same in every run, independent of scheduling
+		final QuantileSketch again = Parallelization.runWithNumThreads( 4,
+				() -> BlockwiseSummaries.quantileSketch( cellImg, QuantileSketch.DEFAULT_K ) );
+		assertArrayEquals( sketch.quantiles( 0.01, 0.25, 0.5, 0.75, 0.99 ), again.quantiles( 0.01, 0.25, 0.5, 0.75, 0.99 ), 0 );
+
+		final Img< FloatType > arrayImg = ArrayImgs.floats( values.length );
+		assertEquals( values.length, BlockwiseSummaries.quantileSketch( arrayImg, 10 ).getN() );
+	}
+
+	private static double[] gaussian( final int n, final Random random )
+	{
+		final double[] values = new double[ n ];
+		for ( int i = 0; i < n; ++i )
+			values[ i ] = random.nextGaussian();
+		return values;
+	}
+
+	private static void assertRankError( final double[] values, final QuantileSketch sketch )
+	{
+		final double[] sorted = values.clone();
+		Arrays.sort( sorted );
+		for ( int j = 1; j < 100; ++j )
+		{
+			final double q = j / 100.0;
+			final double x = sketch.quantile( q );
+			final int rank = Arrays.binarySearch( sorted, x ) + 1;
+			assertEquals( q, ( double ) rank / values.length, EPSILON );
+		}
+		assertEquals( sorted[ 0 ], sketch.minValue(), 0 );
+		assertEquals( sorted[ sorted.length - 1 ], sketch.maxValue(), 0 );
+	}
+}
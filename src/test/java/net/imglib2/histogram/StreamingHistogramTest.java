@@ -0,0 +1,111 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.histogram;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.imglib2.img.Img;
+import net.imglib2.img.cell.CellImgFactory;
+import net.imglib2.parallel.Parallelization;
+import net.imglib2.type.numeric.integer.UnsignedShortType;
+
+public class StreamingHistogramTest
+{
+	@Test
+	public void testCounts()
+	{
+		final StreamingHistogram hist = new StreamingHistogram( 0, 10, 5 );
+		hist.add( new double[] { -1, 0, 1.9, 2, 5, 9.99, 10, 11, Double.NaN }, 0, 9 );
+		assertArrayEquals( new long[] { 2, 1, 1, 0, 2 }, hist.toLongArray() );
+		assertEquals( 1, hist.lowerTailCount() );
+		assertEquals( 1, hist.upperTailCount() );
+		assertEquals( 8, hist.count() );
+		assertEquals( -1, hist.minValue(), 0 );
+		assertEquals( 11, hist.maxValue(), 0 );
+		assertEquals( 4, hist.getLowerBound( 2 ), 0 );
+		assertEquals( 6, hist.getUpperBound( 2 ), 0 );
+	}
+
+	@Test
+	public void testMergeAndQuantiles()
+	{
+		final Random random = new Random( 1 );
+		final double[] values = new double[ 100000 ];
+		for ( int i = 0; i < values.length; ++i )
+			values[ i ] = random.nextDouble() * 1000;
+
+		final StreamingHistogram hist = new StreamingHistogram( 0, 1000, 1000 );
+		final StreamingHistogram other = new StreamingHistogram( 0, 1000, 1000 );
+		hist.add( values, 0, 50000 );
+		other.add( values, 50000, 50000 );
+		hist.merge( other );
+		assertEquals( values.length, hist.count() );
+
+		final double[] sorted = values.clone();
+		Arrays.sort( sorted );
+		for ( final double q : new double[] { 0, 0.01, 0.25, 0.5, 0.99, 1 } )
+		{
+			final double expected = sorted[ Math.min( ( int ) ( q * values.length ), values.length - 1 ) ];
+			// within one bin width
+			assertEquals( expected, hist.quantile( q ), 1 );
+		}
+	}
+
+	@Test( expected = IllegalArgumentException.class )
+	public void testMergeDifferentBins()
+	{
+		new StreamingHistogram( 0, 10, 5 ).merge( new StreamingHistogram( 0, 10, 6 ) );
+	}
+
+	@Test
+	public void testBlockwise()
+	{
+		final Img< UnsignedShortType > img = new CellImgFactory<>( new UnsignedShortType(), 16 ).create( 50, 40, 30 );
+		final Random random = new Random( 2 );
+		img.forEach( t -> t.set( random.nextInt( 4096 ) ) );
+		final long[] expected = new long[ 4096 ];
+		img.forEach( t -> expected[ t.get() ]++ );
+
+		final StreamingHistogram hist = Parallelization.runWithNumThreads( 4,
+				() -> BlockwiseSummaries.histogram( img, 0, 4096, 4096 ) );
+		assertArrayEquals( expected, hist.toLongArray() );
+		assertEquals( 0, hist.lowerTailCount() + hist.upperTailCount() );
+	}
+}
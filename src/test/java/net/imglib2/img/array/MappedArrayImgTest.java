@@ -0,0 +1,100 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.img.array;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.imglib2.Dirty;
+import net.imglib2.RandomAccess;
+import net.imglib2.type.numeric.real.FloatType;
+
+public class MappedArrayImgTest
+{
+	private Path file;
+
+	@Before
+	public void createFile() throws IOException
+	{
+		file = File.createTempFile( "MappedArrayImgTest", ".raw" ).toPath();
+	}
+
+	@After
+	public void deleteFile() throws IOException
+	{
+		Files.deleteIfExists( file );
+	}
+
+	@Test
+	public void testWriteFlushReopen() throws IOException
+	{
+		final MappedArrayImg< FloatType, ? > img = MappedArrayImg.map( file, 0, new FloatType(), MapMode.READ_WRITE, ByteOrder.BIG_ENDIAN, 5, 4 );
+		final Dirty access = ( Dirty ) img.update( null );
+		assertFalse( access.isDirty() );
+
+		final RandomAccess< FloatType > ra = img.randomAccess();
+		ra.setPosition( new long[] { 3, 2 } );
+		ra.get().set( 1.5f );
+		assertTrue( access.isDirty() );
+
+		img.flush();
+		assertFalse( access.isDirty() );
+		final ByteBuffer bb = ByteBuffer.wrap( Files.readAllBytes( file ) );
+		assertEquals( 5 * 4 * 4, bb.capacity() );
+		assertEquals( 1.5f, bb.getFloat( 4 * ( 3 + 5 * 2 ) ), 0 );
+
+		final MappedArrayImg< FloatType, ? > reopened = MappedArrayImg.map( file, 0, new FloatType(), MapMode.PRIVATE, ByteOrder.BIG_ENDIAN, 5, 4 );
+		final RandomAccess< FloatType > rb = reopened.randomAccess();
+		rb.setPosition( new long[] { 3, 2 } );
+		assertEquals( 1.5f, rb.get().get(), 0 );
+
+		// PRIVATE mappings are not written back
+		rb.get().set( 2 );
+		reopened.flush();
+		assertEquals( 1.5f, ByteBuffer.wrap( Files.readAllBytes( file ) ).getFloat( 4 * ( 3 + 5 * 2 ) ), 0 );
+	}
+}
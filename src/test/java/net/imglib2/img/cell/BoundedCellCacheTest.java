@@ -0,0 +1,257 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.img.cell;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import net.imglib2.Cursor;
+import net.imglib2.img.basictypeaccess.array.DirtyShortArray;
+import net.imglib2.img.cell.BoundedCellCache.Fallback;
+import net.imglib2.type.numeric.integer.UnsignedShortType;
+
+public class BoundedCellCacheTest
+{
+	private final CellGrid grid = new CellGrid( new long[] { 40, 30 }, new int[] { 10, 10 } );
+
+	private final AtomicInteger numLoads = new AtomicInteger();
+
+	// cell with all pixels set to the cell index, 200 bytes
+	private Cell< DirtyShortArray > load( final long index )
+	{
+		numLoads.incrementAndGet();
+		final long[] cellMin = new long[ 2 ];
+		final int[] cellDims = new int[ 2 ];
+		grid.getCellDimensions( index, cellMin, cellDims );
+		final DirtyShortArray data = new DirtyShortArray( cellDims[ 0 ] * cellDims[ 1 ] );
+		for ( int i = 0; i < data.getArrayLength(); ++i )
+			data.getCurrentStorageArray()[ i ] = ( short ) index;
+		return new Cell<>( cellDims, cellMin, data );
+	}
+
+	private BoundedCellCache< DirtyShortArray > cache( final long maxBytes, final Fallback fallback, final BoundedCellCache.WriteBack< DirtyShortArray > writeBack )
+	{
+		return new BoundedCellCache<>( this::load, writeBack, BoundedCellCache.weigher( new UnsignedShortType() ), maxBytes, fallback );
+	}
+
+	@Test
+	public void testBounded()
+	{
+		final BoundedCellCache< DirtyShortArray > cache = cache( 600, Fallback.NONE, null );
+		for ( long i = 0; i < 12; ++i )
+			assertEquals( i, cache.get( i ).getData().getValue( 0 ) );
+		assertEquals( 12, numLoads.get() );
+		assertEquals( 600, cache.getCurrentBytes() );
+
+		// most recently loaded cells are cached
+		final Cell< DirtyShortArray > cell = cache.get( 11 );
+		assertSame( cell, cache.get( 11 ) );
+		assertEquals( 12, numLoads.get() );
+
+		// evicted cells are re-loaded
+		cache.get( 0 );
+		assertEquals( 13, numLoads.get() );
+		assertEquals( 600, cache.getCurrentBytes() );
+	}
+
+	@Test
+	public void testSecondChance()
+	{
+		final BoundedCellCache< DirtyShortArray > cache = cache( 600, Fallback.NONE, null );
+		cache.get( 0 );
+		cache.get( 1 );
+		cache.get( 2 );
+		cache.get( 0 ); // referenced: survives the next eviction
+		cache.get( 3 );
+		numLoads.set( 0 );
+		cache.get( 0 );
+		assertEquals( 0, numLoads.get() );
+		cache.get( 1 );
+		assertEquals( 1, numLoads.get() );
+	}
+
+	@Test
+	public void testSoftFallback()
+	{
+		final BoundedCellCache< DirtyShortArray > cache = cache( 200, Fallback.SOFT, null );
+		final Cell< DirtyShortArray > cell = cache.get( 0 );
+		cache.get( 1 );
+		assertEquals( 200, cache.getCurrentBytes() );
+		// still strongly reachable from here, so the soft reference is not
+		// cleared
+		assertSame( cell, cache.get( 0 ) );
+		assertEquals( 2, numLoads.get() );
+	}
+
+	@Test
+	public void testWriteBack()
+	{
+		final List< Long > written = new ArrayList<>();
+		final BoundedCellCache< DirtyShortArray > cache = cache( 400, Fallback.NONE, ( index, cell ) -> written.add( index ) );
+		cache.get( 0 ).getData().setValue( 0, ( short ) 42 );
+		cache.get( 1 );
+		assertTrue( written.isEmpty() );
+		cache.get( 2 ); // evicts 0
+		assertEquals( 1, written.size() );
+		assertEquals( 0, ( long ) written.get( 0 ) );
+
+		final Cell< DirtyShortArray > cell = cache.get( 2 );
+		cell.getData().setValue( 0, ( short ) 42 );
+		cache.flush();
+		assertEquals( 2, written.size() );
+		assertEquals( 2, ( long ) written.get( 1 ) );
+		assertFalse( cell.getData().isDirty() );
+		cache.flush();
+		assertEquals( 2, written.size() );
+	}
+
+	@Test
+	public void testNoStaleLoadDuringWriteBack() throws Exception
+	{
+		final CountDownLatch writing = new CountDownLatch( 1 );
+		final CountDownLatch release = new CountDownLatch( 1 );
+		final BoundedCellCache< DirtyShortArray > cache = cache( 200, Fallback.NONE, ( index, cell ) -> {
+			writing.countDown();
+			try
+			{
+				release.await();
+			}
+			catch ( final InterruptedException e )
+			{
+				throw new RuntimeException( e );
+			}
+		} );
+		final DirtyShortArray data = cache.get( 0 ).getData();
+		data.setValue( 0, ( short ) 42 );
+
+		// evict cell 0, write-back blocks
+		final ExecutorService es = Executors.newSingleThreadExecutor();
+		final Future< ? > evicting = es.submit( () -> cache.get( 1 ) );
+		writing.await();
+
+		// request cell 0 while it is written back
+		final Cell< DirtyShortArray > cell = cache.get( 0 );
+		assertSame( data, cell.getData() );
+		assertEquals( 42, cell.getData().getValue( 0 ) );
+		assertEquals( 2, numLoads.get() );
+
+		release.countDown();
+		evicting.get();
+		es.shutdown();
+	}
+
+	@Test
+	public void testEvictedDataNotPinned()
+	{
+		final List< Long > written = new ArrayList<>();
+		final BoundedCellCache< DirtyShortArray > cache = cache( 200, Fallback.WEAK, ( index, cell ) -> written.add( index ) );
+		final WeakReference< DirtyShortArray > dirty = new WeakReference<>( cache.get( 0 ).getData() );
+		dirty.get().setValue( 0, ( short ) 42 );
+		final WeakReference< DirtyShortArray > clean = new WeakReference<>( cache.get( 1 ).getData() );
+		cache.get( 2 ); // evicts and writes back 0
+		cache.get( 3 ); // evicts 1
+		assertEquals( 1, written.size() );
+
+		// evicted data is only weakly held, whether it was written back or not
+		for ( int i = 0; i < 10 && ( dirty.get() != null || clean.get() != null ); ++i )
+			System.gc();
+		assertNull( dirty.get() );
+		assertNull( clean.get() );
+	}
+
+	@Test
+	public void testLoadDeduplication() throws Exception
+	{
+		final CountDownLatch started = new CountDownLatch( 1 );
+		final CountDownLatch release = new CountDownLatch( 1 );
+		final ConcurrentHashMap< Long, Integer > loads = new ConcurrentHashMap<>();
+		final BoundedCellCache< DirtyShortArray > cache = new BoundedCellCache<>( index -> {
+			loads.merge( index, 1, Integer::sum );
+			started.countDown();
+			try
+			{
+				release.await();
+			}
+			catch ( final InterruptedException e )
+			{
+				throw new RuntimeException( e );
+			}
+			return load( index );
+		}, null, new UnsignedShortType(), 1000 );
+
+		final int numThreads = 8;
+		final ExecutorService es = Executors.newFixedThreadPool( numThreads );
+		final List< Future< Cell< DirtyShortArray > > > futures = new ArrayList<>();
+		for ( int i = 0; i < numThreads; ++i )
+			futures.add( es.submit( () -> cache.get( 3 ) ) );
+		started.await();
+		Thread.sleep( 50 );
+		release.countDown();
+		final Cell< DirtyShortArray > cell = futures.get( 0 ).get();
+		for ( final Future< Cell< DirtyShortArray > > future : futures )
+			assertSame( cell, future.get() );
+		es.shutdown();
+		assertEquals( 1, ( int ) loads.get( 3L ) );
+	}
+
+	@Test
+	public void testCachingLazyCellImg()
+	{
+		final CachingLazyCellImg< UnsignedShortType, DirtyShortArray > img = new CachingLazyCellImg<>( grid, new UnsignedShortType(), this::load, 400 );
+		final Cursor< UnsignedShortType > c = img.localizingCursor();
+		while ( c.hasNext() )
+		{
+			c.fwd();
+			final long expected = c.getLongPosition( 0 ) / 10 + 4 * ( c.getLongPosition( 1 ) / 10 );
+			assertEquals( expected, c.get().get() );
+		}
+		assertEquals( 12, numLoads.get() );
+		assertTrue( img.getCache().getCurrentBytes() <= 400 );
+	}
+}
@@ -0,0 +1,122 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.img.cell;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import net.imglib2.FinalInterval;
+import net.imglib2.RandomAccess;
+import net.imglib2.blocks.PrimitiveBlocks;
+import net.imglib2.img.basictypeaccess.array.ShortArray;
+import net.imglib2.type.numeric.integer.UnsignedShortType;
+import net.imglib2.view.Views;
+
+public class CachingLazyCellImgTest
+{
+	private final CellGrid grid = new CellGrid( new long[] { 40, 30 }, new int[] { 10, 10 } );
+
+	private final List< Long > loaded = Collections.synchronizedList( new ArrayList<>() );
+
+	// cell with all pixels set to the cell index
+	private Cell< ShortArray > load( final long index )
+	{
+		loaded.add( index );
+		final long[] cellMin = new long[ 2 ];
+		final int[] cellDims = new int[ 2 ];
+		grid.getCellDimensions( index, cellMin, cellDims );
+		final short[] data = new short[ cellDims[ 0 ] * cellDims[ 1 ] ];
+		Arrays.fill( data, ( short ) index );
+		return new Cell<>( cellDims, cellMin, new ShortArray( data ) );
+	}
+
+	private CachingLazyCellImg< UnsignedShortType, ShortArray > createImg()
+	{
+		return new CachingLazyCellImg<>( grid, new UnsignedShortType(), this::load, 1 << 20 );
+	}
+
+	@Test
+	public void testPrefetchInterval()
+	{
+		final CachingLazyCellImg< UnsignedShortType, ShortArray > img = createImg();
+		img.prefetch( new FinalInterval( new long[] { 15, 5 }, new long[] { 25, 15 } ) );
+		assertTrue( loaded.isEmpty() );
+
+		img.setPrefetching( Runnable::run, 0 );
+		img.prefetch( new FinalInterval( new long[] { 15, 5 }, new long[] { 25, 15 } ) );
+		assertEquals( Arrays.asList( 1L, 2L, 5L, 6L ), loaded );
+
+		// cached cells are not loaded again, out-of-bounds cells are ignored
+		img.prefetch( new FinalInterval( new long[] { 25, 25 }, new long[] { 45, 35 } ) );
+		assertEquals( Arrays.asList( 1L, 2L, 5L, 6L, 10L, 11L ), loaded );
+	}
+
+	@Test
+	public void testLookAhead()
+	{
+		final CachingLazyCellImg< UnsignedShortType, ShortArray > img = createImg();
+		img.setPrefetching( Runnable::run, 2 );
+		int i = 0;
+		for ( final UnsignedShortType t : Views.flatIterable( Views.interval( img, new FinalInterval( 20, 10 ) ) ) )
+			i += t.get();
+		assertEquals( 10 * 10, i );
+		assertEquals( Arrays.asList( 0L, 2L, 3L, 1L ), loaded );
+
+		// random access does not trigger look-ahead
+		loaded.clear();
+		final RandomAccess< ? > cells = img.getCells().randomAccess();
+		cells.setPositionAndGet( 3, 2 );
+		cells.setPositionAndGet( 1, 1 );
+		assertEquals( Arrays.asList( 11L, 5L ), loaded );
+	}
+
+	@Test
+	public void testPrimitiveBlocksPrefetch()
+	{
+		final CachingLazyCellImg< UnsignedShortType, ShortArray > img = createImg();
+		img.setPrefetching( Runnable::run, 0 );
+		final short[] dest = new short[ 20 * 20 ];
+		PrimitiveBlocks.of( img ).copy( new long[] { 5, 5 }, dest, new int[] { 20, 20 } );
+		assertEquals( Arrays.asList( 0L, 1L, 2L, 4L, 5L, 6L, 8L, 9L, 10L ), loaded );
+		assertEquals( 0, dest[ 0 ] );
+		assertEquals( 10, dest[ 20 * 20 - 1 ] );
+	}
+}
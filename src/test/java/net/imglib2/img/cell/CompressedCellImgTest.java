@@ -0,0 +1,237 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.img.cell;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.imglib2.Cursor;
+import net.imglib2.RandomAccess;
+import net.imglib2.blocks.PrimitiveBlocks;
+import net.imglib2.img.Img;
+import net.imglib2.type.PrimitiveType;
+import net.imglib2.type.logic.BitType;
+import net.imglib2.type.numeric.integer.LongType;
+import net.imglib2.type.numeric.integer.UnsignedShortType;
+import net.imglib2.type.numeric.real.FloatType;
+
+public class CompressedCellImgTest
+{
+	private static final CellCodec[] CODECS = { CellCodecs.RAW, CellCodecs.RLE, CellCodecs.DELTA, CellCodecs.DEFAULT };
+
+	@Test
+	public void testCodecRoundTrip()
+	{
+		final Random random = new Random( 1 );
+		final int n = 3000;
+		final long[] values = new long[ n ];
+		for ( int i = 0; i < n; ++i )
+			values[ i ] = ( i / 100 ) % 3 == 0 ? random.nextLong() : ( i / 500 );
+
+		final Object[] arrays = {
+				new boolean[ n ], new byte[ n ], new char[ n ], new short[ n ],
+				new int[ n ], new long[ n ], new float[ n ], new double[ n ] };
+		final PrimitiveType[] types = {
+				PrimitiveType.BOOLEAN, PrimitiveType.BYTE, PrimitiveType.CHAR, PrimitiveType.SHORT,
+				PrimitiveType.INT, PrimitiveType.LONG, PrimitiveType.FLOAT, PrimitiveType.DOUBLE };
+		for ( int i = 0; i < n; ++i )
+		{
+			final long v = values[ i ];
+			( ( boolean[] ) arrays[ 0 ] )[ i ] = ( v & 1 ) != 0;
+			( ( byte[] ) arrays[ 1 ] )[ i ] = ( byte ) v;
+			( ( char[] ) arrays[ 2 ] )[ i ] = ( char ) v;
+			( ( short[] ) arrays[ 3 ] )[ i ] = ( short ) v;
+			( ( int[] ) arrays[ 4 ] )[ i ] = ( int ) v;
+			( ( long[] ) arrays[ 5 ] )[ i ] = v;
+			( ( float[] ) arrays[ 6 ] )[ i ] = i % 7 == 0 ? Float.NaN : ( float ) v;
+			( ( double[] ) arrays[ 7 ] )[ i ] = i % 7 == 0 ? -0.0 : ( double ) v;
+		}
+
+		for ( final CellCodec codec : CODECS )
+		{
+			for ( int t = 0; t < types.length; ++t )
+			{
+				final Object decoded = Array.newInstance( arrays[ t ].getClass().getComponentType(), n );
+				final byte[] encoded = codec.encode( types[ t ], arrays[ t ], n );
+				codec.decode( types[ t ], encoded, 0, decoded, n );
+				assertTrue( codec + " " + types[ t ], deepEquals( arrays[ t ], decoded ) );
+			}
+		}
+	}
+
+	private static boolean deepEquals( final Object a, final Object b )
+	{
+		return Arrays.deepEquals( new Object[] { a }, new Object[] { b } );
+	}
+
+	@Test
+	public void testCodecCompression()
+	{
+		final short[] labels = new short[ 64 * 64 ];
+		for ( int i = 0; i < labels.length; ++i )
+			labels[ i ] = ( short ) ( i / 1000 );
+		final int raw = CellCodecs.RAW.encode( PrimitiveType.SHORT, labels, labels.length ).length;
+		final int rle = CellCodecs.RLE.encode( PrimitiveType.SHORT, labels, labels.length ).length;
+		final int adaptive = CellCodecs.DEFAULT.encode( PrimitiveType.SHORT, labels, labels.length ).length;
+		assertEquals( 2 * labels.length, raw );
+		assertTrue( rle < 20 );
+		assertEquals( rle + 1, adaptive );
+	}
+
+	@Test
+	public void testWriteAndRead()
+	{
+		// working set of 2 cells of 16x16 shorts
+		final CompressedCellImgFactory< UnsignedShortType > factory = new CompressedCellImgFactory<>( new UnsignedShortType(), CellCodecs.DEFAULT, 2 * 512, 16, 16 );
+		final CompressedCellImg< UnsignedShortType, ? > img = factory.create( 100, 70 );
+
+		final Cursor< UnsignedShortType > c = img.localizingCursor();
+		while ( c.hasNext() )
+		{
+			c.fwd();
+			c.get().set( label( c.getLongPosition( 0 ), c.getLongPosition( 1 ) ) );
+		}
+		img.flush();
+
+		final int numCells = ( int ) img.getCellGrid().getGridDimensions()[ 0 ] * ( int ) img.getCellGrid().getGridDimensions()[ 1 ];
+		assertTrue( img.getCache().getCurrentBytes() <= 2 * 512 );
+		assertEquals( numCells, img.getNumCompressedCells() );
+		assertTrue( img.getCompressedBytes() < 100 * 70 * 2 / 5 );
+
+		img.compressAll();
+		final RandomAccess< UnsignedShortType > ra = img.randomAccess();
+		for ( int y = 69; y >= 0; --y )
+			for ( int x = 99; x >= 0; --x )
+				assertEquals( label( x, y ), ra.setPositionAndGet( x, y ).get() );
+	}
+
+	@Test
+	public void testWriteAfterEvictionSurvivesCellGC()
+	{
+		// working set of 1 cell of 16x16 shorts
+		final CompressedCellImg< UnsignedShortType, ? > img = new CompressedCellImgFactory<>( new UnsignedShortType(), CellCodecs.DEFAULT, 512, 16, 16 ).create( 64, 16 );
+		final RandomAccess< UnsignedShortType > held = img.randomAccess();
+		held.setPositionAndGet( 3, 3 ).set( 1 );
+
+		// evict the cell of the held RandomAccess
+		final RandomAccess< UnsignedShortType > other = img.randomAccess();
+		for ( int x = 16; x < 64; x += 16 )
+			other.setPositionAndGet( x, 0 ).set( 7 );
+
+		// write to the evicted cell, then let the garbage collector clear the
+		// Cell (its data is still referenced by held)
+		held.get().set( 42 );
+		for ( int i = 0; i < 10; ++i )
+		{
+			System.gc();
+			other.setPositionAndGet( 16 * ( 1 + i % 3 ), 0 ).get();
+		}
+
+		img.compressAll();
+		assertEquals( 42, img.randomAccess().setPositionAndGet( 3, 3 ).get() );
+		assertEquals( 7, img.randomAccess().setPositionAndGet( 48, 0 ).get() );
+		assertEquals( 42, held.get().get() );
+	}
+
+	private static int label( final long x, final long y )
+	{
+		return ( int ) ( x / 30 + 10 * ( y / 20 ) );
+	}
+
+	@Test
+	public void testUnwrittenCellsAreZero()
+	{
+		final CompressedCellImg< FloatType, ? > img = new CompressedCellImgFactory<>( new FloatType(), 8, 8, 8 ).create( 20, 20, 20 );
+		for ( final FloatType t : img )
+			assertEquals( 0, t.get(), 0 );
+		assertEquals( 0, img.getNumCompressedCells() );
+	}
+
+	@Test
+	public void testCopy()
+	{
+		final CompressedCellImg< LongType, ? > img = new CompressedCellImgFactory<>( new LongType(), 5 ).create( 12, 9 );
+		long i = 0;
+		for ( final LongType t : img )
+			t.set( i++ );
+		final Img< LongType > copy = img.copy();
+		for ( final LongType t : img )
+			t.set( -1 );
+		i = 0;
+		for ( final LongType t : copy )
+			assertEquals( i++, t.get() );
+		assertTrue( copy.factory() instanceof CompressedCellImgFactory );
+	}
+
+	@Test
+	public void testBitType()
+	{
+		final CompressedCellImg< BitType, ? > img = new CompressedCellImgFactory<>( new BitType(), CellCodecs.DEFAULT, 64, 32, 32 ).create( 100, 100 );
+		final Cursor< BitType > c = img.localizingCursor();
+		while ( c.hasNext() )
+		{
+			c.fwd();
+			c.get().set( c.getIntPosition( 0 ) > c.getIntPosition( 1 ) );
+		}
+		img.compressAll();
+		c.reset();
+		while ( c.hasNext() )
+		{
+			c.fwd();
+			assertEquals( c.getIntPosition( 0 ) > c.getIntPosition( 1 ), c.get().get() );
+		}
+	}
+
+	@Test
+	public void testPrimitiveBlocks()
+	{
+		final CompressedCellImg< UnsignedShortType, ? > img = new CompressedCellImgFactory<>( new UnsignedShortType(), CellCodecs.RLE, 512, 16, 16 ).create( 50, 50 );
+		final short[] block = new short[ 30 * 20 ];
+		for ( int i = 0; i < block.length; ++i )
+			block[ i ] = ( short ) i;
+		final PrimitiveBlocks< UnsignedShortType > blocks = PrimitiveBlocks.of( img );
+		blocks.put( new long[] { 7, 11 }, block, new int[] { 30, 20 } );
+		img.compressAll();
+		final short[] copied = new short[ block.length ];
+		blocks.copy( new long[] { 7, 11 }, copied, new int[] { 30, 20 } );
+		assertArrayEquals( block, copied );
+	}
+}
@@ -0,0 +1,94 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.img.cell;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import net.imglib2.blocks.PrimitiveBlocks;
+import net.imglib2.img.Img;
+import net.imglib2.img.basictypeaccess.nio.BufferAccess;
+import net.imglib2.type.numeric.integer.UnsignedShortType;
+import net.imglib2.type.numeric.real.DoubleType;
+import net.imglib2.view.Views;
+import org.junit.Test;
+
+public class DirectCellImgFactoryTest
+{
+	@Test
+	public void testCellsAreDirect()
+	{
+		final CellImg< DoubleType, ? > img = new DirectCellImgFactory<>( new DoubleType(), 7, 5 ).create( 20, 30 );
+		for ( final Cell< ? > cell : img.getCells() )
+		{
+			final Object data = cell.getData();
+			assertTrue( data instanceof BufferAccess );
+			assertTrue( ( ( BufferAccess< ? > ) data ).isDirect() );
+		}
+		assertTrue( img.factory() instanceof DirectCellImgFactory );
+		assertTrue( img.copy().getAccessType() instanceof BufferAccess );
+	}
+
+	@Test
+	public void testPrimitiveBlocks()
+	{
+		testPrimitiveBlocks( new DirectCellImgFactory<>( new UnsignedShortType(), 7, 5, 3 ).create( 20, 30, 10 ) );
+	}
+
+	private static void testPrimitiveBlocks( final Img< UnsignedShortType > img )
+	{
+		final Random random = new Random( 1 );
+		img.forEach( t -> t.set( random.nextInt( 65536 ) ) );
+
+		final long[] pos = { 2, 3, 4 };
+		final int[] size = { 10, 20, 5 };
+		final short[] block = new short[ 10 * 20 * 5 ];
+		final PrimitiveBlocks< UnsignedShortType > blocks = PrimitiveBlocks.of( img, PrimitiveBlocks.OnFallback.FAIL );
+		blocks.copy( pos, block, size );
+
+		int i = 0;
+		for ( final UnsignedShortType t : Views.flatIterable( Views.offsetInterval( img, pos, new long[] { 10, 20, 5 } ) ) )
+			assertEquals( t.get(), block[ i++ ] & 0xffff );
+
+		for ( int j = 0; j < block.length; ++j )
+			block[ j ] = ( short ) j;
+		blocks.put( pos, block, size );
+		final short[] copied = new short[ block.length ];
+		blocks.copy( pos, copied, size );
+		assertArrayEquals( block, copied );
+	}
+}
@@ -0,0 +1,134 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.img.cell;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.imglib2.Cursor;
+import net.imglib2.Dirty;
+import net.imglib2.type.numeric.integer.UnsignedShortType;
+
+public class MappedCellImgTest
+{
+	private Path file;
+
+	@Before
+	public void createFile() throws IOException
+	{
+		file = File.createTempFile( "MappedCellImgTest", ".raw" ).toPath();
+	}
+
+	@After
+	public void deleteFile() throws IOException
+	{
+		Files.deleteIfExists( file );
+	}
+
+	@Test
+	public void testSlabCellDimensions()
+	{
+		assertArrayEquals( new int[] { 10, 20, 3 }, MappedCellImg.slabCellDimensions( new long[] { 10, 20, 3 }, 2, 1200 ) );
+		assertArrayEquals( new int[] { 10, 20, 2, 1 }, MappedCellImg.slabCellDimensions( new long[] { 10, 20, 3, 4 }, 2, 1000 ) );
+		assertArrayEquals( new int[] { 10, 5, 1 }, MappedCellImg.slabCellDimensions( new long[] { 10, 20, 3 }, 2, 100 ) );
+	}
+
+	@Test( expected = IllegalArgumentException.class )
+	public void testSlabCellDimensionsPixelTooLarge()
+	{
+		MappedCellImg.slabCellDimensions( new long[] { 10, 20, 3 }, 8, 4 );
+	}
+
+	@Test
+	public void testWriteFlushReopen() throws IOException
+	{
+		final long[] dimensions = { 10, 20, 3 };
+		final MappedCellImg< UnsignedShortType, ? > img = MappedCellImg.map( file, 16, new UnsignedShortType(), MapMode.READ_WRITE, ByteOrder.LITTLE_ENDIAN, 700, dimensions );
+		assertFalse( img.isReadOnly() );
+		assertTrue( img.getCells().size() > 1 );
+
+		int i = 0;
+		for ( final UnsignedShortType t : img )
+			t.set( i++ );
+		for ( final Cell< ? > cell : img.getCells() )
+			assertTrue( ( ( Dirty ) cell.getData() ).isDirty() );
+
+		img.flush();
+		for ( final Cell< ? > cell : img.getCells() )
+			assertFalse( ( ( Dirty ) cell.getData() ).isDirty() );
+
+		final byte[] bytes = Files.readAllBytes( file );
+		assertEquals( 16 + 10 * 20 * 3 * 2, bytes.length );
+		final ByteBuffer bb = ByteBuffer.wrap( bytes ).order( ByteOrder.LITTLE_ENDIAN );
+		for ( int j = 0; j < 10 * 20 * 3; ++j )
+			assertEquals( j, bb.getShort( 16 + 2 * j ) );
+
+		final MappedCellImg< UnsignedShortType, ? > reopened = MappedCellImg.map( file, 16, new UnsignedShortType(), MapMode.READ_ONLY, ByteOrder.LITTLE_ENDIAN, dimensions );
+		assertTrue( reopened.isReadOnly() );
+		final Cursor< UnsignedShortType > c = reopened.localizingCursor();
+		while ( c.hasNext() )
+		{
+			c.fwd();
+			assertEquals( c.getLongPosition( 0 ) + 10 * ( c.getLongPosition( 1 ) + 20 * c.getLongPosition( 2 ) ), c.get().get() );
+		}
+
+		final CellImg< UnsignedShortType, ? > copy = reopened.copy();
+		copy.firstElement().set( 42 );
+		assertEquals( 42, copy.firstElement().get() );
+		assertEquals( 0, reopened.firstElement().get() );
+	}
+
+	@Test( expected = ReadOnlyBufferException.class )
+	public void testReadOnly() throws IOException
+	{
+		Files.write( file, new byte[ 10 * 10 * 2 ] );
+		final MappedCellImg< UnsignedShortType, ? > img = MappedCellImg.map( file, 0, new UnsignedShortType(), MapMode.READ_ONLY, ByteOrder.BIG_ENDIAN, 10, 10 );
+		img.firstElement().set( 1 );
+	}
+}
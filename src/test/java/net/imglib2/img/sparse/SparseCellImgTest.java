@@ -0,0 +1,253 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.img.sparse;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import net.imglib2.Cursor;
+import net.imglib2.RandomAccess;
+import net.imglib2.blocks.PrimitiveBlocks;
+import net.imglib2.img.Img;
+import net.imglib2.img.cell.Cell;
+import net.imglib2.type.logic.BitType;
+import net.imglib2.type.numeric.integer.UnsignedByteType;
+import net.imglib2.type.numeric.integer.UnsignedShortType;
+import net.imglib2.type.numeric.real.FloatType;
+
+public class SparseCellImgTest
+{
+	@Test
+	public void testBackground()
+	{
+		final SparseCellImg< FloatType, ? > img = new SparseCellImgFactory<>( new FloatType(), new FloatType( 1.5f ), 8, 8 ).create( 100, 50 );
+		for ( final FloatType t : img )
+			assertEquals( 1.5f, t.get(), 0 );
+		assertEquals( 0, img.getNumPopulatedCells() );
+		assertFalse( img.populatedCursor().hasNext() );
+	}
+
+	@Test
+	public void testRandomAccess()
+	{
+		final SparseCellImg< UnsignedShortType, ? > img = new SparseCellImgFactory<>( new UnsignedShortType(), 16, 16, 16 ).create( 1000, 1000, 1000 );
+		final RandomAccess< UnsignedShortType > ra = img.randomAccess();
+		final Random random = new Random( 1 );
+		final long[][] positions = new long[ 100 ][ 3 ];
+		for ( int i = 0; i < positions.length; ++i )
+		{
+			for ( int d = 0; d < 3; ++d )
+				positions[ i ][ d ] = random.nextInt( 1000 );
+			ra.setPositionAndGet( positions[ i ] ).set( i + 1 );
+		}
+		assertTrue( img.getNumPopulatedCells() <= positions.length );
+
+		final RandomAccess< UnsignedShortType > ra2 = img.randomAccess();
+		for ( int i = 0; i < positions.length; ++i )
+		{
+			// positions may collide, the last write wins
+			int expected = i + 1;
+			for ( int j = i + 1; j < positions.length; ++j )
+				if ( Arrays.equals( positions[ i ], positions[ j ] ) )
+					expected = j + 1;
+			assertEquals( expected, ra2.setPositionAndGet( positions[ i ] ).get() );
+		}
+		assertEquals( 0, ra2.setPositionAndGet( 999, 0, 500 ).get() );
+	}
+
+	@Test
+	public void testStaleAccessSeesWrites()
+	{
+		final SparseCellImg< UnsignedByteType, ? > img = new SparseCellImgFactory<>( new UnsignedByteType(), 10 ).create( 30, 30 );
+		final RandomAccess< UnsignedByteType > reader = img.randomAccess();
+		final RandomAccess< UnsignedByteType > writer = img.randomAccess();
+		assertEquals( 0, reader.setPositionAndGet( 5, 5 ).get() );
+		// materializing another cell does not affect the reader
+		writer.setPositionAndGet( 25, 25 ).set( 7 );
+		assertEquals( 0, reader.get().get() );
+		writer.setPositionAndGet( 5, 5 ).set( 42 );
+		assertEquals( 42, reader.get().get() );
+		writer.setPositionAndGet( 6, 5 ).set( 43 );
+		reader.fwd( 0 );
+		assertEquals( 43, reader.get().get() );
+	}
+
+	@Test
+	public void testPopulatedCursor()
+	{
+		final SparseCellImg< UnsignedByteType, ? > img = new SparseCellImgFactory<>( new UnsignedByteType(), 10, 10 ).create( 95, 95 );
+		final RandomAccess< UnsignedByteType > ra = img.randomAccess();
+		ra.setPositionAndGet( 3, 4 ).set( 1 );
+		ra.setPositionAndGet( 94, 94 ).set( 2 );
+		ra.setPositionAndGet( 50, 20 ).set( 3 );
+		assertEquals( 3, img.getNumPopulatedCells() );
+
+		final Cursor< UnsignedByteType > c = img.populatedCursor();
+		long count = 0;
+		long sum = 0;
+		final long[] pos = new long[ 2 ];
+		while ( c.hasNext() )
+		{
+			c.fwd();
+			c.localize( pos );
+			assertEquals( ra.setPositionAndGet( pos ).get(), c.get().get() );
+			sum += c.get().get();
+			++count;
+		}
+		// two full cells and one 5x5 border cell
+		assertEquals( 100 + 100 + 25, count );
+		assertEquals( 6, sum );
+
+		final Cursor< UnsignedByteType > c2 = img.populatedCursor();
+		c2.jumpFwd( 101 );
+		final Cursor< UnsignedByteType > c3 = img.populatedCursor();
+		for ( int i = 0; i < 101; ++i )
+			c3.fwd();
+		assertArrayEquals( c3.positionAsLongArray(), c2.positionAsLongArray() );
+		assertArrayEquals( c3.positionAsLongArray(), c3.copy().positionAsLongArray() );
+	}
+
+	@Test
+	public void testBitType()
+	{
+		final SparseCellImg< BitType, ? > img = new SparseCellImgFactory<>( new BitType(), new BitType( true ), 7, 9 ).create( 40, 40 );
+		final Cursor< BitType > c = img.localizingCursor();
+		while ( c.hasNext() )
+		{
+			c.fwd();
+			if ( c.getIntPosition( 0 ) == c.getIntPosition( 1 ) )
+				c.get().set( false );
+		}
+		c.reset();
+		while ( c.hasNext() )
+		{
+			c.fwd();
+			assertEquals( c.getIntPosition( 0 ) != c.getIntPosition( 1 ), c.get().get() );
+		}
+	}
+
+	@Test
+	public void testPrimitiveBlocks()
+	{
+		final SparseCellImg< UnsignedShortType, ? > img = new SparseCellImgFactory<>( new UnsignedShortType(), new UnsignedShortType( 7 ), 16, 16 ).create( 100, 100 );
+		final PrimitiveBlocks< UnsignedShortType > blocks = PrimitiveBlocks.of( img );
+
+		final short[] copied = new short[ 20 * 20 ];
+		blocks.copy( new long[] { 10, 10 }, copied, new int[] { 20, 20 } );
+		for ( final short v : copied )
+			assertEquals( 7, v );
+		assertEquals( 0, img.getNumPopulatedCells() );
+
+		final short[] block = new short[ 20 * 20 ];
+		for ( int i = 0; i < block.length; ++i )
+			block[ i ] = ( short ) i;
+		blocks.put( new long[] { 10, 10 }, block, new int[] { 20, 20 } );
+		assertEquals( 4, img.getNumPopulatedCells() );
+		blocks.copy( new long[] { 10, 10 }, copied, new int[] { 20, 20 } );
+		assertArrayEquals( block, copied );
+		assertEquals( 7, img.getAt( 9, 9 ).get() );
+	}
+
+	@Test
+	public void testRawArrayWrite()
+	{
+		final SparseCellImg< UnsignedShortType, ? > img = new SparseCellImgFactory<>( new UnsignedShortType(), new UnsignedShortType( 7 ), 16, 16 ).create( 100, 100 );
+		final RandomAccess< ? extends Cell< ? > > cells = img.getCells().randomAccess();
+
+		// reading the storage array does not populate the cell
+		final short[] background = ( short[] ) ( ( AbstractSparseArray< ? > ) cells.get().getData() ).getCurrentStorageArrayForReading();
+		assertEquals( 7, background[ 0 ] );
+		assertEquals( 0, img.getNumPopulatedCells() );
+
+		// writing to the storage array does not modify the background
+		final short[] data = ( short[] ) ( ( AbstractSparseArray< ? > ) cells.get().getData() ).getCurrentStorageArray();
+		data[ 0 ] = 42;
+		assertEquals( 1, img.getNumPopulatedCells() );
+		assertEquals( 42, img.getAt( 0, 0 ).get() );
+		assertEquals( 7, img.getAt( 16, 0 ).get() );
+		assertEquals( 7, background[ 0 ] );
+	}
+
+	@Test
+	public void testCopy()
+	{
+		final SparseCellImg< UnsignedByteType, ? > img = new SparseCellImgFactory<>( new UnsignedByteType(), 4 ).create( 20, 20 );
+		img.getAt( 3, 3 ).set( 9 );
+		final Img< UnsignedByteType > copy = img.copy();
+		img.getAt( 3, 3 ).set( 10 );
+		assertEquals( 9, copy.getAt( 3, 3 ).get() );
+		assertTrue( copy.factory() instanceof SparseCellImgFactory );
+	}
+
+	@Test
+	public void testConcurrentWrites() throws Exception
+	{
+		final SparseCellImg< UnsignedShortType, ? > img = new SparseCellImgFactory<>( new UnsignedShortType(), 4, 4 ).create( 64, 64 );
+		final ExecutorService es = Executors.newFixedThreadPool( 4 );
+		final List< Future< ? > > futures = new ArrayList<>();
+		for ( int t = 0; t < 4; ++t )
+		{
+			final int offset = t;
+			futures.add( es.submit( () -> {
+				final RandomAccess< UnsignedShortType > ra = img.randomAccess();
+				// every thread writes one column of every cell
+				for ( int y = 0; y < 64; ++y )
+					for ( int x = offset; x < 64; x += 4 )
+						ra.setPositionAndGet( x, y ).set( x + 64 * y );
+			} ) );
+		}
+		for ( final Future< ? > f : futures )
+			f.get();
+		es.shutdown();
+		final Cursor< UnsignedShortType > c = img.localizingCursor();
+		while ( c.hasNext() )
+		{
+			c.fwd();
+			assertEquals( c.getIntPosition( 0 ) + 64 * c.getIntPosition( 1 ), c.get().get() );
+		}
+		assertEquals( 256, img.getNumPopulatedCells() );
+	}
+}
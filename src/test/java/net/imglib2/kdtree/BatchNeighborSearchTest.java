@@ -0,0 +1,172 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.kdtree;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.imglib2.RealPoint;
+import net.imglib2.parallel.TaskExecutor;
+import net.imglib2.parallel.TaskExecutors;
+
+public class BatchNeighborSearchTest
+{
+	private final int n = 3;
+
+	private final int numPoints = 5000;
+
+	private final int numQueries = 3000;
+
+	private final KDTreeImpl tree;
+
+	private final double[] queries;
+
+	public BatchNeighborSearchTest()
+	{
+		final Random random = new Random( 1 );
+		final double[][] points = new double[ n ][ numPoints ];
+		for ( int d = 0; d < n; ++d )
+			for ( int i = 0; i < numPoints; ++i )
+				points[ d ][ i ] = random.nextDouble() * 100;
+		final int[] order = KDTreeUtils.makeTree( points );
+		tree = new KDTreeImpl( KDTreePositions.createFlat( KDTreeUtils.reorderToFlatLayout( points, order ), n ) );
+		queries = new double[ numQueries * n ];
+		for ( int i = 0; i < queries.length; ++i )
+			queries[ i ] = random.nextDouble() * 120 - 10;
+	}
+
+	@Test
+	public void testNearest()
+	{
+		final NearestNeighborSearchImpl search = new NearestNeighborSearchImpl( tree );
+		final int[] expectedIndices = new int[ numQueries ];
+		final double[] expectedDistances = new double[ numQueries ];
+		for ( int q = 0; q < numQueries; ++q )
+		{
+			search.search( query( q ) );
+			expectedIndices[ q ] = search.bestIndex();
+			expectedDistances[ q ] = search.bestSquDistance();
+		}
+
+		for ( final boolean sortQueries : new boolean[] { false, true } )
+		{
+			try ( final TaskExecutor taskExecutor = TaskExecutors.numThreads( 4 ) )
+			{
+				final int[] indices = new int[ numQueries ];
+				final double[] squDistances = new double[ numQueries ];
+				BatchNeighborSearch.nearest( tree, queries, indices, squDistances, sortQueries, taskExecutor );
+				assertArrayEquals( expectedIndices, indices );
+				assertArrayEquals( expectedDistances, squDistances, 0 );
+			}
+		}
+	}
+
+	@Test
+	public void testKNearest()
+	{
+		final int k = 7;
+		final KNearestNeighborSearchImpl search = new KNearestNeighborSearchImpl( tree, k );
+		final int[] expectedIndices = new int[ numQueries * k ];
+		final double[] expectedDistances = new double[ numQueries * k ];
+		for ( int q = 0; q < numQueries; ++q )
+		{
+			search.search( query( q ) );
+			for ( int j = 0; j < k; ++j )
+			{
+				expectedIndices[ q * k + j ] = search.bestIndex( j );
+				expectedDistances[ q * k + j ] = search.bestSquDistance( j );
+			}
+		}
+
+		for ( final boolean sortQueries : new boolean[] { false, true } )
+		{
+			try ( final TaskExecutor taskExecutor = TaskExecutors.numThreads( 4 ) )
+			{
+				final int[] indices = new int[ numQueries * k ];
+				final double[] squDistances = new double[ numQueries * k ];
+				BatchNeighborSearch.kNearest( tree, queries, k, indices, squDistances, sortQueries, taskExecutor );
+				assertArrayEquals( expectedIndices, indices );
+				assertArrayEquals( expectedDistances, squDistances, 0 );
+			}
+		}
+	}
+
+	@Test
+	public void testRadius()
+	{
+		final double radius = 8;
+		final RadiusNeighborSearchImpl search = new RadiusNeighborSearchImpl( tree );
+		for ( final boolean sortQueries : new boolean[] { false, true } )
+		{
+			try ( final TaskExecutor taskExecutor = TaskExecutors.numThreads( 4 ) )
+			{
+				final BatchNeighborSearch.RadiusNeighbors neighbors = BatchNeighborSearch.radius( tree, queries, radius, true, sortQueries, taskExecutor );
+				assertEquals( numQueries, neighbors.numQueries() );
+				for ( int q = 0; q < numQueries; ++q )
+				{
+					search.search( query( q ), radius, true );
+					assertEquals( search.numNeighbors(), neighbors.numNeighbors( q ) );
+					final int o = neighbors.offset( q );
+					for ( int j = 0; j < search.numNeighbors(); ++j )
+					{
+						assertEquals( search.bestIndex( j ), neighbors.indices()[ o + j ] );
+						assertEquals( search.bestSquDistance( j ), neighbors.squDistances()[ o + j ], 0 );
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testQueryOrderIsPermutation()
+	{
+		final int[] order = BatchNeighborSearch.queryOrder( tree, queries, numQueries, true, TaskExecutors.singleThreaded() );
+		final int[] sorted = order.clone();
+		Arrays.sort( sorted );
+		for ( int i = 0; i < numQueries; ++i )
+			assertEquals( i, sorted[ i ] );
+	}
+
+	private RealPoint query( final int q )
+	{
+		final double[] p = new double[ n ];
+		System.arraycopy( queries, q * n, p, 0, n );
+		return RealPoint.wrap( p );
+	}
+}
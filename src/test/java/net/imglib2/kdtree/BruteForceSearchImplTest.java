@@ -0,0 +1,131 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.kdtree;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.imglib2.RealPoint;
+import net.imglib2.parallel.TaskExecutor;
+import net.imglib2.parallel.TaskExecutors;
+
+public class BruteForceSearchImplTest
+{
+	private final int n = 3;
+
+	private final double[] positions;
+
+	private final KDTreeImpl tree;
+
+	public BruteForceSearchImplTest()
+	{
+		final int numPoints = 5000;
+		final Random random = new Random( 1 );
+		positions = new double[ numPoints * n ];
+		final double[][] points = new double[ n ][ numPoints ];
+		for ( int i = 0; i < numPoints; ++i )
+			for ( int d = 0; d < n; ++d )
+				points[ d ][ i ] = positions[ i * n + d ] = random.nextDouble() * 100;
+		final int[] order = KDTreeUtils.makeTree( points );
+		tree = new KDTreeImpl( KDTreePositions.createFlat( KDTreeUtils.reorderToFlatLayout( points, order ), n ) );
+	}
+
+	@Test
+	public void testSearch()
+	{
+		final int k = 7;
+		final BruteForceSearchImpl bruteForce = new BruteForceSearchImpl( positions, n, k );
+		final KNearestNeighborSearchImpl search = new KNearestNeighborSearchImpl( tree, k );
+		final Random random = new Random( 2 );
+		final RealPoint query = new RealPoint( n );
+		for ( int q = 0; q < 1000; ++q )
+		{
+			for ( int d = 0; d < n; ++d )
+				query.setPosition( random.nextDouble() * 120 - 10, d );
+			bruteForce.search( query );
+			search.search( query );
+			for ( int j = 0; j < k; ++j )
+			{
+				assertEquals( search.bestSquDistance( j ), bruteForce.bestSquDistance( j ), 0 );
+				final int i = bruteForce.bestIndex( j );
+				for ( int d = 0; d < n; ++d )
+					assertEquals( tree.getDoublePosition( search.bestIndex( j ), d ), positions[ i * n + d ], 0 );
+			}
+		}
+	}
+
+	@Test
+	public void testBatchSearch()
+	{
+		final int k = 5;
+		final int numQueries = 3001;
+		final double[] queries = new double[ numQueries * n ];
+		final Random random = new Random( 3 );
+		for ( int i = 0; i < queries.length; ++i )
+			queries[ i ] = random.nextDouble() * 100;
+		final int[] indices = new int[ numQueries * k ];
+		final double[] squDistances = new double[ numQueries * k ];
+		try ( final TaskExecutor taskExecutor = TaskExecutors.numThreads( 4 ) )
+		{
+			BruteForceSearchImpl.kNearest( positions, n, queries, k, indices, squDistances, taskExecutor );
+		}
+		final BruteForceSearchImpl search = new BruteForceSearchImpl( positions, n, k );
+		for ( int q = 0; q < numQueries; ++q )
+		{
+			search.search( queries, q * n );
+			for ( int j = 0; j < k; ++j )
+			{
+				assertEquals( search.bestIndex( j ), indices[ q * k + j ] );
+				assertEquals( search.bestSquDistance( j ), squDistances[ q * k + j ], 0 );
+			}
+		}
+	}
+
+	@Test
+	public void testTooFewPoints()
+	{
+		final double[] small = { 0, 0, 0, 1, 1, 1, 3, 3, 3 };
+		final int k = 5;
+		final BruteForceSearchImpl search = new BruteForceSearchImpl( small, n, k );
+		search.search( new RealPoint( 2.5, 2.5, 2.5 ) );
+		assertEquals( 2, search.bestIndex( 0 ) );
+		assertEquals( 1, search.bestIndex( 1 ) );
+		assertEquals( 0, search.bestIndex( 2 ) );
+		assertEquals( -1, search.bestIndex( 3 ) );
+		assertEquals( Double.POSITIVE_INFINITY, search.bestSquDistance( 4 ), 0 );
+	}
+}
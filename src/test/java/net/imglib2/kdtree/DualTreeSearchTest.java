@@ -0,0 +1,187 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.kdtree;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.imglib2.RealPoint;
+import net.imglib2.parallel.TaskExecutor;
+import net.imglib2.parallel.TaskExecutors;
+
+public class DualTreeSearchTest
+{
+	private final int n = 3;
+
+	private final KDTreeImpl referenceTree;
+
+	private final KDTreeImpl queryTree;
+
+	public DualTreeSearchTest()
+	{
+		final Random random = new Random( 1 );
+		referenceTree = createTree( 5000, random );
+		queryTree = createTree( 3000, random );
+	}
+
+	private KDTreeImpl createTree( final int numPoints, final Random random )
+	{
+		final double[][] points = new double[ n ][ numPoints ];
+		for ( int d = 0; d < n; ++d )
+			for ( int i = 0; i < numPoints; ++i )
+				points[ d ][ i ] = random.nextDouble() * 100;
+		final int[] order = KDTreeUtils.makeTree( points );
+		return new KDTreeImpl( KDTreePositions.createFlat( KDTreeUtils.reorderToFlatLayout( points, order ), n ) );
+	}
+
+	@Test
+	public void testKNearest()
+	{
+		final int k = 7;
+		final KNearestNeighborSearchImpl search = new KNearestNeighborSearchImpl( referenceTree, k );
+		try ( final TaskExecutor taskExecutor = TaskExecutors.numThreads( 4 ) )
+		{
+			final int numQueries = queryTree.size();
+			final int[] indices = new int[ numQueries * k ];
+			final double[] squDistances = new double[ numQueries * k ];
+			DualTreeSearch.kNearest( queryTree, referenceTree, k, indices, squDistances, taskExecutor );
+			for ( int q = 0; q < numQueries; ++q )
+			{
+				search.search( point( queryTree, q ) );
+				for ( int j = 0; j < k; ++j )
+				{
+					assertEquals( search.bestIndex( j ), indices[ q * k + j ] );
+					assertEquals( search.bestSquDistance( j ), squDistances[ q * k + j ], 0 );
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testKNearestSelf()
+	{
+		final int k = 5;
+		// the nearest neighbor of each point is the point itself
+		final KNearestNeighborSearchImpl search = new KNearestNeighborSearchImpl( referenceTree, k + 1 );
+		try ( final TaskExecutor taskExecutor = TaskExecutors.numThreads( 4 ) )
+		{
+			final int numPoints = referenceTree.size();
+			final int[] indices = new int[ numPoints * k ];
+			final double[] squDistances = new double[ numPoints * k ];
+			DualTreeSearch.kNearestSelf( referenceTree, k, indices, squDistances, taskExecutor );
+			for ( int i = 0; i < numPoints; ++i )
+			{
+				search.search( point( referenceTree, i ) );
+				assertEquals( i, search.bestIndex( 0 ) );
+				for ( int j = 0; j < k; ++j )
+				{
+					assertEquals( search.bestIndex( j + 1 ), indices[ i * k + j ] );
+					assertEquals( search.bestSquDistance( j + 1 ), squDistances[ i * k + j ], 0 );
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testKNearestTooFewPoints()
+	{
+		final KDTreeImpl small = createTree( 3, new Random( 2 ) );
+		final int k = 4;
+		final int[] indices = new int[ 3 * k ];
+		final double[] squDistances = new double[ 3 * k ];
+		DualTreeSearch.kNearestSelf( small, k, indices, squDistances, TaskExecutors.singleThreaded() );
+		for ( int i = 0; i < 3; ++i )
+		{
+			assertEquals( -1, indices[ i * k + 2 ] );
+			assertEquals( Double.POSITIVE_INFINITY, squDistances[ i * k + 3 ], 0 );
+		}
+	}
+
+	@Test
+	public void testRadius()
+	{
+		final double radius = 8;
+		final RadiusNeighborSearchImpl search = new RadiusNeighborSearchImpl( referenceTree );
+		try ( final TaskExecutor taskExecutor = TaskExecutors.numThreads( 4 ) )
+		{
+			final BatchNeighborSearch.RadiusNeighbors neighbors = DualTreeSearch.radius( queryTree, referenceTree, radius, true, taskExecutor );
+			assertEquals( queryTree.size(), neighbors.numQueries() );
+			for ( int q = 0; q < queryTree.size(); ++q )
+			{
+				search.search( point( queryTree, q ), radius, true );
+				assertEquals( search.numNeighbors(), neighbors.numNeighbors( q ) );
+				final int o = neighbors.offset( q );
+				for ( int j = 0; j < search.numNeighbors(); ++j )
+				{
+					assertEquals( search.bestIndex( j ), neighbors.indices()[ o + j ] );
+					assertEquals( search.bestSquDistance( j ), neighbors.squDistances()[ o + j ], 0 );
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testRadiusSelf()
+	{
+		final double radius = 8;
+		final RadiusNeighborSearchImpl search = new RadiusNeighborSearchImpl( referenceTree );
+		try ( final TaskExecutor taskExecutor = TaskExecutors.numThreads( 4 ) )
+		{
+			final BatchNeighborSearch.RadiusNeighbors neighbors = DualTreeSearch.radiusSelf( referenceTree, radius, true, taskExecutor );
+			for ( int i = 0; i < referenceTree.size(); ++i )
+			{
+				search.search( point( referenceTree, i ), radius, true );
+				assertEquals( i, search.bestIndex( 0 ) );
+				assertEquals( search.numNeighbors() - 1, neighbors.numNeighbors( i ) );
+				final int o = neighbors.offset( i );
+				for ( int j = 1; j < search.numNeighbors(); ++j )
+				{
+					assertEquals( search.bestIndex( j ), neighbors.indices()[ o + j - 1 ] );
+					assertEquals( search.bestSquDistance( j ), neighbors.squDistances()[ o + j - 1 ], 0 );
+				}
+			}
+		}
+	}
+
+	private RealPoint point( final KDTreeImpl tree, final int i )
+	{
+		final double[] p = new double[ n ];
+		for ( int d = 0; d < n; ++d )
+			p[ d ] = tree.getDoublePosition( i, d );
+		return RealPoint.wrap( p );
+	}
+}
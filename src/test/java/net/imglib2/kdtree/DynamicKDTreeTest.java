@@ -0,0 +1,253 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.kdtree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.imglib2.RealPoint;
+import net.imglib2.neighborsearch.KNearestNeighborSearchOnDynamicKDTree;
+import net.imglib2.neighborsearch.NearestNeighborSearchOnDynamicKDTree;
+import net.imglib2.neighborsearch.RadiusNeighborSearchOnDynamicKDTree;
+
+public class DynamicKDTreeTest
+{
+	private final int n = 3;
+
+	private final Random random = new Random( 1 );
+
+	private RealPoint randomPoint( final double size )
+	{
+		final double[] p = new double[ n ];
+		for ( int d = 0; d < n; ++d )
+			p[ d ] = random.nextDouble() * size;
+		return RealPoint.wrap( p );
+	}
+
+	@Test
+	public void testUpdatesAndSearch()
+	{
+		final DynamicKDTree< Integer > tree = new DynamicKDTree<>( n, 8 );
+		final List< Integer > ids = new ArrayList<>();
+		final double[][] positions = new double[ 4000 ][];
+
+		for ( int step = 0; step < 20000; ++step )
+		{
+			final int op = random.nextInt( 10 );
+			if ( op < 4 || ids.isEmpty() )
+			{
+				final RealPoint p = randomPoint( 100 );
+				final int id = tree.add( p, step );
+				if ( id >= positions.length )
+					throw new AssertionError( "ids are not re-used" );
+				assertFalse( ids.contains( id ) );
+				ids.add( id );
+				positions[ id ] = p.positionAsDoubleArray();
+			}
+			else if ( op < 6 )
+			{
+				final int id = ids.remove( random.nextInt( ids.size() ) );
+				tree.remove( id );
+				assertFalse( tree.contains( id ) );
+				positions[ id ] = null;
+			}
+			else
+			{
+				// small and large moves
+				final int id = ids.get( random.nextInt( ids.size() ) );
+				final double[] p = positions[ id ].clone();
+				final double distance = op < 9 ? 0.5 : 100;
+				for ( int d = 0; d < n; ++d )
+					p[ d ] = Math.max( 0, p[ d ] + ( random.nextDouble() - 0.5 ) * distance );
+				tree.move( id, RealPoint.wrap( p ) );
+				positions[ id ] = p;
+			}
+			if ( step % 1000 == 0 )
+				checkStructure( tree, ids.size() );
+		}
+		checkStructure( tree, ids.size() );
+
+		final NearestNeighborSearchOnDynamicKDTree< Integer > nn = new NearestNeighborSearchOnDynamicKDTree<>( tree );
+		final KNearestNeighborSearchOnDynamicKDTree< Integer > knn = new KNearestNeighborSearchOnDynamicKDTree<>( tree, 5 );
+		final RadiusNeighborSearchOnDynamicKDTree< Integer > rn = new RadiusNeighborSearchOnDynamicKDTree<>( tree );
+		for ( int q = 0; q < 200; ++q )
+		{
+			final RealPoint query = randomPoint( 120 );
+			final int[] sorted = sortedByDistance( ids, positions, query.positionAsDoubleArray() );
+
+			nn.search( query );
+			assertEquals( sorted[ 0 ], ( ( DynamicKDTree< Integer >.Entry ) nn.getPosition() ).getId() );
+			assertEquals( tree.getValue( sorted[ 0 ] ), nn.getSampler().get() );
+
+			knn.search( query );
+			for ( int i = 0; i < 5; ++i )
+			{
+				assertEquals( sorted[ i ], ( ( DynamicKDTree< Integer >.Entry ) knn.getPosition( i ) ).getId() );
+				assertEquals( squDistance( positions[ sorted[ i ] ], query.positionAsDoubleArray() ), knn.getSquareDistance( i ), 0 );
+			}
+
+			final double radius = 10;
+			rn.search( query, radius, true );
+			int expected = 0;
+			while ( expected < sorted.length && squDistance( positions[ sorted[ expected ] ], query.positionAsDoubleArray() ) <= radius * radius )
+				++expected;
+			assertEquals( expected, rn.numNeighbors() );
+			for ( int i = 0; i < expected; ++i )
+				assertEquals( sorted[ i ], ( ( DynamicKDTree< Integer >.Entry ) rn.getPosition( i ) ).getId() );
+		}
+	}
+
+	@Test
+	public void testDuplicatePositions()
+	{
+		final DynamicKDTree< Integer > tree = new DynamicKDTree<>( n, 4 );
+		final RealPoint p = new RealPoint( 1, 2, 3 );
+		for ( int i = 0; i < 100; ++i )
+			tree.add( p, i );
+		tree.add( new RealPoint( 5, 5, 5 ), 100 );
+		checkStructure( tree, 101 );
+
+		final KNearestNeighborSearchOnDynamicKDTree< Integer > knn = new KNearestNeighborSearchOnDynamicKDTree<>( tree, 10 );
+		knn.search( new RealPoint( 1, 2, 3.1 ) );
+		for ( int i = 0; i < 10; ++i )
+			assertEquals( 0.01, knn.getSquareDistance( i ), 1e-9 );
+	}
+
+	@Test
+	public void testManyDuplicatesDoNotRebuildRepeatedly()
+	{
+		final DynamicKDTree< Integer > tree = new DynamicKDTree<>( n, 4 );
+		final RealPoint p = new RealPoint( 1, 2, 3 );
+		final int numPoints = 20000;
+		for ( int i = 0; i < numPoints; ++i )
+		{
+			if ( i % 1000 == 0 )
+				tree.add( new RealPoint( i, -i, 0 ), i );
+			else
+				tree.add( p, i );
+		}
+		checkStructure( tree, numPoints );
+		// rebuilding on every duplicate insert would be quadratic
+		assertTrue( tree.numRebuiltPoints < 50L * numPoints );
+	}
+
+	@Test
+	public void testKNearestFewerPoints()
+	{
+		final DynamicKDTree< Integer > tree = new DynamicKDTree<>( n );
+		final KNearestNeighborSearchOnDynamicKDTree< Integer > knn = new KNearestNeighborSearchOnDynamicKDTree<>( tree, 3 );
+		knn.search( new RealPoint( 0, 0, 0 ) );
+		assertEquals( Double.POSITIVE_INFINITY, knn.getSquareDistance( 0 ), 0 );
+
+		tree.add( new RealPoint( 1, 0, 0 ), 1 );
+		tree.add( new RealPoint( 2, 0, 0 ), 2 );
+		knn.search( new RealPoint( 0, 0, 0 ) );
+		assertEquals( 1, knn.getSquareDistance( 0 ), 0 );
+		assertEquals( 4, knn.getSquareDistance( 1 ), 0 );
+		assertEquals( Double.POSITIVE_INFINITY, knn.getSquareDistance( 2 ), 0 );
+
+		tree.clear();
+		assertEquals( 0, tree.size() );
+		final int id = tree.add( new RealPoint( 3, 0, 0 ), 3 );
+		assertEquals( 0, id );
+		assertEquals( 3, ( int ) tree.getValue( id ) );
+	}
+
+	/**
+	 * Check that sizes are consistent, all points are in the correct leaf, and
+	 * the tree is balanced.
+	 */
+	private static void checkStructure( final DynamicKDTree< ? > tree, final int expectedSize )
+	{
+		assertEquals( expectedSize, tree.size() );
+		final int depth = checkNode( tree, tree.root );
+		assertTrue( "depth " + depth, depth <= 4 * ( 32 - Integer.numberOfLeadingZeros( expectedSize ) ) + 2 );
+	}
+
+	private static int checkNode( final DynamicKDTree< ? > tree, final int node )
+	{
+		if ( tree.splitDimension[ node ] < 0 )
+		{
+			for ( int i = 0; i < tree.nodeSize[ node ]; ++i )
+				assertTrue( tree.contains( tree.buckets[ node ][ i ] ) );
+			return 1;
+		}
+		assertEquals( tree.nodeSize[ node ], tree.nodeSize[ tree.left[ node ] ] + tree.nodeSize[ tree.right[ node ] ] );
+		final int d = tree.splitDimension[ node ];
+		final double split = tree.splitValue[ node ];
+		checkSide( tree, tree.left[ node ], d, split, true );
+		checkSide( tree, tree.right[ node ], d, split, false );
+		return 1 + Math.max( checkNode( tree, tree.left[ node ] ), checkNode( tree, tree.right[ node ] ) );
+	}
+
+	private static void checkSide( final DynamicKDTree< ? > tree, final int node, final int d, final double split, final boolean isLeft )
+	{
+		if ( tree.splitDimension[ node ] < 0 )
+		{
+			for ( int i = 0; i < tree.nodeSize[ node ]; ++i )
+			{
+				final double x = tree.getDoublePosition( tree.buckets[ node ][ i ], d );
+				assertEquals( isLeft, x < split );
+			}
+		}
+		else
+		{
+			checkSide( tree, tree.left[ node ], d, split, isLeft );
+			checkSide( tree, tree.right[ node ], d, split, isLeft );
+		}
+	}
+
+	private static int[] sortedByDistance( final List< Integer > ids, final double[][] positions, final double[] query )
+	{
+		final Integer[] sorted = ids.toArray( new Integer[ 0 ] );
+		Arrays.sort( sorted, ( a, b ) -> Double.compare( squDistance( positions[ a ], query ), squDistance( positions[ b ], query ) ) );
+		return Arrays.stream( sorted ).mapToInt( Integer::intValue ).toArray();
+	}
+
+	private static double squDistance( final double[] a, final double[] b )
+	{
+		double sum = 0;
+		for ( int d = 0; d < a.length; ++d )
+			sum += ( a[ d ] - b[ d ] ) * ( a[ d ] - b[ d ] );
+		return sum;
+	}
+}
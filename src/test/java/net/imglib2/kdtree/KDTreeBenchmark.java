@@ -40,8 +40,10 @@ import java.util.concurrent.TimeUnit;
 import net.imglib2.KDTree;
 import net.imglib2.RealLocalizable;
 import net.imglib2.RealPoint;
+import net.imglib2.RealPointSampleList;
 import net.imglib2.neighborsearch.NearestNeighborSearchOnKDTree;
 import net.imglib2.neighborsearch.KNearestNeighborSearchOnKDTree;
+import net.imglib2.neighborsearch.KNearestNeighborSearchOnPointsSnapshot;
 import net.imglib2.neighborsearch.RadiusNeighborSearchOnKDTree;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
@@ -76,18 +78,40 @@ public class KDTreeBenchmark
 	public double minCoordinateValue = -5;
 	public double maxCoordinateValue = 5;
 
+	// high-dimensional descriptors, for approximate search
+	public int descriptorDimensions = 32;
+	public int numDescriptors = 50000;
+	public int numDescriptorQueries = 200;
+	public double epsilon = 1;
+	public int maxNodeVisits = 1000;
+
 	List< RealPoint > dataVertices;
 	List< RealPoint > testVertices;
 
 	private KDTree< RealPoint > kdtree;
 
+	private PointsSnapshot< RealPoint > snapshot;
+	private double[] testPositions;
+
+	private KDTreeImpl descriptorTree;
+	private double[] descriptorQueries;
+
 	@Setup
 	public void setup()
 	{
 		createVertices();
 //		createVerticesSeqTest();
 		kdtree = new KDTree<>( dataVertices, dataVertices );
+		final RealPointSampleList< RealPoint > sampleList = new RealPointSampleList<>( n );
+		for ( final RealPoint p : dataVertices )
+			sampleList.add( p, p );
+		snapshot = new PointsSnapshot<>( sampleList );
+		testPositions = new double[ numTestVertices * n ];
+		for ( int i = 0; i < numTestVertices; ++i )
+			for ( int d = 0; d < n; ++d )
+				testPositions[ i * n + d ] = testVertices.get( i ).getDoublePosition( d );
 //		spoil();
+		createDescriptors();
 	}
 
 	public void spoil() {
@@ -138,6 +162,29 @@ public class KDTreeBenchmark
 		}
 	}
 
+	@Benchmark
+	@BenchmarkMode( Mode.AverageTime )
+	@OutputTimeUnit( TimeUnit.MILLISECONDS )
+	public void kNearestNeighborSearchBruteForce()
+	{
+		final KNearestNeighborSearchOnPointsSnapshot< RealPoint > bf = new KNearestNeighborSearchOnPointsSnapshot<>( snapshot, k );
+		for ( final RealLocalizable t : testVertices )
+		{
+			bf.search( t );
+			bf.getSampler().get();
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode( Mode.AverageTime )
+	@OutputTimeUnit( TimeUnit.MILLISECONDS )
+	public void kNearestNeighborSearchBruteForceBatch()
+	{
+		final int[] indices = new int[ numTestVertices * k ];
+		final double[] squDistances = new double[ numTestVertices * k ];
+		BruteForceSearchImpl.kNearest( snapshot.positions(), n, testPositions, k, indices, squDistances );
+	}
+
 	@Benchmark
 	@BenchmarkMode( Mode.AverageTime )
 	@OutputTimeUnit( TimeUnit.MILLISECONDS )
@@ -154,6 +201,120 @@ public class KDTreeBenchmark
 		}
 	}
 
+	@Benchmark
+	@BenchmarkMode( Mode.AverageTime )
+	@OutputTimeUnit( TimeUnit.MILLISECONDS )
+	public void kNearestDescriptorSearchExact()
+	{
+		searchDescriptors( new KNearestNeighborSearchImpl( descriptorTree, k ) );
+	}
+
+	@Benchmark
+	@BenchmarkMode( Mode.AverageTime )
+	@OutputTimeUnit( TimeUnit.MILLISECONDS )
+	public void kNearestDescriptorSearchEpsilon()
+	{
+		final KNearestNeighborSearchImpl search = new KNearestNeighborSearchImpl( descriptorTree, k );
+		search.setEpsilon( epsilon );
+		searchDescriptors( search );
+	}
+
+	@Benchmark
+	@BenchmarkMode( Mode.AverageTime )
+	@OutputTimeUnit( TimeUnit.MILLISECONDS )
+	public void kNearestDescriptorSearchMaxNodeVisits()
+	{
+		final KNearestNeighborSearchImpl search = new KNearestNeighborSearchImpl( descriptorTree, k );
+		search.setMaxNodeVisits( maxNodeVisits );
+		searchDescriptors( search );
+	}
+
+	private void searchDescriptors( final KNearestNeighborSearchImpl search )
+	{
+		for ( int q = 0; q < numDescriptorQueries; ++q )
+			search.search( descriptorQueries, q * descriptorDimensions );
+	}
+
+	/**
+	 * Print recall (fraction of the true {@code k} nearest neighbors that are
+	 * found) and time per query of approximate searches.
+	 */
+	public void printRecall()
+	{
+		final int[][] truth = new int[ numDescriptorQueries ][];
+		final KNearestNeighborSearchImpl exact = new KNearestNeighborSearchImpl( descriptorTree, k );
+		final long t0 = System.nanoTime();
+		for ( int q = 0; q < numDescriptorQueries; ++q )
+		{
+			exact.search( descriptorQueries, q * descriptorDimensions );
+			truth[ q ] = new int[ k ];
+			for ( int i = 0; i < k; ++i )
+				truth[ q ][ i ] = exact.bestIndex( i );
+		}
+		final double exactTime = ( System.nanoTime() - t0 ) / 1e3 / numDescriptorQueries;
+		System.out.printf( "exact: %.1f us/query%n", exactTime );
+
+		for ( final double eps : new double[] { 0.5, 1, 2, 4 } )
+		{
+			final KNearestNeighborSearchImpl search = new KNearestNeighborSearchImpl( descriptorTree, k );
+			search.setEpsilon( eps );
+			printRecall( "epsilon = " + eps, search, truth );
+		}
+		for ( final int visits : new int[] { 100, 300, 1000, 3000 } )
+		{
+			final KNearestNeighborSearchImpl search = new KNearestNeighborSearchImpl( descriptorTree, k );
+			search.setMaxNodeVisits( visits );
+			printRecall( "maxNodeVisits = " + visits, search, truth );
+		}
+	}
+
+	private void printRecall( final String label, final KNearestNeighborSearchImpl search, final int[][] truth )
+	{
+		int found = 0;
+		final long t0 = System.nanoTime();
+		for ( int q = 0; q < numDescriptorQueries; ++q )
+		{
+			search.search( descriptorQueries, q * descriptorDimensions );
+			for ( int i = 0; i < k; ++i )
+				for ( int j = 0; j < k; ++j )
+					if ( search.bestIndex( i ) == truth[ q ][ j ] )
+						++found;
+		}
+		final double time = ( System.nanoTime() - t0 ) / 1e3 / numDescriptorQueries;
+		System.out.printf( "%s: recall %.3f, %.1f us/query%n", label, ( double ) found / ( k * numDescriptorQueries ), time );
+	}
+
+	/**
+	 * Create clustered descriptors (and queries from the same distribution).
+	 */
+	private void createDescriptors()
+	{
+		final int numClusters = 100;
+		final Random rnd = new Random( 4379 );
+		final double[][] centers = new double[ numClusters ][ descriptorDimensions ];
+		for ( final double[] center : centers )
+			for ( int d = 0; d < descriptorDimensions; ++d )
+				center[ d ] = rnd.nextDouble();
+
+		final double[][] points = new double[ descriptorDimensions ][ numDescriptors ];
+		for ( int i = 0; i < numDescriptors; ++i )
+		{
+			final double[] center = centers[ rnd.nextInt( numClusters ) ];
+			for ( int d = 0; d < descriptorDimensions; ++d )
+				points[ d ][ i ] = center[ d ] + 0.1 * rnd.nextGaussian();
+		}
+		final int[] tree = KDTreeUtils.makeTree( points );
+		descriptorTree = new KDTreeImpl( KDTreePositions.createFlat( KDTreeUtils.reorderToFlatLayout( points, tree ), descriptorDimensions ) );
+
+		descriptorQueries = new double[ numDescriptorQueries * descriptorDimensions ];
+		for ( int q = 0; q < numDescriptorQueries; ++q )
+		{
+			final double[] center = centers[ rnd.nextInt( numClusters ) ];
+			for ( int d = 0; d < descriptorDimensions; ++d )
+				descriptorQueries[ q * descriptorDimensions + d ] = center[ d ] + 0.1 * rnd.nextGaussian();
+		}
+	}
+
 	private void createVertices()
 	{
 		final double[] p = new double[ n ];
@@ -206,6 +367,10 @@ public class KDTreeBenchmark
 
 	public static void main( final String... args ) throws RunnerException
 	{
+		final KDTreeBenchmark recall = new KDTreeBenchmark();
+		recall.setup();
+		recall.printRecall();
+
 		final Options opt = new OptionsBuilder()
 				.include( KDTreeBenchmark.class.getSimpleName() )
 				.forks( 0 )
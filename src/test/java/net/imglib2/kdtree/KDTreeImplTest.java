@@ -38,6 +38,8 @@ import java.util.Comparator;
 import java.util.List;
 import net.imglib2.RealLocalizable;
 import net.imglib2.RealPoint;
+import net.imglib2.parallel.TaskExecutor;
+import net.imglib2.parallel.TaskExecutors;
 import net.imglib2.util.LinAlgHelpers;
 import org.junit.Assert;
 import org.junit.Before;
@@ -147,6 +149,162 @@ public class KDTreeImplTest {
 		}
 	}
 
+	@Test
+	public void testParallelMakeTree()
+	{
+		final int numPoints = 3 * KDTreeUtils.MIN_POINTS_FOR_PARALLEL + 17;
+		final Random rnd = new Random( 1 );
+		final double[][] points = new double[ n ][ numPoints ];
+		for ( int d = 0; d < n; ++d )
+			for ( int i = 0; i < numPoints; ++i )
+				points[ d ][ i ] = rnd.nextInt( 1000 ); // with duplicates
+
+		final int[] expectedTree = KDTreeUtils.makeTree( points );
+		try ( final TaskExecutor taskExecutor = TaskExecutors.numThreads( 4 ) )
+		{
+			final int[] tree = KDTreeUtils.makeTree( points, taskExecutor );
+			Assert.assertArrayEquals( expectedTree, tree );
+			Assert.assertArrayEquals( KDTreeUtils.invert( tree ), KDTreeUtils.invert( tree, taskExecutor ) );
+			Assert.assertArrayEquals( KDTreeUtils.reorderToFlatLayout( points, tree ), KDTreeUtils.reorderToFlatLayout( points, tree, taskExecutor ), 0 );
+			final double[][] expectedNested = KDTreeUtils.reorder( points, tree );
+			final double[][] nested = KDTreeUtils.reorder( points, tree, taskExecutor );
+			for ( int d = 0; d < n; ++d )
+				Assert.assertArrayEquals( expectedNested[ d ], nested[ d ], 0 );
+		}
+	}
+
+	@Test
+	public void testFloatPositions()
+	{
+		final double[][] points = KDTreeUtils.initPositions( n, numDataVertices, dataVertices );
+		final int[] tree = KDTreeUtils.makeTree( points );
+
+		// double positions rounded to float are the expected result
+		final double[][] rounded = KDTreeUtils.reorder( points, tree );
+		for ( final double[] coordinates : rounded )
+			for ( int i = 0; i < coordinates.length; ++i )
+				coordinates[ i ] = ( float ) coordinates[ i ];
+		final KDTreeImpl expectedImpl = new KDTreeImpl( KDTreePositions.createNested( rounded ) );
+
+		final TaskExecutor taskExecutor = TaskExecutors.singleThreaded();
+		final KDTreePositions flat = KDTreePositions.createFlat( KDTreeUtils.reorderToFlatFloatLayout( points, tree, taskExecutor ), n );
+		final KDTreePositions nested = KDTreePositions.createNested( KDTreeUtils.reorderToFloat( points, tree, taskExecutor ) );
+		for ( final KDTreePositions positions : Arrays.asList( flat, nested ) )
+		{
+			Assert.assertEquals( KDTreePositions.PositionsPrecision.FLOAT, positions.precision() );
+			final double[][] actualNested = positions.asNestedArray();
+			for ( int d = 0; d < n; ++d )
+				Assert.assertArrayEquals( rounded[ d ], actualNested[ d ], 0 );
+
+			final KDTreeImpl impl = new KDTreeImpl( positions );
+			final NearestNeighborSearchImpl expectedNearest = new NearestNeighborSearchImpl( expectedImpl );
+			final NearestNeighborSearchImpl nearest = new NearestNeighborSearchImpl( impl );
+			final KNearestNeighborSearchImpl expectedKNearest = new KNearestNeighborSearchImpl( expectedImpl, 5 );
+			final KNearestNeighborSearchImpl kNearest = new KNearestNeighborSearchImpl( impl, 5 );
+			final RadiusNeighborSearchImpl expectedRadius = new RadiusNeighborSearchImpl( expectedImpl );
+			final RadiusNeighborSearchImpl radius = new RadiusNeighborSearchImpl( impl );
+			for ( final RealPoint testVertex : testVertices )
+			{
+				expectedNearest.search( testVertex );
+				nearest.search( testVertex );
+				Assert.assertEquals( expectedNearest.bestIndex(), nearest.bestIndex() );
+				Assert.assertEquals( expectedNearest.bestSquDistance(), nearest.bestSquDistance(), 0 );
+
+				expectedKNearest.search( testVertex );
+				kNearest.search( testVertex );
+				for ( int i = 0; i < 5; ++i )
+				{
+					Assert.assertEquals( expectedKNearest.bestIndex( i ), kNearest.bestIndex( i ) );
+					Assert.assertEquals( expectedKNearest.bestSquDistance( i ), kNearest.bestSquDistance( i ), 0 );
+				}
+
+				expectedRadius.search( testVertex, 7, true );
+				radius.search( testVertex, 7, true );
+				Assert.assertEquals( expectedRadius.numNeighbors(), radius.numNeighbors() );
+				for ( int i = 0; i < radius.numNeighbors(); ++i )
+					Assert.assertEquals( expectedRadius.bestIndex( i ), radius.bestIndex( i ) );
+			}
+		}
+	}
+
+	@Test
+	public void testApproximateSearch()
+	{
+		final int dims = 16;
+		final int numPoints = 2000;
+		final int k = 5;
+		final Random rnd = new Random( 2 );
+		final double[][] points = new double[ dims ][ numPoints ];
+		for ( int d = 0; d < dims; ++d )
+			for ( int i = 0; i < numPoints; ++i )
+				points[ d ][ i ] = rnd.nextDouble();
+		final KDTreeImpl impl = new KDTreeImpl( KDTreePositions.createNested( KDTreeUtils.reorder( points, KDTreeUtils.makeTree( points ) ) ) );
+
+		final KNearestNeighborSearchImpl exact = new KNearestNeighborSearchImpl( impl, k );
+		final KNearestNeighborSearchImpl approximate = new KNearestNeighborSearchImpl( impl, k );
+		final NearestNeighborSearchImpl exactNearest = new NearestNeighborSearchImpl( impl );
+		final NearestNeighborSearchImpl approximateNearest = new NearestNeighborSearchImpl( impl );
+		final double epsilon = 0.5;
+		approximate.setEpsilon( epsilon );
+		approximateNearest.setEpsilon( epsilon );
+		final double bound = ( 1 + epsilon ) * ( 1 + epsilon );
+		for ( int q = 0; q < 100; ++q )
+		{
+			final double[] query = new double[ dims ];
+			for ( int d = 0; d < dims; ++d )
+				query[ d ] = rnd.nextDouble();
+			exact.search( query, 0 );
+			approximate.search( query, 0 );
+			for ( int i = 0; i < k; ++i )
+				Assert.assertTrue( approximate.bestSquDistance( i ) <= bound * exact.bestSquDistance( i ) );
+			exactNearest.search( query, 0 );
+			approximateNearest.search( query, 0 );
+			Assert.assertTrue( approximateNearest.bestSquDistance() <= bound * exactNearest.bestSquDistance() );
+		}
+
+		// visiting only the root finds the root
+		final KNearestNeighborSearchImpl bounded = new KNearestNeighborSearchImpl( impl, k );
+		bounded.setMaxNodeVisits( 1 );
+		bounded.search( new double[ dims ], 0 );
+		Assert.assertEquals( impl.root(), bounded.bestIndex( 0 ) );
+		Assert.assertEquals( -1, bounded.bestIndex( 1 ) );
+
+		// with unlimited visits, results are exact
+		bounded.setMaxNodeVisits( Integer.MAX_VALUE );
+		bounded.search( new double[ dims ], 0 );
+		exact.search( new double[ dims ], 0 );
+		for ( int i = 0; i < k; ++i )
+			Assert.assertEquals( exact.bestIndex( i ), bounded.bestIndex( i ) );
+	}
+
+	@Test
+	public void testBoundedSearchDoesNotDependOnPreviousQuery()
+	{
+		final int dims = 3;
+		final int numPoints = 1000;
+		final Random rnd = new Random( 3 );
+		final double[][] points = new double[ dims ][ numPoints ];
+		for ( int d = 0; d < dims; ++d )
+			for ( int i = 0; i < numPoints; ++i )
+				points[ d ][ i ] = rnd.nextDouble();
+		final KDTreeImpl impl = new KDTreeImpl( KDTreePositions.createNested( KDTreeUtils.reorder( points, KDTreeUtils.makeTree( points ) ) ) );
+
+		final NearestNeighborSearchImpl search = new NearestNeighborSearchImpl( impl );
+		search.setMaxNodeVisits( 3 );
+		for ( int q = 0; q < 100; ++q )
+		{
+			final double[] query = { rnd.nextDouble(), rnd.nextDouble(), rnd.nextDouble() };
+			final double[] previousA = { rnd.nextDouble(), rnd.nextDouble(), rnd.nextDouble() };
+			final double[] previousB = { rnd.nextDouble(), rnd.nextDouble(), rnd.nextDouble() };
+			search.search( previousA, 0 );
+			search.search( query, 0 );
+			final int afterA = search.bestIndex();
+			search.search( previousB, 0 );
+			search.search( query, 0 );
+			Assert.assertEquals( afterA, search.bestIndex() );
+		}
+	}
+
 	private int findNearestNeighborExhaustive( final RealLocalizable point )
 	{
 		return findNearestNeighborsExhaustive( point, 1 )[ 0 ];
@@ -0,0 +1,138 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.kdtree;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.imglib2.KDTree;
+import net.imglib2.RealPoint;
+import net.imglib2.RealPointSampleList;
+import net.imglib2.neighborsearch.NearestNeighborSearchOnKDTree;
+import net.imglib2.neighborsearch.NearestNeighborSearchOnSpatialHashGrid;
+import net.imglib2.neighborsearch.RadiusNeighborSearchOnKDTree;
+import net.imglib2.neighborsearch.RadiusNeighborSearchOnSpatialHashGrid;
+import net.imglib2.parallel.TaskExecutor;
+import net.imglib2.parallel.TaskExecutors;
+import net.imglib2.type.numeric.integer.IntType;
+
+public class SpatialHashGridTest
+{
+	private final int n = 3;
+
+	private RealPointSampleList< IntType > createPoints( final int numPoints, final double size, final long seed )
+	{
+		final Random random = new Random( seed );
+		final RealPointSampleList< IntType > points = new RealPointSampleList<>( n );
+		for ( int i = 0; i < numPoints; ++i )
+		{
+			final double[] p = new double[ n ];
+			for ( int d = 0; d < n; ++d )
+				p[ d ] = random.nextDouble() * size;
+			points.add( RealPoint.wrap( p ), new IntType( i ) );
+		}
+		return points;
+	}
+
+	@Test
+	public void testDenseGrid()
+	{
+		final RealPointSampleList< IntType > points = createPoints( 5000, 100, 1 );
+		final SpatialHashGrid< IntType > grid = new SpatialHashGrid<>( points, 5 );
+		assertEquals( true, grid.dense );
+		compareWithKDTree( points, grid, 5 );
+		compareWithKDTree( points, grid, 12 );
+	}
+
+	@Test
+	public void testHashedGrid()
+	{
+		final RealPointSampleList< IntType > points = createPoints( 5000, 100, 2 );
+		final SpatialHashGrid< IntType > grid = new SpatialHashGrid<>( points, 1 );
+		assertEquals( false, grid.dense );
+		compareWithKDTree( points, grid, 1 );
+		compareWithKDTree( points, grid, 4 );
+	}
+
+	@Test
+	public void testParallelBuild()
+	{
+		final RealPointSampleList< IntType > points = createPoints( 3 * KDTreeUtils.MIN_POINTS_FOR_PARALLEL, 100, 3 );
+		final SpatialHashGrid< IntType > expected = new SpatialHashGrid<>( points, 2, TaskExecutors.singleThreaded() );
+		try ( final TaskExecutor taskExecutor = TaskExecutors.numThreads( 4 ) )
+		{
+			final SpatialHashGrid< IntType > grid = new SpatialHashGrid<>( points, 2, taskExecutor );
+			assertArrayEquals( expected.cellStart, grid.cellStart );
+			assertArrayEquals( expected.positions, grid.positions, 0 );
+			for ( int i = 0; i < grid.size(); ++i )
+				assertEquals( expected.originalIndex( i ), grid.originalIndex( i ) );
+		}
+	}
+
+	private void compareWithKDTree( final RealPointSampleList< IntType > points, final SpatialHashGrid< IntType > grid, final double radius )
+	{
+		final KDTree< IntType > kdtree = new KDTree<>( points );
+		final NearestNeighborSearchOnKDTree< IntType > expectedNearest = new NearestNeighborSearchOnKDTree<>( kdtree );
+		final NearestNeighborSearchOnSpatialHashGrid< IntType > nearest = new NearestNeighborSearchOnSpatialHashGrid<>( grid );
+		final RadiusNeighborSearchOnKDTree< IntType > expectedRadius = new RadiusNeighborSearchOnKDTree<>( kdtree );
+		final RadiusNeighborSearchOnSpatialHashGrid< IntType > radiusSearch = new RadiusNeighborSearchOnSpatialHashGrid<>( grid );
+
+		final Random random = new Random( 4 );
+		for ( int q = 0; q < 500; ++q )
+		{
+			final RealPoint query = new RealPoint( n );
+			for ( int d = 0; d < n; ++d )
+				query.setPosition( random.nextDouble() * 140 - 20, d );
+
+			expectedNearest.search( query );
+			nearest.search( query );
+			assertEquals( expectedNearest.getSampler().get().get(), nearest.getSampler().get().get() );
+			assertEquals( expectedNearest.getSquareDistance(), nearest.getSquareDistance(), 0 );
+
+			expectedRadius.search( query, radius, true );
+			radiusSearch.search( query, radius, true );
+			assertEquals( expectedRadius.numNeighbors(), radiusSearch.numNeighbors() );
+			for ( int i = 0; i < radiusSearch.numNeighbors(); ++i )
+			{
+				assertEquals( expectedRadius.getSampler( i ).get().get(), radiusSearch.getSampler( i ).get().get() );
+				assertEquals( expectedRadius.getSquareDistance( i ), radiusSearch.getSquareDistance( i ), 0 );
+				assertEquals( expectedRadius.getPosition( i ).getDoublePosition( 0 ), radiusSearch.getPosition( i ).getDoublePosition( 0 ), 0 );
+			}
+		}
+	}
+}
@@ -88,6 +88,19 @@ public class IntervalChunksTest
 		assertIntervalEquals( Intervals.createMinSize( 25, 1 ), chunks.get( 2 ) );
 	}
 
+	@Test
+	public void testChunkIntervalAlignedToCells() {
+		// Chunk a 100x50 interval with 16x16 cells into 4 chunks.
+		Interval complete = Intervals.createMinSize( 0, 0, 100, 50 );
+		List< Interval > chunks = IntervalChunks.chunkInterval( complete, array( 16, 16 ), 4 );
+		assertEquals( 4, chunks.size() );
+		assertIntervalEquals( Intervals.createMinSize( 0, 0, 100, 16 ), chunks.get( 0 ) );
+		assertIntervalEquals( Intervals.createMinSize( 0, 48, 100, 2 ), chunks.get( 3 ) );
+		for ( Interval chunk : chunks )
+			for ( int d = 0; d < 2; d++ )
+				assertEquals( 0, chunk.min( d ) % 16 );
+	}
+
 	private void assertArrayEquals( long[] expected, long[] actual ) {
 		if( !Arrays.equals(expected, actual))
 			fail( "Arrays are different:\n"
@@ -42,6 +42,8 @@ import net.imglib2.img.array.ArrayImgFactory;
 import net.imglib2.img.array.ArrayImgs;
 import net.imglib2.img.cell.CellImgFactory;
 import net.imglib2.img.planar.PlanarImgFactory;
+import net.imglib2.parallel.TaskExecutor;
+import net.imglib2.parallel.TaskExecutors;
 import net.imglib2.test.ImgLib2Assert;
 import net.imglib2.test.RandomImgs;
 import net.imglib2.type.numeric.integer.IntType;
@@ -154,6 +156,34 @@ public class LoopBuilderTest
 		image.forEach( pixel -> assertEquals( 1, pixel.get() ) );
 	}
 
+	@Test
+	public void testDynamicScheduling()
+	{
+		final Img< IntType > cellImage = new CellImgFactory<>( new IntType(), 8 ).create( 50, 40 );
+		final Img< IntType > arrayImage = ArrayImgs.ints( 50, 40 );
+		try ( TaskExecutor taskExecutor = TaskExecutors.numThreads( 4 ) )
+		{
+			// cursors
+			LoopBuilder.setImages( cellImage ).multiThreaded( taskExecutor ).dynamicScheduling().forEachPixel( IntType::inc );
+			cellImage.forEach( pixel -> assertEquals( 1, pixel.get() ) );
+			// random accesses
+			LoopBuilder.setImages( cellImage, arrayImage ).multiThreaded( taskExecutor ).dynamicScheduling().forEachPixel( ( c, a ) -> a.set( c.get() + 1 ) );
+			arrayImage.forEach( pixel -> assertEquals( 2, pixel.get() ) );
+		}
+	}
+
+	@Test
+	public void testReduce()
+	{
+		final Img< IntType > image = ArrayImgs.ints( new int[] { 1, 2, 3, 4, 5, 6 }, 3, 2 );
+		final Integer sum = LoopBuilder.setImages( image ).multiThreaded().reduce( 0, chunk -> {
+			final IntType s = new IntType();
+			chunk.forEachPixel( s::add );
+			return s.get();
+		}, Integer::sum );
+		assertEquals( 21, sum.intValue() );
+	}
+
 	private final BiConsumer< IntType, IntType > COPY_ACTION = ( i, o ) -> o.set( i );
 	private final Function< LoopBuilder.Chunk< BiConsumer< IntType, IntType > >, Object > CHUNK_COPY_ACTION = chunk -> {
 		chunk.forEachPixel( COPY_ACTION );
@@ -0,0 +1,123 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.loops;
+
+import net.imglib2.RandomAccessibleInterval;
+import net.imglib2.img.Img;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.img.cell.CellImgFactory;
+import net.imglib2.img.list.ListImgFactory;
+import net.imglib2.parallel.Parallelization;
+import net.imglib2.test.RandomImgs;
+import net.imglib2.type.numeric.RealType;
+import net.imglib2.type.numeric.integer.UnsignedShortType;
+import net.imglib2.type.numeric.real.DoubleType;
+import net.imglib2.view.Views;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests {@link Reductions}.
+ */
+public class ReductionsTest
+{
+
+	@Test
+	public void testCellImg()
+	{
+		final Img< UnsignedShortType > img = new CellImgFactory<>( new UnsignedShortType(), 16, 8, 4 ).create( 50, 30, 9 );
+		RandomImgs.seed( 42 ).randomize( img );
+		assertReductions( img );
+		assertReductions( Views.interval( img, new long[] { 3, 5, 1 }, new long[] { 40, 21, 7 } ) );
+	}
+
+	@Test
+	public void testListImg()
+	{
+		final Img< DoubleType > img = new ListImgFactory<>( new DoubleType() ).create( 20, 15 );
+		RandomImgs.seed( 1 ).randomize( img );
+		assertReductions( img );
+		Parallelization.runSingleThreaded( () -> assertReductions( img ) );
+	}
+
+	@Test
+	public void testNaN()
+	{
+		final Img< DoubleType > img = ArrayImgs.doubles( new double[] { 2, Double.NaN, -1, 3 }, 4 );
+		assertEquals( -1, Reductions.min( img ), 0 );
+		assertEquals( 3, Reductions.max( img ), 0 );
+	}
+
+	@Test
+	public void testVarianceIsStable()
+	{
+		// large offset: the naive sum of squares would lose all precision
+		final double[] values = new double[ 100_000 ];
+		for ( int i = 0; i < values.length; ++i )
+			values[ i ] = 1e9 + ( i % 2 == 0 ? 1 : -1 );
+		final Reductions.MeanVariance mv = Reductions.meanVariance( ArrayImgs.doubles( values, 1000, 100 ) );
+		assertEquals( values.length, mv.getCount() );
+		assertEquals( 1e9, mv.getMean(), 0 );
+		assertEquals( 1, mv.getVariance(), 1e-9 );
+	}
+
+	private static < T extends RealType< T > > void assertReductions( final RandomAccessibleInterval< T > img )
+	{
+		double sum = 0, sumSqr = 0;
+		double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+		long n = 0;
+		for ( final T t : Views.iterable( img ) )
+		{
+			final double v = t.getRealDouble();
+			sum += v;
+			sumSqr += v * v;
+			min = Math.min( min, v );
+			max = Math.max( max, v );
+			++n;
+		}
+		final double mean = sum / n;
+		final double variance = sumSqr / n - mean * mean;
+		final double tolerance = 1e-9 * Math.abs( sum );
+		assertEquals( sum, Reductions.sum( img ), tolerance );
+		assertEquals( min, Reductions.min( img ), 0 );
+		assertEquals( max, Reductions.max( img ), 0 );
+		assertEquals( mean, Reductions.mean( img ), 1e-9 * Math.abs( mean ) );
+		final Reductions.MeanVariance mv = Reductions.meanVariance( img );
+		assertEquals( n, mv.getCount() );
+		assertEquals( mean, mv.getMean(), 1e-9 * Math.abs( mean ) );
+		assertEquals( variance, mv.getVariance(), 1e-6 * variance );
+		assertEquals( variance * n / ( n - 1 ), mv.getSampleVariance(), 1e-6 * variance );
+	}
+}
@@ -0,0 +1,126 @@
+/*-
+ * #%L
+ * ImgLib2: a general-purpose, multidimensional image processing library.
+ * %%
+ * Copyright (C) 2009 - 2024 Tobias Pietzsch, Stephan Preibisch, Stephan Saalfeld,
+ * John Bogovic, Albert Cardona, Barry DeZonia, Christian Dietz, Jan Funke,
+ * Aivar Grislis, Jonathan Hale, Grant Harris, Stefan Helfrich, Mark Hiner,
+ * Martin Horn, Steffen Jaensch, Lee Kamentsky, Larry Lindsey, Melissa Linkert,
+ * Mark Longair, Brian Northan, Nick Perry, Curtis Rueden, Johannes Schindelin,
+ * Jean-Yves Tinevez and Michael Zinsmaier.
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package net.imglib2.loops;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import net.imglib2.Interval;
+import net.imglib2.img.array.ArrayImgs;
+import net.imglib2.img.cell.Cell;
+import net.imglib2.img.cell.CellGrid;
+import net.imglib2.img.cell.CellImg;
+import net.imglib2.img.cell.CellImgFactory;
+import net.imglib2.img.planar.PlanarImg;
+import net.imglib2.img.planar.PlanarImgs;
+import net.imglib2.parallel.TaskExecutor;
+import net.imglib2.parallel.TaskExecutors;
+import net.imglib2.type.numeric.integer.IntType;
+import net.imglib2.type.numeric.integer.LongType;
+
+public class StorageChunksTest
+{
+	private final CellImg< IntType, ? > cellImg = new CellImgFactory<>( new IntType(), 7, 5, 3 ).create( 20, 13, 8 );
+
+	@Test
+	public void testCellOffset()
+	{
+		// offsets of cells in the iteration order of the CellImg
+		final List< Long > expected = new ArrayList<>();
+		long offset = 0;
+		for ( final Cell< ? > cell : cellImg.getCells() )
+		{
+			expected.add( offset );
+			offset += cell.size();
+		}
+		final CellGrid grid = cellImg.getCellGrid();
+		final long numCells = expected.size();
+		final long[] cellGridPosition = new long[ 3 ];
+		for ( int i = 0; i < numCells; i++ )
+			assertEquals( ( long ) expected.get( i ), StorageChunks.cellOffset( grid, i, numCells, cellGridPosition ) );
+		assertEquals( cellImg.size(), StorageChunks.cellOffset( grid, numCells, numCells, cellGridPosition ) );
+	}
+
+	@Test
+	public void testChunkIndices()
+	{
+		final List< Interval > chunks = StorageChunks.chunkIndices( cellImg, 5 );
+		assertEquals( 5, chunks.size() );
+		assertCoversRange( chunks, cellImg.size() );
+
+		final PlanarImg< IntType, ? > planarImg = PlanarImgs.ints( 10, 10, 7 );
+		final List< Interval > planeChunks = StorageChunks.chunkIndices( planarImg, 3 );
+		assertCoversRange( planeChunks, planarImg.size() );
+		for ( final Interval chunk : planeChunks )
+			assertEquals( 0, chunk.min( 0 ) % 100 );
+
+		assertCoversRange( StorageChunks.chunkIndices( ArrayImgs.ints( 10, 10, 7 ), 3 ), 700 );
+	}
+
+	@Test
+	public void testLoopBuilderOnCellImg()
+	{
+		cellImg.forEach( t -> t.set( 1 ) );
+		try ( final TaskExecutor taskExecutor = TaskExecutors.numThreads( 4 ) )
+		{
+			final List< LongType > sums = LoopBuilder.setImages( cellImg ).multiThreaded( taskExecutor ).forEachChunk( chunk -> {
+				final LongType sum = new LongType();
+				chunk.forEachPixel( t -> sum.inc() );
+				return sum;
+			} );
+			assertTrue( sums.size() > 1 );
+			long total = 0;
+			for ( final LongType sum : sums )
+				total += sum.get();
+			assertEquals( cellImg.size(), total );
+		}
+	}
+
+	private static void assertCoversRange( final List< Interval > chunks, final long size )
+	{
+		long start = 0;
+		for ( final Interval chunk : chunks )
+		{
+			assertEquals( start, chunk.min( 0 ) );
+			assertTrue( chunk.dimension( 0 ) > 0 );
+			start = chunk.max( 0 ) + 1;
+		}
+		assertEquals( size, start );
+	}
+}
@@ -35,6 +35,7 @@ package net.imglib2.parallel;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -98,6 +99,49 @@ public class DefaultTaskExecutorTest
 		assertEquals( Arrays.asList( 1, 4, 9 ), squared );
 	}
 
+	@Test
+	public void testForEachDynamic()
+	{
+		AtomicInteger sum = new AtomicInteger();
+		List< Integer > parameters = new ArrayList<>();
+		for ( int i = 1; i <= 100; i++ )
+			parameters.add( i );
+		twoThreads.forEachDynamic( parameters, sum::addAndGet );
+		assertEquals( 5050, sum.get() );
+		sequential.forEachDynamic( parameters, sum::addAndGet );
+		assertEquals( 10100, sum.get() );
+	}
+
+	@Test
+	public void testForEachApplyDynamic()
+	{
+		List< Integer > parameters = new ArrayList<>();
+		for ( int i = 0; i < 100; i++ )
+			parameters.add( i );
+		// uneven cost: the first parameters are slow
+		List< Integer > squared = twoThreads.forEachApplyDynamic( parameters, i -> {
+			if ( i < 4 )
+				sleep( 20 );
+			return i * i;
+		} );
+		assertEquals( 100, squared.size() );
+		for ( int i = 0; i < 100; i++ )
+			assertEquals( i * i, ( int ) squared.get( i ) );
+		assertTrue( twoThreads.forEachApplyDynamic( Collections.emptyList(), i -> i ).isEmpty() );
+	}
+
+	private static void sleep( long millis )
+	{
+		try
+		{
+			Thread.sleep( millis );
+		}
+		catch ( InterruptedException e )
+		{
+			throw new RuntimeException( e );
+		}
+	}
+
 	@Test
 	public void testRunAll()
 	{
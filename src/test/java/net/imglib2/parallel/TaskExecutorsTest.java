@@ -35,10 +35,16 @@ package net.imglib2.parallel;
 
 import org.junit.Test;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -99,4 +105,54 @@ public class TaskExecutorsTest
 		assertEquals( 2, executor.getParallelism() );
 		assertEquals( 42, executor.suggestNumberOfTasks() );
 	}
+
+	@Test
+	public void testIoBound() throws InterruptedException
+	{
+		final int numTasks = 64;
+		try ( TaskExecutor compute = TaskExecutors.numThreads( 2 );
+				TaskExecutor executor = TaskExecutors.ioBound( numTasks, compute ) )
+		{
+			assertEquals( numTasks, executor.getParallelism() );
+			// all tasks need to be in flight at the same time to pass the latch
+			final CountDownLatch latch = new CountDownLatch( numTasks );
+			final List< Boolean > results = executor.forEachApply( Collections.nCopies( numTasks, latch ), l -> {
+				assertSame( compute, Parallelization.getTaskExecutor() );
+				l.countDown();
+				try
+				{
+					return l.await( 10, TimeUnit.SECONDS );
+				}
+				catch ( InterruptedException e )
+				{
+					throw new RuntimeException( e );
+				}
+			} );
+			assertEquals( Collections.nCopies( numTasks, true ), results );
+		}
+	}
+
+	@Test
+	public void testIoBoundLimitsConcurrency()
+	{
+		final int maxConcurrency = 4;
+		try ( TaskExecutor executor = TaskExecutors.ioBound( maxConcurrency ) )
+		{
+			final AtomicInteger running = new AtomicInteger();
+			final AtomicInteger maxRunning = new AtomicInteger();
+			executor.forEach( Collections.nCopies( 200, 0 ), i -> {
+				maxRunning.accumulateAndGet( running.incrementAndGet(), Math::max );
+				try
+				{
+					Thread.sleep( 1 );
+				}
+				catch ( InterruptedException e )
+				{
+					throw new RuntimeException( e );
+				}
+				running.decrementAndGet();
+			} );
+			assertTrue( maxRunning.get() <= maxConcurrency );
+		}
+	}
 }
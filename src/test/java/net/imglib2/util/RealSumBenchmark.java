@@ -70,14 +70,38 @@ public class RealSumBenchmark {
 		blackhole.consume(sum.getSum());
 	}
 
+	@Benchmark
+	public static void sumRealSumBulk(Blackhole blackhole, RandomValues values) {
+		RealSum sum = new RealSum();
+		sum.add(values.get());
+		blackhole.consume(sum.getSum());
+	}
+
+	@Benchmark
+	public static void sumRealSumBulkFloat(Blackhole blackhole, RandomValues values) {
+		RealSum sum = new RealSum();
+		sum.add(values.getFloats());
+		blackhole.consume(sum.getSum());
+	}
+
 	@State(Scope.Benchmark)
 	public static class RandomValues {
 		final int N = 10_000_000;
 		final double[] values = DoubleStream.generate(Math::random).limit(N).toArray();
+		final float[] floats = new float[N];
+		{
+			for (int i = 0; i < N; i++) {
+				floats[i] = (float) values[i];
+			}
+		}
 
 		public double[] get() {
 			return values;
 		}
+
+		public float[] getFloats() {
+			return floats;
+		}
 	}
 
 	public static void main(String[] args) throws RunnerException {
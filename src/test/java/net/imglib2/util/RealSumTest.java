@@ -111,4 +111,81 @@ public class RealSumTest
 		}
 		Assert.assertEquals(2.0, sum.getSum(), 0.0001);
 	}
+
+	/**
+	 * Test method for {@link net.imglib2.util.RealSum#add(double[], int, int)}.
+	 */
+	@Test
+	public void testAddArray()
+	{
+		final RealSum sum = new RealSum();
+		sum.add( stream, 0, 7 );
+		sum.add( stream, 7, stream.length - 7 );
+		Assert.assertEquals( referenceSum.doubleValue(), sum.getSum(), 0.0001 );
+
+		final RealSum partial = new RealSum();
+		partial.add( stream, 3, 10 );
+		double expected = 0;
+		for ( int i = 3; i < 13; ++i )
+			expected += stream[ i ];
+		Assert.assertEquals( expected, partial.getSum(), 0.0001 );
+	}
+
+	/**
+	 * Test method for {@link net.imglib2.util.RealSum#add(float[], int, int)}.
+	 */
+	@Test
+	public void testAddFloatArray()
+	{
+		final float[] values = new float[ 1001 ];
+		final RealSum expected = new RealSum();
+		for ( int i = 0; i < values.length; ++i )
+		{
+			values[ i ] = ( float ) stream[ i ];
+			expected.add( values[ i ] );
+		}
+		final RealSum sum = new RealSum();
+		sum.add( values );
+		Assert.assertEquals( expected.getSum(), sum.getSum(), 0.0 );
+	}
+
+	/**
+	 * Test method for {@link net.imglib2.util.RealSum#add(double[])} on the
+	 * hard example, once with all values summed by the same and once by
+	 * different independent accumulators.
+	 */
+	@Test
+	public void testHardExampleArray()
+	{
+		final RealSum sum = new RealSum();
+		sum.add( new double[] { 1.0, 1.0e100, 1.0, -1.0e100 } );
+		Assert.assertEquals( 2.0, sum.getSum(), 0.0001 );
+
+		final RealSum sameLane = new RealSum();
+		sameLane.add( new double[] { 1.0, 0, 0, 0, 1.0e100, 0, 0, 0, 1.0, 0, 0, 0, -1.0e100, 0, 0, 0 } );
+		Assert.assertEquals( 2.0, sameLane.getSum(), 0.0001 );
+	}
+
+	/**
+	 * Test method for {@link net.imglib2.util.RealSum#add(RealSum)}.
+	 */
+	@Test
+	public void testAddRealSum()
+	{
+		final RealSum a = new RealSum();
+		final RealSum b = new RealSum();
+		a.add( stream, 0, stream.length / 2 );
+		b.add( stream, stream.length / 2, stream.length - stream.length / 2 );
+		a.add( b );
+		Assert.assertEquals( referenceSum.doubleValue(), a.getSum(), 0.0001 );
+
+		final RealSum hard = new RealSum();
+		hard.add( 1.0 );
+		hard.add( 1.0e100 );
+		final RealSum other = new RealSum();
+		other.add( 1.0 );
+		other.add( -1.0e100 );
+		hard.add( other );
+		Assert.assertEquals( 2.0, hard.getSum(), 0.0001 );
+	}
 }